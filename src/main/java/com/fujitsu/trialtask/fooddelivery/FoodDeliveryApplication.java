@@ -2,12 +2,14 @@ package com.fujitsu.trialtask.fooddelivery;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The main class for the Food Delivery Application.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableScheduling
 class FoodDeliveryApplication {
     /**
@@ -0,0 +1,70 @@
+package com.fujitsu.trialtask.fooddelivery.cache;
+
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+
+/**
+ * Configuration of the Hibernate second-level and query cache, which keeps the rarely written fees
+ * ({@link RegionalFee} and {@link WeatherFee}) in memory, so the fee endpoints don't query the database for fees
+ * they have already loaded. The fee calculation itself reads the published fee configuration snapshot.
+ * <p>
+ * The cache regions are held by a JCache (Ehcache) cache manager created for this application context.
+ * JCache shares cache managers by URI across the whole JVM, so a shared one would mix up the entities of
+ * application contexts backed by different databases (as in the tests).
+ */
+@Configuration
+class HibernateCacheConfiguration {
+    private final long entityCacheSize;
+    private final long queryCacheSize;
+
+    public HibernateCacheConfiguration(@Value("${fee-cache.entity-cache-size:1000}") long entityCacheSize,
+                                       @Value("${fee-cache.query-cache-size:1000}") long queryCacheSize) {
+        this.entityCacheSize = entityCacheSize;
+        this.queryCacheSize = queryCacheSize;
+    }
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager() {
+        EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(RegionalFee.class.getName(), heapCache(entityCacheSize))
+                .withCache(WeatherFee.class.getName(), heapCache(entityCacheSize))
+                .withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, heapCache(queryCacheSize))
+                // The update timestamps hold one entry per table and must never be evicted, otherwise cached
+                // query results could outlive a write to their tables, so their region is unbounded
+                .withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, heapCache(Long.MAX_VALUE));
+
+        URI uri = URI.create("urn:food-delivery:hibernate-cache:" + UUID.randomUUID());
+        return provider.getCacheManager(uri, configuration.build());
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CacheConfiguration<Object, Object> heapCache(long entries) {
+        return CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entries))
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Component dropping the check constraint that restricts the change counters to the topics known when their table
+ * was created.
+ * <p>
+ * The schema is only ever updated, never recreated, so the constraint of a database created before a topic was added
+ * rejects the first change of that topic. It is dropped while the application starts, after the schema update and
+ * before any change is announced.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ChangeTopicConstraint {
+    private static final Logger log = LoggerFactory.getLogger(ChangeTopicConstraint.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ChangeTopicConstraint(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Drops the check constraints of the change counter table that don't allow every topic.
+     */
+    @PostConstruct
+    public void drop() {
+        List<String[]> constraints = jdbcTemplate.query(
+                "SELECT c.CONSTRAINT_NAME, c.CHECK_CLAUSE FROM INFORMATION_SCHEMA.CHECK_CONSTRAINTS c "
+                        + "JOIN INFORMATION_SCHEMA.TABLE_CONSTRAINTS t ON t.CONSTRAINT_NAME = c.CONSTRAINT_NAME "
+                        + "WHERE UPPER(t.TABLE_NAME) = 'CHANGE_VERSION'",
+                (row, index) -> new String[]{row.getString(1), row.getString(2)});
+        for (String[] constraint : constraints) {
+            if (!allowsEveryTopic(constraint[1])) {
+                jdbcTemplate.execute("ALTER TABLE change_version DROP CONSTRAINT \"" + constraint[0] + "\"");
+                log.info("Dropped the outdated check constraint {} of the change counters", constraint[0]);
+            }
+        }
+    }
+
+    private static boolean allowsEveryTopic(String checkClause) {
+        return Arrays.stream(ChangeTopic.values()).allMatch(topic -> checkClause.contains("'" + topic.name() + "'"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+
+/**
+ * Entity class representing the change counter of a topic, shared by all application nodes through the database.
+ * A node increments the counter after every change it makes, so the other nodes can detect the change by polling it.
+ */
+@Entity
+public class ChangeVersion {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private ChangeTopic topic;
+
+    private long version;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ChangeVersion() {
+    }
+
+    /**
+     * Constructs a new ChangeVersion.
+     *
+     * @param topic   the topic of the counter
+     * @param version the number of changes of the topic
+     */
+    public ChangeVersion(ChangeTopic topic, long version) {
+        this.topic = topic;
+        this.version = version;
+    }
+
+    public ChangeTopic getTopic() {
+        return topic;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeVersion{" +
+                "topic=" + topic +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for the change counters shared by the application nodes.
+ */
+@Repository
+interface ChangeVersionRepository extends CrudRepository<ChangeVersion, ChangeTopic> {
+    /**
+     * Increments the change counter of the topic in the database, without reading it first,
+     * so concurrent increments by different nodes are never lost.
+     *
+     * @param topic the topic whose counter to increment
+     *
+     * @return the number of updated rows, 0 if the counter of the topic doesn't exist yet
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ChangeVersion c SET c.version = c.version + 1 WHERE c.topic = :topic")
+    int increment(@Param("topic") ChangeTopic topic);
+
+    /**
+     * Creates the change counter of the topic with its first change counted.
+     *
+     * @param topic the name of the topic whose counter to create
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the counter of the topic already exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO change_version (topic, version) VALUES (:topic, 1)", nativeQuery = true)
+    void create(@Param("topic") String topic);
+}
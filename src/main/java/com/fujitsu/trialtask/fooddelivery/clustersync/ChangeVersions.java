@@ -0,0 +1,153 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * Service class detecting changes made by other application nodes sharing the database.
+ * <p>
+ * Every topic has a change counter in the database. A node increments the counter of a topic after each change it
+ * makes, and every node polls the counters at the configured interval. A counter that differs from the value the node
+ * last saw means another node has changed the topic, which is announced with a {@link RemoteChangeEvent}, so the
+ * node's in-memory snapshots are refreshed at most one poll interval (plus the refresh itself) after the change.
+ * Polling reads one row per topic by primary key, so it is cheap enough to run every few seconds.
+ * <p>
+ * A node only skips its own increment if no other node's increment came in between, so a remote change is never
+ * mistaken for a local one.
+ */
+@Service
+public class ChangeVersions {
+    private static final Logger log = LoggerFactory.getLogger(ChangeVersions.class);
+    private final ChangeVersionRepository changeVersionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskScheduler taskScheduler;
+    private final ClusterSyncProperties properties;
+    // Guarded by this; null until the first poll
+    private Map<ChangeTopic, Long> seen;
+
+    @Autowired
+    public ChangeVersions(ChangeVersionRepository changeVersionRepository,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher,
+                          TaskScheduler taskScheduler,
+                          ClusterSyncProperties properties) {
+        this.changeVersionRepository = changeVersionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The change is already committed, so the increment must not join (or be rolled back with) another transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.properties = properties;
+    }
+
+    /**
+     * Starts polling the change counters once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::poll, properties.pollInterval());
+    }
+
+    /**
+     * Announces a committed change of the topic to the other nodes.
+     * A failure is only logged, since the change itself has already been made.
+     *
+     * @param topic the changed topic
+     *
+     * @return the value of the change counter after the change, or 0 if it could not be incremented
+     */
+    public long bump(ChangeTopic topic) {
+        try {
+            long version = transactionTemplate.execute(status -> increment(topic));
+            synchronized (this) {
+                if (seen != null && seen.get(topic) == version - 1) {
+                    seen.put(topic, version);
+                }
+            }
+            log.debug("Announced change {} of {}", version, topic);
+            return version;
+        } catch (DataAccessException e) {
+            log.error("Failed to announce a change of {} to the other nodes", topic, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the change counter of the topic from the database.
+     *
+     * @param topic the topic
+     *
+     * @return the number of changes of the topic announced so far
+     */
+    public long read(ChangeTopic topic) {
+        return changeVersionRepository.findById(topic).map(ChangeVersion::getVersion).orElse(0L);
+    }
+
+    /**
+     * Reads the change counters and publishes a {@link RemoteChangeEvent} for every topic changed by another node
+     * since the previous poll. The first poll only records the counters.
+     */
+    public void poll() {
+        Map<ChangeTopic, Long> changed = new EnumMap<>(ChangeTopic.class);
+        try {
+            Map<ChangeTopic, Long> versions = readVersions();
+            synchronized (this) {
+                if (seen != null) {
+                    versions.forEach((topic, version) -> {
+                        if (!version.equals(seen.get(topic))) {
+                            changed.put(topic, version);
+                        }
+                    });
+                }
+                seen = versions;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to poll the change counters", e);
+            return;
+        }
+
+        changed.forEach((topic, version) -> {
+            log.info("Detected change {} of {} made by another node", version, topic);
+            eventPublisher.publishEvent(new RemoteChangeEvent(topic, version));
+        });
+    }
+
+    private long increment(ChangeTopic topic) {
+        if (changeVersionRepository.increment(topic) == 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> changeVersionRepository.create(topic.name()));
+                return 1;
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the counter first
+                changeVersionRepository.increment(topic);
+            }
+        }
+        return changeVersionRepository.findById(topic).map(ChangeVersion::getVersion).orElseThrow();
+    }
+
+    private Map<ChangeTopic, Long> readVersions() {
+        Map<ChangeTopic, Long> versions = new EnumMap<>(ChangeTopic.class);
+        for (ChangeTopic topic : ChangeTopic.values()) {
+            versions.put(topic, 0L);
+        }
+        changeVersionRepository.findAll().forEach(version -> versions.put(version.getTopic(), version.getVersion()));
+        return versions;
+    }
+}
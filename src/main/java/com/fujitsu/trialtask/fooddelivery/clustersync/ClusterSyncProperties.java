@@ -0,0 +1,22 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the coordination between application nodes sharing a database.
+ *
+ * @param pollInterval  the delay between two polls of the change counters, which bounds how long another node's
+ *                      change goes unnoticed
+ * @param nodeId        the name of this node in the lease locks, generated if blank
+ * @param leaseDuration how long the leadership lasts without being renewed; the leader renews it every third of the
+ *                      duration, so another node takes over within about this long after the leader dies
+ */
+@ConfigurationProperties("cluster-sync")
+record ClusterSyncProperties(
+        @DefaultValue("2s") Duration pollInterval,
+        @DefaultValue("") String nodeId,
+        @DefaultValue("15s") Duration leaseDuration) {
+}
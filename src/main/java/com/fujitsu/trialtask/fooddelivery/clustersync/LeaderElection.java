@@ -0,0 +1,186 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.exceptions.LeaseLostException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+
+/**
+ * Service class electing the node that runs the scheduled jobs, among the application nodes sharing the database.
+ * <p>
+ * The leader holds a lease lock in the database, which it renews every third of the lease duration. When the leader
+ * dies, its lease expires and the next node trying to acquire the lock takes over, so a new leader is elected within
+ * about one lease duration; a node shutting down gives the leadership up right away. Every time the lock changes hands, its fencing token is incremented.
+ * <p>
+ * Writes made by the leader are fenced: they run in a transaction that first renews the lease with the fencing token
+ * it was acquired with. If another node has taken over in the meantime (e.g. after a long pause of the old leader),
+ * the renewal fails and the writes are rolled back. The renewal locks the lock row until the transaction ends, so the
+ * lock can't change hands while the writes are in progress.
+ */
+@Service
+public class LeaderElection {
+    static final String LOCK_NAME = "scheduled-jobs";
+    private static final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+    private final LeaseLockRepository leaseLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final String nodeId;
+    private final Duration leaseDuration;
+    private final Clock clock;
+    private volatile Lease lease;
+
+    @Autowired
+    public LeaderElection(LeaseLockRepository leaseLockRepository,
+                          PlatformTransactionManager transactionManager,
+                          TaskScheduler taskScheduler,
+                          ClusterSyncProperties properties) {
+        this(leaseLockRepository, transactionManager, taskScheduler, properties, Clock.systemUTC());
+    }
+
+    LeaderElection(LeaseLockRepository leaseLockRepository,
+                   PlatformTransactionManager transactionManager,
+                   TaskScheduler taskScheduler,
+                   ClusterSyncProperties properties,
+                   Clock clock) {
+        this.leaseLockRepository = leaseLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.nodeId = properties.nodeId().isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : properties.nodeId();
+        this.leaseDuration = properties.leaseDuration();
+        this.clock = clock;
+    }
+
+    /**
+     * Starts renewing (or trying to acquire) the leadership once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::acquire, leaseDuration.dividedBy(3));
+    }
+
+    /**
+     * Acquires the leadership, or renews it if this node is already the leader.
+     *
+     * @return the lease of this node, or null if another node is the leader
+     */
+    public Lease acquire() {
+        Lease acquired;
+        try {
+            acquired = tryAcquire();
+        } catch (DataAccessException e) {
+            // E.g. a lock timeout while the leader is writing
+            log.debug("Failed to acquire the leadership", e);
+            acquired = null;
+        }
+
+        Lease previous = lease;
+        lease = acquired;
+        if (acquired != null && (previous == null || previous.token() != acquired.token())) {
+            log.info("Node {} is now the leader (fencing token {})", nodeId, acquired.token());
+        } else if (acquired == null && previous != null) {
+            log.warn("Node {} is no longer the leader", nodeId);
+        }
+        return acquired;
+    }
+
+    /**
+     * Checks whether this node held the leadership at its last attempt to acquire or renew it, without querying the
+     * database. Meant for frequent checks; writes that must not be made by a former leader have to be fenced.
+     *
+     * @return true if this node is the leader
+     */
+    public boolean isLeader() {
+        return lease != null;
+    }
+
+    /**
+     * Gives the leadership up on shutdown by letting the lease expire now, so another node takes over at its next
+     * attempt instead of waiting for the lease to run out.
+     */
+    @PreDestroy
+    public void release() {
+        Lease current = lease;
+        if (current == null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    leaseLockRepository.renew(LOCK_NAME, nodeId, current.token(), clock.instant()));
+            lease = null;
+            log.info("Node {} gave the leadership up", nodeId);
+        } catch (DataAccessException e) {
+            log.warn("Failed to give the leadership up", e);
+        }
+    }
+
+    /**
+     * Runs the work in a transaction fenced by the lease: the lease is renewed first, and if it has passed to another
+     * node, the work is not run.
+     *
+     * @param lease the lease acquired by this node
+     * @param work  the writes to make as the leader
+     *
+     * @return the result of the work
+     * @throws LeaseLostException if another node has taken the leadership over since the lease was acquired
+     */
+    public <T> T runFenced(Lease lease, Supplier<T> work) {
+        return transactionTemplate.execute(status -> {
+            if (leaseLockRepository.renew(LOCK_NAME, nodeId, lease.token(), clock.instant().plus(leaseDuration)) == 0) {
+                throw new LeaseLostException("Node " + nodeId + " lost the leadership with fencing token " + lease.token());
+            }
+            return work.get();
+        });
+    }
+
+    private Lease tryAcquire() {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(leaseDuration);
+        int acquired = transactionTemplate.execute(status ->
+                leaseLockRepository.acquire(LOCK_NAME, nodeId, now, expiresAt));
+
+        if (acquired == 0) {
+            if (leaseLockRepository.existsById(LOCK_NAME)) {
+                return null;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        leaseLockRepository.create(LOCK_NAME, nodeId, expiresAt));
+            } catch (DataIntegrityViolationException e) {
+                // The lock was created concurrently, possibly by this node, which the owner check below tells
+                log.debug("The lock {} has already been created", LOCK_NAME);
+            }
+        }
+
+        return leaseLockRepository.findById(LOCK_NAME)
+                .filter(lock -> lock.getOwner().equals(nodeId))
+                .map(lock -> new Lease(lock.getToken()))
+                .orElse(null);
+    }
+
+    /**
+     * The leadership held by this node.
+     *
+     * @param token the fencing token the leadership was acquired with
+     */
+    public record Lease(long token) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a lock shared by the application nodes through the database, held by one node at a time
+ * until its lease expires.
+ * <p>
+ * The fencing token is incremented whenever the lock changes hands, so a node can tell whether it still holds the
+ * lease it acquired, and writes made under a lost lease can be rejected.
+ */
+@Entity
+public class LeaseLock {
+    @Id
+    private String name;
+
+    private String owner;
+    private long token;
+    private Instant expiresAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public LeaseLock() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaseLock{" +
+                "name='" + name + '\'' +
+                ", owner='" + owner + '\'' +
+                ", token=" + token +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository interface for the lease locks shared by the application nodes.
+ */
+@Repository
+interface LeaseLockRepository extends CrudRepository<LeaseLock, String> {
+    /**
+     * Acquires or renews the lease of the lock in a single conditional update: it succeeds if the node already holds
+     * the lock or the lease of the previous holder has expired. The fencing token is incremented if the lock changes
+     * hands.
+     *
+     * @param name      the name of the lock
+     * @param owner     the node acquiring the lock
+     * @param now       the current time
+     * @param expiresAt the end of the new lease
+     *
+     * @return 1 if the node holds the lock now, otherwise 0 (also if the lock doesn't exist yet)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE LeaseLock l SET l.token = CASE WHEN l.owner = :owner THEN l.token ELSE l.token + 1 END, "
+            + "l.owner = :owner, l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt <= :now)")
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") Instant now,
+                @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Renews the lease of the lock if the node still holds it with the specified fencing token.
+     * Until the surrounding transaction ends, the lock row stays locked, so no other node can take the lock over.
+     *
+     * @param name      the name of the lock
+     * @param owner     the node holding the lock
+     * @param token     the fencing token of the lease
+     * @param expiresAt the end of the renewed lease
+     *
+     * @return 1 if the lease is still held, otherwise 0
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE LeaseLock l SET l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND l.owner = :owner AND l.token = :token")
+    int renew(@Param("name") String name,
+              @Param("owner") String owner,
+              @Param("token") long token,
+              @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Creates the lock, held by the specified node with the first fencing token.
+     *
+     * @param name      the name of the lock
+     * @param owner     the node holding the lock
+     * @param expiresAt the end of the lease
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the lock already exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lease_lock (name, owner, token, expires_at) VALUES (:name, :owner, 1, :expiresAt)",
+            nativeQuery = true)
+    void create(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+}
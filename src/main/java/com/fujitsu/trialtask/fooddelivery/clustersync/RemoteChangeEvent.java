@@ -0,0 +1,14 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+
+
+/**
+ * Application event published when another application node has changed the data of a topic,
+ * on the thread polling the change counters.
+ *
+ * @param topic   the changed topic
+ * @param version the change counter of the topic after the change
+ */
+public record RemoteChangeEvent(ChangeTopic topic, long version) {
+}
@@ -2,18 +2,27 @@ package com.fujitsu.trialtask.fooddelivery.delivery;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.UnavailableVehicleException;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
 import com.fujitsu.trialtask.fooddelivery.helpers.EnumConverter;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * This class represents the delivery fee calculation API controller for the food delivery application.
- * It provides an HTTP endpoint for calculating the delivery fee for a given city and vehicle type.
+ * It provides an HTTP endpoint for calculating the delivery fee for a given city and vehicle type,
+ * one for the development of that fee over the stored weather history, and one waiting for that fee to change.
  * The controller takes the city and vehicle type as input, validates them and returns a fee message or an error message.
  */
 @RestController
@@ -21,10 +30,19 @@ import java.util.Map;
 class DeliveryController {
 
     private final DeliveryFeeCalculator deliveryFeeCalculator;
+    private final DeliveryFeeHistory deliveryFeeHistory;
+    private final DeliveryFeeWatcher deliveryFeeWatcher;
+    private final EntityListing entityListing;
 
     @Autowired
-    public DeliveryController(DeliveryFeeCalculator deliveryFeeCalculator) {
+    public DeliveryController(DeliveryFeeCalculator deliveryFeeCalculator,
+                              DeliveryFeeHistory deliveryFeeHistory,
+                              DeliveryFeeWatcher deliveryFeeWatcher,
+                              EntityListing entityListing) {
         this.deliveryFeeCalculator = deliveryFeeCalculator;
+        this.deliveryFeeHistory = deliveryFeeHistory;
+        this.deliveryFeeWatcher = deliveryFeeWatcher;
+        this.entityListing = entityListing;
     }
 
     /**
@@ -41,16 +59,8 @@ class DeliveryController {
             @PathVariable("city") String cityName,
             @RequestParam("vehicle") String vehicleName) {
 
-        City city = EnumConverter.convertStringToEnum(cityName, City.class);
-        Vehicle vehicle = EnumConverter.convertStringToEnum(vehicleName, Vehicle.class);
-
-        if (city == null) {
-            throw new EntityNotFoundException("City not found");
-        }
-
-        if (vehicle == null) {
-            throw new EntityNotFoundException("Vehicle not found");
-        }
+        City city = convertCity(cityName);
+        Vehicle vehicle = convertVehicle(vehicleName);
 
         float fee = deliveryFeeCalculator.calculate(city, vehicle);
 
@@ -61,5 +71,78 @@ class DeliveryController {
 
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Streams the delivery fee of the specified city and vehicle type over a range of the stored weather history,
+     * calculated with the current fees and aggregated into periods of the specified step, as NDJSON.
+     *
+     * @param cityName    the name of the city for delivery
+     * @param vehicleName the name of the vehicle type for delivery
+     * @param from        the start of the range (inclusive)
+     * @param to          the end of the range (exclusive)
+     * @param step        the length of the periods, e.g. 1h, 1d or PT15M
+     *
+     * @return ResponseEntity streaming the fees of every period with weather data, from the oldest
+     * @throws EntityNotFoundException     if the provided city or vehicle type is not found
+     * @throws UnavailableVehicleException if the selected vehicle type is not available in the specified city
+     * @throws InvalidRequestException     if the range is empty or the step is invalid
+     */
+    @GetMapping(value = "/{city}/history", produces = EntityListing.NDJSON)
+    public ResponseEntity<StreamingResponseBody> getDeliveryFeeHistory(
+            @PathVariable("city") String cityName,
+            @RequestParam("vehicle") String vehicleName,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to,
+            @RequestParam(value = "step", defaultValue = "1h") String step) {
+
+        DeliveryFeeHistory.Series series = deliveryFeeHistory.series(
+                convertCity(cityName), convertVehicle(vehicleName), from, to, convertStep(step));
+        return entityListing.streamValues(series::forEach);
+    }
+
+    /**
+     * Long-polls the delivery fee of the specified city and vehicle type: the request is held, without holding
+     * a thread, until the fee or the availability of the vehicle type changes past the version the client has seen,
+     * or the timeout expires.
+     *
+     * @param cityName    the name of the city for delivery
+     * @param vehicleName the name of the vehicle type for delivery
+     * @param since       the version of the last response the client has seen (optional)
+     *
+     * @return the outcome of the fee calculation, with its version, and HTTP status 200 OK once changed;
+     * HTTP status 304 Not Modified on timeout
+     * @throws EntityNotFoundException if the provided city or vehicle type is not found
+     */
+    @GetMapping(value = "/{city}/watch", produces = "application/json")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> watchDeliveryFee(
+            @PathVariable("city") String cityName,
+            @RequestParam("vehicle") String vehicleName,
+            @RequestParam(value = "since", required = false) Long since) {
+
+        return deliveryFeeWatcher.watch(convertCity(cityName), convertVehicle(vehicleName), since);
+    }
+
+    private static City convertCity(String cityName) {
+        City city = EnumConverter.convertStringToEnum(cityName, City.class);
+        if (city == null) {
+            throw new EntityNotFoundException("City not found");
+        }
+        return city;
+    }
+
+    private static Vehicle convertVehicle(String vehicleName) {
+        Vehicle vehicle = EnumConverter.convertStringToEnum(vehicleName, Vehicle.class);
+        if (vehicle == null) {
+            throw new EntityNotFoundException("Vehicle not found");
+        }
+        return vehicle;
+    }
+
+    private static Duration convertStep(String step) {
+        try {
+            return DurationStyle.detectAndParse(step);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid step: " + step);
+        }
+    }
+}
@@ -2,48 +2,66 @@ package com.fujitsu.trialtask.fooddelivery.delivery;
 
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.StaleWeatherPolicy;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
 import com.fujitsu.trialtask.fooddelivery.exceptions.ForbiddenVehicleException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.StaleWeatherDataException;
 import com.fujitsu.trialtask.fooddelivery.exceptions.UnavailableVehicleException;
-import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
-import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.EffectiveFees;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
-import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
-import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
 
 /**
  * This class calculates the delivery fee based on the city, vehicle type and weather condition.
+ * The fees are read from the currently published {@link FeeConfiguration}, so a calculation always uses
+ * a single, complete version of the fee configuration, and only the fees of it that are in effect at the moment.
+ * If the latest weather data of the city is older than the configured maximum age, the weather fee is calculated
+ * according to the configured {@link StaleWeatherPolicy}.
  */
 @Component
 class DeliveryFeeCalculator {
     private static final String VEHICLE_FORBIDDEN_DETAIL = "Usage of selected vehicle type (%s) is forbidden due to current weather conditions (%s)";
     private static final String VEHICLE_UNAVAILABLE_DETAIL = "The selected vehicle type (%s) is not available in the specified city (%s)";
-    private final WeatherDataRepository weatherDataRepository;
-    private final RegionalFeeRepository regionalFeeRepository;
-    private final WeatherFeeRepository weatherFeeRepository;
+    private static final String STALE_WEATHER_DETAIL = "No weather data newer than %s is available for the specified city (%s)";
+    private final LatestWeatherData latestWeatherData;
+    private final FeeConfigurationService feeConfigurationService;
+    private final WeatherStalenessProperties stalenessProperties;
+    private final Clock clock;
 
     /**
-     * Constructs a new {@code DeliveryFeeCalculator} instance with the specified repositories.
+     * Constructs a new {@code DeliveryFeeCalculator} instance with the specified fee configuration.
      *
-     * @param weatherDataRepository the repository for weather data
-     * @param regionalFeeRepository the repository for regional fees
-     * @param weatherFeeRepository  the repository for weather fees
+     * @param latestWeatherData       the latest weather data of every city
+     * @param feeConfigurationService the service publishing the fee configuration
+     * @param stalenessProperties     the maximum age of the weather data and the policy applied once it is exceeded
      */
     @Autowired
-    public DeliveryFeeCalculator(WeatherDataRepository weatherDataRepository,
-                                 RegionalFeeRepository regionalFeeRepository,
-                                 WeatherFeeRepository weatherFeeRepository) {
-        this.weatherDataRepository = weatherDataRepository;
-        this.regionalFeeRepository = regionalFeeRepository;
-        this.weatherFeeRepository = weatherFeeRepository;
+    public DeliveryFeeCalculator(LatestWeatherData latestWeatherData,
+                                 FeeConfigurationService feeConfigurationService,
+                                 WeatherStalenessProperties stalenessProperties) {
+        this(latestWeatherData, feeConfigurationService, stalenessProperties, Clock.systemUTC());
+    }
+
+    DeliveryFeeCalculator(LatestWeatherData latestWeatherData,
+                          FeeConfigurationService feeConfigurationService,
+                          WeatherStalenessProperties stalenessProperties,
+                          Clock clock) {
+        this.latestWeatherData = latestWeatherData;
+        this.feeConfigurationService = feeConfigurationService;
+        this.stalenessProperties = stalenessProperties;
+        this.clock = clock;
     }
 
     /**
@@ -55,38 +73,80 @@ class DeliveryFeeCalculator {
      * @return the calculated delivery fee
      * @throws UnavailableVehicleException if the selected vehicle type is not available in the specified city
      * @throws ForbiddenVehicleException   if the selected vehicle type is forbidden due to current weather conditions
+     * @throws StaleWeatherDataException   if the weather data is outdated and the policy is to reject the calculation
      */
     public float calculate(City city, Vehicle vehicle) {
-        RegionalFee regionalFee = regionalFeeRepository.findByCityAndVehicle(city, vehicle);
+        return calculate(city, vehicle, inputsOf(city));
+    }
+
+    /**
+     * Reads the inputs of the calculation for the specified city as they are now: the fees in effect and the latest
+     * weather data.
+     *
+     * @param city the city for delivery
+     *
+     * @return the inputs of the calculation
+     */
+    Inputs inputsOf(City city) {
+        FeeConfiguration configuration = feeConfigurationService.current();
+        Instant now = clock.instant();
+        WeatherData weatherData = latestWeatherData.get(city);
+        return new Inputs(configuration, configuration.effectiveAt(now), weatherData, isStale(city, weatherData, now));
+    }
+
+    /**
+     * Calculates the total delivery fee from inputs read before.
+     *
+     * @param city    the city for delivery
+     * @param vehicle the type of vehicle for delivery
+     * @param inputs  the inputs of the calculation for the city
+     *
+     * @return the calculated delivery fee
+     * @throws UnavailableVehicleException if the selected vehicle type is not available in the specified city
+     * @throws ForbiddenVehicleException   if the selected vehicle type is forbidden due to current weather conditions
+     * @throws StaleWeatherDataException   if the weather data is outdated and the policy is to reject the calculation
+     */
+    float calculate(City city, Vehicle vehicle, Inputs inputs) {
+        EffectiveFees effectiveFees = inputs.effectiveFees();
+        Float regionalFee = effectiveFees.regionalFeeOf(city, vehicle);
         // Presume that the vehicle is unavailable if the regional fee is not found
         if (regionalFee == null) {
             throw new UnavailableVehicleException(VEHICLE_UNAVAILABLE_DETAIL.formatted(vehicle, city));
         }
-        float totalFee = regionalFee.getFee() + calculateTotalWeatherFee(city, vehicle);
+        float totalFee = regionalFee + calculateTotalWeatherFee(city, effectiveFees.weatherFeesOf(vehicle), inputs);
         return Math.round(totalFee * 100) / 100.0f;
     }
 
-    private float calculateTotalWeatherFee(City city, Vehicle vehicle) {
-        WeatherData latestWeatherData = weatherDataRepository.findFirstByCityOrderByTimestampDesc(city);
+    private float calculateTotalWeatherFee(City city, List<WeatherFee> weatherFees, Inputs inputs) {
+        WeatherData latestWeatherData = inputs.weatherData();
         double[] maxFees = new double[WeatherCondition.values().length];
-        List<WeatherFee> weatherFees = weatherFeeRepository.findAllByVehicle(vehicle);
+
+        if (inputs.stale()) {
+            switch (stalenessProperties.policy()) {
+                case WORST_CASE -> {
+                    return calculateWorstCaseWeatherFee(weatherFees);
+                }
+                case REJECT -> throw new StaleWeatherDataException(
+                        STALE_WEATHER_DETAIL.formatted(stalenessProperties.maxAgeOf(city), city));
+                case LAST_KNOWN -> {
+                    // Fall through to the latest known weather data
+                }
+            }
+        }
 
         if (latestWeatherData == null) {
             return 0;
         }
 
-        Float airTemperature = latestWeatherData.getAirTemperature();
-        Float windSpeed = latestWeatherData.getWindSpeed();
+        float[] values = latestWeatherData.numericValues();
         String phenomenon = latestWeatherData.getPhenomenon();
 
         for (WeatherFee weatherFee : weatherFees) {
             WeatherCondition condition = weatherFee.getCondition();
 
-            boolean applies = switch (condition) {
-                case AIR_TEMPERATURE -> weatherFee.appliesTo(airTemperature);
-                case WIND_SPEED -> weatherFee.appliesTo(windSpeed);
-                case PHENOMENON -> weatherFee.appliesTo(phenomenon);
-            };
+            boolean applies = condition.isNumeric()
+                    ? weatherFee.appliesTo(values[condition.numericIndex()])
+                    : weatherFee.appliesTo(phenomenon);
 
             if (applies) {
                 int ordinal = condition.ordinal();
@@ -99,6 +159,31 @@ class DeliveryFeeCalculator {
         return (float) Arrays.stream(maxFees).sum();
     }
 
+    private boolean isStale(City city, WeatherData weatherData, Instant now) {
+        if (weatherData == null) {
+            return true;
+        }
+        long ageSeconds = now.getEpochSecond() - weatherData.getTimestamp();
+        return ageSeconds > stalenessProperties.maxAgeOf(city).toSeconds();
+    }
+
+    /**
+     * Calculates the weather fee as if the worst weather were in effect: the highest fee of every weather condition.
+     * Rules that forbid the vehicle are not applied, since it is unknown whether their conditions are met.
+     */
+    private float calculateWorstCaseWeatherFee(List<WeatherFee> weatherFees) {
+        double[] maxFees = new double[WeatherCondition.values().length];
+
+        for (WeatherFee weatherFee : weatherFees) {
+            if (weatherFee.getFee() != null) {
+                int ordinal = weatherFee.getCondition().ordinal();
+                maxFees[ordinal] = Math.max(maxFees[ordinal], weatherFee.getFee());
+            }
+        }
+
+        return (float) Arrays.stream(maxFees).sum();
+    }
+
     private float applyFee(WeatherFee weatherFee, WeatherData weatherData) {
         if (weatherFee.getFee() != null) {
             return weatherFee.getFee();
@@ -112,10 +197,41 @@ class DeliveryFeeCalculator {
     }
 
     private String getWeatherConditionMessage(WeatherCondition condition, WeatherData weatherData) {
-        return switch (condition) {
-            case WIND_SPEED -> String.format("wind speed: %.1f m/s", weatherData.getWindSpeed());
-            case AIR_TEMPERATURE -> String.format("air temperature: %.1f °C", weatherData.getAirTemperature());
-            case PHENOMENON -> String.format("phenomenon: %s", weatherData.getPhenomenon());
-        };
+        return condition.isNumeric()
+                ? condition.describe(weatherData.getValue(condition))
+                : condition.describe(weatherData.getPhenomenon());
+    }
+
+    /**
+     * The inputs of a delivery fee calculation in a city, read at one instant.
+     * <p>
+     * Every input is shared by the nodes sharing the database: the fee configuration is identified by the number of
+     * fee changes announced to the cluster, the fees in effect by the start of their interval, and the weather data by
+     * its timestamp. So {@link #version()} is the same on every node that calculates from the same inputs, and it
+     * grows whenever an input changes: a fee change, a fee coming into effect, newer weather data, or the weather data
+     * getting stale.
+     *
+     * @param configuration the published fee configuration
+     * @param effectiveFees the fees of the configuration in effect
+     * @param weatherData   the latest weather data of the city, or null if there is none
+     * @param stale         whether the weather data is older than the maximum age
+     */
+    record Inputs(FeeConfiguration configuration, EffectiveFees effectiveFees, WeatherData weatherData, boolean stale) {
+        // Bits of the version below the fee changes: the sum of two epoch seconds (good until 2106) and the staleness
+        private static final int FEE_CHANGE_SHIFT = 35;
+
+        /**
+         * Computes the version of the inputs. Versions compare in the order of the fee changes first, then of the
+         * time the fees came into effect plus the time of the weather data, and then fresh before stale.
+         *
+         * @return the version of the inputs
+         */
+        long version() {
+            long effectiveSince = effectiveFees.getValidFrom() == null ? 0 : effectiveFees.getValidFrom().getEpochSecond();
+            long observedAt = weatherData == null ? 0 : weatherData.getTimestamp();
+            return (configuration.getChangeVersion() << FEE_CHANGE_SHIFT)
+                    | ((effectiveSince + observedAt) << 1)
+                    | (stale ? 1 : 0);
+        }
     }
 }
@@ -0,0 +1,12 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+
+/**
+ * Application event published by the {@link DeliveryFeeMatrix} after the outcome of a cell has changed,
+ * on the thread of the matrix.
+ *
+ * @param previous the previous outcome, or null if the cell is calculated for the first time
+ * @param current  the new outcome
+ */
+public record DeliveryFeeChangedEvent(FeeCellState previous, FeeCellState current) {
+}
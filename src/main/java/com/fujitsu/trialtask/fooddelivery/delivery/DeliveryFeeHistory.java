@@ -0,0 +1,182 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.UnavailableVehicleException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.EffectiveFees;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherObservation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+
+/**
+ * This class calculates how the delivery fee of a city and vehicle type developed over a range of the stored weather
+ * history, with the currently published fee configuration. Every observation is priced with the fees that were in
+ * effect at its time, resolved from the timeline of the fee configuration.
+ * <p>
+ * The observations are scanned in timestamp order from the in-memory {@link WeatherHistory}, and the fee of every
+ * observation is aggregated into fixed-length periods (the step) as it is scanned, so only the current period is
+ * materialized however long the range is.
+ */
+@Component
+class DeliveryFeeHistory {
+    private static final String VEHICLE_UNAVAILABLE_DETAIL = "The selected vehicle type (%s) is not available in the specified city (%s)";
+    private final WeatherHistory weatherHistory;
+    private final FeeConfigurationService feeConfigurationService;
+
+    @Autowired
+    public DeliveryFeeHistory(WeatherHistory weatherHistory, FeeConfigurationService feeConfigurationService) {
+        this.weatherHistory = weatherHistory;
+        this.feeConfigurationService = feeConfigurationService;
+    }
+
+    /**
+     * Validates the requested series, without reading any weather data yet.
+     *
+     * @param city    the city for delivery
+     * @param vehicle the type of vehicle for delivery
+     * @param from    the start of the range (inclusive)
+     * @param to      the end of the range (exclusive)
+     * @param step    the length of the periods the fees are aggregated into
+     *
+     * @return the series, read once it is iterated
+     * @throws InvalidRequestException     if the range is empty or the step is not positive
+     * @throws UnavailableVehicleException if the selected vehicle type is not available in the specified city
+     *                                     at any time of the range
+     */
+    public Series series(City city, Vehicle vehicle, Instant from, Instant to, Duration step) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("The start of the range must be before its end");
+        }
+        if (step.toSeconds() < 1) {
+            throw new InvalidRequestException("The step must be at least one second");
+        }
+        FeeConfiguration feeConfiguration = feeConfigurationService.current();
+        boolean available = feeConfiguration.effectiveBetween(from, to).stream()
+                .anyMatch(effectiveFees -> effectiveFees.regionalFeeOf(city, vehicle) != null);
+        if (!available) {
+            throw new UnavailableVehicleException(VEHICLE_UNAVAILABLE_DETAIL.formatted(vehicle, city));
+        }
+        return new Series(city, vehicle, feeConfiguration, from.getEpochSecond(), to.getEpochSecond(), step.toSeconds());
+    }
+
+    /**
+     * A validated fee series, calculated while it is iterated.
+     */
+    final class Series {
+        private final City city;
+        private final Vehicle vehicle;
+        private final FeeConfiguration feeConfiguration;
+        private final long from;
+        private final long to;
+        private final long step;
+
+        private Series(City city, Vehicle vehicle, FeeConfiguration feeConfiguration, long from, long to, long step) {
+            this.city = city;
+            this.vehicle = vehicle;
+            this.feeConfiguration = feeConfiguration;
+            this.from = from;
+            this.to = to;
+            this.step = step;
+        }
+
+        /**
+         * Reads the weather history of the range and passes every period with observations to the consumer,
+         * from the oldest.
+         *
+         * @param consumer the consumer of the periods
+         */
+        public void forEach(Consumer<Point> consumer) {
+            Iterator<WeatherObservation> iterator = weatherHistory.observations(city, from, to).iterator();
+            Period period = null;
+            while (iterator.hasNext()) {
+                WeatherObservation observation = iterator.next();
+                long periodStart = from + (observation.timestamp() - from) / step * step;
+                if (period == null || period.start != periodStart) {
+                    if (period != null) {
+                        consumer.accept(period.toPoint());
+                    }
+                    period = new Period(periodStart);
+                }
+                period.add(feeOf(observation));
+            }
+            if (period != null) {
+                consumer.accept(period.toPoint());
+            }
+        }
+
+        /**
+         * Calculates the fee of the observation with the fees in effect at its time.
+         *
+         * @return the fee, or NaN if the vehicle type was forbidden or not available in the city
+         */
+        private float feeOf(WeatherObservation observation) {
+            EffectiveFees effectiveFees = feeConfiguration.effectiveAt(Instant.ofEpochSecond(observation.timestamp()));
+            Float regionalFee = effectiveFees.regionalFeeOf(city, vehicle);
+            return regionalFee == null ? Float.NaN : regionalFee + effectiveFees.tariff().weatherFee(vehicle, observation);
+        }
+
+        private final class Period {
+            private final long start;
+            private int observations;
+            private int forbiddenObservations;
+            private float minFee = Float.POSITIVE_INFINITY;
+            private float maxFee = Float.NEGATIVE_INFINITY;
+            private double feeSum;
+
+            Period(long start) {
+                this.start = start;
+            }
+
+            void add(float fee) {
+                observations++;
+                if (Float.isNaN(fee)) {
+                    forbiddenObservations++;
+                    return;
+                }
+                minFee = Math.min(minFee, fee);
+                maxFee = Math.max(maxFee, fee);
+                feeSum += fee;
+            }
+
+            Point toPoint() {
+                int allowed = observations - forbiddenObservations;
+                return allowed == 0
+                        ? new Point(Instant.ofEpochSecond(start), observations, forbiddenObservations, null, null, null)
+                        : new Point(Instant.ofEpochSecond(start), observations, forbiddenObservations,
+                        round(minFee), round(feeSum / allowed), round(maxFee));
+            }
+        }
+    }
+
+    private static float round(double fee) {
+        return Math.round(fee * 100) / 100.0f;
+    }
+
+    /**
+     * The delivery fees of a period of the series.
+     *
+     * @param timestamp             the start of the period
+     * @param observations          the number of observations in the period
+     * @param forbiddenObservations the number of observations in which the vehicle type was forbidden or not available
+     * @param minFee                the lowest fee of the period, or null if the vehicle type was always forbidden
+     * @param meanFee               the mean fee of the period, or null if the vehicle type was always forbidden
+     * @param maxFee                the highest fee of the period, or null if the vehicle type was always forbidden
+     */
+    public record Point(Instant timestamp,
+                        int observations,
+                        int forbiddenObservations,
+                        Float minFee,
+                        Float meanFee,
+                        Float maxFee) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.VehicleAvailability;
+import com.fujitsu.trialtask.fooddelivery.exceptions.ForbiddenVehicleException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.StaleWeatherDataException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.UnavailableVehicleException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeCell;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeRulesChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Precomputed outcome of the delivery fee calculation of every vehicle type in every city.
+ * <p>
+ * The matrix is kept up to date incrementally: a {@link WeatherChangedEvent} recomputes the cells of the changed
+ * cities, and a {@link FeeRulesChangedEvent} the cells whose fee rules have changed. Changes that only come with
+ * time (fees coming into effect, weather data getting stale) are picked up by recomputing every cell at the
+ * configured interval. The recomputation runs on a thread of its own, so the event listeners return at once and
+ * never hold up the ingest; cells requested while a recomputation is pending are coalesced into it.
+ * <p>
+ * Every cell whose outcome has changed is announced with a {@link DeliveryFeeChangedEvent} and gets the version of
+ * the inputs it was calculated from (see {@link DeliveryFeeCalculator.Inputs#version()}). The inputs are shared by
+ * the nodes sharing the database, so every node gives the same outcome the same version, and the version of a cell
+ * keeps growing across restarts and when a client moves to another node.
+ */
+@Component
+public class DeliveryFeeMatrix {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryFeeMatrix.class);
+    private final DeliveryFeeCalculator deliveryFeeCalculator;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration refreshInterval;
+    private final Executor recalculator;
+    private final Clock clock;
+    private final AtomicReferenceArray<FeeCellState> cells =
+            new AtomicReferenceArray<>(City.values().length * Vehicle.values().length);
+    private final Set<FeeCell> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recalculationScheduled = new AtomicBoolean();
+
+    @Autowired
+    public DeliveryFeeMatrix(DeliveryFeeCalculator deliveryFeeCalculator,
+                             TaskScheduler taskScheduler,
+                             ApplicationEventPublisher eventPublisher,
+                             FeeMatrixProperties properties) {
+        this(deliveryFeeCalculator, taskScheduler, eventPublisher, properties,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "fee-matrix");
+                    thread.setDaemon(true);
+                    return thread;
+                }),
+                Clock.systemUTC());
+    }
+
+    DeliveryFeeMatrix(DeliveryFeeCalculator deliveryFeeCalculator,
+                      TaskScheduler taskScheduler,
+                      ApplicationEventPublisher eventPublisher,
+                      FeeMatrixProperties properties,
+                      Executor recalculator,
+                      Clock clock) {
+        this.deliveryFeeCalculator = deliveryFeeCalculator;
+        this.taskScheduler = taskScheduler;
+        this.eventPublisher = eventPublisher;
+        this.refreshInterval = properties.refreshInterval();
+        this.recalculator = recalculator;
+        this.clock = clock;
+    }
+
+    /**
+     * Computes every cell once the application is ready, and again at the configured interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(() -> recalculate(FeeCell.all()), refreshInterval);
+    }
+
+    /**
+     * Recomputes the cells of the cities whose latest weather data has changed.
+     *
+     * @param event the changes of the latest weather data
+     */
+    @EventListener
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        List<FeeCell> affected = new ArrayList<>();
+        event.cities().forEach(city -> affected.addAll(FeeCell.of(city)));
+        recalculate(affected);
+    }
+
+    /**
+     * Recomputes the cells whose fee rules have changed.
+     *
+     * @param event the published fee configuration and the affected cells
+     */
+    @EventListener
+    public void onFeeRulesChanged(FeeRulesChangedEvent event) {
+        recalculate(event.cells());
+    }
+
+    /**
+     * Retrieves the precomputed outcome of a cell.
+     *
+     * @param city    the city
+     * @param vehicle the vehicle type
+     *
+     * @return the outcome, or null if the cell has not been computed yet
+     */
+    public FeeCellState get(City city, Vehicle vehicle) {
+        return cells.get(new FeeCell(city, vehicle).index());
+    }
+
+    /**
+     * Retrieves the precomputed outcome of every cell computed so far, ordered by city and then by vehicle type.
+     *
+     * @return the outcomes
+     */
+    public List<FeeCellState> snapshot() {
+        List<FeeCellState> snapshot = new ArrayList<>();
+        for (int i = 0; i < cells.length(); i++) {
+            FeeCellState state = cells.get(i);
+            if (state != null) {
+                snapshot.add(state);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Stops the recalculation.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (recalculator instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void recalculate(Collection<FeeCell> affected) {
+        pending.addAll(affected);
+        if (recalculationScheduled.compareAndSet(false, true)) {
+            try {
+                recalculator.execute(this::recalculatePending);
+            } catch (RejectedExecutionException e) {
+                log.debug("The fee matrix has been shut down");
+            }
+        }
+    }
+
+    private void recalculatePending() {
+        // Cleared first, so cells requested during the recalculation schedule another one
+        recalculationScheduled.set(false);
+        List<FeeCell> affected = new ArrayList<>(pending);
+        pending.removeAll(affected);
+        affected.sort(Comparator.comparingInt(FeeCell::index));
+
+        Map<City, DeliveryFeeCalculator.Inputs> inputs = new EnumMap<>(City.class);
+        for (FeeCell cell : affected) {
+            FeeCellState current;
+            try {
+                // The cells of a city are calculated from the same inputs
+                current = calculate(cell, inputs.computeIfAbsent(cell.city(), deliveryFeeCalculator::inputsOf));
+            } catch (RuntimeException e) {
+                log.warn("Failed to calculate the delivery fee of {} in {}", cell.vehicle(), cell.city(), e);
+                continue;
+            }
+            // Only the recalculation thread writes the cells
+            FeeCellState previous = cells.get(cell.index());
+            if (current.hasSameOutcomeAs(previous)) {
+                cells.set(cell.index(), withVersion(current, previous.version()));
+                continue;
+            }
+            // Versions only grow, even if the inputs of a cell were ever seen out of order
+            long version = previous == null ? current.version() : Math.max(current.version(), previous.version() + 1);
+            current = withVersion(current, version);
+            cells.set(cell.index(), current);
+            log.debug("Delivery fee of {} in {} changed: {}", cell.vehicle(), cell.city(), current);
+            eventPublisher.publishEvent(new DeliveryFeeChangedEvent(previous, current));
+        }
+    }
+
+    private static FeeCellState withVersion(FeeCellState state, long version) {
+        return new FeeCellState(state.city(), state.vehicle(), state.availability(), state.fee(), state.detail(),
+                state.calculatedAt(), version);
+    }
+
+    // The version of the inputs is kept only if the outcome differs from the previous one
+    private FeeCellState calculate(FeeCell cell, DeliveryFeeCalculator.Inputs inputs) {
+        City city = cell.city();
+        Vehicle vehicle = cell.vehicle();
+        long version = inputs.version();
+        try {
+            float fee = deliveryFeeCalculator.calculate(city, vehicle, inputs);
+            return new FeeCellState(city, vehicle, VehicleAvailability.AVAILABLE, fee, null, clock.instant(), version);
+        } catch (ForbiddenVehicleException e) {
+            return new FeeCellState(city, vehicle, VehicleAvailability.FORBIDDEN, null, e.getMessage(),
+                    clock.instant(), version);
+        } catch (UnavailableVehicleException e) {
+            return new FeeCellState(city, vehicle, VehicleAvailability.UNAVAILABLE, null, e.getMessage(),
+                    clock.instant(), version);
+        } catch (StaleWeatherDataException e) {
+            return new FeeCellState(city, vehicle, VehicleAvailability.STALE_WEATHER, null, e.getMessage(),
+                    clock.instant(), version);
+        }
+    }
+}
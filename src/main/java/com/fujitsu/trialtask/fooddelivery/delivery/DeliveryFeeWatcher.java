@@ -0,0 +1,126 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeCell;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Component holding the long-polling requests waiting for the delivery fee of a vehicle type in a city to change.
+ * <p>
+ * A request is answered as soon as the outcome of its cell in the {@link DeliveryFeeMatrix} has a version past the
+ * one the client has seen, or with 304 Not Modified once the configured timeout expires. The waiting requests are
+ * {@link DeferredResult}s, so no servlet thread is held while they wait; they are completed on the thread of the
+ * matrix when it announces a change.
+ */
+@Component
+class DeliveryFeeWatcher {
+    private final DeliveryFeeMatrix deliveryFeeMatrix;
+    private final Duration timeout;
+    private final Map<FeeCell, Set<Watch>> watches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeliveryFeeWatcher(DeliveryFeeMatrix deliveryFeeMatrix,
+                              FeeMatrixProperties properties) {
+        this.deliveryFeeMatrix = deliveryFeeMatrix;
+        this.timeout = properties.watchTimeout();
+    }
+
+    /**
+     * Waits for the delivery fee of a vehicle type in a city to change past a version.
+     *
+     * @param city    the city
+     * @param vehicle the vehicle type
+     * @param since   the version the client has seen, or null to get the current outcome as soon as it is known
+     *
+     * @return the result, completed with the outcome of the cell and HTTP status 200 OK once its version is past
+     * the specified one, or with HTTP status 304 Not Modified on timeout
+     */
+    public DeferredResult<ResponseEntity<Map<String, Object>>> watch(City city, Vehicle vehicle, Long since) {
+        FeeCell cell = new FeeCell(city, vehicle);
+        Set<Watch> cellWatches = watches.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet());
+        Watch watch = new Watch(since, new DeferredResult<>(timeout.toMillis(),
+                () -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+        watch.result().onCompletion(() -> cellWatches.remove(watch));
+
+        // Registered before checking the current outcome, so a change in between is not missed
+        cellWatches.add(watch);
+        if (watch.offer(deliveryFeeMatrix.get(city, vehicle))) {
+            cellWatches.remove(watch);
+        }
+        return watch.result();
+    }
+
+    /**
+     * Answers the requests waiting for the changed cell.
+     *
+     * @param event the changed outcome of a cell of the fee matrix
+     */
+    @EventListener
+    public void onDeliveryFeeChanged(DeliveryFeeChangedEvent event) {
+        FeeCellState current = event.current();
+        Set<Watch> cellWatches = watches.get(new FeeCell(current.city(), current.vehicle()));
+        if (cellWatches != null) {
+            cellWatches.removeIf(watch -> watch.offer(current));
+        }
+    }
+
+    /**
+     * Counts the requests waiting for a change.
+     *
+     * @return the number of waiting requests
+     */
+    public int waiting() {
+        return watches.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private static Map<String, Object> body(FeeCellState state) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("city", state.city().toString());
+        body.put("vehicle", state.vehicle().toString());
+        body.put("availability", state.availability().toString());
+        if (state.fee() != null) {
+            body.put("fee", state.fee());
+        }
+        if (state.detail() != null) {
+            body.put("detail", state.detail());
+        }
+        body.put("version", state.version());
+        return body;
+    }
+
+    /**
+     * A waiting request.
+     *
+     * @param since  the version the client has seen, or null
+     * @param result the result of the request
+     */
+    private record Watch(Long since, DeferredResult<ResponseEntity<Map<String, Object>>> result) {
+        /**
+         * Answers the request if the outcome is past the version the client has seen.
+         *
+         * @param state the outcome of the cell, or null if it has not been computed yet
+         *
+         * @return true if the request has been answered, now or before
+         */
+        boolean offer(FeeCellState state) {
+            if (state == null || (since != null && state.version() <= since)) {
+                return result.isSetOrExpired();
+            }
+            result.setResult(ResponseEntity.ok(body(state)));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.weatherdatacollection.InitialCollectionFinishedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Health indicator that keeps the application out of service until the fee calculation has been warmed up.
+ * <p>
+ * The warm-up starts once the first weather report collection after startup has finished, or when the configured
+ * deadline has passed, whichever comes first. It calculates the fee of every city and vehicle type for the
+ * configured number of rounds, which loads the fee configuration and the latest weather data into memory and gets
+ * the calculation compiled by the JIT, so the first requests aren't served by a cold instance.
+ * <p>
+ * Once warm, the time from JVM start to readiness and the p99 latency of the first and the last rounds are reported
+ * in the health details and the log.
+ */
+@Component("warmup")
+class DeliveryWarmup implements HealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryWarmup.class);
+    private final DeliveryFeeCalculator deliveryFeeCalculator;
+    private final TaskScheduler taskScheduler;
+    private final WarmupProperties properties;
+    private final Clock clock;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Result result;
+
+    @Autowired
+    public DeliveryWarmup(DeliveryFeeCalculator deliveryFeeCalculator,
+                          TaskScheduler taskScheduler,
+                          WarmupProperties properties) {
+        this(deliveryFeeCalculator, taskScheduler, properties, Clock.systemUTC());
+    }
+
+    DeliveryWarmup(DeliveryFeeCalculator deliveryFeeCalculator,
+                   TaskScheduler taskScheduler,
+                   WarmupProperties properties,
+                   Clock clock) {
+        this.deliveryFeeCalculator = deliveryFeeCalculator;
+        this.taskScheduler = taskScheduler;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules the warm-up for the deadline of the first weather report collection.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.schedule(() -> warmUp("deadline passed"),
+                clock.instant().plus(properties.initialCollectionDeadline()));
+    }
+
+    /**
+     * Warms up as soon as the first weather report collection has finished.
+     *
+     * @param event the outcome of the first collection
+     */
+    @EventListener
+    public void onInitialCollectionFinished(InitialCollectionFinishedEvent event) {
+        warmUp(event.collected() ? "collected" : "not collected");
+    }
+
+    @Override
+    public Health health() {
+        Result warm = result;
+        if (warm == null) {
+            return Health.outOfService()
+                    .withDetail("state", started.get() ? "warming up" : "waiting for the initial weather collection")
+                    .build();
+        }
+        return Health.up()
+                .withDetail("initialCollection", warm.initialCollection())
+                .withDetail("readyAfter", warm.readyAfter().toString())
+                .withDetail("warmupDuration", warm.duration().toString())
+                .withDetail("firstRoundP99", warm.firstRoundP99().toString())
+                .withDetail("steadyStateP99", warm.steadyStateP99().toString())
+                .build();
+    }
+
+    private void warmUp(String initialCollection) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        int rounds = Math.max(properties.rounds(), 1);
+        // The steady state is measured over the last tenth of the rounds
+        int steadyStateRounds = Math.max(rounds / 10, 1);
+        int calculations = City.values().length * Vehicle.values().length;
+        long[] firstRound = new long[calculations];
+        long[] steadyState = new long[steadyStateRounds * calculations];
+
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            int steadyStateRound = round - (rounds - steadyStateRounds);
+            int i = 0;
+            for (City city : City.values()) {
+                for (Vehicle vehicle : Vehicle.values()) {
+                    long latency = timeCalculation(city, vehicle);
+                    if (round == 0) {
+                        firstRound[i] = latency;
+                    }
+                    if (steadyStateRound >= 0) {
+                        steadyState[steadyStateRound * calculations + i] = latency;
+                    }
+                    i++;
+                }
+            }
+        }
+
+        Result warm = new Result(initialCollection,
+                Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime()),
+                Duration.ofNanos(System.nanoTime() - start),
+                Duration.ofNanos(p99(firstRound)),
+                Duration.ofNanos(p99(steadyState)));
+        result = warm;
+        log.info("Warmed up in {} ({} rounds, initial weather collection {}), ready {} after JVM start; "
+                        + "p99 latency {} in the first round, {} in the steady state",
+                warm.duration(), rounds, initialCollection, warm.readyAfter(),
+                warm.firstRoundP99(), warm.steadyStateP99());
+    }
+
+    private long timeCalculation(City city, Vehicle vehicle) {
+        long start = System.nanoTime();
+        try {
+            deliveryFeeCalculator.calculate(city, vehicle);
+        } catch (RuntimeException e) {
+            // Forbidden or unavailable vehicles and stale weather are still part of the warm-up
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+    }
+
+    private record Result(String initialCollection,
+                          Duration readyAfter,
+                          Duration duration,
+                          Duration firstRoundP99,
+                          Duration steadyStateP99) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.VehicleAvailability;
+
+import java.time.Instant;
+import java.util.Objects;
+
+
+/**
+ * The precomputed outcome of the delivery fee calculation of a vehicle type in a city.
+ *
+ * @param city         the city
+ * @param vehicle      the vehicle type
+ * @param availability whether the vehicle type can be used
+ * @param fee          the delivery fee, or null if the vehicle type can't be used
+ * @param detail       why the vehicle type can't be used, or null if it can
+ * @param calculatedAt the time the outcome was calculated
+ * @param version      the version of the inputs from which the outcome was calculated when it last changed, the
+ *                     same on every node
+ */
+public record FeeCellState(City city,
+                           Vehicle vehicle,
+                           VehicleAvailability availability,
+                           Float fee,
+                           String detail,
+                           Instant calculatedAt,
+                           long version) {
+
+    /**
+     * Checks whether the outcome is the same as that of another state, regardless of when they were calculated
+     * and of their versions.
+     *
+     * @param other the other state, possibly null
+     *
+     * @return true if both have the same availability, fee and detail
+     */
+    public boolean hasSameOutcomeAs(FeeCellState other) {
+        return other != null
+                && availability == other.availability
+                && Objects.equals(fee, other.fee)
+                && Objects.equals(detail, other.detail);
+    }
+}
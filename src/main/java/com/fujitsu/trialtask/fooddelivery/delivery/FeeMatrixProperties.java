@@ -0,0 +1,19 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the precomputed delivery fee matrix and the long-polling requests watching it.
+ *
+ * @param refreshInterval how often every cell of the matrix is recomputed, to catch fees coming into effect and
+ *                        weather data getting stale
+ * @param watchTimeout    how long a long-polling request waits for a fee change before it is answered with 304
+ */
+@ConfigurationProperties("fee-matrix")
+record FeeMatrixProperties(
+        @DefaultValue("1m") Duration refreshInterval,
+        @DefaultValue("30s") Duration watchTimeout) {
+}
@@ -0,0 +1,19 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the warm-up run before the application reports itself ready.
+ *
+ * @param initialCollectionDeadline how long the warm-up waits for the first weather report collection before it
+ *                                  starts with the weather data already stored
+ * @param rounds                    how many times the fee of every city and vehicle type is calculated
+ */
+@ConfigurationProperties("warmup")
+record WarmupProperties(
+        @DefaultValue("15s") Duration initialCollectionDeadline,
+        @DefaultValue("200") int rounds) {
+}
@@ -0,0 +1,34 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.StaleWeatherPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration of how old the weather data used for the fee calculation may be.
+ *
+ * @param maxAge     the default maximum age of the weather data
+ * @param cityMaxAge the maximum age of the weather data for specific cities, overriding the default
+ * @param policy     how the fee is calculated once the weather data of a city is older than its maximum age
+ */
+@ConfigurationProperties("weather.staleness")
+record WeatherStalenessProperties(
+        @DefaultValue("2h") Duration maxAge,
+        Map<City, Duration> cityMaxAge,
+        @DefaultValue("last-known") StaleWeatherPolicy policy) {
+
+    /**
+     * Returns the maximum age of the weather data for the specified city.
+     *
+     * @param city the city
+     *
+     * @return the city-specific maximum age if configured, otherwise the default maximum age
+     */
+    Duration maxAgeOf(City city) {
+        return cityMaxAge == null ? maxAge : cityMaxAge.getOrDefault(city, maxAge);
+    }
+}
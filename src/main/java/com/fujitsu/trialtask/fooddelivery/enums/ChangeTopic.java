@@ -0,0 +1,20 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing the kinds of shared data whose changes are announced to the other application nodes.
+ */
+public enum ChangeTopic {
+    /**
+     * The regional and weather fees of the fee configuration.
+     */
+    FEES,
+    /**
+     * The collected weather data.
+     */
+    WEATHER,
+    /**
+     * The weather history beyond the newest observations: weather data saved before the latest of its city
+     * (a backfill) or removed (the compaction).
+     */
+    WEATHER_HISTORY
+}
@@ -0,0 +1,19 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing how a fee was changed by a version of the fee configuration.
+ */
+public enum FeeChangeOperation {
+    /**
+     * The fee was created.
+     */
+    CREATED,
+    /**
+     * An existing fee was replaced or partially updated.
+     */
+    UPDATED,
+    /**
+     * The fee was deleted.
+     */
+    DELETED
+}
@@ -0,0 +1,31 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing the file formats that fees can be exported to and imported from.
+ */
+public enum FeeFileFormat {
+    /**
+     * Comma-separated values with a header row naming the columns.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * Newline-delimited JSON, one fee object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    FeeFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
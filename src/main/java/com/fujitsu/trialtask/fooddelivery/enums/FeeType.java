@@ -0,0 +1,15 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing the types of fees of the fee configuration.
+ */
+public enum FeeType {
+    /**
+     * A base fee of a city and vehicle type.
+     */
+    REGIONAL,
+    /**
+     * An extra fee or a ban of a vehicle type under certain weather conditions.
+     */
+    WEATHER
+}
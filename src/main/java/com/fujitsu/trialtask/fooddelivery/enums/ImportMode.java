@@ -0,0 +1,15 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing how imported fees are combined with the existing fees.
+ */
+public enum ImportMode {
+    /**
+     * Add the imported fees to the existing fees.
+     */
+    APPEND,
+    /**
+     * Delete the existing fees and keep only the imported fees.
+     */
+    REPLACE
+}
@@ -0,0 +1,20 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing how the delivery fee is calculated when the latest weather data of a city is
+ * older than the allowed maximum age (or missing altogether).
+ */
+public enum StaleWeatherPolicy {
+    /**
+     * Use the latest known weather data regardless of its age (no weather fees if there is none).
+     */
+    LAST_KNOWN,
+    /**
+     * Charge the highest fee of every weather condition, as if the worst weather were in effect.
+     */
+    WORST_CASE,
+    /**
+     * Refuse to calculate the fee.
+     */
+    REJECT
+}
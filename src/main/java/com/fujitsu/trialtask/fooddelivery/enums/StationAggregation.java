@@ -0,0 +1,21 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing how the observations of the weather stations of a city are combined into the weather
+ * data of the city.
+ */
+public enum StationAggregation {
+    /**
+     * The lowest air temperature, the highest wind speed and the most severe phenomenon reported by any station.
+     */
+    WORST,
+    /**
+     * The weighted mean of the air temperatures and wind speeds, and the phenomenon of the station with the highest
+     * weight.
+     */
+    WEIGHTED_MEAN,
+    /**
+     * The observation of the nearest station with a complete report, falling back to the next nearest.
+     */
+    NEAREST
+}
@@ -0,0 +1,30 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing the period lengths that historical weather data can be summarized into.
+ */
+public enum SummaryResolution {
+    HOURLY(3_600),
+    DAILY(86_400);
+
+    private final long seconds;
+
+    SummaryResolution(long seconds) {
+        this.seconds = seconds;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Returns the start of the period containing the specified Unix timestamp.
+     *
+     * @param timestamp the Unix timestamp
+     *
+     * @return the Unix timestamp of the start of the period
+     */
+    public long periodStart(long timestamp) {
+        return Math.floorDiv(timestamp, seconds) * seconds;
+    }
+}
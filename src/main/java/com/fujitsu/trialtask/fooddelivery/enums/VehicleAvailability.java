@@ -0,0 +1,23 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing the outcome of the delivery fee calculation of a vehicle type in a city.
+ */
+public enum VehicleAvailability {
+    /**
+     * The vehicle type can be used, for the calculated fee.
+     */
+    AVAILABLE,
+    /**
+     * The vehicle type is forbidden due to the current weather conditions.
+     */
+    FORBIDDEN,
+    /**
+     * The vehicle type is not available in the city.
+     */
+    UNAVAILABLE,
+    /**
+     * The fee is not calculated, as the weather data of the city is outdated.
+     */
+    STALE_WEATHER
+}
@@ -1,11 +1,135 @@
 package com.fujitsu.trialtask.fooddelivery.enums;
 
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Enumeration representing different weather conditions that can be used for weather-based calculations.
+ * <p>
+ * Every condition but the phenomenon is numeric: it is read from an element of the weather feed, and weather fees
+ * on it apply to a range of its values. The numeric conditions are numbered from 0 by {@link #numericIndex()}, so
+ * the numeric values of an observation can be kept in a primitive array indexed by condition.
  */
 public enum WeatherCondition {
-    AIR_TEMPERATURE,
-    WIND_SPEED,
-    PHENOMENON
+    /**
+     * The air temperature, in degrees Celsius.
+     */
+    AIR_TEMPERATURE("airtemperature", "air temperature", "°C", true),
+    /**
+     * The mean wind speed, in meters per second.
+     */
+    WIND_SPEED("windspeed", "wind speed", "m/s", false),
+    /**
+     * The weather phenomenon, e.g. "light snow shower".
+     */
+    PHENOMENON(null, "phenomenon", null, false),
+    /**
+     * The precipitation of the last hour, in millimeters.
+     */
+    PRECIPITATION("precipitations", "precipitation", "mm", false),
+    /**
+     * The visibility, in kilometers.
+     */
+    VISIBILITY("visibility", "visibility", "km", true),
+    /**
+     * The maximum wind speed (gusts), in meters per second.
+     */
+    WIND_GUST("windspeedmax", "wind gust", "m/s", false),
+    /**
+     * The relative humidity, in percent.
+     */
+    RELATIVE_HUMIDITY("relativehumidity", "relative humidity", "%", false);
+
+    private static final List<WeatherCondition> NUMERIC = Arrays.stream(values())
+            .filter(WeatherCondition::isNumeric)
+            .toList();
+    private static final Map<String, WeatherCondition> BY_FEED_ELEMENT = NUMERIC.stream()
+            .collect(Collectors.toMap(condition -> condition.feedElement, Function.identity()));
+
+    static {
+        for (int i = 0; i < NUMERIC.size(); i++) {
+            NUMERIC.get(i).numericIndex = i;
+        }
+    }
+
+    private final String feedElement;
+    private final String label;
+    private final String unit;
+    private final boolean worseWhenLower;
+    private int numericIndex = -1;
+
+    WeatherCondition(String feedElement, String label, String unit, boolean worseWhenLower) {
+        this.feedElement = feedElement;
+        this.label = label;
+        this.unit = unit;
+        this.worseWhenLower = worseWhenLower;
+    }
+
+    /**
+     * Returns the numeric conditions, in the order of their indexes.
+     *
+     * @return the numeric conditions
+     */
+    public static List<WeatherCondition> numeric() {
+        return NUMERIC;
+    }
+
+    /**
+     * Returns the numeric condition read from the specified element of the weather feed.
+     *
+     * @param element the name of the element
+     *
+     * @return the condition, or null if the element is not read
+     */
+    public static WeatherCondition ofFeedElement(String element) {
+        return BY_FEED_ELEMENT.get(element);
+    }
+
+    public boolean isNumeric() {
+        return feedElement != null;
+    }
+
+    /**
+     * Returns the index of a numeric condition among the numeric conditions.
+     *
+     * @return the index, or -1 for the phenomenon
+     */
+    public int numericIndex() {
+        return numericIndex;
+    }
+
+    /**
+     * Tells whether lower values of a numeric condition mean worse weather (e.g. colder, or less visibility).
+     *
+     * @return true if lower values are worse, false if higher values are
+     */
+    public boolean isWorseWhenLower() {
+        return worseWhenLower;
+    }
+
+    /**
+     * Describes a value of a numeric condition, e.g. "wind speed: 12.3 m/s".
+     *
+     * @param value the value
+     *
+     * @return the description
+     */
+    public String describe(float value) {
+        return String.format("%s: %.1f %s", label, value, unit);
+    }
+
+    /**
+     * Describes a phenomenon, e.g. "phenomenon: light snow".
+     *
+     * @param phenomenon the phenomenon
+     *
+     * @return the description
+     */
+    public String describe(String phenomenon) {
+        return String.format("%s: %s", label, phenomenon);
+    }
 }
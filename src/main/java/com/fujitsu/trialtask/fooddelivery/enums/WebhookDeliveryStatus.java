@@ -0,0 +1,19 @@
+package com.fujitsu.trialtask.fooddelivery.enums;
+
+/**
+ * Enumeration representing the state of a webhook delivery in the outbox.
+ */
+public enum WebhookDeliveryStatus {
+    /**
+     * Not delivered yet, to be (re)tried once its next attempt is due.
+     */
+    PENDING,
+    /**
+     * Accepted by the endpoint.
+     */
+    DELIVERED,
+    /**
+     * Given up after the maximum number of attempts.
+     */
+    FAILED
+}
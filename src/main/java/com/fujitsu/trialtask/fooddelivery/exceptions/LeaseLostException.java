@@ -0,0 +1,7 @@
+package com.fujitsu.trialtask.fooddelivery.exceptions;
+
+public class LeaseLostException extends RuntimeException {
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.validation.ConstraintViolationException;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -40,6 +41,8 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
     private static final String VEHICLE_FORBIDDEN_MESSAGE = "Usage of selected vehicle type is forbidden";
     private static final String VEHICLE_UNAVAILABLE_MESSAGE = "Vehicle is unavailable in the specified city";
     private static final String DUPLICATE_ENTITY_MESSAGE = "Entity already exists";
+    private static final String INVALID_REQUEST_MESSAGE = "Invalid request";
+    private static final String STALE_WEATHER_DATA_MESSAGE = "Weather data is outdated";
 
     private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
@@ -118,6 +121,15 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return buildResponseEntity(apiError);
     }
 
+    @ExceptionHandler(StaleWeatherDataException.class)
+    protected ResponseEntity<Object> handleStaleWeatherData(StaleWeatherDataException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                STALE_WEATHER_DATA_MESSAGE,
+                List.of(ex.getMessage()));
+        return buildResponseEntity(apiError);
+    }
+
     @ExceptionHandler(EntityExistsException.class)
     protected ResponseEntity<Object> handleDuplicateEntity(EntityExistsException ex) {
         ApiError apiError = new ApiError(
@@ -126,4 +138,22 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
                 List.of(ex.getMessage()));
         return buildResponseEntity(apiError);
     }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    protected ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.CONFLICT,
+                DUPLICATE_ENTITY_MESSAGE,
+                List.of(ex.getMostSpecificCause().getMessage()));
+        return buildResponseEntity(apiError);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    protected ResponseEntity<Object> handleInvalidRequest(InvalidRequestException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.BAD_REQUEST,
+                INVALID_REQUEST_MESSAGE,
+                List.of(ex.getMessage()));
+        return buildResponseEntity(apiError);
+    }
 }
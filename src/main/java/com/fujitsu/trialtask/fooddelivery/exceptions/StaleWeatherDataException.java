@@ -0,0 +1,15 @@
+package com.fujitsu.trialtask.fooddelivery.exceptions;
+
+public class StaleWeatherDataException extends RuntimeException {
+    public StaleWeatherDataException(String message) {
+        super(message);
+    }
+
+    public StaleWeatherDataException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StaleWeatherDataException(Throwable cause) {
+        super(cause);
+    }
+}
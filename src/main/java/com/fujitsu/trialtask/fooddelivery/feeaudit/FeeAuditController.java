@@ -0,0 +1,76 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import com.fujitsu.trialtask.fooddelivery.enums.FeeType;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * Controller class for reading the fee change log and the fee configuration as it was at a past instant.
+ */
+@RestController
+@RequestMapping("/api/fee-audit")
+class FeeAuditController {
+    private final FeeChangeRepository feeChangeRepository;
+    private final FeeAuditLog feeAuditLog;
+    private final EntityListing entityListing;
+
+    @Autowired
+    public FeeAuditController(FeeChangeRepository feeChangeRepository,
+                              FeeAuditLog feeAuditLog,
+                              EntityListing entityListing) {
+        this.feeChangeRepository = feeChangeRepository;
+        this.feeAuditLog = feeAuditLog;
+        this.entityListing = entityListing;
+    }
+
+    /**
+     * Retrieves a page of the fee change log, from the oldest change, optionally filtered by fee type and fee.
+     * If there are more changes, the cursor of the next page is returned in the X-Next-Cursor header.
+     *
+     * @param feeTypeName the fee type to filter by (optional)
+     * @param feeId       the ID of the fee to filter by (optional)
+     * @param after       the cursor of the page, i.e. the ID of the last change of the previous page
+     * @param limit       the maximum number of changes in the page (optional)
+     *
+     * @return ResponseEntity containing the list of the fee changes of the page
+     * @throws InvalidRequestException if a filter or the limit is invalid
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<FeeChange>> getFeeChanges(
+            @RequestParam(value = "type", required = false) String feeTypeName,
+            @RequestParam(value = "feeId", required = false) Long feeId,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        FeeType feeType = entityListing.filter(feeTypeName, FeeType.class);
+        int pageSize = entityListing.pageSize(limit);
+
+        List<FeeChange> changes = feeChangeRepository.findPage(after, feeType, feeId, Limit.of(pageSize + 1));
+        return entityListing.page(changes, pageSize, FeeChange::getId);
+    }
+
+    /**
+     * Reconstructs the fee configuration as it was at the specified instant.
+     *
+     * @param at the instant to reconstruct the fee configuration at
+     *
+     * @return ResponseEntity containing the fee configuration at the instant and HTTP status 200 OK
+     * @throws EntityNotFoundException if nothing had been logged by then
+     */
+    @GetMapping("/configuration")
+    public ResponseEntity<FeeConfiguration> getFeeConfigurationAt(@RequestParam("at") Instant at) {
+        return ResponseEntity.ok(feeAuditLog.configurationAt(at));
+    }
+}
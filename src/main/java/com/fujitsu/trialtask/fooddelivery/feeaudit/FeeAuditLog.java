@@ -0,0 +1,262 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeChangeOperation;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeType;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationPublishedEvent;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+
+/**
+ * Service class keeping an append-only log of every change to the fee configuration, and reading the fee
+ * configuration as it was at any past instant from it.
+ * <p>
+ * Every published version is compared with the previous one, and only the fees it created, updated or deleted are
+ * logged, together with who made the change (the configured request header, falling back to the authenticated user).
+ * The log is written by a single background thread in the order the versions were published, so publishing never
+ * waits for it, and changes show up in the log shortly after they are published.
+ * <p>
+ * A snapshot of the complete fee configuration is taken on startup and whenever the configured number of changes has
+ * been logged since the previous snapshot. A point-in-time read starts from the latest snapshot before the instant
+ * and only replays the changes after it.
+ */
+@Service
+public class FeeAuditLog {
+    static final String SYSTEM_ACTOR = "system";
+    static final String ANONYMOUS_ACTOR = "anonymous";
+    private static final int MAX_ACTOR_LENGTH = 255;
+    private static final Logger log = LoggerFactory.getLogger(FeeAuditLog.class);
+    private final FeeChangeRepository feeChangeRepository;
+    private final FeeSnapshotRepository feeSnapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final FeeAuditProperties properties;
+    private final Executor writer;
+    // Only accessed by the writer
+    private int changesSinceSnapshot;
+
+    @Autowired
+    public FeeAuditLog(FeeChangeRepository feeChangeRepository,
+                       FeeSnapshotRepository feeSnapshotRepository,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       FeeAuditProperties properties) {
+        this(feeChangeRepository, feeSnapshotRepository, objectMapper, transactionManager, properties,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "fee-audit");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    FeeAuditLog(FeeChangeRepository feeChangeRepository,
+                FeeSnapshotRepository feeSnapshotRepository,
+                ObjectMapper objectMapper,
+                PlatformTransactionManager transactionManager,
+                FeeAuditProperties properties,
+                Executor writer) {
+        this.feeChangeRepository = feeChangeRepository;
+        this.feeSnapshotRepository = feeSnapshotRepository;
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.writer = writer;
+    }
+
+    /**
+     * Logs the changes of a published version of the fee configuration in the background.
+     * Who made the change is determined here, on the publishing thread.
+     * Versions reloaded after a change on another node are skipped, as that node logs the change itself.
+     *
+     * @param event the published version and the version before it
+     */
+    @EventListener
+    public void onPublished(FeeConfigurationPublishedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        String actor = currentActor();
+        writer.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(event.previous(), event.current(), actor));
+            } catch (RuntimeException e) {
+                log.error("Failed to log fee configuration version {}", event.current().getVersion(), e);
+            }
+        });
+    }
+
+    /**
+     * Reconstructs the fee configuration as it was at the specified instant, from the latest snapshot taken by then
+     * and the changes logged after it.
+     *
+     * @param at the instant to reconstruct the fee configuration at
+     *
+     * @return the fee configuration in effect at the instant, with the version, publication time and description
+     * of the last change before it
+     * @throws EntityNotFoundException if nothing had been logged by then
+     */
+    public FeeConfiguration configurationAt(Instant at) {
+        FeeSnapshot snapshot = feeSnapshotRepository.findFirstByTakenAtLessThanEqualOrderByTakenAtDescIdDesc(at);
+        if (snapshot == null) {
+            throw new EntityNotFoundException("No fee configuration has been logged at or before " + at);
+        }
+        Map<Long, RegionalFee> regionalFees = byId(
+                read(snapshot.getRegionalFees(), new TypeReference<List<RegionalFee>>() {}), RegionalFee::getId);
+        Map<Long, WeatherFee> weatherFees = byId(
+                read(snapshot.getWeatherFees(), new TypeReference<List<WeatherFee>>() {}), WeatherFee::getId);
+        long version = snapshot.getVersion();
+        Instant publishedAt = snapshot.getTakenAt();
+        String description = snapshot.getDescription();
+
+        for (FeeChange change : feeChangeRepository.findChangesToReplay(snapshot.getLastChangeId(), at)) {
+            switch (change.getFeeType()) {
+                case REGIONAL -> replay(regionalFees, change, RegionalFee.class);
+                case WEATHER -> replay(weatherFees, change, WeatherFee.class);
+            }
+            version = change.getVersion();
+            publishedAt = change.getChangedAt();
+            description = change.getDescription();
+        }
+        return new FeeConfiguration(version, publishedAt, description, regionalFees.values(), weatherFees.values());
+    }
+
+    /**
+     * Waits for the logged changes to be written and stops the writer.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Fee changes were still being logged at shutdown");
+            }
+        }
+    }
+
+    private void write(FeeConfiguration previous, FeeConfiguration current, String actor) {
+        if (previous == null) {
+            takeSnapshot(current);
+            return;
+        }
+
+        List<FeeChange> changes = new ArrayList<>();
+        diff(previous.getRegionalFees(), current.getRegionalFees(), RegionalFee::getId, FeeType.REGIONAL,
+                current, actor, changes);
+        diff(previous.getWeatherFees(), current.getWeatherFees(), WeatherFee::getId, FeeType.WEATHER,
+                current, actor, changes);
+        feeChangeRepository.saveAll(changes);
+        log.debug("Logged {} fee changes of version {} by {}", changes.size(), current.getVersion(), actor);
+
+        changesSinceSnapshot += changes.size();
+        if (changesSinceSnapshot >= properties.snapshotInterval()) {
+            takeSnapshot(current);
+        }
+    }
+
+    private <T> void diff(List<T> before,
+                          List<T> after,
+                          Function<T, Long> idOf,
+                          FeeType feeType,
+                          FeeConfiguration current,
+                          String actor,
+                          List<FeeChange> changes) {
+        Map<Long, String> remaining = new LinkedHashMap<>();
+        before.forEach(fee -> remaining.put(idOf.apply(fee), write(fee)));
+
+        for (T fee : after) {
+            String json = write(fee);
+            String previous = remaining.remove(idOf.apply(fee));
+            if (previous == null || !previous.equals(json)) {
+                FeeChangeOperation operation = previous == null ? FeeChangeOperation.CREATED : FeeChangeOperation.UPDATED;
+                changes.add(new FeeChange(current.getPublishedAt(), actor, current.getVersion(),
+                        current.getDescription(), feeType, operation, idOf.apply(fee), json));
+            }
+        }
+        remaining.keySet().forEach(id -> changes.add(new FeeChange(current.getPublishedAt(), actor,
+                current.getVersion(), current.getDescription(), feeType, FeeChangeOperation.DELETED, id, null)));
+    }
+
+    private void takeSnapshot(FeeConfiguration configuration) {
+        feeSnapshotRepository.save(new FeeSnapshot(configuration.getPublishedAt(), configuration.getVersion(),
+                configuration.getDescription(), feeChangeRepository.findLastId(),
+                write(configuration.getRegionalFees()), write(configuration.getWeatherFees())));
+        changesSinceSnapshot = 0;
+        log.debug("Took a snapshot of fee configuration version {}", configuration.getVersion());
+    }
+
+    private <T> void replay(Map<Long, T> fees, FeeChange change, Class<T> type) {
+        if (change.getOperation() == FeeChangeOperation.DELETED) {
+            fees.remove(change.getFeeId());
+        } else {
+            fees.put(change.getFeeId(), read(change.getFee(), objectMapper.constructType(type)));
+        }
+    }
+
+    private String currentActor() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return SYSTEM_ACTOR;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String actor = request.getHeader(properties.actorHeader());
+        if ((actor == null || actor.isBlank()) && request.getUserPrincipal() != null) {
+            actor = request.getUserPrincipal().getName();
+        }
+        if (actor == null || actor.isBlank()) {
+            return ANONYMOUS_ACTOR;
+        }
+        actor = actor.strip();
+        return actor.length() > MAX_ACTOR_LENGTH ? actor.substring(0, MAX_ACTOR_LENGTH) : actor;
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value, e);
+        }
+    }
+
+    private <T> T read(String json, TypeReference<T> type) {
+        return read(json, objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private <T> T read(String json, JavaType type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize the fee change log", e);
+        }
+    }
+
+    private static <T> Map<Long, T> byId(List<T> fees, Function<T, Long> idOf) {
+        Map<Long, T> byId = new LinkedHashMap<>();
+        fees.forEach(fee -> byId.put(idOf.apply(fee), fee));
+        return byId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the fee change log.
+ *
+ * @param snapshotInterval the number of logged fee changes after which the next snapshot of the fee configuration
+ *                         is taken, so a point-in-time read never replays more than about that many changes
+ * @param actorHeader      the request header naming who made a change
+ */
+@ConfigurationProperties("fee-audit")
+record FeeAuditProperties(
+        @DefaultValue("100") int snapshotInterval,
+        @DefaultValue("X-Actor") String actorHeader) {
+}
@@ -0,0 +1,104 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeChangeOperation;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeType;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing an entry of the append-only fee change log: a single fee created, updated or deleted
+ * by a published version of the fee configuration. Entries are never updated or deleted.
+ * The fee is stored as compact JSON (without unset values) as it was after the change.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_fee_change_changed_at", columnList = "changedAt"))
+public class FeeChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Instant changedAt;
+    private String changedBy;
+    private Long version;
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    private FeeType feeType;
+
+    @Enumerated(EnumType.STRING)
+    private FeeChangeOperation operation;
+
+    private Long feeId;
+
+    @Column(length = 2000)
+    private String fee;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public FeeChange() {
+    }
+
+    /**
+     * Constructs a new FeeChange entry.
+     *
+     * @param changedAt   the time the version with the change was published
+     * @param changedBy   who made the change
+     * @param version     the version of the fee configuration with the change
+     * @param description the description of the change
+     * @param feeType     the type of the changed fee
+     * @param operation   how the fee was changed
+     * @param feeId       the ID of the changed fee
+     * @param fee         the fee after the change as JSON, or null if it was deleted
+     */
+    public FeeChange(Instant changedAt, String changedBy, Long version, String description,
+                     FeeType feeType, FeeChangeOperation operation, Long feeId, String fee) {
+        this.changedAt = changedAt;
+        this.changedBy = changedBy;
+        this.version = version;
+        this.description = description;
+        this.feeType = feeType;
+        this.operation = operation;
+        this.feeId = feeId;
+        this.fee = fee;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public String getChangedBy() {
+        return changedBy;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public FeeType getFeeType() {
+        return feeType;
+    }
+
+    public FeeChangeOperation getOperation() {
+        return operation;
+    }
+
+    public Long getFeeId() {
+        return feeId;
+    }
+
+    @JsonRawValue
+    public String getFee() {
+        return fee;
+    }
+}
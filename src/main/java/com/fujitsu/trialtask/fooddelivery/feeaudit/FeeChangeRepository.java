@@ -0,0 +1,66 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import com.fujitsu.trialtask.fooddelivery.enums.FeeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for appending to and reading the fee change log.
+ */
+@Repository
+public interface FeeChangeRepository extends CrudRepository<FeeChange, Long> {
+    /**
+     * Retrieves a page of fee changes in the order they were made, optionally filtered by fee type and fee.
+     *
+     * @param after   the ID of the last fee change of the previous page, or 0 for the first page
+     * @param feeType the fee type, or null for all fee types
+     * @param feeId   the ID of the fee, or null for all fees
+     * @param limit   the maximum number of fee changes to retrieve
+     *
+     * @return the fee changes with a greater ID than {@code after}
+     */
+    @Query("""
+            SELECT fc
+            FROM FeeChange fc
+            WHERE fc.id > :after
+              AND (:feeType IS NULL OR fc.feeType = :feeType)
+              AND (:feeId IS NULL OR fc.feeId = :feeId)
+            ORDER BY fc.id
+            """)
+    List<FeeChange> findPage(
+            @Param("after") long after,
+            @Param("feeType") FeeType feeType,
+            @Param("feeId") Long feeId,
+            Limit limit);
+
+    /**
+     * Retrieves the fee changes to replay on top of a snapshot, in the order they were made.
+     *
+     * @param afterId the ID of the last fee change included in the snapshot
+     * @param until   the instant to replay the changes until (inclusive)
+     *
+     * @return the fee changes after the snapshot, up to the instant
+     */
+    @Query("""
+            SELECT fc
+            FROM FeeChange fc
+            WHERE fc.id > :afterId
+              AND fc.changedAt <= :until
+            ORDER BY fc.id
+            """)
+    List<FeeChange> findChangesToReplay(@Param("afterId") long afterId, @Param("until") Instant until);
+
+    /**
+     * Retrieves the ID of the last fee change.
+     *
+     * @return the greatest fee change ID, or 0 if the log is empty
+     */
+    @Query("SELECT COALESCE(MAX(fc.id), 0) FROM FeeChange fc")
+    long findLastId();
+}
@@ -0,0 +1,83 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a periodic snapshot of the complete fee configuration, stored as JSON.
+ * The fee configuration at any later instant is the snapshot with the fee change log entries after
+ * {@code lastChangeId} replayed on top of it, so the log never has to be replayed from its start.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_fee_snapshot_taken_at", columnList = "takenAt"))
+public class FeeSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Instant takenAt;
+    private Long version;
+    private String description;
+    private Long lastChangeId;
+
+    @Lob
+    private String regionalFees;
+
+    @Lob
+    private String weatherFees;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public FeeSnapshot() {
+    }
+
+    /**
+     * Constructs a new FeeSnapshot.
+     *
+     * @param takenAt      the time the version in the snapshot was published
+     * @param version      the version of the fee configuration in the snapshot
+     * @param description  the description of the change that produced the version
+     * @param lastChangeId the ID of the last fee change log entry included in the snapshot, or 0 if there is none
+     * @param regionalFees all regional fees as a JSON array
+     * @param weatherFees  all weather fees as a JSON array
+     */
+    public FeeSnapshot(Instant takenAt, Long version, String description, Long lastChangeId,
+                       String regionalFees, String weatherFees) {
+        this.takenAt = takenAt;
+        this.version = version;
+        this.description = description;
+        this.lastChangeId = lastChangeId;
+        this.regionalFees = regionalFees;
+        this.weatherFees = weatherFees;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Long getLastChangeId() {
+        return lastChangeId;
+    }
+
+    public String getRegionalFees() {
+        return regionalFees;
+    }
+
+    public String getWeatherFees() {
+        return weatherFees;
+    }
+}
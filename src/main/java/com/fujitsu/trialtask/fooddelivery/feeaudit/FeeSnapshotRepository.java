@@ -0,0 +1,21 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository interface for the periodic snapshots of the fee configuration.
+ */
+@Repository
+public interface FeeSnapshotRepository extends CrudRepository<FeeSnapshot, Long> {
+    /**
+     * Retrieves the latest snapshot taken at or before the specified instant.
+     *
+     * @param at the instant
+     *
+     * @return the snapshot, or null if no snapshot had been taken by then
+     */
+    FeeSnapshot findFirstByTakenAtLessThanEqualOrderByTakenAtDescIdDesc(Instant at);
+}
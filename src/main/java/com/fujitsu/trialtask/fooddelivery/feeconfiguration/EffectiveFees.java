@@ -0,0 +1,162 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.Tariff;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeIndex;
+
+import java.time.Instant;
+import java.util.*;
+
+
+/**
+ * The fees in effect during one interval of the timeline of a {@link FeeConfiguration}: an interval in which no fee
+ * comes into or goes out of effect, so the same rules apply from its start to its end.
+ * <p>
+ * The fees are indexed by city and vehicle type when the interval is built; the conflict index and the tariff are
+ * only built on first use. The returned fees must not be modified.
+ */
+public final class EffectiveFees {
+    private final Instant validFrom;
+    private final Instant validTo;
+    private final List<RegionalFee> regionalFees;
+    private final List<WeatherFee> weatherFees;
+    private final Map<City, Map<Vehicle, RegionalFee>> regionalFeeIndex = new EnumMap<>(City.class);
+    private final Map<Vehicle, List<WeatherFee>> weatherFeeIndex = new EnumMap<>(Vehicle.class);
+    private volatile WeatherFeeIndex weatherFeeConflictIndex;
+    private volatile Tariff tariff;
+
+    /**
+     * Constructs the fees in effect during the specified interval.
+     *
+     * @param validFrom    the start of the interval (inclusive), or null if it is the first interval
+     * @param validTo      the end of the interval (exclusive), or null if it is the last interval
+     * @param regionalFees the regional fees in effect during the interval
+     * @param weatherFees  the weather fees in effect during the interval
+     */
+    EffectiveFees(Instant validFrom, Instant validTo, List<RegionalFee> regionalFees, List<WeatherFee> weatherFees) {
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.regionalFees = regionalFees;
+        this.weatherFees = weatherFees;
+
+        for (RegionalFee regionalFee : regionalFees) {
+            regionalFeeIndex.computeIfAbsent(regionalFee.getCity(), city -> new EnumMap<>(Vehicle.class))
+                    .put(regionalFee.getVehicle(), regionalFee);
+        }
+        Map<Vehicle, List<WeatherFee>> byVehicle = new EnumMap<>(Vehicle.class);
+        for (WeatherFee weatherFee : weatherFees) {
+            byVehicle.computeIfAbsent(weatherFee.getVehicle(), vehicle -> new ArrayList<>()).add(weatherFee);
+        }
+        byVehicle.forEach((vehicle, fees) -> weatherFeeIndex.put(vehicle, List.copyOf(fees)));
+    }
+
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    public Instant getValidTo() {
+        return validTo;
+    }
+
+    public List<RegionalFee> getRegionalFees() {
+        return regionalFees;
+    }
+
+    public List<WeatherFee> getWeatherFees() {
+        return weatherFees;
+    }
+
+    /**
+     * Checks if the instant lies in this interval.
+     *
+     * @param instant the instant to check
+     *
+     * @return true if the fees of this interval are in effect at the instant, otherwise false
+     */
+    public boolean contains(Instant instant) {
+        return (validFrom == null || !instant.isBefore(validFrom))
+                && (validTo == null || instant.isBefore(validTo));
+    }
+
+    /**
+     * Checks if this interval overlaps the specified range.
+     *
+     * @param from the start of the range (inclusive), or null if the range is unbounded in the past
+     * @param to   the end of the range (exclusive), or null if the range is unbounded in the future
+     *
+     * @return true if the fees of this interval are in effect at some time of the range, otherwise false
+     */
+    public boolean overlaps(Instant from, Instant to) {
+        return (validTo == null || from == null || from.isBefore(validTo))
+                && (validFrom == null || to == null || to.isAfter(validFrom));
+    }
+
+    /**
+     * Retrieves the regional fee for the specified city and vehicle type.
+     *
+     * @param city    the city of the regional fee
+     * @param vehicle the vehicle type of the regional fee
+     *
+     * @return the regional fee, or null if the vehicle type is not available in the city
+     */
+    public Float regionalFeeOf(City city, Vehicle vehicle) {
+        RegionalFee regionalFee = findRegionalFee(city, vehicle);
+        return regionalFee == null ? null : regionalFee.getFee();
+    }
+
+    /**
+     * Finds the regional fee entity for the specified city and vehicle type.
+     *
+     * @param city    the city of the regional fee
+     * @param vehicle the vehicle type of the regional fee
+     *
+     * @return the regional fee, or null if the vehicle type is not available in the city
+     */
+    public RegionalFee findRegionalFee(City city, Vehicle vehicle) {
+        Map<Vehicle, RegionalFee> byVehicle = regionalFeeIndex.get(city);
+        return byVehicle == null ? null : byVehicle.get(vehicle);
+    }
+
+    /**
+     * Retrieves the weather fees for the specified vehicle type.
+     *
+     * @param vehicle the vehicle type of the weather fees
+     *
+     * @return the weather fees of the vehicle type
+     */
+    public List<WeatherFee> weatherFeesOf(Vehicle vehicle) {
+        return weatherFeeIndex.getOrDefault(vehicle, List.of());
+    }
+
+    /**
+     * Retrieves the index used to check new or changed weather fees for conflicts with the weather fees in effect
+     * during this interval.
+     *
+     * @return the conflict index of the weather fees
+     */
+    public WeatherFeeIndex weatherFeeConflictIndex() {
+        WeatherFeeIndex index = weatherFeeConflictIndex;
+        if (index == null) {
+            index = WeatherFeeIndex.of(weatherFees);
+            weatherFeeConflictIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves the tariff of the weather fees in effect during this interval.
+     *
+     * @return the tariff of the weather fees
+     */
+    public Tariff tariff() {
+        Tariff result = tariff;
+        if (result == null) {
+            result = new Tariff(weatherFees);
+            tariff = result;
+        }
+        return result;
+    }
+}
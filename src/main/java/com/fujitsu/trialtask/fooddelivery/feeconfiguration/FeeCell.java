@@ -0,0 +1,71 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A cell of the delivery fee matrix: the fee of a vehicle type in a city.
+ *
+ * @param city    the city
+ * @param vehicle the vehicle type
+ */
+public record FeeCell(City city, Vehicle vehicle) {
+
+    /**
+     * Retrieves every cell of the matrix, ordered by city and then by vehicle type.
+     *
+     * @return all cells
+     */
+    public static List<FeeCell> all() {
+        List<FeeCell> cells = new ArrayList<>();
+        for (City city : City.values()) {
+            for (Vehicle vehicle : Vehicle.values()) {
+                cells.add(new FeeCell(city, vehicle));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Retrieves the cells of every vehicle type in the city.
+     *
+     * @param city the city
+     *
+     * @return the cells of the city
+     */
+    public static List<FeeCell> of(City city) {
+        List<FeeCell> cells = new ArrayList<>();
+        for (Vehicle vehicle : Vehicle.values()) {
+            cells.add(new FeeCell(city, vehicle));
+        }
+        return cells;
+    }
+
+    /**
+     * Retrieves the cells of the vehicle type in every city.
+     *
+     * @param vehicle the vehicle type
+     *
+     * @return the cells of the vehicle type
+     */
+    public static List<FeeCell> of(Vehicle vehicle) {
+        List<FeeCell> cells = new ArrayList<>();
+        for (City city : City.values()) {
+            cells.add(new FeeCell(city, vehicle));
+        }
+        return cells;
+    }
+
+    /**
+     * Retrieves the position of the cell in {@link #all()}.
+     *
+     * @return the index of the cell
+     */
+    public int index() {
+        return city.ordinal() * Vehicle.values().length + vehicle.ordinal();
+    }
+}
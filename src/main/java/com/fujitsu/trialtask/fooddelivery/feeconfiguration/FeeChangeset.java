@@ -0,0 +1,42 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+
+import java.util.List;
+
+
+/**
+ * A set of fee edits that is applied and published as a single version of the fee configuration.
+ * Fees without an ID are created, fees with an ID replace the existing fee with that ID.
+ *
+ * @param description         the description of the change
+ * @param regionalFees        the regional fees to create or replace
+ * @param deletedRegionalFees the IDs of the regional fees to delete
+ * @param weatherFees         the weather fees to create or replace
+ * @param deletedWeatherFees  the IDs of the weather fees to delete
+ * @param replaceWeatherFees  whether every existing weather fee that the changeset does not replace is deleted,
+ *                            as resolved when the changeset is applied
+ */
+public record FeeChangeset(String description,
+                           List<RegionalFee> regionalFees,
+                           List<Long> deletedRegionalFees,
+                           List<WeatherFee> weatherFees,
+                           List<Long> deletedWeatherFees,
+                           boolean replaceWeatherFees) {
+
+    public FeeChangeset {
+        regionalFees = regionalFees == null ? List.of() : regionalFees;
+        deletedRegionalFees = deletedRegionalFees == null ? List.of() : deletedRegionalFees;
+        weatherFees = weatherFees == null ? List.of() : weatherFees;
+        deletedWeatherFees = deletedWeatherFees == null ? List.of() : deletedWeatherFees;
+    }
+
+    public FeeChangeset(String description,
+                        List<RegionalFee> regionalFees,
+                        List<Long> deletedRegionalFees,
+                        List<WeatherFee> weatherFees,
+                        List<Long> deletedWeatherFees) {
+        this(description, regionalFees, deletedRegionalFees, weatherFees, deletedWeatherFees, false);
+    }
+}
@@ -0,0 +1,225 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+
+/**
+ * An immutable, versioned snapshot of the complete fee configuration: every regional fee and weather fee.
+ * <p>
+ * The snapshot holds its own copies of the fees, so it can be read concurrently without locks and is not affected
+ * by later changes to the fee entities. The returned fees must not be modified.
+ * <p>
+ * As fees can come into and go out of effect at set times, the snapshot splits time at every {@code validFrom} and
+ * {@code validTo} of its fees and pre-builds the {@link EffectiveFees} of every resulting interval. Resolving the fees
+ * in effect at an instant is a binary search over the interval boundaries, and the last resolved interval is
+ * remembered, so resolving the current fees is a single comparison until the next boundary passes.
+ */
+public final class FeeConfiguration {
+    private final long version;
+    private final long changeVersion;
+    private final Instant publishedAt;
+    private final String description;
+    private final List<RegionalFee> regionalFees;
+    private final List<WeatherFee> weatherFees;
+    private final List<EffectiveFees> timeline;
+    private final Instant[] boundaries;
+    // Only a lookup cache, the resolved fees are the same whichever interval it holds
+    private volatile EffectiveFees lastResolved;
+
+    /**
+     * Constructs a new snapshot of the specified fees, whose fee changes announced to the cluster are unknown.
+     *
+     * @param version      the version of the fee configuration
+     * @param publishedAt  the time the fee configuration was published
+     * @param description  the description of the change that produced this version
+     * @param regionalFees all regional fees
+     * @param weatherFees  all weather fees
+     */
+    public FeeConfiguration(long version,
+                            Instant publishedAt,
+                            String description,
+                            Collection<RegionalFee> regionalFees,
+                            Collection<WeatherFee> weatherFees) {
+        this(version, 0, publishedAt, description, regionalFees, weatherFees);
+    }
+
+    /**
+     * Constructs a new snapshot of the specified fees.
+     *
+     * @param version       the version of the fee configuration, counted by the publishing node
+     * @param changeVersion the number of fee changes announced to the cluster that the fees include
+     * @param publishedAt   the time the fee configuration was published
+     * @param description   the description of the change that produced this version
+     * @param regionalFees  all regional fees
+     * @param weatherFees   all weather fees
+     */
+    public FeeConfiguration(long version,
+                            long changeVersion,
+                            Instant publishedAt,
+                            String description,
+                            Collection<RegionalFee> regionalFees,
+                            Collection<WeatherFee> weatherFees) {
+        this.version = version;
+        this.changeVersion = changeVersion;
+        this.publishedAt = publishedAt;
+        this.description = description;
+        this.regionalFees = regionalFees.stream().map(FeeConfiguration::copyOf).toList();
+        this.weatherFees = weatherFees.stream().map(FeeConfiguration::copyOf).toList();
+        this.timeline = timelineOf(this.regionalFees, this.weatherFees);
+        this.boundaries = timeline.stream().skip(1).map(EffectiveFees::getValidFrom).toArray(Instant[]::new);
+        this.lastResolved = timeline.get(0);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of fee changes announced to the cluster that the fees include. Unlike the version, which
+     * every node counts for itself, it is the same on every node holding the same fees, or 0 if it is unknown.
+     *
+     * @return the number of announced fee changes
+     */
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<RegionalFee> getRegionalFees() {
+        return regionalFees;
+    }
+
+    public List<WeatherFee> getWeatherFees() {
+        return weatherFees;
+    }
+
+    /**
+     * Resolves the fees in effect at the specified instant.
+     *
+     * @param instant the instant to resolve the fees at
+     *
+     * @return the fees in effect at the instant
+     */
+    public EffectiveFees effectiveAt(Instant instant) {
+        EffectiveFees fees = lastResolved;
+        if (fees.contains(instant)) {
+            return fees;
+        }
+        int position = Arrays.binarySearch(boundaries, instant);
+        fees = timeline.get(position >= 0 ? position + 1 : -(position + 1));
+        lastResolved = fees;
+        return fees;
+    }
+
+    /**
+     * Retrieves the fees of every interval that overlaps the specified range, from the oldest.
+     *
+     * @param from the start of the range (inclusive), or null if the range is unbounded in the past
+     * @param to   the end of the range (exclusive), or null if the range is unbounded in the future
+     *
+     * @return the fees in effect at some time of the range
+     */
+    public List<EffectiveFees> effectiveBetween(Instant from, Instant to) {
+        return timeline.stream().filter(fees -> fees.overlaps(from, to)).toList();
+    }
+
+    /**
+     * Summarizes this version of the fee configuration, without the fees themselves.
+     *
+     * @return the summary of this version
+     */
+    public Summary summarize() {
+        return new Summary(version, publishedAt, description, regionalFees.size(), weatherFees.size());
+    }
+
+    /**
+     * Splits time at every bound of the validity of the fees and collects the fees in effect during every interval.
+     *
+     * @param regionalFees all regional fees
+     * @param weatherFees  all weather fees
+     *
+     * @return the fees of every interval, from the oldest; the first interval is unbounded in the past
+     * and the last one in the future
+     */
+    static List<EffectiveFees> timelineOf(Collection<RegionalFee> regionalFees, Collection<WeatherFee> weatherFees) {
+        Instant[] boundaries = Stream.concat(
+                        regionalFees.stream().flatMap(fee -> Stream.of(fee.getValidFrom(), fee.getValidTo())),
+                        weatherFees.stream().flatMap(fee -> Stream.of(fee.getValidFrom(), fee.getValidTo())))
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toArray(Instant[]::new);
+
+        List<EffectiveFees> timeline = new ArrayList<>(boundaries.length + 1);
+        for (int i = 0; i <= boundaries.length; i++) {
+            Instant start = i == 0 ? null : boundaries[i - 1];
+            Instant end = i == boundaries.length ? null : boundaries[i];
+            timeline.add(new EffectiveFees(start, end,
+                    inEffect(regionalFees, fee -> isInEffect(fee.getValidFrom(), fee.getValidTo(), start)),
+                    inEffect(weatherFees, fee -> isInEffect(fee.getValidFrom(), fee.getValidTo(), start))));
+        }
+        return timeline;
+    }
+
+    private static <T> List<T> inEffect(Collection<T> fees, Predicate<T> isInEffect) {
+        return fees.stream().filter(isInEffect).toList();
+    }
+
+    /**
+     * Checks if a fee is in effect during the interval starting at the specified instant.
+     * As no fee comes into or goes out of effect within an interval, checking its start is enough.
+     */
+    private static boolean isInEffect(Instant validFrom, Instant validTo, Instant intervalStart) {
+        if (intervalStart == null) {
+            return validFrom == null;
+        }
+        return (validFrom == null || !validFrom.isAfter(intervalStart))
+                && (validTo == null || validTo.isAfter(intervalStart));
+    }
+
+    static RegionalFee copyOf(RegionalFee regionalFee) {
+        RegionalFee copy = new RegionalFee(regionalFee.getCity(), regionalFee.getVehicle(), regionalFee.getFee());
+        copy.setId(regionalFee.getId());
+        copy.setValidFrom(regionalFee.getValidFrom());
+        copy.setValidTo(regionalFee.getValidTo());
+        return copy;
+    }
+
+    static WeatherFee copyOf(WeatherFee weatherFee) {
+        WeatherFee copy = new WeatherFee(weatherFee.getVehicle(), weatherFee.getCondition(), weatherFee.getAbove(),
+                weatherFee.getBelow(), weatherFee.getPhenomenon(), weatherFee.getFee());
+        copy.setId(weatherFee.getId());
+        copy.setValidFrom(weatherFee.getValidFrom());
+        copy.setValidTo(weatherFee.getValidTo());
+        return copy;
+    }
+
+    /**
+     * Summary of a version of the fee configuration.
+     *
+     * @param version          the version of the fee configuration
+     * @param publishedAt      the time the version was published
+     * @param description      the description of the change that produced the version
+     * @param regionalFeeCount the number of regional fees in the version
+     * @param weatherFeeCount  the number of weather fees in the version
+     */
+    public record Summary(long version,
+                          Instant publishedAt,
+                          String description,
+                          int regionalFeeCount,
+                          int weatherFeeCount) {
+    }
+}
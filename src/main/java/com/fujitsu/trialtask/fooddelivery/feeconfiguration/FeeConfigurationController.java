@@ -0,0 +1,84 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller class for publishing and restoring versions of the fee configuration.
+ */
+@RestController
+@RequestMapping("/api/fee-configuration")
+public class FeeConfigurationController {
+    private final FeeConfigurationService feeConfigurationService;
+
+    @Autowired
+    public FeeConfigurationController(FeeConfigurationService feeConfigurationService) {
+        this.feeConfigurationService = feeConfigurationService;
+    }
+
+    /**
+     * Retrieves the currently published fee configuration.
+     *
+     * @return ResponseEntity containing the current fee configuration and HTTP status 200 OK
+     */
+    @GetMapping
+    public ResponseEntity<FeeConfiguration> getCurrentFeeConfiguration() {
+        return ResponseEntity.ok(feeConfigurationService.current());
+    }
+
+    /**
+     * Retrieves the summaries of the fee configuration versions in the history.
+     *
+     * @return ResponseEntity containing the version summaries, from the oldest, and HTTP status 200 OK
+     */
+    @GetMapping("/versions")
+    public ResponseEntity<List<FeeConfiguration.Summary>> getFeeConfigurationVersions() {
+        return ResponseEntity.ok(feeConfigurationService.history());
+    }
+
+    /**
+     * Retrieves a version of the fee configuration.
+     *
+     * @param version the version to retrieve
+     *
+     * @return ResponseEntity containing the fee configuration of the version and HTTP status 200 OK
+     * @throws EntityNotFoundException if the version is not in the history
+     */
+    @GetMapping("/versions/{version}")
+    public ResponseEntity<FeeConfiguration> getFeeConfigurationVersion(@PathVariable long version) {
+        return ResponseEntity.ok(feeConfigurationService.version(version));
+    }
+
+    /**
+     * Applies a set of fee edits and publishes the result as a new version of the fee configuration.
+     *
+     * @param changeset the fee edits to apply
+     *
+     * @return ResponseEntity containing the published fee configuration and HTTP status 201 Created
+     * @throws EntityNotFoundException if an edited or deleted fee does not exist
+     * @throws EntityExistsException   if the resulting fees conflict with each other
+     */
+    @PostMapping("/versions")
+    public ResponseEntity<FeeConfiguration> publishFeeChangeset(@RequestBody FeeChangeset changeset) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(feeConfigurationService.apply(changeset));
+    }
+
+    /**
+     * Restores an earlier version of the fee configuration, publishing it as a new version.
+     *
+     * @param version the version to restore
+     *
+     * @return ResponseEntity containing the published fee configuration and HTTP status 201 Created
+     * @throws EntityNotFoundException if the version is not in the history
+     */
+    @PostMapping("/versions/{version}/rollback")
+    public ResponseEntity<FeeConfiguration> rollbackFeeConfiguration(@PathVariable long version) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(feeConfigurationService.rollback(version));
+    }
+}
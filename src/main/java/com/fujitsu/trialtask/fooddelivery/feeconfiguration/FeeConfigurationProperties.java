@@ -0,0 +1,13 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the versioned fee configuration.
+ *
+ * @param historySize the number of published versions kept in memory for rollback
+ */
+@ConfigurationProperties("fee-configuration")
+record FeeConfigurationProperties(@DefaultValue("100") int historySize) {
+}
@@ -0,0 +1,13 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+
+/**
+ * Application event published after a new version of the fee configuration has been published,
+ * on the thread that published it. Both versions are immutable, so they can be handed to other threads.
+ *
+ * @param previous the previously published version, or null if it is the first version since startup
+ * @param current  the newly published version
+ * @param remote   whether the version was reloaded after a change made on another node
+ */
+public record FeeConfigurationPublishedEvent(FeeConfiguration previous, FeeConfiguration current, boolean remote) {
+}
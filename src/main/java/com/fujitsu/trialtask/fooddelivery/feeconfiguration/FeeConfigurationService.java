@@ -0,0 +1,411 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.clustersync.RemoteChangeEvent;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeValidator;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Service class responsible for publishing versions of the fee configuration.
+ * <p>
+ * The published {@link FeeConfiguration} is an immutable snapshot held in an atomic reference, so the fee
+ * calculation reads a complete, consistent configuration without locks and never observes a half-applied change.
+ * A {@link FeeChangeset} is validated as a whole, written in a single transaction, and only then published.
+ * Fees only conflict with each other if they are in effect at the same time, so the resulting fees are validated
+ * separately for every interval of their timeline.
+ * Earlier versions are kept in memory (up to the configured history size), so any of them can be restored instantly.
+ * Restoring an earlier version publishes it as a new version, so the version numbers only ever increase.
+ * Every published version is announced with a {@link FeeConfigurationPublishedEvent}, followed by a
+ * {@link FeeRulesChangedEvent} naming the cells of the delivery fee matrix whose fee rules have changed.
+ * <p>
+ * Changes made on this node are announced to the other nodes sharing the database through {@link ChangeVersions}
+ * before they are published, so every published version knows the number of fee changes announced to the cluster that
+ * it includes.
+ * When another node changes the fees, the cached fee entities are evicted and the fees are reloaded and published.
+ * <p>
+ * At startup, the fees can be preloaded from elsewhere (e.g. a snapshot file), so they are served before the database
+ * is queried. The preloaded version is not announced; the version reconciled with the database afterwards is announced
+ * as the first version since startup instead.
+ */
+@Service
+public class FeeConfigurationService {
+    private static final Logger log = LoggerFactory.getLogger(FeeConfigurationService.class);
+    private final RegionalFeeRepository regionalFeeRepository;
+    private final WeatherFeeRepository weatherFeeRepository;
+    private final WeatherFeeValidator weatherFeeValidator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeVersions changeVersions;
+    private final int historySize;
+    private final Clock clock;
+    private final AtomicReference<FeeConfiguration> current = new AtomicReference<>();
+    private final NavigableMap<Long, FeeConfiguration> history = new ConcurrentSkipListMap<>();
+    // Whether the current version was preloaded and has not been reconciled with the database yet
+    private boolean preloaded;
+
+    @Autowired
+    public FeeConfigurationService(RegionalFeeRepository regionalFeeRepository,
+                                   WeatherFeeRepository weatherFeeRepository,
+                                   WeatherFeeValidator weatherFeeValidator,
+                                   EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ChangeVersions changeVersions,
+                                   FeeConfigurationProperties properties) {
+        this(regionalFeeRepository, weatherFeeRepository, weatherFeeValidator, entityManager, transactionManager,
+                eventPublisher, changeVersions, properties, Clock.systemUTC());
+    }
+
+    FeeConfigurationService(RegionalFeeRepository regionalFeeRepository,
+                            WeatherFeeRepository weatherFeeRepository,
+                            WeatherFeeValidator weatherFeeValidator,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            ChangeVersions changeVersions,
+                            FeeConfigurationProperties properties,
+                            Clock clock) {
+        this.regionalFeeRepository = regionalFeeRepository;
+        this.weatherFeeRepository = weatherFeeRepository;
+        this.weatherFeeValidator = weatherFeeValidator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.changeVersions = changeVersions;
+        this.historySize = Math.max(properties.historySize(), 1);
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieves the currently published fee configuration.
+     * The first call loads the fee configuration from the database.
+     *
+     * @return the current fee configuration
+     */
+    public FeeConfiguration current() {
+        FeeConfiguration configuration = current.get();
+        return configuration != null ? configuration : initialize();
+    }
+
+    /**
+     * Retrieves a version of the fee configuration that is still in the history.
+     *
+     * @param version the version to retrieve
+     *
+     * @return the fee configuration of the version
+     * @throws EntityNotFoundException if the version is not in the history
+     */
+    public FeeConfiguration version(long version) {
+        current();
+        FeeConfiguration configuration = history.get(version);
+        if (configuration == null) {
+            throw new EntityNotFoundException("Fee configuration version not found: " + version);
+        }
+        return configuration;
+    }
+
+    /**
+     * Summarizes the versions of the fee configuration in the history, from the oldest.
+     *
+     * @return the summaries of the versions
+     */
+    public List<FeeConfiguration.Summary> history() {
+        current();
+        return history.values().stream().map(FeeConfiguration::summarize).toList();
+    }
+
+    /**
+     * Reloads the fee configuration from the database and publishes it as a new version.
+     * Used after the fees have been changed one at a time.
+     *
+     * @param description the description of the change
+     *
+     * @return the published fee configuration
+     */
+    public synchronized FeeConfiguration refresh(String description) {
+        Fees fees = transactionTemplate.execute(status -> loadFees());
+        return publish(description, fees, false, announce());
+    }
+
+    /**
+     * Applies the edits of the changeset in a single transaction and publishes the result as a new version.
+     * The resulting set of fees is validated as a whole before anything is written.
+     *
+     * @param changeset the edits to apply
+     *
+     * @return the published fee configuration
+     * @throws EntityNotFoundException if an edited or deleted fee does not exist
+     * @throws EntityExistsException   if the resulting fees conflict with each other
+     */
+    public synchronized FeeConfiguration apply(FeeChangeset changeset) {
+        current();
+        Fees fees = transactionTemplate.execute(status -> {
+            Fees existing = loadFees();
+            Map<Long, RegionalFee> regionalFees = byId(existing.regionalFees(), RegionalFee::getId);
+            Map<Long, WeatherFee> weatherFees = byId(existing.weatherFees(), WeatherFee::getId);
+            List<Long> deletedWeatherFees = new ArrayList<>(changeset.deletedWeatherFees());
+            if (changeset.replaceWeatherFees()) {
+                // Resolved against the fees read here, so a concurrent change can't leave a fee behind
+                Set<Long> listed = new HashSet<>(deletedWeatherFees);
+                changeset.weatherFees().forEach(weatherFee -> listed.add(weatherFee.getId()));
+                weatherFees.keySet().stream().filter(id -> !listed.contains(id)).forEach(deletedWeatherFees::add);
+            }
+
+            List<RegionalFee> resultingRegionalFees = applyEdits(
+                    regionalFees, changeset.regionalFees(), changeset.deletedRegionalFees(), RegionalFee::getId, "Regional");
+            List<WeatherFee> resultingWeatherFees = applyEdits(
+                    weatherFees, changeset.weatherFees(), deletedWeatherFees, WeatherFee::getId, "Weather");
+            for (EffectiveFees effectiveFees : FeeConfiguration.timelineOf(resultingRegionalFees, resultingWeatherFees)) {
+                validateRegionalFees(effectiveFees.getRegionalFees());
+                weatherFeeValidator.validate(effectiveFees.getWeatherFees());
+            }
+
+            regionalFeeRepository.deleteAllById(changeset.deletedRegionalFees());
+            weatherFeeRepository.deleteAllById(deletedWeatherFees);
+            // Deletions first, so a deleted fee can be replaced by a new one with the same unique key
+            entityManager.flush();
+            regionalFeeRepository.saveAll(changeset.regionalFees());
+            weatherFeeRepository.saveAll(changeset.weatherFees());
+            return loadFees();
+        });
+        return publish(describe(changeset.description(), "Applied a fee changeset"), fees, false, announce());
+    }
+
+    /**
+     * Restores an earlier version of the fee configuration in a single transaction and publishes it as a new version.
+     * Restored fees that have been deleted in the meantime are created again with new IDs.
+     *
+     * @param version the version to restore
+     *
+     * @return the published fee configuration
+     * @throws EntityNotFoundException if the version is not in the history
+     */
+    public synchronized FeeConfiguration rollback(long version) {
+        FeeConfiguration target = version(version);
+        Fees fees = transactionTemplate.execute(status -> {
+            Fees existing = loadFees();
+            restore(regionalFeeRepository, existing.regionalFees(), target.getRegionalFees(),
+                    RegionalFee::getId, FeeConfiguration::copyOf, RegionalFee::setId);
+            restore(weatherFeeRepository, existing.weatherFees(), target.getWeatherFees(),
+                    WeatherFee::getId, FeeConfiguration::copyOf, WeatherFee::setId);
+            return loadFees();
+        });
+        return publish("Rollback to version " + version, fees, false, announce());
+    }
+
+    /**
+     * Evicts the cached fee entities and queries after another node has changed the fees, and reloads and publishes
+     * the fees if they have already been loaded. Otherwise they are loaded fresh on first use anyway.
+     *
+     * @param event the change detected on another node
+     */
+    @EventListener
+    public synchronized void onRemoteChange(RemoteChangeEvent event) {
+        if (event.topic() != ChangeTopic.FEES) {
+            return;
+        }
+        entityManager.getEntityManagerFactory().getCache().evict(RegionalFee.class);
+        entityManager.getEntityManagerFactory().getCache().evict(WeatherFee.class);
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        if (current.get() != null) {
+            publish("Reloaded after a change on another node", transactionTemplate.execute(status -> loadFees()), true,
+                    event.version());
+        }
+    }
+
+    /**
+     * Publishes preloaded fees as the first version, unless the fee configuration has already been loaded.
+     * The version is not announced, as the fees have not been read from the database.
+     *
+     * @param description  the description of the preloaded fees
+     * @param regionalFees the preloaded regional fees
+     * @param weatherFees  the preloaded weather fees
+     *
+     * @return whether the fees were preloaded
+     */
+    public synchronized boolean preload(String description,
+                                        Collection<RegionalFee> regionalFees,
+                                        Collection<WeatherFee> weatherFees) {
+        if (current.get() != null) {
+            return false;
+        }
+        FeeConfiguration configuration = new FeeConfiguration(1, clock.instant(), description, regionalFees, weatherFees);
+        history.put(configuration.getVersion(), configuration);
+        current.set(configuration);
+        preloaded = true;
+        log.info("Preloaded fee configuration version 1: {}", description);
+        return true;
+    }
+
+    /**
+     * Replaces preloaded fees with the fees loaded from the database and publishes them as a new version.
+     * Does nothing if the fee configuration has been published since it was preloaded, or was never preloaded.
+     */
+    public synchronized void reconcile() {
+        if (preloaded) {
+            long changeVersion = changeVersions.read(ChangeTopic.FEES);
+            publish("Loaded from the database", transactionTemplate.execute(status -> loadFees()), false, changeVersion);
+        }
+    }
+
+    private synchronized FeeConfiguration initialize() {
+        FeeConfiguration configuration = current.get();
+        if (configuration != null) {
+            return configuration;
+        }
+        // Read before the fees, so fees changed in between are reloaded once the change is detected
+        long changeVersion = changeVersions.read(ChangeTopic.FEES);
+        return publish("Loaded from the database", transactionTemplate.execute(status -> loadFees()), false,
+                changeVersion);
+    }
+
+    /**
+     * Announces a change of the fees made on this node to the other nodes.
+     *
+     * @return the number of fee changes announced to the cluster, including this one if it could be announced
+     */
+    private long announce() {
+        long changeVersion = changeVersions.bump(ChangeTopic.FEES);
+        FeeConfiguration previous = current.get();
+        return changeVersion == 0 && previous != null ? previous.getChangeVersion() : changeVersion;
+    }
+
+    private FeeConfiguration publish(String description, Fees fees, boolean remote, long changeVersion) {
+        FeeConfiguration previous = current.get();
+        long version = previous == null ? 1 : previous.getVersion() + 1;
+        FeeConfiguration configuration = new FeeConfiguration(
+                version, changeVersion, clock.instant(), description, fees.regionalFees(), fees.weatherFees());
+
+        history.put(version, configuration);
+        while (history.size() > historySize) {
+            history.pollFirstEntry();
+        }
+        current.set(configuration);
+        // The preloaded version was never announced, so this one is announced as the first
+        FeeConfiguration announcedPrevious = preloaded ? null : previous;
+        preloaded = false;
+        log.info("Published fee configuration version {}: {}", version, description);
+        eventPublisher.publishEvent(new FeeConfigurationPublishedEvent(announcedPrevious, configuration, remote));
+        FeeRulesChangedEvent rulesChanged = FeeRulesChangedEvent.between(previous, configuration);
+        if (!rulesChanged.cells().isEmpty()) {
+            eventPublisher.publishEvent(rulesChanged);
+        }
+        return configuration;
+    }
+
+    private Fees loadFees() {
+        return new Fees(listOf(regionalFeeRepository.findAll()), listOf(weatherFeeRepository.findAll()));
+    }
+
+    private void validateRegionalFees(List<RegionalFee> regionalFees) {
+        Map<City, Set<Vehicle>> seen = new EnumMap<>(City.class);
+        for (RegionalFee regionalFee : regionalFees) {
+            City city = regionalFee.getCity();
+            Vehicle vehicle = regionalFee.getVehicle();
+            if (city != null && vehicle != null
+                    && !seen.computeIfAbsent(city, c -> EnumSet.noneOf(Vehicle.class)).add(vehicle)) {
+                throw new EntityExistsException("Regional fee already exists for city: " + city + " and vehicle: " + vehicle);
+            }
+        }
+    }
+
+    /**
+     * Applies the edits to the existing fees in memory.
+     *
+     * @return the resulting set of fees
+     */
+    private <T> List<T> applyEdits(Map<Long, T> existing,
+                                   List<T> upserts,
+                                   List<Long> deletions,
+                                   Function<T, Long> idOf,
+                                   String type) {
+        for (Long id : deletions) {
+            if (existing.remove(id) == null) {
+                throw new EntityNotFoundException(type + " fee not found with id: " + id);
+            }
+        }
+        List<T> created = new ArrayList<>();
+        for (T fee : upserts) {
+            Long id = idOf.apply(fee);
+            if (id == null) {
+                created.add(fee);
+            } else if (existing.replace(id, fee) == null) {
+                throw new EntityNotFoundException(type + " fee not found with id: " + id);
+            }
+        }
+        List<T> result = new ArrayList<>(existing.values());
+        result.addAll(created);
+        return result;
+    }
+
+    private <T> void restore(CrudRepository<T, Long> repository,
+                             List<T> existing,
+                             List<T> target,
+                             Function<T, Long> idOf,
+                             UnaryOperator<T> copyOf,
+                             BiConsumer<T, Long> setId) {
+        Set<Long> existingIds = byId(existing, idOf).keySet();
+        Set<Long> targetIds = byId(target, idOf).keySet();
+
+        repository.deleteAllById(existingIds.stream().filter(id -> !targetIds.contains(id)).toList());
+        entityManager.flush();
+
+        List<T> restored = new ArrayList<>();
+        for (T fee : target) {
+            T copy = copyOf.apply(fee);
+            if (!existingIds.contains(idOf.apply(fee))) {
+                setId.accept(copy, null);
+            }
+            restored.add(copy);
+        }
+        repository.saveAll(restored);
+    }
+
+    private static <T> Map<Long, T> byId(Collection<T> fees, Function<T, Long> idOf) {
+        Map<Long, T> byId = new LinkedHashMap<>();
+        fees.forEach(fee -> byId.put(idOf.apply(fee), fee));
+        return byId;
+    }
+
+    private static <T> List<T> listOf(Iterable<T> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), false).toList();
+    }
+
+    private static String describe(String description, String fallback) {
+        return description == null || description.isBlank() ? fallback : description;
+    }
+
+    private record Fees(List<RegionalFee> regionalFees, List<WeatherFee> weatherFees) {
+    }
+}
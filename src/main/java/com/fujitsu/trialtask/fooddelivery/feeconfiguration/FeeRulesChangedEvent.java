@@ -0,0 +1,95 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+
+/**
+ * Application event published after a new version of the fee configuration has been published, naming the cells of
+ * the delivery fee matrix whose fee rules have changed. A changed regional fee affects its city and vehicle type,
+ * a changed weather fee affects its vehicle type in every city.
+ * <p>
+ * Published on the thread that published the version, right after its {@link FeeConfigurationPublishedEvent};
+ * listeners doing more than a trivial amount of work must hand it off to a thread of their own.
+ *
+ * @param current the newly published version
+ * @param cells   the cells whose fee rules have changed
+ */
+public record FeeRulesChangedEvent(FeeConfiguration current, Set<FeeCell> cells) {
+
+    /**
+     * Determines the cells whose fee rules differ between two versions of the fee configuration.
+     *
+     * @param previous the previous version, or null if there is none, in which case every cell is affected
+     * @param current  the new version
+     *
+     * @return the event naming the affected cells, which may be none
+     */
+    static FeeRulesChangedEvent between(FeeConfiguration previous, FeeConfiguration current) {
+        if (previous == null) {
+            return new FeeRulesChangedEvent(current, new LinkedHashSet<>(FeeCell.all()));
+        }
+
+        Set<FeeCell> cells = new LinkedHashSet<>();
+        for (RegionalFee fee : changed(previous.getRegionalFees(), current.getRegionalFees(),
+                RegionalFee::getId, FeeRulesChangedEvent::isSame)) {
+            if (fee.getCity() != null && fee.getVehicle() != null) {
+                cells.add(new FeeCell(fee.getCity(), fee.getVehicle()));
+            }
+        }
+        for (WeatherFee fee : changed(previous.getWeatherFees(), current.getWeatherFees(),
+                WeatherFee::getId, FeeRulesChangedEvent::isSame)) {
+            if (fee.getVehicle() != null) {
+                cells.addAll(FeeCell.of(fee.getVehicle()));
+            }
+        }
+        return new FeeRulesChangedEvent(current, cells);
+    }
+
+    /**
+     * Collects the fees that were created, deleted or updated, with both their old and new state if updated.
+     */
+    private static <T> List<T> changed(List<T> before,
+                                       List<T> after,
+                                       Function<T, Long> idOf,
+                                       BiPredicate<T, T> isSame) {
+        Map<Long, T> remaining = new HashMap<>();
+        before.forEach(fee -> remaining.put(idOf.apply(fee), fee));
+
+        List<T> changed = new ArrayList<>();
+        for (T fee : after) {
+            T old = remaining.remove(idOf.apply(fee));
+            if (old == null || !isSame.test(old, fee)) {
+                changed.add(fee);
+                if (old != null) {
+                    changed.add(old);
+                }
+            }
+        }
+        changed.addAll(remaining.values());
+        return changed;
+    }
+
+    private static boolean isSame(RegionalFee a, RegionalFee b) {
+        return a.getCity() == b.getCity()
+                && a.getVehicle() == b.getVehicle()
+                && Objects.equals(a.getFee(), b.getFee())
+                && Objects.equals(a.getValidFrom(), b.getValidFrom())
+                && Objects.equals(a.getValidTo(), b.getValidTo());
+    }
+
+    private static boolean isSame(WeatherFee a, WeatherFee b) {
+        return a.getVehicle() == b.getVehicle()
+                && a.getCondition() == b.getCondition()
+                && Objects.equals(a.getAbove(), b.getAbove())
+                && Objects.equals(a.getBelow(), b.getBelow())
+                && Objects.equals(a.getPhenomenon(), b.getPhenomenon())
+                && Objects.equals(a.getFee(), b.getFee())
+                && Objects.equals(a.getValidFrom(), b.getValidFrom())
+                && Objects.equals(a.getValidTo(), b.getValidTo());
+    }
+}
@@ -0,0 +1,171 @@
+package com.fujitsu.trialtask.fooddelivery.helpers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+
+/**
+ * Builds the responses of the listing endpoints, which return entities either a page at a time or as a stream.
+ * <p>
+ * Pages are keyed by the ID of the last entity of the previous page (the cursor), which is returned in the
+ * {@value #NEXT_CURSOR_HEADER} header as long as there are more entities. Streams are written as NDJSON while the
+ * rows are read from the database, and every entity is detached once written, so neither mode holds more than a
+ * bounded number of entities in memory, however many there are. Values computed while the response is
+ * written (e.g. from the weather history) are streamed as NDJSON the same way.
+ */
+@Component
+public class EntityListing {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectWriter objectWriter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    @Autowired
+    public EntityListing(ObjectMapper objectMapper,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${listing.default-page-size:100}") int defaultPageSize,
+                         @Value("${listing.max-page-size:1000}") int maxPageSize) {
+        this.objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Resolves the requested page size.
+     *
+     * @param limit the requested page size, or null for the default page size
+     *
+     * @return the page size
+     * @throws InvalidRequestException if the requested page size is not between 1 and the maximum page size
+     */
+    public int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidRequestException("The limit must be between 1 and " + maxPageSize);
+        }
+        return limit;
+    }
+
+    /**
+     * Converts an optional filter parameter to an enum.
+     *
+     * @param input     the filter parameter, or null if not specified
+     * @param enumClass the enum class to convert to
+     * @param <T>       the enum type
+     *
+     * @return the enum value, or null if the filter parameter is not specified
+     * @throws InvalidRequestException if the filter parameter does not match any enum value
+     */
+    public <T extends Enum<T>> T filter(String input, Class<T> enumClass) {
+        if (input == null) {
+            return null;
+        }
+        T value = EnumConverter.convertStringToEnum(input, enumClass);
+        if (value == null) {
+            throw new InvalidRequestException("Invalid %s filter: %s".formatted(enumClass.getSimpleName(), input));
+        }
+        return value;
+    }
+
+    /**
+     * Builds the response of a page.
+     *
+     * @param entities the entities of the page, fetched with one more than the page size to detect the next page
+     * @param pageSize the page size
+     * @param idOf     the function returning the ID of an entity
+     * @param <T>      the entity type
+     *
+     * @return ResponseEntity containing the entities of the page and, if there is a next page, its cursor
+     */
+    public <T> ResponseEntity<List<T>> page(List<T> entities, int pageSize, Function<T, Long> idOf) {
+        if (entities.size() <= pageSize) {
+            return ResponseEntity.ok(entities);
+        }
+        List<T> page = entities.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(page.get(pageSize - 1))))
+                .body(page);
+    }
+
+    /**
+     * Builds the response of a stream, written as NDJSON in a read-only transaction.
+     *
+     * @param query the query opening the stream of entities
+     * @param <T>   the entity type
+     *
+     * @return ResponseEntity streaming the entities
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<T>> query) {
+        StreamingResponseBody body = outputStream -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> entities = query.get()) {
+                Iterator<T> iterator = entities.iterator();
+                while (iterator.hasNext()) {
+                    T entity = iterator.next();
+                    writeLine(outputStream, entity);
+                    entityManager.detach(entity);
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Builds the response of a stream of values computed while the response is written, written as NDJSON.
+     * Every value is flushed as soon as it is written, so the client receives it while the rest is being computed.
+     *
+     * @param producer the producer, passing every value to the given consumer as it is computed
+     * @param <T>      the value type
+     *
+     * @return ResponseEntity streaming the values
+     */
+    public <T> ResponseEntity<StreamingResponseBody> streamValues(Consumer<Consumer<T>> producer) {
+        StreamingResponseBody body = outputStream -> producer.accept(value -> {
+            try {
+                writeLine(outputStream, value);
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Object value) throws IOException {
+        objectWriter.writeValue(outputStream, value);
+        outputStream.write('\n');
+    }
+}
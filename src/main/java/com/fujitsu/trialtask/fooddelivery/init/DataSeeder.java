@@ -3,6 +3,7 @@ package com.fujitsu.trialtask.fooddelivery.init;
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
 import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
 import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
@@ -22,11 +23,15 @@ public class DataSeeder implements CommandLineRunner {
 
     private final RegionalFeeRepository regionalFeeRepository;
     private final WeatherFeeRepository weatherFeeRepository;
+    private final FeeConfigurationService feeConfigurationService;
 
     @Autowired
-    public DataSeeder(RegionalFeeRepository regionalFeeRepository, WeatherFeeRepository weatherFeeRepository) {
+    public DataSeeder(RegionalFeeRepository regionalFeeRepository,
+                      WeatherFeeRepository weatherFeeRepository,
+                      FeeConfigurationService feeConfigurationService) {
         this.regionalFeeRepository = regionalFeeRepository;
         this.weatherFeeRepository = weatherFeeRepository;
+        this.feeConfigurationService = feeConfigurationService;
     }
 
     /**
@@ -40,6 +45,7 @@ public class DataSeeder implements CommandLineRunner {
         if (regionalFeeRepository.count() == 0 && weatherFeeRepository.count() == 0) {
             seedRegionalFeeRules();
             seedWeatherFeeRules();
+            feeConfigurationService.refresh("Seeded the default fees");
         }
     }
 
@@ -0,0 +1,52 @@
+package com.fujitsu.trialtask.fooddelivery.regionalfee;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component dropping the unique keys that regional fees had before their current one.
+ * <p>
+ * The schema is only ever updated, never recreated, so a database created before {@code valid_from} was part of the
+ * key still carries the key on city and vehicle, which rejects a scheduled successor of a fee, and a database created
+ * before the key used {@code valid_since} carries the key on {@code valid_from}, which the current key supersedes.
+ * They are dropped while the application starts, after the schema update and before the fees are seeded or changed.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class LegacyRegionalFeeConstraint {
+    static final String NAME = "uk_regional_fee_city_vehicle";
+    static final String VALID_FROM_NAME = "uk_regional_fee_city_vehicle_valid_from";
+    private static final Logger log = LoggerFactory.getLogger(LegacyRegionalFeeConstraint.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LegacyRegionalFeeConstraint(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Drops the legacy unique keys of the regional fee table that still exist.
+     */
+    @PostConstruct
+    public void drop() {
+        drop(NAME);
+        drop(VALID_FROM_NAME);
+    }
+
+    private void drop(String name) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE UPPER(TABLE_NAME) = 'REGIONAL_FEE' AND UPPER(CONSTRAINT_NAME) = UPPER(?)",
+                Integer.class, name);
+        if (count == null || count == 0) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE regional_fee DROP CONSTRAINT " + name);
+        log.info("Dropped the legacy unique key {} of the regional fees", name);
+    }
+}
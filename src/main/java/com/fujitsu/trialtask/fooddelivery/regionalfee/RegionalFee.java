@@ -4,13 +4,28 @@ import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.helpers.EnumConverter;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
 
 /**
  * Entity class representing regional fee information for a specific city and vehicle type.
+ * The fee is only in effect from {@code validFrom} (inclusive) until {@code validTo} (exclusive); an unset bound
+ * means the fee has been in effect since always or stays in effect indefinitely.
+ * There is at most one regional fee in effect per city and vehicle type at any time. The database backs this with a
+ * unique key of city, vehicle type and start of validity, where a fee in effect since always starts at the earliest
+ * representable instant, so that two such fees can't be stored even though their {@code valid_from} is null.
+ * Regional fees are kept in the second-level cache, as they are read on every fee calculation but rarely written.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_regional_fee_city_vehicle_valid_since",
+        columnNames = {"city", "vehicle", "valid_since"}))
 public class RegionalFee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,6 +43,14 @@ public class RegionalFee {
     @Min(value = 0, message = "The fee must be a positive number")
     private Float fee;
 
+    private Instant validFrom;
+    private Instant validTo;
+
+    // Computed by the database from validFrom, only for the unique key
+    @Column(insertable = false, updatable = false, columnDefinition = "timestamp(6) with time zone generated always as "
+            + "(coalesce(valid_from, timestamp with time zone '0001-01-01 00:00:00+00'))")
+    private Instant validSince;
+
     /**
      * Default constructor.
      */
@@ -87,6 +110,22 @@ public class RegionalFee {
         this.fee = baseFee;
     }
 
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(Instant validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public Instant getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(Instant validTo) {
+        this.validTo = validTo;
+    }
+
     @Override
     public String toString() {
         return "RegionalFee{" +
@@ -94,6 +133,13 @@ public class RegionalFee {
                 ", city=" + city +
                 ", vehicle=" + vehicle +
                 ", fee=" + fee +
+                ", validFrom=" + validFrom +
+                ", validTo=" + validTo +
                 '}';
     }
+
+    @AssertTrue(message = "The value of 'validFrom' must be before 'validTo' if both are set")
+    private boolean isValidFromBeforeValidTo() {
+        return validFrom == null || validTo == null || validFrom.isBefore(validTo);
+    }
 }
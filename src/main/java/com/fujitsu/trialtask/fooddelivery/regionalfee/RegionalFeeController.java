@@ -1,35 +1,87 @@
 package com.fujitsu.trialtask.fooddelivery.regionalfee;
 
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeChangeset;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 
 /**
  * Controller class for handling CRUD operations related to regional fees.
+ * Every change is published as a new version of the fee configuration. Created, updated and patched fees are applied
+ * as a changeset, so they are validated against the other fees while no other fee change can interleave.
  */
 @RestController
 @RequestMapping("/api/regional-fees")
 class RegionalFeeController {
     private final RegionalFeeRepository regionalFeeRepository;
+    private final FeeConfigurationService feeConfigurationService;
+    private final EntityListing entityListing;
 
     @Autowired
-    public RegionalFeeController(RegionalFeeRepository regionalFeeRepository) {
+    public RegionalFeeController(RegionalFeeRepository regionalFeeRepository,
+                                 FeeConfigurationService feeConfigurationService,
+                                 EntityListing entityListing) {
         this.regionalFeeRepository = regionalFeeRepository;
+        this.feeConfigurationService = feeConfigurationService;
+        this.entityListing = entityListing;
     }
 
     /**
-     * Retrieves all regional fees.
+     * Retrieves a page of regional fees, optionally filtered by city and vehicle type.
+     * If there are more regional fees, the cursor of the next page is returned in the X-Next-Cursor header.
+     *
+     * @param cityName    the city to filter by (optional)
+     * @param vehicleName the vehicle type to filter by (optional)
+     * @param after       the cursor of the page, i.e. the ID of the last regional fee of the previous page
+     * @param limit       the maximum number of regional fees in the page (optional)
      *
-     * @return ResponseEntity containing the list of regional fees
+     * @return ResponseEntity containing the list of the regional fees of the page
+     * @throws InvalidRequestException if a filter or the limit is invalid
      */
     @GetMapping
-    public ResponseEntity<Iterable<RegionalFee>> getAllRegionalFees() {
-        Iterable<RegionalFee> regionalFees = regionalFeeRepository.findAll();
-        return ResponseEntity.ok(regionalFees);
+    public ResponseEntity<List<RegionalFee>> getAllRegionalFees(
+            @RequestParam(value = "city", required = false) String cityName,
+            @RequestParam(value = "vehicle", required = false) String vehicleName,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        City city = entityListing.filter(cityName, City.class);
+        Vehicle vehicle = entityListing.filter(vehicleName, Vehicle.class);
+        int pageSize = entityListing.pageSize(limit);
+
+        List<RegionalFee> regionalFees = regionalFeeRepository.findPage(after, city, vehicle, Limit.of(pageSize + 1));
+        return entityListing.page(regionalFees, pageSize, RegionalFee::getId);
+    }
+
+    /**
+     * Streams all regional fees as NDJSON, optionally filtered by city and vehicle type.
+     * Selected by requesting the application/x-ndjson media type.
+     *
+     * @param cityName    the city to filter by (optional)
+     * @param vehicleName the vehicle type to filter by (optional)
+     *
+     * @return ResponseEntity streaming the regional fees
+     * @throws InvalidRequestException if a filter is invalid
+     */
+    @GetMapping(produces = EntityListing.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamRegionalFees(
+            @RequestParam(value = "city", required = false) String cityName,
+            @RequestParam(value = "vehicle", required = false) String vehicleName) {
+        City city = entityListing.filter(cityName, City.class);
+        Vehicle vehicle = entityListing.filter(vehicleName, Vehicle.class);
+        return entityListing.stream(() -> regionalFeeRepository.streamAll(city, vehicle));
     }
 
     /**
@@ -55,15 +107,15 @@ class RegionalFeeController {
      * @param regionalFee the regional fee to create
      *
      * @return ResponseEntity containing the created regional fee and HTTP status 201 Created
-     * @throws EntityExistsException if a regional fee already exists for the specified city and vehicle
+     * @throws EntityExistsException if a regional fee for the specified city and vehicle is already in effect
+     *                               at some time of the validity of the new regional fee
      */
     @PostMapping
     public ResponseEntity<RegionalFee> createRegionalFee(@RequestBody RegionalFee regionalFee) {
-        if (regionalFeeRepository.existsByCityAndVehicle(regionalFee.getCity(), regionalFee.getVehicle())) {
-            throw new EntityExistsException("Regional fee already exists for city: " + regionalFee.getCity() + " and vehicle: " + regionalFee.getVehicle());
-        }
-        RegionalFee savedFee = regionalFeeRepository.save(regionalFee);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedFee);
+        regionalFee.setId(null);
+        save(regionalFee, "Created regional fee for city: " + regionalFee.getCity()
+                + " and vehicle: " + regionalFee.getVehicle());
+        return ResponseEntity.status(HttpStatus.CREATED).body(regionalFee);
     }
 
     /**
@@ -74,17 +126,14 @@ class RegionalFeeController {
      *
      * @return ResponseEntity containing the updated regional fee and HTTP status 200 OK
      * @throws EntityNotFoundException if no regional fee is found with the specified ID
+     * @throws EntityExistsException   if another regional fee for the same city and vehicle is in effect
+     *                                 at some time of the validity of the updated regional fee
      */
     @PutMapping("/{id}")
     public ResponseEntity<RegionalFee> updateRegionalFee(@PathVariable Long id, @RequestBody RegionalFee updatedRegionalFee) {
-        RegionalFee existingRegionalFee = regionalFeeRepository.findById(id)
-                .orElse(null);
-        if (existingRegionalFee == null) {
-            throw new EntityNotFoundException("Regional fee not found with id: " + id);
-        }
         updatedRegionalFee.setId(id);
-        RegionalFee savedFee = regionalFeeRepository.save(updatedRegionalFee);
-        return ResponseEntity.ok(savedFee);
+        save(updatedRegionalFee, "Updated regional fee " + id);
+        return ResponseEntity.ok(updatedRegionalFee);
     }
 
     /**
@@ -95,6 +144,8 @@ class RegionalFeeController {
      *
      * @return ResponseEntity containing the updated regional fee and HTTP status 200 OK
      * @throws EntityNotFoundException if no regional fee is found with the specified ID
+     * @throws EntityExistsException   if another regional fee for the same city and vehicle is in effect
+     *                                 at some time of the validity of the patched regional fee
      */
     @PatchMapping("/{id}")
     public ResponseEntity<RegionalFee> patchRegionalFee(@PathVariable Long id, @RequestBody RegionalFee updatedRegionalFee) {
@@ -113,9 +164,15 @@ class RegionalFeeController {
         if (updatedRegionalFee.getFee() != null) {
             existingRegionalFee.setFee(updatedRegionalFee.getFee());
         }
+        if (updatedRegionalFee.getValidFrom() != null) {
+            existingRegionalFee.setValidFrom(updatedRegionalFee.getValidFrom());
+        }
+        if (updatedRegionalFee.getValidTo() != null) {
+            existingRegionalFee.setValidTo(updatedRegionalFee.getValidTo());
+        }
 
-        RegionalFee savedFee = regionalFeeRepository.save(existingRegionalFee);
-        return ResponseEntity.ok(savedFee);
+        save(existingRegionalFee, "Patched regional fee " + id);
+        return ResponseEntity.ok(existingRegionalFee);
     }
 
     /**
@@ -128,6 +185,11 @@ class RegionalFeeController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteRegionalFee(@PathVariable Long id) {
         regionalFeeRepository.deleteById(id);
+        feeConfigurationService.refresh("Deleted regional fee " + id);
         return ResponseEntity.noContent().build();
     }
+
+    private void save(RegionalFee regionalFee, String description) {
+        feeConfigurationService.apply(new FeeChangeset(description, List.of(regionalFee), null, null, null));
+    }
 }
@@ -2,10 +2,19 @@ package com.fujitsu.trialtask.fooddelivery.regionalfee;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing regional fee entities.
  */
@@ -19,19 +28,57 @@ public interface RegionalFeeRepository extends CrudRepository<RegionalFee, Long>
      *
      * @return the regional fee matching the specified city and vehicle type, or null if not found
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     RegionalFee findByCityAndVehicle(
             @NotNull(message = "The city must be specified") City city,
             @NotNull(message = "The vehicle type must be specified") Vehicle vehicle);
 
     /**
-     * Checks if a regional fee exists for the specified city and vehicle type.
+     * Retrieves a page of regional fees in the order of their IDs, optionally filtered by city and vehicle type.
+     * The pages are keyed by ID rather than offset, so a page is found through the primary key index however deep it is.
      *
-     * @param city    the city for which to check the existence of a regional fee
-     * @param vehicle the vehicle type for which to check the existence of a regional fee
+     * @param after   the ID of the last regional fee of the previous page, or 0 for the first page
+     * @param city    the city, or null for all cities
+     * @param vehicle the vehicle type, or null for all vehicle types
+     * @param limit   the maximum number of regional fees to retrieve
      *
-     * @return true if a regional fee exists for the specified city and vehicle type, otherwise false
+     * @return the regional fees with a greater ID than {@code after}
      */
-    boolean existsByCityAndVehicle(
-            @NotNull(message = "The city must be specified") City city,
-            @NotNull(message = "The vehicle type must be specified") Vehicle vehicle);
+    @Query("""
+            SELECT rf
+            FROM RegionalFee rf
+            WHERE rf.id > :after
+              AND (:city IS NULL OR rf.city = :city)
+              AND (:vehicle IS NULL OR rf.vehicle = :vehicle)
+            ORDER BY rf.id
+            """)
+    List<RegionalFee> findPage(
+            @Param("after") long after,
+            @Param("city") City city,
+            @Param("vehicle") Vehicle vehicle,
+            Limit limit);
+
+    /**
+     * Streams the regional fees in the order of their IDs, optionally filtered by city and vehicle type.
+     * The rows are fetched from the database in batches as the stream is consumed, which must happen in a transaction.
+     *
+     * @param city    the city, or null for all cities
+     * @param vehicle the vehicle type, or null for all vehicle types
+     *
+     * @return a stream of the regional fees, to be closed after use
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT rf
+            FROM RegionalFee rf
+            WHERE (:city IS NULL OR rf.city = :city)
+              AND (:vehicle IS NULL OR rf.vehicle = :vehicle)
+            ORDER BY rf.id
+            """)
+    Stream<RegionalFee> streamAll(
+            @Param("city") City city,
+            @Param("vehicle") Vehicle vehicle);
 }
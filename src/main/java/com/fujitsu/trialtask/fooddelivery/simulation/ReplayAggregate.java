@@ -0,0 +1,168 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherObservation;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.Tariff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The aggregated outcome of replaying a consecutive slice of the weather history of a city, under the current and
+ * the candidate tariff, for every vehicle type available in the city.
+ * <p>
+ * An observation is presumed to be in effect until the next observation, but at most for the maximum observation gap.
+ * As the time between the last observation of a slice and the first observation of the next slice is only known once
+ * both are replayed, slices are replayed independently and then merged in time order.
+ */
+final class ReplayAggregate {
+    private static final int CURRENT = 0;
+    private static final int CANDIDATE = 1;
+
+    private final Tariff[] tariffs;
+    private final Vehicle[] vehicles;
+    private final float[] regionalFees;
+    private final long maxGapSeconds;
+
+    private long observations;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private final double[][] feeSums;
+    private final long[][] allowedObservations;
+    private final long[][] forbiddenObservations;
+    private final long[][] forbiddenSeconds;
+    private final boolean[][] lastForbidden;
+
+    /**
+     * Constructs a new, empty aggregate.
+     *
+     * @param current       the current tariff
+     * @param candidate     the candidate tariff
+     * @param vehicles      the vehicle types available in the city
+     * @param regionalFees  the regional fees of the vehicle types, in the same order
+     * @param maxGapSeconds the longest time an observation is presumed to stay in effect, in seconds
+     */
+    ReplayAggregate(Tariff current, Tariff candidate, Vehicle[] vehicles, float[] regionalFees, long maxGapSeconds) {
+        this.tariffs = new Tariff[]{current, candidate};
+        this.vehicles = vehicles;
+        this.regionalFees = regionalFees;
+        this.maxGapSeconds = maxGapSeconds;
+        this.feeSums = new double[2][vehicles.length];
+        this.allowedObservations = new long[2][vehicles.length];
+        this.forbiddenObservations = new long[2][vehicles.length];
+        this.forbiddenSeconds = new long[2][vehicles.length];
+        this.lastForbidden = new boolean[2][vehicles.length];
+    }
+
+    /**
+     * Adds the next observation of the slice.
+     *
+     * @param observation the observation, not older than the previously added observation
+     */
+    void accept(WeatherObservation observation) {
+        if (observations == 0) {
+            firstTimestamp = observation.timestamp();
+        } else {
+            addLastObservationDuration(observation.timestamp() - lastTimestamp);
+        }
+        observations++;
+        lastTimestamp = observation.timestamp();
+
+        for (int tariff = 0; tariff < tariffs.length; tariff++) {
+            for (int vehicle = 0; vehicle < vehicles.length; vehicle++) {
+                float weatherFee = tariffs[tariff].weatherFee(vehicles[vehicle], observation);
+                boolean forbidden = Float.isNaN(weatherFee);
+                if (forbidden) {
+                    forbiddenObservations[tariff][vehicle]++;
+                } else {
+                    feeSums[tariff][vehicle] += regionalFees[vehicle] + weatherFee;
+                    allowedObservations[tariff][vehicle]++;
+                }
+                lastForbidden[tariff][vehicle] = forbidden;
+            }
+        }
+    }
+
+    /**
+     * Merges the aggregate of the directly following slice into this aggregate.
+     *
+     * @param next the aggregate of the following slice
+     *
+     * @return this aggregate
+     */
+    ReplayAggregate merge(ReplayAggregate next) {
+        if (next.observations == 0) {
+            return this;
+        }
+        if (observations == 0) {
+            firstTimestamp = next.firstTimestamp;
+        } else {
+            addLastObservationDuration(next.firstTimestamp - lastTimestamp);
+        }
+        observations += next.observations;
+        lastTimestamp = next.lastTimestamp;
+
+        for (int tariff = 0; tariff < tariffs.length; tariff++) {
+            for (int vehicle = 0; vehicle < vehicles.length; vehicle++) {
+                feeSums[tariff][vehicle] += next.feeSums[tariff][vehicle];
+                allowedObservations[tariff][vehicle] += next.allowedObservations[tariff][vehicle];
+                forbiddenObservations[tariff][vehicle] += next.forbiddenObservations[tariff][vehicle];
+                forbiddenSeconds[tariff][vehicle] += next.forbiddenSeconds[tariff][vehicle];
+                lastForbidden[tariff][vehicle] = next.lastForbidden[tariff][vehicle];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Builds the results of the whole replayed range, once all of its slices are merged.
+     *
+     * @param city the replayed city
+     * @param end  the end of the replayed range, in Unix timestamp format
+     *
+     * @return the result of every vehicle type available in the city
+     */
+    List<SimulationResult> results(City city, long end) {
+        long lastDuration = observations == 0 ? 0 : durationOf(end - lastTimestamp);
+
+        List<SimulationResult> results = new ArrayList<>(vehicles.length);
+        for (int vehicle = 0; vehicle < vehicles.length; vehicle++) {
+            SimulationResult.Outcome current = outcome(CURRENT, vehicle, lastDuration);
+            SimulationResult.Outcome candidate = outcome(CANDIDATE, vehicle, lastDuration);
+            Float meanFeeChange = current.meanFee() == null || candidate.meanFee() == null
+                    ? null
+                    : round(candidate.meanFee() - current.meanFee());
+            results.add(new SimulationResult(city, vehicles[vehicle], observations, current, candidate,
+                    meanFeeChange, round(candidate.forbiddenHours() - current.forbiddenHours())));
+        }
+        return results;
+    }
+
+    private SimulationResult.Outcome outcome(int tariff, int vehicle, long lastDuration) {
+        long allowed = allowedObservations[tariff][vehicle];
+        Float meanFee = allowed == 0 ? null : round(feeSums[tariff][vehicle] / allowed);
+        long seconds = forbiddenSeconds[tariff][vehicle] + (lastForbidden[tariff][vehicle] ? lastDuration : 0);
+        return new SimulationResult.Outcome(meanFee, forbiddenObservations[tariff][vehicle], round(seconds / 3600.0));
+    }
+
+    private long durationOf(long secondsToNext) {
+        return Math.min(Math.max(secondsToNext, 0), maxGapSeconds);
+    }
+
+    private void addLastObservationDuration(long secondsToNext) {
+        long duration = durationOf(secondsToNext);
+        for (int tariff = 0; tariff < tariffs.length; tariff++) {
+            for (int vehicle = 0; vehicle < vehicles.length; vehicle++) {
+                if (lastForbidden[tariff][vehicle]) {
+                    forbiddenSeconds[tariff][vehicle] += duration;
+                }
+            }
+        }
+    }
+
+    private static float round(double value) {
+        return Math.round(value * 100) / 100.0f;
+    }
+}
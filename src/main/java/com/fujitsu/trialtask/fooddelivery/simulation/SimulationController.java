@@ -0,0 +1,45 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityExistsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+
+/**
+ * Controller class for simulating candidate weather fees against the stored weather history.
+ */
+@RestController
+@RequestMapping("/api/simulations")
+class SimulationController {
+    private final TariffSimulator tariffSimulator;
+    private final EntityListing entityListing;
+
+    @Autowired
+    public SimulationController(TariffSimulator tariffSimulator, EntityListing entityListing) {
+        this.tariffSimulator = tariffSimulator;
+        this.entityListing = entityListing;
+    }
+
+    /**
+     * Replays the weather history of the requested range against the candidate weather fees and streams the result
+     * of every city and vehicle type as NDJSON, a city at a time, compared with the current weather fees.
+     *
+     * @param request the candidate weather fees and the range to replay
+     *
+     * @return ResponseEntity streaming the simulation results
+     * @throws InvalidRequestException if the range is missing or empty, or a candidate weather fee is invalid
+     * @throws EntityExistsException   if the candidate weather fees conflict with each other
+     */
+    @PostMapping(produces = EntityListing.NDJSON)
+    public ResponseEntity<StreamingResponseBody> simulate(@RequestBody SimulationRequest request) {
+        TariffSimulator.Simulation simulation = tariffSimulator.prepare(request);
+        return entityListing.streamValues(simulation::run);
+    }
+}
@@ -0,0 +1,22 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the tariff simulation.
+ *
+ * @param parallelism        the number of slices of the weather history replayed at the same time
+ *                           (each holds a database connection while it is replayed)
+ * @param sliceLength        the length of the slices the weather history of a city is split into
+ * @param maxObservationGap  the longest time an observation is presumed to stay in effect, when the next observation
+ *                           is later than that (e.g. after a collection outage) or the range ends
+ */
+@ConfigurationProperties("simulation")
+record SimulationProperties(
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("7d") Duration sliceLength,
+        @DefaultValue("1h") Duration maxObservationGap) {
+}
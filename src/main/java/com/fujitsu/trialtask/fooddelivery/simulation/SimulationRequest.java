@@ -0,0 +1,17 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * A candidate set of weather fees to replay against the stored weather history.
+ *
+ * @param weatherFees the candidate weather fees, replacing all current weather fees
+ * @param from        the start of the replayed range (inclusive)
+ * @param to          the end of the replayed range (exclusive)
+ */
+public record SimulationRequest(List<WeatherFee> weatherFees, Instant from, Instant to) {
+}
@@ -0,0 +1,37 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+
+
+/**
+ * The outcome of replaying the weather history of a city for a vehicle type under the current and the candidate
+ * weather fees.
+ *
+ * @param city                 the city
+ * @param vehicle              the vehicle type
+ * @param observations         the number of replayed observations
+ * @param current              the outcome under the current weather fees
+ * @param candidate            the outcome under the candidate weather fees
+ * @param meanFeeChange        the change of the mean delivery fee, or null if either mean is unknown
+ * @param forbiddenHoursChange the change of the hours the vehicle type is forbidden
+ */
+public record SimulationResult(City city,
+                               Vehicle vehicle,
+                               long observations,
+                               Outcome current,
+                               Outcome candidate,
+                               Float meanFeeChange,
+                               double forbiddenHoursChange) {
+
+    /**
+     * The outcome of replaying the weather history under a set of weather fees.
+     *
+     * @param meanFee               the mean delivery fee of the observations the vehicle type is allowed in,
+     *                              or null if it is forbidden in all of them
+     * @param forbiddenObservations the number of observations the vehicle type is forbidden in
+     * @param forbiddenHours        the hours the vehicle type is forbidden
+     */
+    public record Outcome(Float meanFee, long forbiddenObservations, double forbiddenHours) {
+    }
+}
@@ -0,0 +1,182 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.EffectiveFees;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.Tariff;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeValidator;
+import jakarta.persistence.EntityExistsException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+
+/**
+ * Service class replaying the stored weather history against a candidate set of weather fees, to compare the
+ * delivery fees and the hours each vehicle type would have been forbidden with those of the current weather fees.
+ * <p>
+ * The weather history of every city is split into slices of the configured length, which are replayed in parallel on
+ * a fork-join pool, each scanning its range of the in-memory {@link WeatherHistory}. No entities are loaded, and every
+ * slice is reduced to a fixed-size {@link ReplayAggregate} while it is scanned, so the replay needs no memory per
+ * observation. The aggregates of a city are merged in time order and its results are emitted as soon as
+ * all of its slices are replayed.
+ * <p>
+ * The fees of the current fee configuration that are in effect now are the current tariff, and their regional fees
+ * are used for both tariffs. Weather data older than the retention
+ * window, which has been compacted into summaries, is not replayed.
+ */
+@Service
+public class TariffSimulator {
+    private static final Logger log = LoggerFactory.getLogger(TariffSimulator.class);
+    private final WeatherHistory weatherHistory;
+    private final FeeConfigurationService feeConfigurationService;
+    private final WeatherFeeValidator weatherFeeValidator;
+    private final Validator validator;
+    private final SimulationProperties properties;
+
+    @Autowired
+    public TariffSimulator(WeatherHistory weatherHistory,
+                           FeeConfigurationService feeConfigurationService,
+                           WeatherFeeValidator weatherFeeValidator,
+                           Validator validator,
+                           SimulationProperties properties) {
+        this.weatherHistory = weatherHistory;
+        this.feeConfigurationService = feeConfigurationService;
+        this.weatherFeeValidator = weatherFeeValidator;
+        this.validator = validator;
+        this.properties = properties;
+    }
+
+    /**
+     * Validates the simulation request and prepares the simulation, without replaying anything yet.
+     *
+     * @param request the candidate weather fees and the range to replay
+     *
+     * @return the prepared simulation
+     * @throws InvalidRequestException if the range is missing or empty, or a candidate weather fee is invalid
+     * @throws EntityExistsException   if the candidate weather fees conflict with each other
+     */
+    public Simulation prepare(SimulationRequest request) {
+        if (request.from() == null || request.to() == null || !request.from().isBefore(request.to())) {
+            throw new InvalidRequestException("The simulated range must have a start before its end");
+        }
+        if (request.weatherFees() == null) {
+            throw new InvalidRequestException("The candidate weather fees must be specified");
+        }
+        for (int i = 0; i < request.weatherFees().size(); i++) {
+            Set<ConstraintViolation<WeatherFee>> violations = validator.validate(request.weatherFees().get(i));
+            if (!violations.isEmpty()) {
+                throw new InvalidRequestException("Invalid weather fee at index %d: %s".formatted(i,
+                        violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "))));
+            }
+        }
+        weatherFeeValidator.validate(request.weatherFees());
+
+        EffectiveFees effectiveFees = feeConfigurationService.current().effectiveAt(Instant.now());
+        return new Simulation(effectiveFees, new Tariff(request.weatherFees()),
+                request.from().getEpochSecond(), request.to().getEpochSecond());
+    }
+
+    /**
+     * A validated simulation, replaying a range of the weather history once it is run.
+     */
+    public final class Simulation {
+        private final EffectiveFees effectiveFees;
+        private final Tariff current;
+        private final Tariff candidate;
+        private final long from;
+        private final long to;
+
+        private Simulation(EffectiveFees effectiveFees, Tariff candidate, long from, long to) {
+            this.effectiveFees = effectiveFees;
+            this.current = effectiveFees.tariff();
+            this.candidate = candidate;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Replays the weather history and passes the result of every city and vehicle type to the consumer,
+         * a city at a time.
+         *
+         * @param consumer the consumer of the results, called from the calling thread
+         */
+        public void run(Consumer<SimulationResult> consumer) {
+            long start = System.nanoTime();
+            long sliceSeconds = Math.max(properties.sliceLength().toSeconds(), 1);
+            ForkJoinPool pool = new ForkJoinPool(Math.max(properties.parallelism(), 1));
+
+            try {
+                Map<City, List<CompletableFuture<ReplayAggregate>>> slicesByCity = new EnumMap<>(City.class);
+                for (City city : City.values()) {
+                    Vehicle[] vehicles = availableVehicles(city);
+                    if (vehicles.length == 0) {
+                        continue;
+                    }
+                    List<CompletableFuture<ReplayAggregate>> slices = new ArrayList<>();
+                    for (long sliceStart = from; sliceStart < to; sliceStart += sliceSeconds) {
+                        long sliceFrom = sliceStart;
+                        long sliceTo = Math.min(sliceStart + sliceSeconds, to);
+                        slices.add(CompletableFuture.supplyAsync(
+                                () -> replay(city, vehicles, sliceFrom, sliceTo), pool));
+                    }
+                    slicesByCity.put(city, slices);
+                }
+
+                slicesByCity.forEach((city, slices) -> {
+                    ReplayAggregate aggregate = slices.stream()
+                            .map(Simulation::join)
+                            .reduce(ReplayAggregate::merge)
+                            .orElseThrow();
+                    aggregate.results(city, to).forEach(consumer);
+                });
+            } finally {
+                pool.shutdownNow();
+            }
+            log.info("Tariff simulation of {} to {} finished in {} ms", from, to, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        private Vehicle[] availableVehicles(City city) {
+            return Arrays.stream(Vehicle.values())
+                    .filter(vehicle -> effectiveFees.regionalFeeOf(city, vehicle) != null)
+                    .toArray(Vehicle[]::new);
+        }
+
+        private ReplayAggregate replay(City city, Vehicle[] vehicles, long sliceFrom, long sliceTo) {
+            float[] regionalFees = new float[vehicles.length];
+            for (int i = 0; i < vehicles.length; i++) {
+                regionalFees[i] = effectiveFees.regionalFeeOf(city, vehicles[i]);
+            }
+            ReplayAggregate aggregate = new ReplayAggregate(current, candidate, vehicles, regionalFees,
+                    properties.maxObservationGap().toSeconds());
+            weatherHistory.observations(city, sliceFrom, sliceTo).forEach(aggregate::accept);
+            return aggregate;
+        }
+
+        private static ReplayAggregate join(CompletableFuture<ReplayAggregate> slice) {
+            try {
+                return slice.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Error replaying the weather history", e.getCause());
+            }
+        }
+    }
+}
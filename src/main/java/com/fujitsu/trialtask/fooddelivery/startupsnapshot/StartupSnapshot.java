@@ -0,0 +1,286 @@
+package com.fujitsu.trialtask.fooddelivery.startupsnapshot;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+
+/**
+ * Snapshot of the state the fee calculation needs: a version of the fee configuration and the latest weather data
+ * of every city.
+ * <p>
+ * The snapshot is stored in a compact binary format: a header with a magic number and the format version, the fees
+ * and the weather data as fixed-order fields (the numeric weather values in the order of
+ * {@link WeatherCondition#numeric()}), and a CRC32 checksum of everything before it. Nullable fields are
+ * preceded by a presence flag, enums are stored by name and strings as length-prefixed UTF-8. A snapshot file is
+ * written to a temporary file that then replaces the old one, and read by memory-mapping it.
+ *
+ * @param feeVersion   the version of the fee configuration
+ * @param publishedAt  the time the fee configuration was published
+ * @param description  the description of the fee configuration version
+ * @param regionalFees all regional fees
+ * @param weatherFees  all weather fees
+ * @param weatherData  the latest weather data of the cities that have any
+ */
+record StartupSnapshot(long feeVersion,
+                       Instant publishedAt,
+                       String description,
+                       List<RegionalFee> regionalFees,
+                       List<WeatherFee> weatherFees,
+                       List<WeatherData> weatherData) {
+    static final int MAGIC = 0x46445353;
+    static final int FORMAT_VERSION = 2;
+
+    static StartupSnapshot of(FeeConfiguration configuration, List<WeatherData> weatherData) {
+        return new StartupSnapshot(configuration.getVersion(), configuration.getPublishedAt(),
+                configuration.getDescription(), configuration.getRegionalFees(), configuration.getWeatherFees(),
+                weatherData);
+    }
+
+    /**
+     * Writes the snapshot to the file, replacing it atomically.
+     *
+     * @param path the snapshot file
+     *
+     * @throws IOException if the file can't be written
+     */
+    void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, encode());
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the file by memory-mapping it.
+     *
+     * @param path the snapshot file
+     *
+     * @return the snapshot
+     * @throws IOException if the file can't be read, or is not a valid snapshot of the current format version
+     */
+    static StartupSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(feeVersion);
+        writeInstant(out, publishedAt);
+        writeString(out, description);
+
+        out.writeInt(regionalFees.size());
+        for (RegionalFee fee : regionalFees) {
+            writeLong(out, fee.getId());
+            writeString(out, nameOf(fee.getCity()));
+            writeString(out, nameOf(fee.getVehicle()));
+            writeFloat(out, fee.getFee());
+            writeInstant(out, fee.getValidFrom());
+            writeInstant(out, fee.getValidTo());
+        }
+
+        out.writeInt(weatherFees.size());
+        for (WeatherFee fee : weatherFees) {
+            writeLong(out, fee.getId());
+            writeString(out, nameOf(fee.getVehicle()));
+            writeString(out, nameOf(fee.getCondition()));
+            writeFloat(out, fee.getAbove());
+            writeFloat(out, fee.getBelow());
+            writeString(out, fee.getPhenomenon());
+            writeFloat(out, fee.getFee());
+            writeInstant(out, fee.getValidFrom());
+            writeInstant(out, fee.getValidTo());
+        }
+
+        out.writeInt(weatherData.size());
+        for (WeatherData data : weatherData) {
+            writeLong(out, data.getId());
+            writeLong(out, data.getTimestamp());
+            writeString(out, nameOf(data.getCity()));
+            writeInteger(out, data.getWmocode());
+            writeString(out, data.getPhenomenon());
+            for (WeatherCondition condition : WeatherCondition.numeric()) {
+                writeFloat(out, data.getValue(condition));
+            }
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        out.writeInt((int) checksum.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static StartupSnapshot decode(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        if (length < 3 * Integer.BYTES) {
+            throw new IOException("Not a startup snapshot: too short");
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(buffer.position(), length - Integer.BYTES));
+        if ((int) checksum.getValue() != buffer.getInt(buffer.position() + length - Integer.BYTES)) {
+            throw new IOException("Corrupt startup snapshot: checksum mismatch");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a startup snapshot: wrong magic number");
+        }
+        int formatVersion = buffer.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported startup snapshot format version: " + formatVersion);
+        }
+
+        try {
+            long feeVersion = buffer.getLong();
+            Instant publishedAt = readInstant(buffer);
+            String description = readString(buffer);
+
+            List<RegionalFee> regionalFees = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                RegionalFee fee = new RegionalFee();
+                fee.setId(readLong(buffer));
+                fee.setCity(readEnum(buffer, City.class));
+                fee.setVehicle(readEnum(buffer, Vehicle.class));
+                fee.setFee(readFloat(buffer));
+                fee.setValidFrom(readInstant(buffer));
+                fee.setValidTo(readInstant(buffer));
+                regionalFees.add(fee);
+            }
+
+            List<WeatherFee> weatherFees = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                WeatherFee fee = new WeatherFee();
+                fee.setId(readLong(buffer));
+                fee.setVehicle(readEnum(buffer, Vehicle.class));
+                fee.setCondition(readEnum(buffer, WeatherCondition.class));
+                fee.setAbove(readFloat(buffer));
+                fee.setBelow(readFloat(buffer));
+                fee.setPhenomenon(readString(buffer));
+                fee.setFee(readFloat(buffer));
+                fee.setValidFrom(readInstant(buffer));
+                fee.setValidTo(readInstant(buffer));
+                weatherFees.add(fee);
+            }
+
+            List<WeatherData> weatherData = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                WeatherData data = new WeatherData();
+                data.setId(readLong(buffer));
+                data.setTimestamp(readLong(buffer));
+                data.setCity(readEnum(buffer, City.class));
+                data.setWmocode(readInteger(buffer));
+                data.setPhenomenon(readString(buffer));
+                for (WeatherCondition condition : WeatherCondition.numeric()) {
+                    data.setValue(condition, readFloat(buffer));
+                }
+                weatherData.add(data);
+            }
+            return new StartupSnapshot(feeVersion, publishedAt, description, regionalFees, weatherFees, weatherData);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt startup snapshot", e);
+        }
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeFloat(DataOutputStream out, Float value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeFloat(value);
+        }
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer buffer, Class<E> type) {
+        String name = readString(buffer);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    private static Long readLong(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getLong() : null;
+    }
+
+    private static Integer readInteger(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getInt() : null;
+    }
+
+    private static Float readFloat(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getFloat() : null;
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        return buffer.get() != 0 ? Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()) : null;
+    }
+}
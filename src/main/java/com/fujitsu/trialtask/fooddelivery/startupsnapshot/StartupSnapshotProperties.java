@@ -0,0 +1,13 @@
+package com.fujitsu.trialtask.fooddelivery.startupsnapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the startup snapshot of the fees and the latest weather data.
+ *
+ * @param path the snapshot file, or blank to neither write nor restore a snapshot
+ */
+@ConfigurationProperties("startup-snapshot")
+record StartupSnapshotProperties(@DefaultValue("") String path) {
+}
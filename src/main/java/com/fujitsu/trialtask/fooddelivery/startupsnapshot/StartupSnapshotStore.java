@@ -0,0 +1,187 @@
+package com.fujitsu.trialtask.fooddelivery.startupsnapshot;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationPublishedEvent;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Component keeping a {@link StartupSnapshot} of the fees and the latest weather data on disk, so a restarted
+ * instance serves fees right away instead of loading them from the database first.
+ * <p>
+ * The snapshot is restored while the application starts, before the web server accepts requests and before anything
+ * queries the fees or the weather data. Once the application is ready, the restored state is reconciled with the
+ * database in the background, which catches up on the changes made while the instance was down.
+ * <p>
+ * The snapshot is rewritten in the background after every change of the fees or the latest weather data. Changes made
+ * while a write is pending are coalesced into it, as the write always takes the current state.
+ */
+@Component
+public class StartupSnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(StartupSnapshotStore.class);
+    private final FeeConfigurationService feeConfigurationService;
+    private final LatestWeatherData latestWeatherData;
+    private final TaskScheduler taskScheduler;
+    private final Path path;
+    private final Executor writer;
+    private final Clock clock;
+    private final AtomicBoolean writePending = new AtomicBoolean();
+    private volatile boolean restored;
+
+    @Autowired
+    public StartupSnapshotStore(FeeConfigurationService feeConfigurationService,
+                                LatestWeatherData latestWeatherData,
+                                TaskScheduler taskScheduler,
+                                StartupSnapshotProperties properties) {
+        this(feeConfigurationService, latestWeatherData, taskScheduler, properties,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "startup-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                }),
+                Clock.systemUTC());
+    }
+
+    StartupSnapshotStore(FeeConfigurationService feeConfigurationService,
+                         LatestWeatherData latestWeatherData,
+                         TaskScheduler taskScheduler,
+                         StartupSnapshotProperties properties,
+                         Executor writer,
+                         Clock clock) {
+        this.feeConfigurationService = feeConfigurationService;
+        this.latestWeatherData = latestWeatherData;
+        this.taskScheduler = taskScheduler;
+        this.path = properties.path().isBlank() ? null : Path.of(properties.path());
+        this.writer = writer;
+        this.clock = clock;
+    }
+
+    /**
+     * Restores the fees and the latest weather data from the snapshot file, if there is a valid one.
+     * An unreadable snapshot is ignored, and everything is loaded from the database as usual.
+     */
+    @PostConstruct
+    public void restore() {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        StartupSnapshot snapshot;
+        try {
+            snapshot = StartupSnapshot.read(path);
+        } catch (IOException e) {
+            log.warn("Ignoring the startup snapshot {}", path, e);
+            return;
+        }
+
+        String description = "Restored from the startup snapshot of version " + snapshot.feeVersion()
+                + " published at " + snapshot.publishedAt() + " (" + snapshot.description() + ")";
+        boolean feesRestored = feeConfigurationService.preload(
+                description, snapshot.regionalFees(), snapshot.weatherFees());
+        latestWeatherData.preload(snapshot.weatherData());
+        restored = true;
+        log.info("Restored {} regional fees, {} weather fees and the weather data of {} cities from the startup "
+                        + "snapshot in {}{}", snapshot.regionalFees().size(), snapshot.weatherFees().size(),
+                snapshot.weatherData().size(), Duration.ofNanos(System.nanoTime() - start),
+                feesRestored ? "" : " (the fees had already been loaded)");
+    }
+
+    /**
+     * Reconciles the restored fees and weather data with the database in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        if (!restored) {
+            return;
+        }
+        taskScheduler.schedule(() -> {
+            try {
+                feeConfigurationService.reconcile();
+                latestWeatherData.reload();
+                log.info("Reconciled the startup snapshot with the database");
+            } catch (RuntimeException e) {
+                log.error("Failed to reconcile the startup snapshot with the database", e);
+            }
+        }, clock.instant());
+    }
+
+    /**
+     * Rewrites the snapshot after a new version of the fee configuration has been published.
+     *
+     * @param event the published version
+     */
+    @EventListener
+    public void onFeesPublished(FeeConfigurationPublishedEvent event) {
+        requestWrite();
+    }
+
+    /**
+     * Rewrites the snapshot after the latest weather data has changed.
+     *
+     * @param event the changes of the latest weather data
+     */
+    @EventListener
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        requestWrite();
+    }
+
+    /**
+     * Waits for a pending write and stops the writer.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("The startup snapshot was still being written at shutdown");
+            }
+        }
+    }
+
+    private void requestWrite() {
+        if (path != null && writePending.compareAndSet(false, true)) {
+            writer.execute(this::write);
+        }
+    }
+
+    private void write() {
+        // Cleared first, so a change made during the write requests another one
+        writePending.set(false);
+        try {
+            List<WeatherData> weatherData = Arrays.stream(City.values())
+                    .map(latestWeatherData::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            StartupSnapshot.of(feeConfigurationService.current(), weatherData).write(path);
+            log.debug("Wrote the startup snapshot {}", path);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write the startup snapshot {}", path, e);
+        }
+    }
+}
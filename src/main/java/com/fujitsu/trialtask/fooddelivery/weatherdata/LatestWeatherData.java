@@ -0,0 +1,140 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.RemoteChangeEvent;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory view of the latest weather data of every city.
+ * <p>
+ * The view is loaded from the database on first access and afterwards kept up to date by the components that
+ * save weather data, so reading the latest weather of a city doesn't query the database.
+ * Weather data saved by another node sharing the database is picked up by reloading the view when the change is
+ * detected. At startup, the view can be preloaded from elsewhere (e.g. a snapshot file) before the database is queried.
+ * Every change is announced with a {@link WeatherChangedEvent} carrying the previous and the new data of the cities.
+ */
+@Component
+public class LatestWeatherData {
+    private final WeatherDataRepository weatherDataRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReferenceArray<WeatherData> latest = new AtomicReferenceArray<>(City.values().length);
+    private volatile boolean loaded;
+
+    @Autowired
+    public LatestWeatherData(WeatherDataRepository weatherDataRepository, ApplicationEventPublisher eventPublisher) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Retrieves the latest weather data for the specified city.
+     *
+     * @param city the city for which to retrieve the latest weather data
+     *
+     * @return the latest weather data for the specified city, or null if there is none
+     */
+    public WeatherData get(City city) {
+        if (!loaded) {
+            reload();
+        }
+        return latest.get(city.ordinal());
+    }
+
+    /**
+     * Records newly saved weather data. Data older than the currently known latest data of its city is ignored.
+     *
+     * @param weatherData the saved weather data
+     */
+    public void update(Collection<WeatherData> weatherData) {
+        if (!loaded) {
+            reload();
+        }
+        Map<City, WeatherChangedEvent.Change> changes = new EnumMap<>(City.class);
+        for (WeatherData data : weatherData) {
+            City city = data.getCity();
+            WeatherData previous = latest.getAndAccumulate(city.ordinal(), data, LatestWeatherData::newer);
+            if (newer(previous, data) == data) {
+                // Several data of a city in one batch are a single change, from the first previous to the last
+                changes.merge(city, new WeatherChangedEvent.Change(city, previous, data),
+                        (first, next) -> new WeatherChangedEvent.Change(city, first.previous(), next.current()));
+            }
+        }
+        announce(new ArrayList<>(changes.values()));
+    }
+
+    /**
+     * Fills the view with weather data known without querying the database, unless it has already been loaded.
+     * The view counts as loaded afterwards, so it is only reloaded from the database when {@link #reload()} is called.
+     *
+     * @param weatherData the latest known weather data of the cities
+     */
+    public synchronized void preload(Collection<WeatherData> weatherData) {
+        if (loaded) {
+            return;
+        }
+        for (WeatherData data : weatherData) {
+            latest.accumulateAndGet(data.getCity().ordinal(), data, LatestWeatherData::newer);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Reloads the latest weather data of every city from the database.
+     */
+    public synchronized void reload() {
+        List<WeatherChangedEvent.Change> changes = new ArrayList<>();
+        for (City city : City.values()) {
+            WeatherData current = weatherDataRepository.findFirstByCityOrderByTimestampDesc(city);
+            WeatherData previous = latest.getAndSet(city.ordinal(), current);
+            if (!isSameObservation(previous, current)) {
+                changes.add(new WeatherChangedEvent.Change(city, previous, current));
+            }
+        }
+        loaded = true;
+        announce(changes);
+    }
+
+    /**
+     * Reloads the view after another node has saved weather data, if it has already been loaded.
+     *
+     * @param event the change detected on another node
+     */
+    @EventListener
+    public void onRemoteChange(RemoteChangeEvent event) {
+        if (event.topic() == ChangeTopic.WEATHER && loaded) {
+            reload();
+        }
+    }
+
+    private void announce(List<WeatherChangedEvent.Change> changes) {
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new WeatherChangedEvent(List.copyOf(changes)));
+        }
+    }
+
+    private static boolean isSameObservation(WeatherData a, WeatherData b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Objects.equals(a.getId(), b.getId()) && Objects.equals(a.getTimestamp(), b.getTimestamp());
+    }
+
+    private static WeatherData newer(WeatherData current, WeatherData candidate) {
+        if (current == null || candidate.getTimestamp() >= current.getTimestamp()) {
+            return candidate;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,38 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/**
+ * Application event published after the latest weather data of some cities has changed in {@link LatestWeatherData},
+ * on the thread that changed it, e.g. the one collecting the weather report. Listeners doing more than a trivial
+ * amount of work must hand it off to a thread of their own, so the ingest is never held up.
+ *
+ * @param changes the change of every city whose latest weather data has changed
+ */
+public record WeatherChangedEvent(List<Change> changes) {
+
+    /**
+     * Retrieves the cities whose latest weather data has changed.
+     *
+     * @return the changed cities
+     */
+    public Set<City> cities() {
+        return changes.stream().map(Change::city).collect(Collectors.toCollection(() -> EnumSet.noneOf(City.class)));
+    }
+
+    /**
+     * A change of the latest weather data of a city.
+     *
+     * @param city     the city
+     * @param previous the previous latest weather data, or null if there was none
+     * @param current  the new latest weather data, or null if there is none anymore
+     */
+    public record Change(City city, WeatherData previous, WeatherData current) {
+    }
+}
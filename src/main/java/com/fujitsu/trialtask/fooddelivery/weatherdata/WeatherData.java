@@ -1,19 +1,30 @@
 package com.fujitsu.trialtask.fooddelivery.weatherdata;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import java.util.Objects;
 
 /**
  * Represents weather data for a particular location at a particular time.
  * This class is a JPA entity and can be persisted to a database using an appropriate JPA implementation.
+ * The weather data is uniquely indexed by city and timestamp (newest first), so the latest weather data of a city
+ * is found without scanning the whole history and an observation is never stored twice.
+ * <p>
+ * Besides its own getters, every numeric {@link WeatherCondition} is read with {@link #getValue(WeatherCondition)},
+ * or all of them at once as a primitive array with {@link #numericValues()}.
  */
 @Entity
+@Table(indexes = @Index(name = WeatherData.CITY_TIMESTAMP_KEY, columnList = "city, timestamp DESC", unique = true))
 public class WeatherData {
+    static final String CITY_TIMESTAMP_KEY = "uk_weather_data_city_timestamp";
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,6 +34,14 @@ public class WeatherData {
     private String phenomenon;
     private Float airTemperature;
     private Float windSpeed;
+    private Float precipitation;
+    private Float visibility;
+    private Float windGust;
+    private Float relativeHumidity;
+
+    // The numeric values indexed by condition, built on first use
+    @Transient
+    private transient float[] numericValues;
 
     /**
      * Constructs a new WeatherData object with the specified values.
@@ -79,6 +98,7 @@ public class WeatherData {
 
     public void setAirTemperature(Float airTemperature) {
         this.airTemperature = airTemperature;
+        numericValues = null;
     }
 
     public Float getWindSpeed() {
@@ -87,6 +107,103 @@ public class WeatherData {
 
     public void setWindSpeed(Float windSpeed) {
         this.windSpeed = windSpeed;
+        numericValues = null;
+    }
+
+    public Float getPrecipitation() {
+        return precipitation;
+    }
+
+    public void setPrecipitation(Float precipitation) {
+        this.precipitation = precipitation;
+        numericValues = null;
+    }
+
+    public Float getVisibility() {
+        return visibility;
+    }
+
+    public void setVisibility(Float visibility) {
+        this.visibility = visibility;
+        numericValues = null;
+    }
+
+    public Float getWindGust() {
+        return windGust;
+    }
+
+    public void setWindGust(Float windGust) {
+        this.windGust = windGust;
+        numericValues = null;
+    }
+
+    public Float getRelativeHumidity() {
+        return relativeHumidity;
+    }
+
+    public void setRelativeHumidity(Float relativeHumidity) {
+        this.relativeHumidity = relativeHumidity;
+        numericValues = null;
+    }
+
+    /**
+     * Returns the value of a numeric weather condition.
+     *
+     * @param condition the numeric condition
+     *
+     * @return the value, or null if it was not reported
+     * @throws IllegalArgumentException if the condition is not numeric
+     */
+    public Float getValue(WeatherCondition condition) {
+        return switch (condition) {
+            case AIR_TEMPERATURE -> airTemperature;
+            case WIND_SPEED -> windSpeed;
+            case PRECIPITATION -> precipitation;
+            case VISIBILITY -> visibility;
+            case WIND_GUST -> windGust;
+            case RELATIVE_HUMIDITY -> relativeHumidity;
+            case PHENOMENON -> throw new IllegalArgumentException("The phenomenon is not a numeric condition");
+        };
+    }
+
+    /**
+     * Sets the value of a numeric weather condition.
+     *
+     * @param condition the numeric condition
+     * @param value     the value, or null if it was not reported
+     *
+     * @throws IllegalArgumentException if the condition is not numeric
+     */
+    public void setValue(WeatherCondition condition, Float value) {
+        switch (condition) {
+            case AIR_TEMPERATURE -> airTemperature = value;
+            case WIND_SPEED -> windSpeed = value;
+            case PRECIPITATION -> precipitation = value;
+            case VISIBILITY -> visibility = value;
+            case WIND_GUST -> windGust = value;
+            case RELATIVE_HUMIDITY -> relativeHumidity = value;
+            case PHENOMENON -> throw new IllegalArgumentException("The phenomenon is not a numeric condition");
+        }
+        numericValues = null;
+    }
+
+    /**
+     * Returns the values of the numeric weather conditions, indexed by {@link WeatherCondition#numericIndex()},
+     * with NaN for a value that was not reported. The array is shared and must not be modified.
+     *
+     * @return the numeric values
+     */
+    public float[] numericValues() {
+        float[] values = numericValues;
+        if (values == null) {
+            values = new float[WeatherCondition.numeric().size()];
+            for (WeatherCondition condition : WeatherCondition.numeric()) {
+                Float value = getValue(condition);
+                values[condition.numericIndex()] = value == null ? Float.NaN : value;
+            }
+            numericValues = values;
+        }
+        return values;
     }
 
     public String getPhenomenon() {
@@ -108,7 +225,7 @@ public class WeatherData {
     /**
      * Indicates whether some other object is equal to this one.
      * Equality is determined by comparing the timestamp, location, wmocode,
-     * phenomenon, airTemperature, and windSpeed fields of the two objects.
+     * phenomenon and the values of every numeric condition of the two objects.
      *
      * @param o the object to compare with
      *
@@ -124,12 +241,17 @@ public class WeatherData {
                 && Objects.equals(wmocode, data.wmocode)
                 && Objects.equals(phenomenon, data.phenomenon)
                 && Objects.equals(airTemperature, data.airTemperature)
-                && Objects.equals(windSpeed, data.windSpeed);
+                && Objects.equals(windSpeed, data.windSpeed)
+                && Objects.equals(precipitation, data.precipitation)
+                && Objects.equals(visibility, data.visibility)
+                && Objects.equals(windGust, data.windGust)
+                && Objects.equals(relativeHumidity, data.relativeHumidity);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(timestamp, city, wmocode, phenomenon, airTemperature, windSpeed);
+        return Objects.hash(timestamp, city, wmocode, phenomenon, airTemperature, windSpeed,
+                precipitation, visibility, windGust, relativeHumidity);
     }
 
     @Override
@@ -142,6 +264,10 @@ public class WeatherData {
                 ", phenomenon='" + phenomenon + '\'' +
                 ", airTemperature=" + airTemperature +
                 ", windSpeed=" + windSpeed +
+                ", precipitation=" + precipitation +
+                ", visibility=" + visibility +
+                ", windGust=" + windGust +
+                ", relativeHumidity=" + relativeHumidity +
                 '}';
     }
 }
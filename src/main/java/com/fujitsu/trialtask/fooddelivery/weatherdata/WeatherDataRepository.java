@@ -1,9 +1,21 @@
 package com.fujitsu.trialtask.fooddelivery.weatherdata;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing weather data entities.
  */
@@ -17,5 +29,100 @@ public interface WeatherDataRepository extends CrudRepository<WeatherData, Long>
      *
      * @return the latest weather data for the specified city, or null if not found
      */
-    WeatherData findFirstByCityOrderByTimestampDesc(City city);
+    default WeatherData findFirstByCityOrderByTimestampDesc(City city) {
+        List<WeatherData> latest = findLatestByCity(city, PageRequest.of(0, 1));
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    /**
+     * Retrieves the weather data of the specified city ordered from the latest.
+     * The ordering includes the city, so that it matches the (city, timestamp DESC) index and the database
+     * reads only the requested rows from the index instead of sorting the whole history of the city.
+     *
+     * @param city     the city for which to retrieve the weather data
+     * @param pageable the maximum number of weather data to retrieve
+     *
+     * @return the weather data ordered from the latest
+     */
+    @Query("""
+            SELECT wd
+            FROM WeatherData wd
+            WHERE wd.city = :city
+            ORDER BY wd.city, wd.timestamp DESC
+            """)
+    List<WeatherData> findLatestByCity(@Param("city") City city, Pageable pageable);
+
+    /**
+     * Retrieves the timestamps of the weather data already stored for the specified city within the given range.
+     *
+     * @param city the city for which to retrieve the timestamps
+     * @param from the start of the range (inclusive), in Unix timestamp format
+     * @param to   the end of the range (inclusive), in Unix timestamp format
+     *
+     * @return the timestamps of the stored weather data within the range
+     */
+    @Query("""
+            SELECT wd.timestamp
+            FROM WeatherData wd
+            WHERE wd.city = :city
+              AND wd.timestamp BETWEEN :from AND :to
+            """)
+    List<Long> findTimestampsByCityBetween(@Param("city") City city, @Param("from") Long from, @Param("to") Long to);
+
+    /**
+     * Streams the observations of the specified city within the given range, ordered from the oldest.
+     * Only the values the fees depend on are read, so no entities are loaded however long the range is.
+     *
+     * @param city the city for which to stream the observations
+     * @param from the start of the range (inclusive), in Unix timestamp format
+     * @param to   the end of the range (exclusive), in Unix timestamp format
+     *
+     * @return a stream of the observations, to be closed after use
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherObservation(
+                wd.timestamp, wd.phenomenon, wd.airTemperature, wd.windSpeed,
+                wd.precipitation, wd.visibility, wd.windGust, wd.relativeHumidity)
+            FROM WeatherData wd
+            WHERE wd.city = :city
+              AND wd.timestamp >= :from
+              AND wd.timestamp < :to
+            ORDER BY wd.city, wd.timestamp
+            """)
+    Stream<WeatherObservation> streamObservations(@Param("city") City city, @Param("from") long from, @Param("to") long to);
+
+    /**
+     * Retrieves the oldest weather data of the specified city recorded before the given time.
+     *
+     * @param city      the city for which to retrieve the weather data
+     * @param timestamp the exclusive upper bound of the timestamps, in Unix timestamp format
+     * @param pageable  the maximum number of weather data to retrieve
+     *
+     * @return the weather data ordered from the oldest
+     */
+    List<WeatherData> findByCityAndTimestampLessThanOrderByTimestampAsc(City city, Long timestamp, Pageable pageable);
+
+    /**
+     * Retrieves the weather data of the specified city recorded within the given time range.
+     *
+     * @param city the city for which to retrieve the weather data
+     * @param from the inclusive lower bound of the timestamps, in Unix timestamp format
+     * @param to   the exclusive upper bound of the timestamps, in Unix timestamp format
+     *
+     * @return the weather data ordered from the oldest
+     */
+    List<WeatherData> findByCityAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(
+            City city, Long from, Long to);
+
+    /**
+     * Deletes the weather data with the specified IDs in a single statement.
+     *
+     * @param ids the IDs of the weather data to delete
+     *
+     * @return the number of deleted weather data
+     */
+    @Modifying
+    @Query("DELETE FROM WeatherData wd WHERE wd.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
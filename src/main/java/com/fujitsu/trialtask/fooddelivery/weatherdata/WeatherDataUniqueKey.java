@@ -0,0 +1,66 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component making city and timestamp a unique key of the weather data in a database created before it was one.
+ * <p>
+ * The schema is only ever updated, never recreated, so such a database still carries the non-unique index of city and
+ * timestamp, and may hold observations saved twice, which keep the schema update from adding the unique key.
+ * While the application starts, after the schema update and before any weather data is loaded or collected, the
+ * duplicates are deleted (keeping the first saved of each), the unique key is added and the old index is dropped.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class WeatherDataUniqueKey {
+    static final String LEGACY_INDEX = "idx_weather_data_city_timestamp";
+    private static final Logger log = LoggerFactory.getLogger(WeatherDataUniqueKey.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public WeatherDataUniqueKey(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the unique key of city and timestamp, if it doesn't exist yet, and drops the legacy index.
+     */
+    @PostConstruct
+    public void create() {
+        if (!keyExists()) {
+            int deleted = jdbcTemplate.update("DELETE FROM weather_data wd WHERE EXISTS ("
+                    + "SELECT 1 FROM weather_data other WHERE other.city = wd.city "
+                    + "AND other.timestamp = wd.timestamp AND other.id < wd.id)");
+            jdbcTemplate.execute("ALTER TABLE weather_data ADD CONSTRAINT " + WeatherData.CITY_TIMESTAMP_KEY
+                    + " UNIQUE (city, timestamp DESC)");
+            log.info("Added the unique key {} of the weather data, deleting {} duplicate observations",
+                    WeatherData.CITY_TIMESTAMP_KEY, deleted);
+        }
+        if (legacyIndexExists()) {
+            jdbcTemplate.execute("DROP INDEX " + LEGACY_INDEX);
+            log.info("Dropped the legacy index {} of the weather data", LEGACY_INDEX);
+        }
+    }
+
+    private boolean keyExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE UPPER(TABLE_NAME) = 'WEATHER_DATA' AND UPPER(CONSTRAINT_NAME) = UPPER(?)",
+                Integer.class, WeatherData.CITY_TIMESTAMP_KEY);
+        return count != null && count > 0;
+    }
+
+    private boolean legacyIndexExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                        + "WHERE UPPER(TABLE_NAME) = 'WEATHER_DATA' AND UPPER(INDEX_NAME) = UPPER(?)",
+                Integer.class, LEGACY_INDEX);
+        return count != null && count > 0;
+    }
+}
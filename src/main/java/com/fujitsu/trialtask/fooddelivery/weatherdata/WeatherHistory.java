@@ -0,0 +1,375 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.RemoteChangeEvent;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory, columnar store of the weather history of every city, for range scans that neither query the database
+ * nor load entities (e.g. the fee history and the tariff simulation).
+ * <p>
+ * The observations of a city are kept sorted by timestamp in primitive arrays, one per field: the timestamps, the
+ * values of every numeric {@link WeatherCondition} (NaN if not reported), and the phenomena, dictionary-encoded as
+ * short codes shared by all cities. An observation takes about 34 bytes instead of well over a hundred as a
+ * {@link WeatherData} entity, so years of history fit in a few megabytes. The start and end of a range are found by
+ * binary search on the timestamps.
+ * <p>
+ * The history of a city is loaded from the database on first access and afterwards kept up to date by the components
+ * that save or compact weather data. Writes are serialized and publish a new view of the arrays, so scans never block
+ * and never see a partly written observation. When another node sharing the database has collected weather data, only
+ * the observations newer than the history are read and appended. Only a backfill or a compaction on another node,
+ * announced as a change of the {@link ChangeTopic#WEATHER_HISTORY}, has the loaded histories read again in full, while
+ * scans keep using the previous view until the new one is published.
+ */
+@Component
+public class WeatherHistory {
+    private static final Logger log = LoggerFactory.getLogger(WeatherHistory.class);
+    private static final int INITIAL_CAPACITY = 256;
+    private static final short NO_PHENOMENON = -1;
+    private final WeatherDataRepository weatherDataRepository;
+    private final TransactionTemplate transactionTemplate;
+    // The history of every city, or null while it has not been loaded
+    private final AtomicReferenceArray<Columns> histories = new AtomicReferenceArray<>(City.values().length);
+    // The phenomenon dictionary, only written while holding the lock of this object
+    private final Map<String, Short> phenomenonCodes = new HashMap<>();
+    private String[] phenomena = new String[0];
+
+    @Autowired
+    public WeatherHistory(WeatherDataRepository weatherDataRepository, PlatformTransactionManager transactionManager) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Scans the observations of a city within a range, in timestamp order.
+     *
+     * @param city the city for which to scan the observations
+     * @param from the start of the range (inclusive), in Unix timestamp format
+     * @param to   the end of the range (exclusive), in Unix timestamp format
+     *
+     * @return a stream of the observations, each materialized as it is consumed
+     */
+    public Stream<WeatherObservation> observations(City city, long from, long to) {
+        Columns columns = columns(city);
+        int start = columns.indexOf(from);
+        int end = Math.max(columns.indexOf(to), start);
+        return IntStream.range(start, end).mapToObj(columns::observation);
+    }
+
+    /**
+     * Returns the number of observations held for a city.
+     *
+     * @param city the city
+     *
+     * @return the number of observations
+     */
+    public int size(City city) {
+        return columns(city).size;
+    }
+
+    /**
+     * Records newly saved weather data in the history of the cities that have been loaded; the others read it from
+     * the database when they are loaded. Weather data may be older than the history (e.g. when backfilling), and
+     * weather data already held for its city and timestamp is ignored.
+     *
+     * @param weatherData the saved weather data
+     */
+    public synchronized void append(Collection<WeatherData> weatherData) {
+        Map<City, List<WeatherObservation>> byCity = new EnumMap<>(City.class);
+        for (WeatherData data : weatherData) {
+            if (histories.get(data.getCity().ordinal()) != null) {
+                byCity.computeIfAbsent(data.getCity(), city -> new ArrayList<>())
+                        .add(new WeatherObservation(data.getTimestamp(), data.getPhenomenon(), data.numericValues()));
+            }
+        }
+        byCity.forEach((city, observations) -> {
+            observations.sort(Comparator.comparingLong(WeatherObservation::timestamp));
+            append(city, histories.get(city.ordinal()), observations.iterator());
+        });
+    }
+
+    /**
+     * Drops the observations older than the cutoff from the history of every city, e.g. after they were compacted.
+     *
+     * @param cutoff the timestamp of the oldest observation to keep, in Unix timestamp format
+     */
+    public synchronized void dropBefore(long cutoff) {
+        for (City city : City.values()) {
+            Columns columns = histories.get(city.ordinal());
+            if (columns != null) {
+                histories.set(city.ordinal(), columns.from(columns.indexOf(cutoff)));
+            }
+        }
+    }
+
+    /**
+     * Discards the loaded history, so the history of every city is loaded again from the database on next access.
+     */
+    public synchronized void invalidate() {
+        for (int i = 0; i < histories.length(); i++) {
+            histories.set(i, null);
+        }
+    }
+
+    /**
+     * Catches up with the weather data collected, backfilled or compacted by another node.
+     *
+     * @param event the change detected on another node
+     */
+    @EventListener
+    public void onRemoteChange(RemoteChangeEvent event) {
+        if (event.topic() == ChangeTopic.WEATHER) {
+            appendNewer();
+        } else if (event.topic() == ChangeTopic.WEATHER_HISTORY) {
+            reload();
+        }
+    }
+
+    /**
+     * Appends the observations stored after the newest one of every loaded history.
+     */
+    synchronized void appendNewer() {
+        for (City city : City.values()) {
+            Columns columns = histories.get(city.ordinal());
+            if (columns != null) {
+                long from = columns.size == 0 ? Long.MIN_VALUE : columns.timestamps[columns.size - 1] + 1;
+                int appended = read(city, columns, from).size - columns.size;
+                log.debug("Appended {} observations of {} to the weather history", appended, city);
+            }
+        }
+    }
+
+    /**
+     * Reads every loaded history again in full, as rows of any age may have been added or removed.
+     */
+    synchronized void reload() {
+        for (City city : City.values()) {
+            if (histories.get(city.ordinal()) != null) {
+                Columns columns = read(city, Columns.EMPTY, Long.MIN_VALUE);
+                log.debug("Reloaded {} observations of {} into the weather history", columns.size, city);
+            }
+        }
+    }
+
+    private Columns columns(City city) {
+        Columns columns = histories.get(city.ordinal());
+        return columns != null ? columns : load(city);
+    }
+
+    private synchronized Columns load(City city) {
+        Columns columns = histories.get(city.ordinal());
+        if (columns == null) {
+            columns = read(city, Columns.EMPTY, Long.MIN_VALUE);
+            log.debug("Loaded {} observations of {} into the weather history", columns.size, city);
+        }
+        return columns;
+    }
+
+    /**
+     * Appends the observations of a city stored in the database from the specified time on to the history.
+     */
+    private Columns read(City city, Columns columns, long from) {
+        return transactionTemplate.execute(status -> {
+            try (Stream<WeatherObservation> observations =
+                         weatherDataRepository.streamObservations(city, from, Long.MAX_VALUE)) {
+                return append(city, columns, observations.iterator());
+            }
+        });
+    }
+
+    /**
+     * Appends observations sorted by timestamp to the history of a city, in place if they are all newer than the
+     * history, and merged into copies of the arrays otherwise, so the published views are never modified.
+     */
+    private Columns append(City city, Columns columns, Iterator<WeatherObservation> observations) {
+        Builder builder = new Builder(columns);
+        boolean copied = false;
+        while (observations.hasNext()) {
+            WeatherObservation observation = observations.next();
+            long last = builder.size == 0 ? Long.MIN_VALUE : builder.timestamps[builder.size - 1];
+            if (observation.timestamp() > last) {
+                builder.add(observation.timestamp(), observation.values(), encode(observation.phenomenon()));
+            } else if (!builder.contains(observation.timestamp())) {
+                // Rare enough (backfills) to merge a copy of the history
+                if (!copied) {
+                    builder = builder.copy();
+                    copied = true;
+                }
+                builder.insert(observation.timestamp(), observation.values(), encode(observation.phenomenon()));
+            }
+        }
+        Columns appended = builder.build(phenomena);
+        histories.set(city.ordinal(), appended);
+        return appended;
+    }
+
+    private short encode(String phenomenon) {
+        if (phenomenon == null) {
+            return NO_PHENOMENON;
+        }
+        Short code = phenomenonCodes.get(phenomenon);
+        if (code == null) {
+            if (phenomena.length == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct weather phenomena: " + phenomena.length);
+            }
+            code = (short) phenomena.length;
+            phenomena = Arrays.copyOf(phenomena, phenomena.length + 1);
+            phenomena[code] = phenomenon;
+            phenomenonCodes.put(phenomenon, code);
+        }
+        return code;
+    }
+
+    /**
+     * A published view of the history of a city: the first {@code size} elements of the arrays, which are never
+     * modified afterwards. Later views may share the arrays and hold more elements.
+     */
+    private static final class Columns {
+        static final Columns EMPTY = new Columns(new long[0], new float[WeatherCondition.numeric().size()][0],
+                new short[0], new String[0], 0);
+        final long[] timestamps;
+        final float[][] values;
+        final short[] phenomena;
+        final String[] dictionary;
+        final int size;
+
+        Columns(long[] timestamps, float[][] values, short[] phenomena, String[] dictionary, int size) {
+            this.timestamps = timestamps;
+            this.values = values;
+            this.phenomena = phenomena;
+            this.dictionary = dictionary;
+            this.size = size;
+        }
+
+        /**
+         * Finds the first observation not older than the timestamp.
+         *
+         * @return the index of the observation, or the size if all observations are older
+         */
+        int indexOf(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamps[middle] < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        WeatherObservation observation(int index) {
+            float[] observed = new float[values.length];
+            for (int condition = 0; condition < values.length; condition++) {
+                observed[condition] = values[condition][index];
+            }
+            short phenomenon = phenomena[index];
+            return new WeatherObservation(timestamps[index],
+                    phenomenon == NO_PHENOMENON ? null : dictionary[phenomenon], observed);
+        }
+
+        /**
+         * Copies the observations from the index on into new arrays.
+         */
+        Columns from(int index) {
+            if (index == 0) {
+                return this;
+            }
+            int remaining = size - index;
+            float[][] keptValues = new float[values.length][];
+            for (int condition = 0; condition < values.length; condition++) {
+                keptValues[condition] = Arrays.copyOfRange(values[condition], index, index + remaining);
+            }
+            return new Columns(Arrays.copyOfRange(timestamps, index, index + remaining), keptValues,
+                    Arrays.copyOfRange(phenomena, index, index + remaining), dictionary, remaining);
+        }
+    }
+
+    /**
+     * Writes observations after the last published view of a city, growing the arrays when they are full.
+     */
+    private static final class Builder {
+        long[] timestamps;
+        float[][] values;
+        short[] phenomena;
+        int size;
+
+        Builder(Columns columns) {
+            this(columns.timestamps, columns.values, columns.phenomena, columns.size);
+        }
+
+        private Builder(long[] timestamps, float[][] values, short[] phenomena, int size) {
+            this.timestamps = timestamps;
+            this.values = values;
+            this.phenomena = phenomena;
+            this.size = size;
+        }
+
+        Builder copy() {
+            float[][] copiedValues = new float[values.length][];
+            for (int condition = 0; condition < values.length; condition++) {
+                copiedValues[condition] = values[condition].clone();
+            }
+            return new Builder(timestamps.clone(), copiedValues, phenomena.clone(), size);
+        }
+
+        boolean contains(long timestamp) {
+            return Arrays.binarySearch(timestamps, 0, size, timestamp) >= 0;
+        }
+
+        void add(long timestamp, float[] observed, short phenomenon) {
+            insertAt(size, timestamp, observed, phenomenon);
+        }
+
+        void insert(long timestamp, float[] observed, short phenomenon) {
+            insertAt(-Arrays.binarySearch(timestamps, 0, size, timestamp) - 1, timestamp, observed, phenomenon);
+        }
+
+        Columns build(String[] dictionary) {
+            return new Columns(timestamps, values, phenomena, dictionary, size);
+        }
+
+        private void insertAt(int index, long timestamp, float[] observed, short phenomenon) {
+            if (size == timestamps.length) {
+                grow();
+            }
+            int moved = size - index;
+            System.arraycopy(timestamps, index, timestamps, index + 1, moved);
+            System.arraycopy(phenomena, index, phenomena, index + 1, moved);
+            timestamps[index] = timestamp;
+            phenomena[index] = phenomenon;
+            for (int condition = 0; condition < values.length; condition++) {
+                System.arraycopy(values[condition], index, values[condition], index + 1, moved);
+                values[condition][index] = observed[condition];
+            }
+            size++;
+        }
+
+        private void grow() {
+            int capacity = Math.max(INITIAL_CAPACITY, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            phenomena = Arrays.copyOf(phenomena, capacity);
+            float[][] grown = new float[values.length][];
+            for (int condition = 0; condition < values.length; condition++) {
+                grown[condition] = Arrays.copyOf(values[condition], capacity);
+            }
+            values = grown;
+        }
+    }
+}
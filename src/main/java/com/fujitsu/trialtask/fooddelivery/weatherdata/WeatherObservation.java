@@ -0,0 +1,52 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+
+/**
+ * The values of a stored weather observation that the fees depend on, read without loading the {@link WeatherData}
+ * entity itself (e.g. when replaying the weather history).
+ *
+ * @param timestamp  the time at which the weather data was recorded, in Unix timestamp format
+ * @param phenomenon the weather phenomenon, in lower case
+ * @param values     the values of the numeric weather conditions, indexed by {@link WeatherCondition#numericIndex()},
+ *                   with NaN for a value that was not reported
+ */
+public record WeatherObservation(long timestamp, String phenomenon, float[] values) {
+    /**
+     * Constructs an observation from the stored columns, in the order of {@link WeatherCondition#numeric()}.
+     */
+    public WeatherObservation(long timestamp,
+                              String phenomenon,
+                              Float airTemperature,
+                              Float windSpeed,
+                              Float precipitation,
+                              Float visibility,
+                              Float windGust,
+                              Float relativeHumidity) {
+        this(timestamp, phenomenon, new float[]{
+                orNaN(airTemperature), orNaN(windSpeed), orNaN(precipitation),
+                orNaN(visibility), orNaN(windGust), orNaN(relativeHumidity)});
+    }
+
+    /**
+     * Constructs an observation in which only the air temperature and the wind speed were reported.
+     */
+    public WeatherObservation(long timestamp, String phenomenon, Float airTemperature, Float windSpeed) {
+        this(timestamp, phenomenon, airTemperature, windSpeed, null, null, null, null);
+    }
+
+    /**
+     * Returns the value of a numeric weather condition.
+     *
+     * @param condition the numeric weather condition
+     *
+     * @return the value, or NaN if it was not reported
+     */
+    public float value(WeatherCondition condition) {
+        return values[condition.numericIndex()];
+    }
+
+    private static float orNaN(Float value) {
+        return value == null ? Float.NaN : value;
+    }
+}
@@ -0,0 +1,448 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.SummaryResolution;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import jakarta.persistence.*;
+
+/**
+ * Represents a summary of the weather data of a city over a period (an hour or a day).
+ * Historical weather data is replaced by these summaries once it is older than the retention window.
+ * <p>
+ * Besides its own getters, the statistics of every numeric {@link WeatherCondition} are read and written with
+ * {@link #getStatistics(WeatherCondition)} and {@link #setStatistics(WeatherCondition, Statistics)}.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_weather_summary_period", columnNames = {"city", "resolution", "periodStart"}))
+public class WeatherSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private City city;
+
+    @Enumerated(EnumType.STRING)
+    private SummaryResolution resolution;
+
+    private Long periodStart;
+    private Integer sampleCount;
+    private Float minAirTemperature;
+    private Float maxAirTemperature;
+    private Float meanAirTemperature;
+    private Float minWindSpeed;
+    private Float maxWindSpeed;
+    private Float meanWindSpeed;
+    private Integer airTemperatureCount;
+    private Integer windSpeedCount;
+    private Float minPrecipitation;
+    private Float maxPrecipitation;
+    private Float meanPrecipitation;
+    private Integer precipitationCount;
+    private Float minVisibility;
+    private Float maxVisibility;
+    private Float meanVisibility;
+    private Integer visibilityCount;
+    private Float minWindGust;
+    private Float maxWindGust;
+    private Float meanWindGust;
+    private Integer windGustCount;
+    private Float minRelativeHumidity;
+    private Float maxRelativeHumidity;
+    private Float meanRelativeHumidity;
+    private Integer relativeHumidityCount;
+    private String dominantPhenomenon;
+    private Integer dominantPhenomenonCount;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public WeatherSummary() {
+    }
+
+    /**
+     * Constructs a new, empty WeatherSummary for the specified city and period.
+     *
+     * @param city        the city the summary is for
+     * @param resolution  the length of the summarized period
+     * @param periodStart the start of the summarized period, in Unix timestamp format
+     */
+    public WeatherSummary(City city, SummaryResolution resolution, Long periodStart) {
+        this.city = city;
+        this.resolution = resolution;
+        this.periodStart = periodStart;
+        this.sampleCount = 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public City getCity() {
+        return city;
+    }
+
+    public void setCity(City city) {
+        this.city = city;
+    }
+
+    public SummaryResolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(SummaryResolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public Long getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(Long periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public Integer getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(Integer sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public Float getMinAirTemperature() {
+        return minAirTemperature;
+    }
+
+    public void setMinAirTemperature(Float minAirTemperature) {
+        this.minAirTemperature = minAirTemperature;
+    }
+
+    public Float getMaxAirTemperature() {
+        return maxAirTemperature;
+    }
+
+    public void setMaxAirTemperature(Float maxAirTemperature) {
+        this.maxAirTemperature = maxAirTemperature;
+    }
+
+    public Float getMeanAirTemperature() {
+        return meanAirTemperature;
+    }
+
+    public void setMeanAirTemperature(Float meanAirTemperature) {
+        this.meanAirTemperature = meanAirTemperature;
+    }
+
+    public Float getMinWindSpeed() {
+        return minWindSpeed;
+    }
+
+    public void setMinWindSpeed(Float minWindSpeed) {
+        this.minWindSpeed = minWindSpeed;
+    }
+
+    public Float getMaxWindSpeed() {
+        return maxWindSpeed;
+    }
+
+    public void setMaxWindSpeed(Float maxWindSpeed) {
+        this.maxWindSpeed = maxWindSpeed;
+    }
+
+    public Float getMeanWindSpeed() {
+        return meanWindSpeed;
+    }
+
+    public void setMeanWindSpeed(Float meanWindSpeed) {
+        this.meanWindSpeed = meanWindSpeed;
+    }
+
+    public Integer getAirTemperatureCount() {
+        return airTemperatureCount;
+    }
+
+    public void setAirTemperatureCount(Integer airTemperatureCount) {
+        this.airTemperatureCount = airTemperatureCount;
+    }
+
+    public Integer getWindSpeedCount() {
+        return windSpeedCount;
+    }
+
+    public void setWindSpeedCount(Integer windSpeedCount) {
+        this.windSpeedCount = windSpeedCount;
+    }
+
+    public Float getMinPrecipitation() {
+        return minPrecipitation;
+    }
+
+    public void setMinPrecipitation(Float minPrecipitation) {
+        this.minPrecipitation = minPrecipitation;
+    }
+
+    public Float getMaxPrecipitation() {
+        return maxPrecipitation;
+    }
+
+    public void setMaxPrecipitation(Float maxPrecipitation) {
+        this.maxPrecipitation = maxPrecipitation;
+    }
+
+    public Float getMeanPrecipitation() {
+        return meanPrecipitation;
+    }
+
+    public void setMeanPrecipitation(Float meanPrecipitation) {
+        this.meanPrecipitation = meanPrecipitation;
+    }
+
+    public Integer getPrecipitationCount() {
+        return precipitationCount;
+    }
+
+    public void setPrecipitationCount(Integer precipitationCount) {
+        this.precipitationCount = precipitationCount;
+    }
+
+    public Float getMinVisibility() {
+        return minVisibility;
+    }
+
+    public void setMinVisibility(Float minVisibility) {
+        this.minVisibility = minVisibility;
+    }
+
+    public Float getMaxVisibility() {
+        return maxVisibility;
+    }
+
+    public void setMaxVisibility(Float maxVisibility) {
+        this.maxVisibility = maxVisibility;
+    }
+
+    public Float getMeanVisibility() {
+        return meanVisibility;
+    }
+
+    public void setMeanVisibility(Float meanVisibility) {
+        this.meanVisibility = meanVisibility;
+    }
+
+    public Integer getVisibilityCount() {
+        return visibilityCount;
+    }
+
+    public void setVisibilityCount(Integer visibilityCount) {
+        this.visibilityCount = visibilityCount;
+    }
+
+    public Float getMinWindGust() {
+        return minWindGust;
+    }
+
+    public void setMinWindGust(Float minWindGust) {
+        this.minWindGust = minWindGust;
+    }
+
+    public Float getMaxWindGust() {
+        return maxWindGust;
+    }
+
+    public void setMaxWindGust(Float maxWindGust) {
+        this.maxWindGust = maxWindGust;
+    }
+
+    public Float getMeanWindGust() {
+        return meanWindGust;
+    }
+
+    public void setMeanWindGust(Float meanWindGust) {
+        this.meanWindGust = meanWindGust;
+    }
+
+    public Integer getWindGustCount() {
+        return windGustCount;
+    }
+
+    public void setWindGustCount(Integer windGustCount) {
+        this.windGustCount = windGustCount;
+    }
+
+    public Float getMinRelativeHumidity() {
+        return minRelativeHumidity;
+    }
+
+    public void setMinRelativeHumidity(Float minRelativeHumidity) {
+        this.minRelativeHumidity = minRelativeHumidity;
+    }
+
+    public Float getMaxRelativeHumidity() {
+        return maxRelativeHumidity;
+    }
+
+    public void setMaxRelativeHumidity(Float maxRelativeHumidity) {
+        this.maxRelativeHumidity = maxRelativeHumidity;
+    }
+
+    public Float getMeanRelativeHumidity() {
+        return meanRelativeHumidity;
+    }
+
+    public void setMeanRelativeHumidity(Float meanRelativeHumidity) {
+        this.meanRelativeHumidity = meanRelativeHumidity;
+    }
+
+    public Integer getRelativeHumidityCount() {
+        return relativeHumidityCount;
+    }
+
+    public void setRelativeHumidityCount(Integer relativeHumidityCount) {
+        this.relativeHumidityCount = relativeHumidityCount;
+    }
+
+    /**
+     * Returns the statistics of a numeric weather condition over the period.
+     *
+     * @param condition the numeric condition
+     *
+     * @return the statistics, with null values if the condition has not been summarized
+     * @throws IllegalArgumentException if the condition is not numeric
+     */
+    public Statistics getStatistics(WeatherCondition condition) {
+        return switch (condition) {
+            case AIR_TEMPERATURE -> new Statistics(minAirTemperature, maxAirTemperature, meanAirTemperature,
+                    airTemperatureCount);
+            case WIND_SPEED -> new Statistics(minWindSpeed, maxWindSpeed, meanWindSpeed, windSpeedCount);
+            case PRECIPITATION -> new Statistics(minPrecipitation, maxPrecipitation, meanPrecipitation,
+                    precipitationCount);
+            case VISIBILITY -> new Statistics(minVisibility, maxVisibility, meanVisibility, visibilityCount);
+            case WIND_GUST -> new Statistics(minWindGust, maxWindGust, meanWindGust, windGustCount);
+            case RELATIVE_HUMIDITY -> new Statistics(minRelativeHumidity, maxRelativeHumidity, meanRelativeHumidity,
+                    relativeHumidityCount);
+            case PHENOMENON -> throw new IllegalArgumentException("The phenomenon is not a numeric condition");
+        };
+    }
+
+    /**
+     * Sets the statistics of a numeric weather condition over the period.
+     *
+     * @param condition  the numeric condition
+     * @param statistics the statistics
+     *
+     * @throws IllegalArgumentException if the condition is not numeric
+     */
+    public void setStatistics(WeatherCondition condition, Statistics statistics) {
+        switch (condition) {
+            case AIR_TEMPERATURE -> {
+                minAirTemperature = statistics.min();
+                maxAirTemperature = statistics.max();
+                meanAirTemperature = statistics.mean();
+                airTemperatureCount = statistics.count();
+            }
+            case WIND_SPEED -> {
+                minWindSpeed = statistics.min();
+                maxWindSpeed = statistics.max();
+                meanWindSpeed = statistics.mean();
+                windSpeedCount = statistics.count();
+            }
+            case PRECIPITATION -> {
+                minPrecipitation = statistics.min();
+                maxPrecipitation = statistics.max();
+                meanPrecipitation = statistics.mean();
+                precipitationCount = statistics.count();
+            }
+            case VISIBILITY -> {
+                minVisibility = statistics.min();
+                maxVisibility = statistics.max();
+                meanVisibility = statistics.mean();
+                visibilityCount = statistics.count();
+            }
+            case WIND_GUST -> {
+                minWindGust = statistics.min();
+                maxWindGust = statistics.max();
+                meanWindGust = statistics.mean();
+                windGustCount = statistics.count();
+            }
+            case RELATIVE_HUMIDITY -> {
+                minRelativeHumidity = statistics.min();
+                maxRelativeHumidity = statistics.max();
+                meanRelativeHumidity = statistics.mean();
+                relativeHumidityCount = statistics.count();
+            }
+            case PHENOMENON -> throw new IllegalArgumentException("The phenomenon is not a numeric condition");
+        }
+    }
+
+    public String getDominantPhenomenon() {
+        return dominantPhenomenon;
+    }
+
+    public void setDominantPhenomenon(String dominantPhenomenon) {
+        this.dominantPhenomenon = dominantPhenomenon;
+    }
+
+    public Integer getDominantPhenomenonCount() {
+        return dominantPhenomenonCount;
+    }
+
+    public void setDominantPhenomenonCount(Integer dominantPhenomenonCount) {
+        this.dominantPhenomenonCount = dominantPhenomenonCount;
+    }
+
+    @Override
+    public String toString() {
+        return "WeatherSummary{" +
+                "id=" + id +
+                ", city=" + city +
+                ", resolution=" + resolution +
+                ", periodStart=" + periodStart +
+                ", sampleCount=" + sampleCount +
+                ", minAirTemperature=" + minAirTemperature +
+                ", maxAirTemperature=" + maxAirTemperature +
+                ", meanAirTemperature=" + meanAirTemperature +
+                ", minWindSpeed=" + minWindSpeed +
+                ", maxWindSpeed=" + maxWindSpeed +
+                ", meanWindSpeed=" + meanWindSpeed +
+                ", airTemperatureCount=" + airTemperatureCount +
+                ", windSpeedCount=" + windSpeedCount +
+                ", minPrecipitation=" + minPrecipitation +
+                ", maxPrecipitation=" + maxPrecipitation +
+                ", meanPrecipitation=" + meanPrecipitation +
+                ", precipitationCount=" + precipitationCount +
+                ", minVisibility=" + minVisibility +
+                ", maxVisibility=" + maxVisibility +
+                ", meanVisibility=" + meanVisibility +
+                ", visibilityCount=" + visibilityCount +
+                ", minWindGust=" + minWindGust +
+                ", maxWindGust=" + maxWindGust +
+                ", meanWindGust=" + meanWindGust +
+                ", windGustCount=" + windGustCount +
+                ", minRelativeHumidity=" + minRelativeHumidity +
+                ", maxRelativeHumidity=" + maxRelativeHumidity +
+                ", meanRelativeHumidity=" + meanRelativeHumidity +
+                ", relativeHumidityCount=" + relativeHumidityCount +
+                ", dominantPhenomenon='" + dominantPhenomenon + '\'' +
+                ", dominantPhenomenonCount=" + dominantPhenomenonCount +
+                '}';
+    }
+
+    /**
+     * Minimum, maximum and mean of a numeric weather condition over a period, and the number of values they are
+     * computed from. Summaries written before a condition was summarized have null statistics for it, and summaries
+     * written before the counts were kept have a null count.
+     *
+     * @param min   the minimum value, or null if there was none
+     * @param max   the maximum value, or null if there was none
+     * @param mean  the mean value, or null if there was none
+     * @param count the number of values
+     */
+    public record Statistics(Float min, Float max, Float mean, Integer count) {
+    }
+}
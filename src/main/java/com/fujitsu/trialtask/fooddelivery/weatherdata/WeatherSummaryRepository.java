@@ -0,0 +1,24 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.SummaryResolution;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing weather summary entities.
+ */
+@Repository
+public interface WeatherSummaryRepository extends CrudRepository<WeatherSummary, Long> {
+
+    /**
+     * Retrieves the summary of the specified city and period.
+     *
+     * @param city        the city of the summary
+     * @param resolution  the length of the summarized period
+     * @param periodStart the start of the summarized period, in Unix timestamp format
+     *
+     * @return the summary, or null if the period has not been summarized yet
+     */
+    WeatherSummary findByCityAndResolutionAndPeriodStart(City city, SummaryResolution resolution, Long periodStart);
+}
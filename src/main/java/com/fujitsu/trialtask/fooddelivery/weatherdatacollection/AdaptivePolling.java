@@ -0,0 +1,104 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides how soon the weather feed should be polled again, based on how close the latest readings are to changing
+ * a weather fee.
+ * <p>
+ * The closeness of a reading is its distance to the nearest {@code above} or {@code below} boundary of the weather
+ * fees on the same condition, relative to the configured margin of that condition. A volatile phenomenon (e.g. a
+ * shower) counts as being at a boundary. Within the margin, the interval is scaled linearly between the minimum (at
+ * the boundary) and the maximum (at the margin). Outside it, the interval backs off by doubling, up to the maximum.
+ */
+class AdaptivePolling {
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final float temperatureMargin;
+    private final float windSpeedMargin;
+    private final List<String> volatilePhenomena;
+    private Duration interval;
+
+    AdaptivePolling(WeatherFeedProperties.Polling polling) {
+        this.minInterval = polling.minInterval();
+        this.maxInterval = polling.maxInterval().compareTo(minInterval) < 0 ? minInterval : polling.maxInterval();
+        this.temperatureMargin = polling.temperatureMargin();
+        this.windSpeedMargin = polling.windSpeedMargin();
+        this.volatilePhenomena = polling.volatilePhenomena().stream()
+                .map(phenomenon -> phenomenon.toLowerCase(Locale.ROOT))
+                .toList();
+        this.interval = maxInterval;
+    }
+
+    /**
+     * Computes the interval until the next poll.
+     *
+     * @param readings    the latest readings of the cities
+     * @param weatherFees the weather fees in effect
+     *
+     * @return the interval, between the configured minimum and maximum
+     */
+    synchronized Duration nextInterval(Collection<WeatherData> readings, Collection<WeatherFee> weatherFees) {
+        double closeness = 1;
+        for (WeatherData reading : readings) {
+            closeness = Math.min(closeness, closeness(reading, weatherFees));
+        }
+
+        if (closeness < 1) {
+            long range = maxInterval.minus(minInterval).toMillis();
+            interval = minInterval.plusMillis(Math.round(range * closeness));
+        } else {
+            Duration doubled = interval.multipliedBy(2);
+            interval = doubled.compareTo(maxInterval) > 0 ? maxInterval : doubled;
+        }
+        return interval;
+    }
+
+    /**
+     * Computes the relative distance of the reading to the nearest boundary, from 0 (at a boundary or volatile)
+     * to 1 (outside the margin of every boundary).
+     */
+    private double closeness(WeatherData reading, Collection<WeatherFee> weatherFees) {
+        if (isVolatile(reading.getPhenomenon())) {
+            return 0;
+        }
+        double closeness = 1;
+        for (WeatherFee weatherFee : weatherFees) {
+            if (weatherFee.getCondition() == WeatherCondition.AIR_TEMPERATURE) {
+                closeness = Math.min(closeness, distance(reading.getAirTemperature(), weatherFee, temperatureMargin));
+            } else if (weatherFee.getCondition() == WeatherCondition.WIND_SPEED) {
+                closeness = Math.min(closeness, distance(reading.getWindSpeed(), weatherFee, windSpeedMargin));
+            }
+        }
+        return closeness;
+    }
+
+    private boolean isVolatile(String phenomenon) {
+        if (phenomenon == null) {
+            return false;
+        }
+        String lowerCase = phenomenon.toLowerCase(Locale.ROOT);
+        return volatilePhenomena.stream().anyMatch(lowerCase::contains);
+    }
+
+    private static double distance(Float value, WeatherFee weatherFee, float margin) {
+        if (value == null || margin <= 0) {
+            return 1;
+        }
+        double distance = 1;
+        if (weatherFee.getAbove() != null) {
+            distance = Math.min(distance, Math.abs(value - weatherFee.getAbove()) / margin);
+        }
+        if (weatherFee.getBelow() != null) {
+            distance = Math.min(distance, Math.abs(value - weatherFee.getBelow()) / margin);
+        }
+        return distance;
+    }
+}
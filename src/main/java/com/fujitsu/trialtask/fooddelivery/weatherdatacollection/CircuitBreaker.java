@@ -0,0 +1,83 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A minimal circuit breaker guarding calls to an unreliable remote resource.
+ * <p>
+ * The circuit starts {@link State#CLOSED}. After {@code failureThreshold} consecutive failures it opens and rejects
+ * calls for {@code openDuration}. After that a single trial call is let through ({@link State#HALF_OPEN}):
+ * a success closes the circuit again, a failure opens it for another {@code openDuration}.
+ */
+class CircuitBreaker {
+    /**
+     * The states of a circuit breaker.
+     */
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether a call may be made. An open circuit transitions to half-open once its open duration has passed.
+     *
+     * @return true if the call may be made, false if the circuit is open
+     */
+    synchronized boolean allowRequest() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+        }
+        return state != State.OPEN;
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openedAt = null;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    /**
+     * Returns the time left until an open circuit lets a trial call through.
+     *
+     * @return the remaining open time, or zero if the circuit is not open
+     */
+    synchronized Duration remainingOpenTime() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(clock.instant(), openedAt.plus(openDuration));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
@@ -1,81 +1,311 @@
 package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
 
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.exceptions.LeaseLostException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Service;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.MalformedInputException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
  * Service class responsible for collecting weather reports from an external XML source
  * and saving them to the database.
+ * <p>
+ * A failed collection is retried with exponential backoff and jitter instead of waiting for the next cron tick.
+ * A collection fails when the feed can't be read or the report can't be saved, and both count towards the circuit
+ * breaker, so a feed or database that keeps failing is only probed once per open period.
+ * Until a collection succeeds again, the last successfully collected report stays in the database and keeps being
+ * used for the fee calculation.
+ * <p>
+ * The first collection after startup runs in the background, so neither startup nor readiness waits for the feed.
+ * <p>
+ * Between the cron ticks, the feed is polled again sooner while the collected readings are close to a weather fee
+ * boundary or the phenomenon is volatile, as decided by {@link AdaptivePolling}; in calm conditions only the cron
+ * ticks remain. The next poll is only scheduled once a collection has finished, and a poll coinciding with another
+ * collection is skipped, so collections never overlap. Observations that aren't newer than the stored ones of their
+ * city are not saved again, so an unchanged report doesn't count as a weather change.
+ * <p>
+ * When several nodes share the database, only the elected leader collects the weather report, and its writes are
+ * fenced by its lease. The other nodes pick the new report up through the weather change counter.
  */
 @Service
 class CollectWeatherReport {
     private static final Logger log = LoggerFactory.getLogger(CollectWeatherReport.class);
     private final WeatherDataRepository weatherDataRepository;
-    private static final String OBSERVATIONS_URL = "https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php";
+    private final LatestWeatherData latestWeatherData;
+    private final WeatherHistory weatherHistory;
+    private final ChangeVersions changeVersions;
+    private final LeaderElection leaderElection;
+    private final FeeConfigurationService feeConfigurationService;
+    private final WeatherFeedClient weatherFeedClient;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WeatherFeedProperties.Retry retry;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptivePolling adaptivePolling;
+    private final CronExpression cron;
+    private final Clock clock;
+    private final AtomicBoolean collecting = new AtomicBoolean();
+    private ScheduledFuture<?> pendingRetry;
+    private Instant nextRetry;
+    private ScheduledFuture<?> pendingPoll;
+    private Instant nextPoll;
+    private volatile Instant lastSuccess;
 
     @Autowired
-    public CollectWeatherReport(WeatherDataRepository weatherDataRepository) {
+    public CollectWeatherReport(WeatherDataRepository weatherDataRepository,
+                                LatestWeatherData latestWeatherData,
+                                WeatherHistory weatherHistory,
+                                ChangeVersions changeVersions,
+                                LeaderElection leaderElection,
+                                FeeConfigurationService feeConfigurationService,
+                                WeatherFeedClient weatherFeedClient,
+                                TaskScheduler taskScheduler,
+                                ApplicationEventPublisher eventPublisher,
+                                WeatherFeedProperties properties,
+                                @Value("${cron}") String cron) {
+        this(weatherDataRepository, latestWeatherData, weatherHistory, changeVersions, leaderElection,
+                feeConfigurationService, weatherFeedClient, taskScheduler, eventPublisher, properties, cron,
+                Clock.systemUTC());
+    }
+
+    CollectWeatherReport(WeatherDataRepository weatherDataRepository,
+                         LatestWeatherData latestWeatherData,
+                         WeatherHistory weatherHistory,
+                         ChangeVersions changeVersions,
+                         LeaderElection leaderElection,
+                         FeeConfigurationService feeConfigurationService,
+                         WeatherFeedClient weatherFeedClient,
+                         TaskScheduler taskScheduler,
+                         ApplicationEventPublisher eventPublisher,
+                         WeatherFeedProperties properties,
+                         String cron,
+                         Clock clock) {
         this.weatherDataRepository = weatherDataRepository;
+        this.latestWeatherData = latestWeatherData;
+        this.weatherHistory = weatherHistory;
+        this.changeVersions = changeVersions;
+        this.leaderElection = leaderElection;
+        this.feeConfigurationService = feeConfigurationService;
+        this.weatherFeedClient = weatherFeedClient;
+        this.taskScheduler = taskScheduler;
+        this.eventPublisher = eventPublisher;
+        this.retry = properties.retry();
+        this.circuitBreaker = new CircuitBreaker(
+                properties.circuitBreaker().failureThreshold(),
+                properties.circuitBreaker().openDuration(),
+                clock);
+        this.adaptivePolling = new AdaptivePolling(properties.polling());
+        this.cron = CronExpression.parse(cron);
+        this.clock = clock;
     }
 
     /**
-     * Method executed when the application is ready and scheduled to run periodically based on the configured cron expression.
+     * Starts the first collection once the application is ready, on a scheduler thread, and publishes an
+     * {@link InitialCollectionFinishedEvent} when it has finished.
      */
     @EventListener(ApplicationReadyEvent.class)
+    public void collectInitialReport() {
+        taskScheduler.schedule(() -> {
+            Instant previousSuccess = lastSuccess;
+            try {
+                execute();
+            } finally {
+                eventPublisher.publishEvent(new InitialCollectionFinishedEvent(lastSuccess != previousSuccess));
+            }
+        }, clock.instant());
+    }
+
+    /**
+     * Method scheduled to run periodically based on the configured cron expression.
+     * It is also executed by the first collection, by the adaptive polls and by the retries scheduled after a failed
+     * collection.
+     * Overlapping executions are skipped, and so are the executions on nodes that aren't the leader.
+     */
     @Scheduled(cron = "${cron}")
     public void execute() {
-        InputStream inputStream = null;
+        if (!collecting.compareAndSet(false, true)) {
+            log.debug("Weather report collection is already in progress");
+            return;
+        }
+
+        try {
+            LeaderElection.Lease lease = leaderElection.acquire();
+            if (lease == null) {
+                log.debug("Another node is the leader, skipping the weather report collection");
+                return;
+            }
+            collect(lease);
+        } finally {
+            collecting.set(false);
+        }
+    }
+
+    private void collect(LeaderElection.Lease lease) {
+        // This attempt supersedes any retry or poll still pending
+        cancelRetry();
+        cancelPoll();
+
+        if (!circuitBreaker.allowRequest()) {
+            log.warn("Weather feed circuit is open, keeping the last collected weather report");
+            scheduleRetry(circuitBreaker.remainingOpenTime());
+            return;
+        }
 
         try {
             log.info("Collecting weather report...");
-            URL url = new URL(OBSERVATIONS_URL);
-            inputStream = url.openStream();
-            List<WeatherData> parsedData = parseXML(inputStream);
-            weatherDataRepository.saveAll(parsedData);
+            List<WeatherData> parsedData = weatherFeedClient.fetch();
+            List<WeatherData> newData = newerThanStored(parsedData);
+            if (newData.isEmpty()) {
+                log.info("Weather report has no observations newer than the stored ones");
+            } else {
+                leaderElection.runFenced(lease, () -> weatherDataRepository.saveAll(newData));
+                latestWeatherData.update(newData);
+                weatherHistory.append(newData);
+                changeVersions.bump(ChangeTopic.WEATHER);
+            }
+            circuitBreaker.recordSuccess();
+            lastSuccess = clock.instant();
             log.info("Weather report collected successfully");
-        } catch (MalformedInputException e) {
-            log.error("Error creating URL object", e);
-        } catch (IOException e) {
+            schedulePoll(parsedData);
+        } catch (LeaseLostException e) {
+            log.warn("Discarded the collected weather report: {}", e.getMessage());
+        } catch (IOException | DataAccessException e) {
             log.error("Error collecting weather report", e);
-        } finally {
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (IOException e) {
-                    log.error("Error closing input stream", e);
-                }
+            circuitBreaker.recordFailure();
+            Duration backoff = backoff(circuitBreaker.getConsecutiveFailures());
+            Duration openTime = circuitBreaker.remainingOpenTime();
+            scheduleRetry(backoff.compareTo(openTime) > 0 ? backoff : openTime);
+        }
+    }
+
+    /**
+     * Leaves out the weather data that isn't newer than the latest stored weather data of its city. The feed is
+     * polled more often than the stations report, so a poll often returns the observations already stored.
+     */
+    private List<WeatherData> newerThanStored(List<WeatherData> parsedData) {
+        Map<City, Long> latestTimestamps = new EnumMap<>(City.class);
+        List<WeatherData> newData = new ArrayList<>(parsedData.size());
+        for (WeatherData weatherData : parsedData) {
+            Long latest = latestTimestamps.computeIfAbsent(weatherData.getCity(), city -> {
+                WeatherData stored = weatherDataRepository.findFirstByCityOrderByTimestampDesc(city);
+                return stored == null ? Long.MIN_VALUE : stored.getTimestamp();
+            });
+            if (weatherData.getTimestamp() > latest) {
+                newData.add(weatherData);
+                latestTimestamps.put(weatherData.getCity(), weatherData.getTimestamp());
             }
         }
+        return newData;
     }
 
-    private List<WeatherData> parseXML(InputStream inputStream) {
+    /**
+     * Computes the delay before the next retry: exponential in the number of consecutive failures, capped at the
+     * configured maximum, with a random jitter of up to half the delay so that retries don't synchronize.
+     */
+    private Duration backoff(int failures) {
+        long initial = retry.initialDelay().toMillis();
+        long delay = Math.min(initial << Math.min(failures - 1, 20), retry.maxDelay().toMillis());
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+    }
+
+    private synchronized void scheduleRetry(Duration delay) {
+        nextRetry = clock.instant().plus(delay);
+        pendingRetry = taskScheduler.schedule(this::execute, nextRetry);
+        log.info("Retrying weather report collection at {}", nextRetry);
+    }
+
+    /**
+     * Schedules the next poll after the interval decided by the adaptive polling, unless the next cron tick comes
+     * first anyway.
+     */
+    private void schedulePoll(List<WeatherData> readings) {
+        Instant now = clock.instant();
+        Duration interval;
         try {
-            SAXParserFactory factory = SAXParserFactory.newInstance();
-            SAXParser saxParser = factory.newSAXParser();
-            WeatherXMLHandler handler = new WeatherXMLHandler();
-            saxParser.parse(inputStream, handler);
-            return handler.getParsedWeatherData();
-        } catch (ParserConfigurationException | SAXException | IOException e) {
-            log.error("Error parsing XML", e);
-            return List.of();
+            interval = adaptivePolling.nextInterval(readings,
+                    feeConfigurationService.current().effectiveAt(now).getWeatherFees());
+        } catch (RuntimeException e) {
+            log.warn("Failed to decide on the next weather report poll, waiting for the next cron tick", e);
+            return;
         }
+
+        Instant next = now.plus(interval);
+        ZonedDateTime nextTick = cron.next(ZonedDateTime.ofInstant(now, ZoneId.systemDefault()));
+        if (nextTick != null && !next.isBefore(nextTick.toInstant())) {
+            return;
+        }
+        synchronized (this) {
+            nextPoll = next;
+            pendingPoll = taskScheduler.schedule(this::execute, next);
+        }
+        log.info("Weather is close to a fee boundary, polling the weather report again at {}", next);
+    }
+
+    private synchronized void cancelPoll() {
+        if (pendingPoll != null) {
+            pendingPoll.cancel(false);
+            pendingPoll = null;
+        }
+        nextPoll = null;
+    }
+
+    private synchronized void cancelRetry() {
+        if (pendingRetry != null) {
+            pendingRetry.cancel(false);
+            pendingRetry = null;
+        }
+        nextRetry = null;
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    int getConsecutiveFailures() {
+        return circuitBreaker.getConsecutiveFailures();
+    }
+
+    Instant getLastSuccess() {
+        return lastSuccess;
+    }
+
+    synchronized Instant getNextRetry() {
+        return nextRetry;
+    }
+
+    synchronized Instant getNextPoll() {
+        return nextPoll;
     }
 }
@@ -0,0 +1,11 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+
+/**
+ * Application event published once the first weather report collection after startup has finished, whether it
+ * succeeded, failed or was left to the leader node.
+ *
+ * @param collected whether this node collected and saved a weather report
+ */
+public record InitialCollectionFinishedEvent(boolean collected) {
+}
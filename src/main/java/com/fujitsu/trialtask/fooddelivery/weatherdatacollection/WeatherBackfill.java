@@ -0,0 +1,254 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+
+/**
+ * Service class responsible for re-ingesting archived weather reports (e.g. after an outage).
+ * <p>
+ * The archived feeds are parsed in parallel on a fork-join pool, each file with its own {@link WeatherXMLHandler}.
+ * The parsed observations are deduplicated per city and timestamp (both within the archive and against the database)
+ * and saved in large batches. The names of the files that have been saved are appended to a checkpoint file
+ * in the archive directory, so an interrupted backfill resumes where it left off.
+ */
+@Service
+class WeatherBackfill {
+    static final String CHECKPOINT_FILE = ".backfill-checkpoint";
+    private static final Logger log = LoggerFactory.getLogger(WeatherBackfill.class);
+    private final WeatherDataRepository weatherDataRepository;
+    private final LatestWeatherData latestWeatherData;
+    private final WeatherHistory weatherHistory;
+    private final ChangeVersions changeVersions;
+    private final WeatherStations weatherStations;
+    private final Path baseDirectory;
+    private final int parallelism;
+    private final int batchSize;
+
+    @Autowired
+    public WeatherBackfill(WeatherDataRepository weatherDataRepository,
+                           LatestWeatherData latestWeatherData,
+                           WeatherHistory weatherHistory,
+                           ChangeVersions changeVersions,
+                           WeatherStations weatherStations,
+                           @Value("${backfill.base-directory:./archive}") Path baseDirectory,
+                           @Value("${backfill.parallelism:0}") int parallelism,
+                           @Value("${backfill.batch-size:1000}") int batchSize) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.latestWeatherData = latestWeatherData;
+        this.weatherHistory = weatherHistory;
+        this.changeVersions = changeVersions;
+        this.weatherStations = weatherStations;
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Re-ingests all archived XML weather reports in the specified directory.
+     *
+     * @param directory the directory containing the archived reports, relative to the configured base directory
+     *
+     * @return the report describing the outcome of the backfill
+     * @throws InvalidRequestException if the directory is outside the base directory or does not exist
+     * @throws UncheckedIOException    if the archive or the checkpoint file cannot be accessed
+     */
+    public BackfillReport backfill(String directory) {
+        long start = System.nanoTime();
+        Path archive = resolveArchive(directory);
+        Path checkpoint = archive.resolve(CHECKPOINT_FILE);
+        Set<String> completedFiles = readCheckpoint(checkpoint);
+        List<Path> pendingFiles = listPendingFiles(archive, completedFiles);
+
+        int processed = 0;
+        int failed = 0;
+        int parsedObservations = 0;
+        int savedObservations = 0;
+        int chunkSize = Math.max(batchSize / City.values().length, 1);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            for (int from = 0; from < pendingFiles.size(); from += chunkSize) {
+                List<Path> chunk = pendingFiles.subList(from, Math.min(from + chunkSize, pendingFiles.size()));
+                List<ParsedFile> parsedFiles = parseInParallel(pool, chunk);
+                List<WeatherData> parsed = parsedFiles.stream()
+                        .flatMap(parsedFile -> parsedFile.weatherData().stream())
+                        .toList();
+                List<WeatherData> unique = removeDuplicates(parsed);
+
+                weatherDataRepository.saveAll(unique);
+                latestWeatherData.update(unique);
+                weatherHistory.append(unique);
+                // Files that failed to parse are left out of the checkpoint, so a resumed run retries them
+                appendToCheckpoint(checkpoint, parsedFiles.stream().map(ParsedFile::file).toList());
+
+                processed += chunk.size();
+                failed += chunk.size() - parsedFiles.size();
+                parsedObservations += parsed.size();
+                savedObservations += unique.size();
+                log.info("Backfill progress: {}/{} files, {} observations saved",
+                        processed, pendingFiles.size(), savedObservations);
+            }
+        } finally {
+            pool.shutdown();
+            if (savedObservations > 0) {
+                changeVersions.bump(ChangeTopic.WEATHER);
+                changeVersions.bump(ChangeTopic.WEATHER_HISTORY);
+            }
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Backfill of {} finished in {} ms", archive, durationMillis);
+        return new BackfillReport(pendingFiles.size(), completedFiles.size(), failed,
+                parsedObservations, savedObservations, parsedObservations - savedObservations, durationMillis);
+    }
+
+    private Path resolveArchive(String directory) {
+        Path archive = baseDirectory.resolve(directory).normalize();
+        if (!archive.startsWith(baseDirectory)) {
+            throw new InvalidRequestException("The archive directory must be inside the backfill base directory");
+        }
+        if (!Files.isDirectory(archive)) {
+            throw new InvalidRequestException("The archive directory does not exist: " + directory);
+        }
+        return archive;
+    }
+
+    private List<Path> listPendingFiles(Path archive, Set<String> completedFiles) {
+        try (Stream<Path> files = Files.list(archive)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".xml"))
+                    .filter(file -> !completedFiles.contains(file.getFileName().toString()))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error listing the archive directory", e);
+        }
+    }
+
+    /**
+     * Parses the files in parallel.
+     *
+     * @return the files that were parsed, with their weather data; the files that failed to parse are left out
+     */
+    private List<ParsedFile> parseInParallel(ForkJoinPool pool, List<Path> files) {
+        try {
+            return pool.submit(() -> files.parallelStream()
+                            .flatMap(file -> parseFile(file).stream())
+                            .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backfill was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error parsing the archived weather reports", e.getCause());
+        }
+    }
+
+    private Optional<ParsedFile> parseFile(Path file) {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            WeatherXMLHandler handler = new WeatherXMLHandler(weatherStations);
+            SAXParserFactory.newInstance().newSAXParser().parse(inputStream, handler);
+            return Optional.of(new ParsedFile(file, handler.getParsedWeatherData()));
+        } catch (ParserConfigurationException | SAXException | IOException | RuntimeException e) {
+            log.error("Error parsing archived weather report {}", file.getFileName(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Removes the observations that occur more than once in the parsed data or are already stored in the database.
+     * The stored timestamps are fetched with a single range query per city.
+     */
+    private List<WeatherData> removeDuplicates(List<WeatherData> parsed) {
+        Map<City, NavigableMap<Long, WeatherData>> byCity = new EnumMap<>(City.class);
+        for (WeatherData weatherData : parsed) {
+            byCity.computeIfAbsent(weatherData.getCity(), city -> new TreeMap<>())
+                    .putIfAbsent(weatherData.getTimestamp(), weatherData);
+        }
+
+        List<WeatherData> unique = new ArrayList<>(parsed.size());
+        byCity.forEach((city, byTimestamp) -> {
+            List<Long> stored = weatherDataRepository.findTimestampsByCityBetween(
+                    city, byTimestamp.firstKey(), byTimestamp.lastKey());
+            stored.forEach(byTimestamp::remove);
+            unique.addAll(byTimestamp.values());
+        });
+        return unique;
+    }
+
+    private Set<String> readCheckpoint(Path checkpoint) {
+        if (!Files.exists(checkpoint)) {
+            return Set.of();
+        }
+        try (Stream<String> lines = Files.lines(checkpoint)) {
+            return lines.filter(line -> !line.isBlank()).collect(HashSet::new, Set::add, Set::addAll);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading the backfill checkpoint", e);
+        }
+    }
+
+    private void appendToCheckpoint(Path checkpoint, List<Path> files) {
+        List<String> names = files.stream().map(file -> file.getFileName().toString()).toList();
+        try {
+            Files.write(checkpoint, names, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing the backfill checkpoint", e);
+        }
+    }
+
+    /**
+     * The outcome of a backfill run.
+     *
+     * @param pendingFiles          the number of archived files that were processed in this run
+     * @param checkpointedFiles     the number of archived files skipped, because a previous run already saved them
+     * @param failedFiles           the number of archived files that could not be parsed; they are retried by the
+     *                              next run
+     * @param parsedObservations    the number of observations parsed from the archived files
+     * @param savedObservations     the number of observations saved to the database
+     * @param duplicateObservations the number of parsed observations dropped as duplicates
+     * @param durationMillis        the duration of the backfill in milliseconds
+     */
+    record BackfillReport(int pendingFiles,
+                          int checkpointedFiles,
+                          int failedFiles,
+                          int parsedObservations,
+                          int savedObservations,
+                          int duplicateObservations,
+                          long durationMillis) {
+    }
+
+    /**
+     * An archived file that was parsed.
+     *
+     * @param file        the archived file
+     * @param weatherData the weather data parsed from the file
+     */
+    private record ParsedFile(Path file, List<WeatherData> weatherData) {
+    }
+}
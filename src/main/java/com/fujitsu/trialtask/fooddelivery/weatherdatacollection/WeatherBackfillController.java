@@ -0,0 +1,38 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+
+/**
+ * Controller class for re-ingesting archived weather reports.
+ */
+@RestController
+@RequestMapping("/api/weather-data/backfill")
+class WeatherBackfillController {
+    private final WeatherBackfill weatherBackfill;
+
+    @Autowired
+    public WeatherBackfillController(WeatherBackfill weatherBackfill) {
+        this.weatherBackfill = weatherBackfill;
+    }
+
+    /**
+     * Re-ingests the archived weather reports in the specified directory.
+     * Files saved by a previous (possibly interrupted) run of the same directory are skipped.
+     *
+     * @param directory the directory containing the archived reports, relative to the backfill base directory
+     *
+     * @return ResponseEntity containing the backfill report
+     * @throws InvalidRequestException if the directory is outside the base directory or does not exist
+     */
+    @PostMapping
+    public ResponseEntity<WeatherBackfill.BackfillReport> backfill(@RequestParam("directory") String directory) {
+        return ResponseEntity.ok(weatherBackfill.backfill(directory));
+    }
+}
@@ -0,0 +1,60 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.util.List;
+
+
+/**
+ * Client fetching and parsing the current weather observations from the external XML feed.
+ */
+@Component
+class WeatherFeedClient {
+    private final WeatherFeedProperties properties;
+    private final WeatherStations weatherStations;
+
+    @Autowired
+    public WeatherFeedClient(WeatherFeedProperties properties, WeatherStations weatherStations) {
+        this.properties = properties;
+        this.weatherStations = weatherStations;
+    }
+
+    /**
+     * Fetches the current observations for the stations of the supported cities, combined per city.
+     * The connection and the read are bounded by the configured timeouts.
+     *
+     * @return the parsed weather data
+     * @throws IOException if the feed cannot be fetched or parsed
+     */
+    public List<WeatherData> fetch() throws IOException {
+        URLConnection connection = URI.create(properties.url()).toURL().openConnection();
+        connection.setConnectTimeout((int) properties.connectTimeout().toMillis());
+        connection.setReadTimeout((int) properties.readTimeout().toMillis());
+
+        try (InputStream inputStream = connection.getInputStream()) {
+            return parseXML(inputStream);
+        }
+    }
+
+    private List<WeatherData> parseXML(InputStream inputStream) throws IOException {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            SAXParser saxParser = factory.newSAXParser();
+            WeatherXMLHandler handler = new WeatherXMLHandler(weatherStations);
+            saxParser.parse(inputStream, handler);
+            return handler.getParsedWeatherData();
+        } catch (ParserConfigurationException | SAXException | RuntimeException e) {
+            throw new IOException("Error parsing the weather feed", e);
+        }
+    }
+}
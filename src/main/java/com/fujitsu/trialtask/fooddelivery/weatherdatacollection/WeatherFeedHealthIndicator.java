@@ -0,0 +1,66 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Health indicator exposing the state of the weather feed: the circuit breaker state, the retry schedule
+ * and the age of the weather data that the fee calculation currently uses for each city.
+ * The health is {@code DEGRADED} while the circuit is open, since fees are then computed from the last
+ * collected report.
+ */
+@Component("weatherFeed")
+class WeatherFeedHealthIndicator implements HealthIndicator {
+    static final Status DEGRADED = new Status("DEGRADED", "Serving the last collected weather report");
+    private final CollectWeatherReport collectWeatherReport;
+    private final LatestWeatherData latestWeatherData;
+    private final Clock clock;
+
+    @Autowired
+    public WeatherFeedHealthIndicator(CollectWeatherReport collectWeatherReport,
+                                      LatestWeatherData latestWeatherData) {
+        this(collectWeatherReport, latestWeatherData, Clock.systemUTC());
+    }
+
+    WeatherFeedHealthIndicator(CollectWeatherReport collectWeatherReport,
+                               LatestWeatherData latestWeatherData,
+                               Clock clock) {
+        this.collectWeatherReport = collectWeatherReport;
+        this.latestWeatherData = latestWeatherData;
+        this.clock = clock;
+    }
+
+    @Override
+    public Health health() {
+        CircuitBreaker.State state = collectWeatherReport.getCircuitState();
+        Health.Builder builder = state == CircuitBreaker.State.OPEN ? Health.status(DEGRADED) : Health.up();
+
+        Map<String, String> dataAge = new LinkedHashMap<>();
+        for (City city : City.values()) {
+            WeatherData latest = latestWeatherData.get(city);
+            Instant observedAt = latest == null ? null : Instant.ofEpochSecond(latest.getTimestamp());
+            dataAge.put(city.name(), observedAt == null ? "none" : Duration.between(observedAt, clock.instant()).toString());
+        }
+
+        return builder
+                .withDetail("circuit", state)
+                .withDetail("consecutiveFailures", collectWeatherReport.getConsecutiveFailures())
+                .withDetail("lastSuccess", String.valueOf(collectWeatherReport.getLastSuccess()))
+                .withDetail("nextRetry", String.valueOf(collectWeatherReport.getNextRetry()))
+                .withDetail("dataAge", dataAge)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the weather feed, including the retry and circuit breaker settings used when the feed is unavailable.
+ *
+ * @param url            the URL of the XML observations feed
+ * @param connectTimeout the timeout for establishing a connection to the feed
+ * @param readTimeout    the timeout for reading the feed
+ * @param retry          the retry settings
+ * @param circuitBreaker the circuit breaker settings
+ * @param polling        the adaptive polling settings
+ */
+@ConfigurationProperties("weather.feed")
+record WeatherFeedProperties(
+        @DefaultValue("https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php") String url,
+        @DefaultValue("5s") Duration connectTimeout,
+        @DefaultValue("10s") Duration readTimeout,
+        @DefaultValue Retry retry,
+        @DefaultValue CircuitBreaker circuitBreaker,
+        @DefaultValue Polling polling) {
+
+    /**
+     * Exponential backoff settings for retrying a failed collection.
+     *
+     * @param initialDelay the delay before the first retry
+     * @param maxDelay     the upper bound of the delay between retries
+     */
+    record Retry(
+            @DefaultValue("30s") Duration initialDelay,
+            @DefaultValue("5m") Duration maxDelay) {
+    }
+
+    /**
+     * Circuit breaker settings for the feed.
+     *
+     * @param failureThreshold the number of consecutive failures after which the circuit opens
+     * @param openDuration     how long the circuit stays open before a trial request is let through
+     */
+    record CircuitBreaker(
+            @DefaultValue("3") int failureThreshold,
+            @DefaultValue("5m") Duration openDuration) {
+    }
+
+    /**
+     * Adaptive polling settings: between the cron ticks, the feed is polled again sooner the closer the latest
+     * readings are to a weather fee boundary.
+     *
+     * @param minInterval       the interval when a reading is at a boundary or the phenomenon is volatile
+     * @param maxInterval       the interval the polling backs off to in calm conditions
+     * @param temperatureMargin how close (in °C) the air temperature must be to a boundary to poll sooner
+     * @param windSpeedMargin   how close (in m/s) the wind speed must be to a boundary to poll sooner
+     * @param volatilePhenomena phenomena (case-insensitive substrings) that can change quickly, polled at the
+     *                          minimum interval
+     */
+    record Polling(
+            @DefaultValue("5m") Duration minInterval,
+            @DefaultValue("1h") Duration maxInterval,
+            @DefaultValue("2") float temperatureMargin,
+            @DefaultValue("3") float windSpeedMargin,
+            @DefaultValue({"shower", "thunder", "hail"}) List<String> volatilePhenomena) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+
+/**
+ * Component mapping the weather stations of the feed to the cities they report for, and combining the observations
+ * of the stations of a city into the weather data of the city.
+ * <p>
+ * The aggregation runs once per ingested report, so the fee calculation reads a single observation per city as
+ * before. A station that doesn't report a value (e.g. a failed sensor) is left out of that value.
+ */
+@Component
+class WeatherStations {
+    private final WeatherStationsProperties properties;
+    private final Map<String, List<City>> citiesByStation = new HashMap<>();
+    private final Map<City, List<String>> stationsByCity = new EnumMap<>(City.class);
+    private final List<String> phenomenonSeverity;
+
+    @Autowired
+    public WeatherStations(WeatherStationsProperties properties) {
+        this.properties = properties;
+        this.phenomenonSeverity = properties.phenomenonSeverity().stream()
+                .map(phenomenon -> phenomenon.toLowerCase(Locale.ROOT))
+                .toList();
+        for (City city : City.values()) {
+            List<String> stations = properties.stationsOf(city);
+            stationsByCity.put(city, stations);
+            stations.forEach(station -> citiesByStation.computeIfAbsent(station, key -> new ArrayList<>()).add(city));
+        }
+    }
+
+    /**
+     * Returns the cities the specified station reports for.
+     *
+     * @param station the name of the station
+     *
+     * @return the cities, empty if the station is not used
+     */
+    public List<City> citiesOf(String station) {
+        return citiesByStation.getOrDefault(station, List.of());
+    }
+
+    /**
+     * Combines the observations of the stations into one observation per city and timestamp, as configured.
+     *
+     * @param readings the observations of the stations
+     *
+     * @return the weather data of the cities, in the order of the first observation of each city and timestamp
+     */
+    public List<WeatherData> aggregate(List<Reading> readings) {
+        Map<City, Map<Long, List<Reading>>> grouped = new EnumMap<>(City.class);
+        for (Reading reading : readings) {
+            grouped.computeIfAbsent(reading.city(), city -> new LinkedHashMap<>())
+                    .computeIfAbsent(reading.weatherData().getTimestamp(), timestamp -> new ArrayList<>())
+                    .add(reading);
+        }
+
+        List<WeatherData> aggregated = new ArrayList<>();
+        grouped.forEach((city, byTimestamp) -> byTimestamp.forEach((timestamp, cityReadings) -> {
+            List<String> stations = stationsByCity.get(city);
+            cityReadings.sort(Comparator.comparingInt(reading -> stations.indexOf(reading.station())));
+            aggregated.add(cityReadings.size() == 1
+                    ? cityReadings.get(0).weatherData()
+                    : aggregate(city, timestamp, cityReadings));
+        }));
+        return aggregated;
+    }
+
+    private WeatherData aggregate(City city, Long timestamp, List<Reading> readings) {
+        // The identity of the city's observation is that of its nearest station
+        Integer wmocode = readings.get(0).weatherData().getWmocode();
+        return switch (properties.aggregation()) {
+            case NEAREST -> {
+                WeatherData nearest = readings.stream()
+                        .map(Reading::weatherData)
+                        .filter(data -> data.getAirTemperature() != null && data.getWindSpeed() != null)
+                        .findFirst()
+                        .orElse(readings.get(0).weatherData());
+                yield withValues(new WeatherData(timestamp, city, nearest.getWmocode(), nearest.getPhenomenon(),
+                        null, null), nearest::getValue);
+            }
+            case WORST -> withValues(new WeatherData(timestamp, city, wmocode, worstPhenomenon(readings), null, null),
+                    condition -> extreme(readings, data -> data.getValue(condition),
+                            condition.isWorseWhenLower() ? Math::min : Math::max));
+            case WEIGHTED_MEAN -> withValues(
+                    new WeatherData(timestamp, city, wmocode, heaviestPhenomenon(readings), null, null),
+                    condition -> weightedMean(readings, data -> data.getValue(condition)));
+        };
+    }
+
+    private static WeatherData withValues(WeatherData weatherData, Function<WeatherCondition, Float> value) {
+        for (WeatherCondition condition : WeatherCondition.numeric()) {
+            weatherData.setValue(condition, value.apply(condition));
+        }
+        return weatherData;
+    }
+
+    private static Float extreme(List<Reading> readings,
+                                 Function<WeatherData, Float> value,
+                                 BinaryOperator<Float> pick) {
+        return readings.stream()
+                .map(reading -> value.apply(reading.weatherData()))
+                .filter(Objects::nonNull)
+                .reduce(pick)
+                .orElse(null);
+    }
+
+    private Float weightedMean(List<Reading> readings, Function<WeatherData, Float> value) {
+        double sum = 0;
+        double weights = 0;
+        for (Reading reading : readings) {
+            Float reported = value.apply(reading.weatherData());
+            double weight = properties.weightOf(reading.station());
+            if (reported != null && weight > 0) {
+                sum += reported * weight;
+                weights += weight;
+            }
+        }
+        return weights == 0 ? null : (float) (sum / weights);
+    }
+
+    private String worstPhenomenon(List<Reading> readings) {
+        String worst = null;
+        int worstSeverity = Integer.MAX_VALUE;
+        for (Reading reading : readings) {
+            String phenomenon = reading.weatherData().getPhenomenon();
+            if (phenomenon == null) {
+                continue;
+            }
+            int severity = severity(phenomenon);
+            if (worst == null || severity < worstSeverity) {
+                worst = phenomenon;
+                worstSeverity = severity;
+            }
+        }
+        return worst;
+    }
+
+    private String heaviestPhenomenon(List<Reading> readings) {
+        String heaviest = null;
+        double heaviestWeight = 0;
+        for (Reading reading : readings) {
+            String phenomenon = reading.weatherData().getPhenomenon();
+            double weight = properties.weightOf(reading.station());
+            if (phenomenon != null && (heaviest == null || weight > heaviestWeight)) {
+                heaviest = phenomenon;
+                heaviestWeight = weight;
+            }
+        }
+        return heaviest;
+    }
+
+    /**
+     * Ranks a phenomenon by the configured severity list.
+     *
+     * @return the index of the first matching entry, from 0 for the most severe, or the length of the list
+     */
+    private int severity(String phenomenon) {
+        for (int i = 0; i < phenomenonSeverity.size(); i++) {
+            if (phenomenon.contains(phenomenonSeverity.get(i))) {
+                return i;
+            }
+        }
+        return phenomenonSeverity.size();
+    }
+
+    /**
+     * The observation of a station, attributed to one of the cities it reports for.
+     *
+     * @param station     the name of the station
+     * @param weatherData the observation, with the city set
+     */
+    record Reading(String station, WeatherData weatherData) {
+        City city() {
+            return weatherData.getCity();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.StationAggregation;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the weather stations whose observations make up the weather data of each city.
+ *
+ * @param cityStations       the stations of specific cities, nearest first; a city without configured stations
+ *                           uses its own station only
+ * @param weights            the weights of stations in the weighted mean, 1 if not configured
+ * @param aggregation        how the observations of the stations of a city are combined
+ * @param phenomenonSeverity phenomena (case-insensitive substrings) from the most severe, for picking the worst
+ *                           phenomenon; phenomena matching none are the least severe
+ */
+@ConfigurationProperties("weather.stations")
+record WeatherStationsProperties(
+        Map<City, List<String>> cityStations,
+        Map<String, Double> weights,
+        @DefaultValue("worst") StationAggregation aggregation,
+        @DefaultValue({"thunder", "hail", "glaze", "snow", "sleet", "rain", "shower"}) List<String> phenomenonSeverity) {
+
+    /**
+     * Returns the stations of the specified city.
+     *
+     * @param city the city
+     *
+     * @return the configured stations of the city, nearest first, or its own station if none are configured
+     */
+    List<String> stationsOf(City city) {
+        List<String> stations = cityStations == null ? null : cityStations.get(city);
+        return stations == null || stations.isEmpty() ? List.of(city.getStation()) : stations;
+    }
+
+    /**
+     * Returns the weight of the specified station in the weighted mean.
+     *
+     * @param station the name of the station
+     *
+     * @return the configured weight, or 1 if not configured
+     */
+    double weightOf(String station) {
+        return weights == null ? 1 : weights.getOrDefault(station, 1.0);
+    }
+}
@@ -1,15 +1,13 @@
 package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.DefaultHandler;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * This class is responsible for parsing XML data and mapping it to WeatherData objects.
@@ -18,18 +16,23 @@ import java.util.stream.Collectors;
  * The startElement() method is used to handle the start of an element.
  * The characters() method is used to handle the content of an element.
  * The endElement() method is used to handle the end of an element.
- * If the location of the parsed data matches one of the specified stations, the parsed WeatherData object is saved to the repository.
+ * If the station of the parsed data reports for one or more cities, as looked up in a single pass through the
+ * station to cities mapping of {@link WeatherStations}, the observation is kept for each of them; once parsed,
+ * the observations of the stations of a city are combined into one WeatherData object per city.
  */
 class WeatherXMLHandler extends DefaultHandler {
-    private final List<WeatherData> parsedWeatherData;
-    private boolean station, name, wmocode, airTemperature, windSpeed, phenomenon;
+    private final WeatherStations stations;
+    private final List<WeatherStations.Reading> readings;
+    private boolean station, name, wmocode, phenomenon;
+    // The numeric weather condition of the element being parsed, if any
+    private WeatherCondition numericCondition;
     private long timestamp;
     private WeatherData weatherData;
-    private static final Map<String, City> STATIONS = Arrays.stream(City.values())
-            .collect(Collectors.toMap(City::getStation, city -> city));
+    private String stationName;
 
-    public WeatherXMLHandler() {
-        this.parsedWeatherData = new ArrayList<>();
+    public WeatherXMLHandler(WeatherStations stations) {
+        this.stations = stations;
+        this.readings = new ArrayList<>();
     }
 
     /**
@@ -49,10 +52,9 @@ class WeatherXMLHandler extends DefaultHandler {
             case "station" -> station = true;
             case "name" -> name = true;
             case "wmocode" -> wmocode = true;
-            case "airtemperature" -> airTemperature = true;
-            case "windspeed" -> windSpeed = true;
             case "phenomenon" -> phenomenon = true;
             case "observations" -> timestamp = Long.parseLong(attributes.getValue("timestamp"));
+            default -> numericCondition = WeatherCondition.ofFeedElement(qName);
         }
     }
 
@@ -72,13 +74,12 @@ class WeatherXMLHandler extends DefaultHandler {
     public void characters(char[] ch, int start, int length) {
         String string = new String(ch, start, length);
         if (name) {
-            weatherData.setCity(STATIONS.getOrDefault(string, null));
+            // The parser may split the name into several chunks
+            stationName = stationName == null ? string : stationName + string;
         } else if (wmocode) {
             weatherData.setWmocode(Integer.parseInt(string));
-        } else if (airTemperature) {
-            weatherData.setAirTemperature(Float.parseFloat(string));
-        } else if (windSpeed) {
-            weatherData.setWindSpeed(Float.parseFloat(string));
+        } else if (numericCondition != null) {
+            weatherData.setValue(numericCondition, parseValue(string));
         } else if (phenomenon) {
             weatherData.setPhenomenon(string);
         } else if (station && weatherData == null) {
@@ -90,7 +91,7 @@ class WeatherXMLHandler extends DefaultHandler {
     /**
      * Handles the end of an element by setting the appropriate flag as false, based on the element's tag.
      * If the tag is "station", that means the station's weather report has ended,
-     * so it will save the resulting WeatherData object to the database and assign null as the object's new value.
+     * so the resulting WeatherData object is kept for every city of the station and null is assigned as the object's new value.
      * <p>
      * This method is called after all the content and attributes of the element have been processed.
      *
@@ -108,20 +109,41 @@ class WeatherXMLHandler extends DefaultHandler {
         switch (qName) {
             case "name" -> name = false;
             case "wmocode" -> wmocode = false;
-            case "airtemperature" -> airTemperature = false;
-            case "windspeed" -> windSpeed = false;
             case "phenomenon" -> phenomenon = false;
             case "station" -> {
                 station = false;
-                if (weatherData.getCity() != null) {
-                    parsedWeatherData.add(weatherData);
+                for (City city : stations.citiesOf(stationName)) {
+                    WeatherData cityWeatherData = new WeatherData(weatherData.getTimestamp(), city,
+                            weatherData.getWmocode(), weatherData.getPhenomenon(), null, null);
+                    WeatherCondition.numeric().forEach(condition ->
+                            cityWeatherData.setValue(condition, weatherData.getValue(condition)));
+                    readings.add(new WeatherStations.Reading(stationName, cityWeatherData));
                 }
                 weatherData = null;
+                stationName = null;
             }
+            default -> numericCondition = null;
         }
     }
 
+    /**
+     * Parses the value of a numeric weather condition. A malformed value is treated as not reported, so a faulty
+     * sensor doesn't fail the whole report.
+     */
+    private static Float parseValue(String value) {
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the weather data of the cities, combined from the observations of their stations.
+     *
+     * @return the weather data, one per city and timestamp
+     */
     public List<WeatherData> getParsedWeatherData() {
-        return parsedWeatherData;
+        return stations.aggregate(readings);
     }
 }
@@ -0,0 +1,238 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdataretention;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.SummaryResolution;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherSummary;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.*;
+
+
+/**
+ * Service class responsible for compacting the weather data history.
+ * <p>
+ * Weather data older than the full-resolution window is summarized into hourly or daily {@link WeatherSummary}
+ * entities (minimum, maximum, mean and count of every numeric condition and the dominant phenomenon), and then
+ * deleted.
+ * The data is compacted in bounded batches, each in its own short transaction, so concurrent reads and the
+ * weather collection are never blocked for long. A period is always summarized as a whole: a period holding more
+ * weather data than a batch is compacted in a batch of its own. The latest weather data of a city is never compacted,
+ * as long as the full-resolution window is longer than the collection interval.
+ * When several nodes share the database, only the elected leader compacts the data. The compacted data is dropped
+ * from the in-memory {@link WeatherHistory} as well, and the other nodes are told to reload theirs.
+ */
+@Service
+class WeatherDataCompactionJob {
+    private static final Logger log = LoggerFactory.getLogger(WeatherDataCompactionJob.class);
+    private final WeatherDataRepository weatherDataRepository;
+    private final WeatherSummaryRepository weatherSummaryRepository;
+    private final WeatherHistory weatherHistory;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final ChangeVersions changeVersions;
+    private final WeatherRetentionProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public WeatherDataCompactionJob(WeatherDataRepository weatherDataRepository,
+                                    WeatherSummaryRepository weatherSummaryRepository,
+                                    WeatherHistory weatherHistory,
+                                    PlatformTransactionManager transactionManager,
+                                    LeaderElection leaderElection,
+                                    ChangeVersions changeVersions,
+                                    WeatherRetentionProperties properties) {
+        this(weatherDataRepository, weatherSummaryRepository, weatherHistory, transactionManager, leaderElection,
+                changeVersions, properties, Clock.systemUTC());
+    }
+
+    WeatherDataCompactionJob(WeatherDataRepository weatherDataRepository,
+                             WeatherSummaryRepository weatherSummaryRepository,
+                             WeatherHistory weatherHistory,
+                             PlatformTransactionManager transactionManager,
+                             LeaderElection leaderElection,
+                             ChangeVersions changeVersions,
+                             WeatherRetentionProperties properties,
+                             Clock clock) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.weatherSummaryRepository = weatherSummaryRepository;
+        this.weatherHistory = weatherHistory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+        this.changeVersions = changeVersions;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Compacts the weather data of every city that is older than the full-resolution window.
+     * Scheduled to run periodically based on the configured cron expression, on the leader node only.
+     *
+     * @return the number of weather data replaced by summaries
+     */
+    @Scheduled(cron = "${weather.retention.cron:0 45 3 * * ?}")
+    public int compact() {
+        if (leaderElection.acquire() == null) {
+            log.debug("Another node is the leader, skipping the weather data compaction");
+            return 0;
+        }
+        SummaryResolution resolution = properties.resolution();
+        // Align the cutoff to a period boundary, so that only complete periods are summarized
+        long cutoff = resolution.periodStart(clock.instant().minus(properties.fullResolution()).getEpochSecond());
+        int compacted = 0;
+
+        for (City city : City.values()) {
+            int batchCount;
+            do {
+                batchCount = compactBatch(city, resolution, cutoff);
+                compacted += batchCount;
+            } while (batchCount > 0);
+        }
+
+        weatherHistory.dropBefore(cutoff);
+        if (compacted > 0) {
+            changeVersions.bump(ChangeTopic.WEATHER_HISTORY);
+        }
+        log.info("Compacted {} weather data older than {} into {} summaries", compacted, cutoff, resolution);
+        return compacted;
+    }
+
+    private int compactBatch(City city, SummaryResolution resolution, long cutoff) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<WeatherData> batch = weatherDataRepository.findByCityAndTimestampLessThanOrderByTimestampAsc(
+                    city, cutoff, PageRequest.of(0, properties.batchSize()));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            NavigableMap<Long, List<WeatherData>> periods = groupByPeriod(batch, resolution);
+            if (batch.size() == properties.batchSize()) {
+                if (periods.size() > 1) {
+                    // The last period of a full batch may continue in the next batch, so it is left for that batch
+                    periods.pollLastEntry();
+                } else {
+                    // The only period of a full batch may be larger than the batch, so it is read in full
+                    long periodStart = periods.firstKey();
+                    periods = groupByPeriod(weatherDataRepository
+                            .findByCityAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(
+                                    city, periodStart, periodStart + resolution.getSeconds()), resolution);
+                }
+            }
+
+            List<Long> ids = new ArrayList<>();
+            List<WeatherSummary> summaries = new ArrayList<>();
+            periods.forEach((periodStart, weatherData) -> {
+                summaries.add(summarize(city, resolution, periodStart, weatherData));
+                weatherData.forEach(data -> ids.add(data.getId()));
+            });
+
+            weatherSummaryRepository.saveAll(summaries);
+            weatherDataRepository.deleteByIdIn(ids);
+            return ids.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    private NavigableMap<Long, List<WeatherData>> groupByPeriod(List<WeatherData> batch, SummaryResolution resolution) {
+        NavigableMap<Long, List<WeatherData>> periods = new TreeMap<>();
+        for (WeatherData weatherData : batch) {
+            periods.computeIfAbsent(resolution.periodStart(weatherData.getTimestamp()), start -> new ArrayList<>())
+                    .add(weatherData);
+        }
+        return periods;
+    }
+
+    /**
+     * Summarizes the weather data of a period. If the period has already been summarized (weather data of it was
+     * backfilled after its compaction), the existing summary is extended.
+     */
+    private WeatherSummary summarize(City city, SummaryResolution resolution, long periodStart, List<WeatherData> weatherData) {
+        WeatherSummary existing = weatherSummaryRepository.findByCityAndResolutionAndPeriodStart(city, resolution, periodStart);
+        WeatherSummary summary = existing != null ? existing : new WeatherSummary(city, resolution, periodStart);
+
+        List<WeatherCondition> conditions = WeatherCondition.numeric();
+        RunningStatistics[] statistics = new RunningStatistics[conditions.size()];
+        for (WeatherCondition condition : conditions) {
+            statistics[condition.numericIndex()] = new RunningStatistics(summary.getStatistics(condition), summary);
+        }
+        Map<String, Integer> phenomena = new HashMap<>();
+        if (summary.getDominantPhenomenon() != null) {
+            phenomena.put(summary.getDominantPhenomenon(), countOf(summary.getDominantPhenomenonCount(), summary));
+        }
+
+        for (WeatherData data : weatherData) {
+            float[] values = data.numericValues();
+            for (int i = 0; i < values.length; i++) {
+                statistics[i].add(values[i]);
+            }
+            if (data.getPhenomenon() != null && !data.getPhenomenon().isEmpty()) {
+                phenomena.merge(data.getPhenomenon(), 1, Integer::sum);
+            }
+        }
+
+        summary.setSampleCount(summary.getSampleCount() + weatherData.size());
+        for (WeatherCondition condition : conditions) {
+            summary.setStatistics(condition, statistics[condition.numericIndex()].toSummary());
+        }
+        phenomena.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .ifPresent(entry -> {
+                    summary.setDominantPhenomenon(entry.getKey());
+                    summary.setDominantPhenomenonCount(entry.getValue());
+                });
+        return summary;
+    }
+
+    /**
+     * Returns a count kept by a summary. Summaries written before the counts were kept only know their sample count.
+     */
+    private static int countOf(Integer count, WeatherSummary summary) {
+        return count != null ? count : summary.getSampleCount();
+    }
+
+    /**
+     * Running minimum, maximum and mean of a measurement, ignoring missing values.
+     */
+    private static final class RunningStatistics {
+        private Float min;
+        private Float max;
+        private double sum;
+        private int count;
+
+        private RunningStatistics(WeatherSummary.Statistics existing, WeatherSummary summary) {
+            this.min = existing.min();
+            this.max = existing.max();
+            this.count = existing.mean() == null ? 0 : countOf(existing.count(), summary);
+            this.sum = existing.mean() == null ? 0 : (double) existing.mean() * count;
+        }
+
+        private void add(float value) {
+            if (Float.isNaN(value)) {
+                return;
+            }
+            min = min == null ? value : Math.min(min, value);
+            max = max == null ? value : Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        private WeatherSummary.Statistics toSummary() {
+            return new WeatherSummary.Statistics(min, max, count == 0 ? null : (float) (sum / count), count);
+        }
+    }
+}
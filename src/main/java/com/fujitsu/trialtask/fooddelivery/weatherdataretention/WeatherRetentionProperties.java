@@ -0,0 +1,21 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdataretention;
+
+import com.fujitsu.trialtask.fooddelivery.enums.SummaryResolution;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of how long weather data is kept at full resolution and how it is summarized afterwards.
+ *
+ * @param fullResolution how long weather data is kept as collected
+ * @param resolution     the length of the periods that older weather data is summarized into
+ * @param batchSize      the maximum number of weather data compacted in a single transaction
+ */
+@ConfigurationProperties("weather.retention")
+record WeatherRetentionProperties(
+        @DefaultValue("30d") Duration fullResolution,
+        @DefaultValue("hourly") SummaryResolution resolution,
+        @DefaultValue("1000") int batchSize) {
+}
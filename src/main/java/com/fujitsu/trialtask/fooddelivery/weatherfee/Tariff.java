@@ -0,0 +1,99 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherObservation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+
+/**
+ * A set of weather fees prepared for evaluating a large number of observations, possibly from several threads.
+ * <p>
+ * The weather fee of an observation is calculated the same way as the delivery fee calculation does: the highest fee
+ * of the applying weather fees of every weather condition, summed, unless an applying weather fee forbids the vehicle.
+ * The phenomenon fees are calculated once per distinct phenomenon, as the stored phenomena repeat heavily.
+ */
+public final class Tariff {
+    /**
+     * The weather fee of an observation in which the vehicle type is forbidden.
+     */
+    public static final float FORBIDDEN = Float.NaN;
+
+    // The weather fees of every numeric weather condition, indexed by the condition's numeric index
+    private final Map<Vehicle, WeatherFee[][]> numericFees = new EnumMap<>(Vehicle.class);
+    private final Map<Vehicle, WeatherFee[]> phenomenonFees = new EnumMap<>(Vehicle.class);
+    private final Map<Vehicle, Map<String, Float>> phenomenonFeeCache = new EnumMap<>(Vehicle.class);
+
+    /**
+     * Prepares the specified weather fees for evaluation.
+     *
+     * @param weatherFees the weather fees of every vehicle type
+     */
+    public Tariff(Collection<WeatherFee> weatherFees) {
+        for (Vehicle vehicle : Vehicle.values()) {
+            numericFees.put(vehicle, WeatherCondition.numeric().stream()
+                    .map(condition -> feesOf(weatherFees, vehicle, condition))
+                    .toArray(WeatherFee[][]::new));
+            phenomenonFees.put(vehicle, feesOf(weatherFees, vehicle, WeatherCondition.PHENOMENON));
+            phenomenonFeeCache.put(vehicle, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Calculates the weather fee of the vehicle type in the observed weather.
+     *
+     * @param vehicle     the vehicle type
+     * @param observation the observed weather
+     *
+     * @return the weather fee, or {@link #FORBIDDEN} if the vehicle type is forbidden
+     */
+    public float weatherFee(Vehicle vehicle, WeatherObservation observation) {
+        float[] values = observation.values();
+        WeatherFee[][] feesByCondition = numericFees.get(vehicle);
+        float numericFee = 0;
+        for (int condition = 0; condition < feesByCondition.length; condition++) {
+            numericFee += maxFee(feesByCondition[condition], values[condition]);
+        }
+        float phenomenonFee = observation.phenomenon() == null
+                ? 0
+                : phenomenonFeeCache.get(vehicle).computeIfAbsent(observation.phenomenon(),
+                phenomenon -> maxFee(phenomenonFees.get(vehicle), fee -> fee.appliesTo(phenomenon)));
+        // Any forbidden condition makes the sum NaN
+        return numericFee + phenomenonFee;
+    }
+
+    private static float maxFee(WeatherFee[] weatherFees, float value) {
+        float maxFee = 0;
+        for (WeatherFee weatherFee : weatherFees) {
+            if (weatherFee.appliesTo(value)) {
+                if (weatherFee.getFee() == null) {
+                    return FORBIDDEN;
+                }
+                maxFee = Math.max(maxFee, weatherFee.getFee());
+            }
+        }
+        return maxFee;
+    }
+
+    private static float maxFee(WeatherFee[] weatherFees, Predicate<WeatherFee> applies) {
+        float maxFee = 0;
+        for (WeatherFee weatherFee : weatherFees) {
+            if (applies.test(weatherFee)) {
+                if (weatherFee.getFee() == null) {
+                    return FORBIDDEN;
+                }
+                maxFee = Math.max(maxFee, weatherFee.getFee());
+            }
+        }
+        return maxFee;
+    }
+
+    private static WeatherFee[] feesOf(Collection<WeatherFee> weatherFees, Vehicle vehicle, WeatherCondition condition) {
+        return weatherFees.stream()
+                .filter(weatherFee -> weatherFee.getVehicle() == vehicle && weatherFee.getCondition() == condition)
+                .toArray(WeatherFee[]::new);
+    }
+}
@@ -9,16 +9,27 @@ import jakarta.validation.constraints.AssertFalse;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
 
 
 /**
  * Entity class representing the fee structure based on weather conditions.
  * The fee structure is defined by the vehicle type, weather condition, the fee value
- * and additionally by the weather phenomenon or the weather condition range (e.g. air temperature, wind speed).
+ * and additionally by the weather phenomenon or the weather condition range (e.g. air temperature, wind speed,
+ * precipitation).
  * The fee is applied when the weather data matches the specified conditions.
  * If the fee is null, that means the vehicle is not allowed to operate under the specified conditions.
+ * The fee is only in effect from {@code validFrom} (inclusive) until {@code validTo} (exclusive); an unset bound
+ * means the fee has been in effect since always or stays in effect indefinitely.
+ * Weather fees are kept in the second-level cache, as they are read on every fee calculation but rarely written.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_weather_fee_vehicle_condition", columnList = "vehicle, condition"))
 public class WeatherFee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +50,8 @@ public class WeatherFee {
     @Min(value = 0, message = "The fee must be a positive number")
     private Float fee;
 
+    private Instant validFrom;
+    private Instant validTo;
 
     public WeatherFee() {
     }
@@ -132,10 +145,17 @@ public class WeatherFee {
      * @return true if the value falls within the specified range, false otherwise
      */
     public boolean appliesTo(Float value) {
-        if (value == null) {
-            return false;
-        }
+        return value != null && appliesTo(value.floatValue());
+    }
 
+    /**
+     * Checks if the provided value falls within the range specified by 'above' and 'below' attributes, without boxing.
+     *
+     * @param value the value to check, or NaN if it was not reported
+     *
+     * @return true if the value falls within the specified range, false otherwise (always for NaN)
+     */
+    public boolean appliesTo(float value) {
         if (above != null && below != null) {
             return value >= above && value <= below;
         } else if (above != null) {
@@ -158,6 +178,22 @@ public class WeatherFee {
         return phenomenon != null && value != null && value.contains(phenomenon);
     }
 
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(Instant validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public Instant getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(Instant validTo) {
+        this.validTo = validTo;
+    }
+
     @Override
     public String toString() {
         return "WeatherFee{" +
@@ -168,6 +204,8 @@ public class WeatherFee {
                 ", below=" + below +
                 ", phenomenon='" + phenomenon + '\'' +
                 ", fee=" + fee +
+                ", validFrom=" + validFrom +
+                ", validTo=" + validTo +
                 '}';
     }
 
@@ -176,6 +214,11 @@ public class WeatherFee {
         return above == null || below == null || above <= below;
     }
 
+    @AssertTrue(message = "The value of 'validFrom' must be before 'validTo' if both are set")
+    private boolean isValidFromBeforeValidTo() {
+        return validFrom == null || validTo == null || validFrom.isBefore(validTo);
+    }
+
     @AssertFalse(message = "The 'phenomenon' value must be set for that weather condition")
     private boolean hasNoPhenomenonForPhenomenonCondition() {
         return condition == WeatherCondition.PHENOMENON
@@ -190,13 +233,13 @@ public class WeatherFee {
 
     @AssertFalse(message = "The 'phenomenon' value must not be set for that weather condition")
     private boolean hasPhenomenonForNumericalCondition() {
-        return (condition == WeatherCondition.AIR_TEMPERATURE || condition == WeatherCondition.WIND_SPEED)
+        return condition != null && condition.isNumeric()
                 && phenomenon != null;
     }
 
     @AssertFalse(message = "Either 'above' or 'below' must be set for that weather condition")
     private boolean hasNoAboveBelowForNumericalCondition() {
-        return (condition == WeatherCondition.AIR_TEMPERATURE || condition == WeatherCondition.WIND_SPEED)
+        return condition != null && condition.isNumeric()
                 && above == null
                 && below == null;
     }
@@ -1,38 +1,101 @@
 package com.fujitsu.trialtask.fooddelivery.weatherfee;
 
+import com.fujitsu.trialtask.fooddelivery.enums.FeeFileFormat;
+import com.fujitsu.trialtask.fooddelivery.enums.ImportMode;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.EffectiveFees;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeChangeset;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import com.fujitsu.trialtask.fooddelivery.helpers.EnumConverter;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
  * Controller class for handling weather fee-related HTTP requests.
+ * Every change is published as a new version of the fee configuration.
  */
 @RestController
 @RequestMapping("/api/weather-fees")
 public class WeatherFeeController {
+    static final String FEE_CONFIGURATION_VERSION_HEADER = "X-Fee-Configuration-Version";
     private final WeatherFeeRepository weatherFeeRepository;
+    private final FeeConfigurationService feeConfigurationService;
+    private final WeatherFeeTransfer weatherFeeTransfer;
+    private final EntityListing entityListing;
+    private final WeatherFeeValidator weatherFeeValidator;
 
     @Autowired
-    public WeatherFeeController(WeatherFeeRepository weatherFeeRepository) {
+    public WeatherFeeController(WeatherFeeRepository weatherFeeRepository,
+                                FeeConfigurationService feeConfigurationService,
+                                WeatherFeeTransfer weatherFeeTransfer,
+                                EntityListing entityListing,
+                                WeatherFeeValidator weatherFeeValidator) {
         this.weatherFeeRepository = weatherFeeRepository;
+        this.feeConfigurationService = feeConfigurationService;
+        this.weatherFeeTransfer = weatherFeeTransfer;
+        this.entityListing = entityListing;
+        this.weatherFeeValidator = weatherFeeValidator;
     }
 
     /**
-     * Retrieves all weather fees.
+     * Retrieves a page of weather fees, optionally filtered by vehicle type and weather condition.
+     * If there are more weather fees, the cursor of the next page is returned in the X-Next-Cursor header.
      *
-     * @return ResponseEntity containing a list of all weather fees.
+     * @param vehicleName   The vehicle type to filter by (optional).
+     * @param conditionName The weather condition to filter by (optional).
+     * @param after         The cursor of the page, i.e. the ID of the last weather fee of the previous page.
+     * @param limit         The maximum number of weather fees in the page (optional).
+     *
+     * @return ResponseEntity containing a list of the weather fees of the page.
+     * @throws InvalidRequestException if a filter or the limit is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<WeatherFee>> getAllWeatherFees() {
-        List<WeatherFee> weatherFees = (List<WeatherFee>) weatherFeeRepository.findAll();
-        return ResponseEntity.ok(weatherFees);
+    public ResponseEntity<List<WeatherFee>> getAllWeatherFees(
+            @RequestParam(value = "vehicle", required = false) String vehicleName,
+            @RequestParam(value = "condition", required = false) String conditionName,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        Vehicle vehicle = entityListing.filter(vehicleName, Vehicle.class);
+        WeatherCondition condition = entityListing.filter(conditionName, WeatherCondition.class);
+        int pageSize = entityListing.pageSize(limit);
+
+        List<WeatherFee> weatherFees = weatherFeeRepository.findPage(after, vehicle, condition, Limit.of(pageSize + 1));
+        return entityListing.page(weatherFees, pageSize, WeatherFee::getId);
+    }
+
+    /**
+     * Streams all weather fees as NDJSON, optionally filtered by vehicle type and weather condition.
+     * Selected by requesting the application/x-ndjson media type.
+     *
+     * @param vehicleName   The vehicle type to filter by (optional).
+     * @param conditionName The weather condition to filter by (optional).
+     *
+     * @return ResponseEntity streaming the weather fees.
+     * @throws InvalidRequestException if a filter is invalid.
+     */
+    @GetMapping(produces = EntityListing.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamWeatherFees(
+            @RequestParam(value = "vehicle", required = false) String vehicleName,
+            @RequestParam(value = "condition", required = false) String conditionName) {
+        Vehicle vehicle = entityListing.filter(vehicleName, Vehicle.class);
+        WeatherCondition condition = entityListing.filter(conditionName, WeatherCondition.class);
+        return entityListing.stream(() -> weatherFeeRepository.streamAll(vehicle, condition));
     }
 
     /**
@@ -65,6 +128,7 @@ public class WeatherFeeController {
     public ResponseEntity<WeatherFee> createWeatherFee(@RequestBody WeatherFee weatherFee) {
         validateWeatherFee(weatherFee);
         WeatherFee savedFee = weatherFeeRepository.save(weatherFee);
+        feeConfigurationService.refresh("Created weather fee " + savedFee.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(savedFee);
     }
 
@@ -84,9 +148,10 @@ public class WeatherFeeController {
         if (existingWeatherFee == null) {
             throw new EntityNotFoundException("Weather fee not found with id: " + id);
         }
-        validateWeatherFee(updatedWeatherFee);
         updatedWeatherFee.setId(id);
+        validateWeatherFee(updatedWeatherFee);
         WeatherFee savedFee = weatherFeeRepository.save(updatedWeatherFee);
+        feeConfigurationService.refresh("Updated weather fee " + id);
         return ResponseEntity.ok(savedFee);
     }
 
@@ -123,10 +188,17 @@ public class WeatherFeeController {
         if (partialWeatherFee.getFee() != null) {
             existingWeatherFee.setFee(partialWeatherFee.getFee());
         }
+        if (partialWeatherFee.getValidFrom() != null) {
+            existingWeatherFee.setValidFrom(partialWeatherFee.getValidFrom());
+        }
+        if (partialWeatherFee.getValidTo() != null) {
+            existingWeatherFee.setValidTo(partialWeatherFee.getValidTo());
+        }
 
         validateWeatherFee(existingWeatherFee);
 
         WeatherFee patchedFee = weatherFeeRepository.save(existingWeatherFee);
+        feeConfigurationService.refresh("Patched weather fee " + id);
         return ResponseEntity.ok(patchedFee);
     }
 
@@ -140,30 +212,81 @@ public class WeatherFeeController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteWeatherFee(@PathVariable Long id) {
         weatherFeeRepository.deleteById(id);
+        feeConfigurationService.refresh("Deleted weather fee " + id);
         return ResponseEntity.noContent().build();
     }
 
-    private void validateWeatherFee(WeatherFee weatherFee) {
-        Vehicle vehicle = weatherFee.getVehicle();
-        WeatherCondition condition = weatherFee.getCondition();
-        String phenomenon = weatherFee.getPhenomenon();
-        Float above = weatherFee.getAbove();
-        Float below = weatherFee.getBelow();
-        Float fee = weatherFee.getFee();
-
-        if (weatherFeeRepository.existsByVehicleAndConditionAndPhenomenonAndPhenomenonIsNotNull(vehicle, condition, phenomenon)) {
-            throw new EntityExistsException("Fee already exists for vehicle: %s and phenomenon: %s".formatted(vehicle, phenomenon));
+    /**
+     * Exports the weather fees of the current fee configuration as a file.
+     * The file is streamed to the client as it is written.
+     *
+     * @param formatName The file format, either CSV or NDJSON.
+     *
+     * @return ResponseEntity streaming the weather fees, with the exported fee configuration version in a header.
+     * @throws InvalidRequestException if the file format is not supported.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportWeatherFees(
+            @RequestParam(value = "format", defaultValue = "csv") String formatName) {
+        FeeFileFormat format = parseFormat(formatName);
+        FeeConfiguration configuration = feeConfigurationService.current();
+        StreamingResponseBody body = outputStream ->
+                weatherFeeTransfer.write(configuration.getWeatherFees(), format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"weather-fees-v%d.%s\"".formatted(configuration.getVersion(), format.getExtension()))
+                .header(FEE_CONFIGURATION_VERSION_HEADER, String.valueOf(configuration.getVersion()))
+                .body(body);
+    }
+
+    /**
+     * Imports a file of weather fees.
+     * The whole resulting set of weather fees is validated in memory and written in a single transaction,
+     * so either all the imported fees are saved or none of them.
+     *
+     * @param formatName The file format, either CSV or NDJSON.
+     * @param modeName   Whether to append the imported fees to the existing fees or to replace them.
+     * @param body       The file contents.
+     *
+     * @return ResponseEntity containing the summary of the published fee configuration.
+     * @throws InvalidRequestException if the format or mode is not supported or a record of the file is invalid.
+     * @throws EntityExistsException   if the resulting weather fees conflict with each other.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<FeeConfiguration.Summary> importWeatherFees(
+            @RequestParam(value = "format", defaultValue = "csv") String formatName,
+            @RequestParam(value = "mode", defaultValue = "append") String modeName,
+            InputStream body) throws IOException {
+        FeeFileFormat format = parseFormat(formatName);
+        ImportMode mode = EnumConverter.convertStringToEnum(modeName, ImportMode.class);
+        if (mode == null) {
+            throw new InvalidRequestException("Unsupported import mode: " + modeName);
         }
 
-        Long lessStrictPhenomenon = weatherFeeRepository.findLessStrictHigherPhenomenonFee(vehicle, condition, phenomenon, fee);
-        if (lessStrictPhenomenon != null) {
-            throw new EntityExistsException("An equal or higher fee already exists for a less strict phenomenon condition (id: %d)".formatted(lessStrictPhenomenon));
+        List<WeatherFee> weatherFees = weatherFeeTransfer.read(body, format);
+        FeeChangeset changeset = new FeeChangeset(
+                "Imported %d weather fees (%s)".formatted(weatherFees.size(), mode.name().toLowerCase()),
+                null, null, weatherFees, null, mode == ImportMode.REPLACE);
+
+        FeeConfiguration configuration = feeConfigurationService.apply(changeset);
+        return ResponseEntity.status(HttpStatus.CREATED).body(configuration.summarize());
+    }
+
+    private FeeFileFormat parseFormat(String formatName) {
+        FeeFileFormat format = EnumConverter.convertStringToEnum(formatName, FeeFileFormat.class);
+        if (format == null) {
+            throw new InvalidRequestException("Unsupported file format: " + formatName);
         }
+        return format;
+    }
 
-        Long overlappingRange = weatherFeeRepository.findOverlappingRange(vehicle, condition, above, below);
-        if (overlappingRange != null) {
-            throw new EntityExistsException("A fee with an overlapping range exists (id: %d)".formatted(overlappingRange));
+    private void validateWeatherFee(WeatherFee weatherFee) {
+        List<EffectiveFees> overlapping = feeConfigurationService.current()
+                .effectiveBetween(weatherFee.getValidFrom(), weatherFee.getValidTo());
+        for (EffectiveFees effectiveFees : overlapping) {
+            weatherFeeValidator.validate(weatherFee, effectiveFees.weatherFeeConflictIndex());
         }
     }
 }
-
@@ -0,0 +1,241 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+
+import java.util.*;
+
+
+/**
+ * Immutable in-memory index of a set of weather fees, answering the conflict checks of {@link WeatherFeeValidator}
+ * without comparing a weather fee with every other weather fee (or querying the database).
+ * <p>
+ * The weather fees are grouped by vehicle type and weather condition. Within a group, the ranges are kept in a
+ * static interval tree: sorted by their lower bound, with the running maximum of the upper bounds, so an overlapping
+ * range is found with a binary search. The phenomena are kept in a trie, so the phenomena contained in a phenomenon
+ * are found by walking the trie from every position of it, independently of the number of weather fees.
+ * <p>
+ * Every lookup ignores the weather fee being checked itself, i.e. the same instance or a weather fee with the same ID,
+ * so an updated weather fee is not reported to conflict with its previous version.
+ */
+public final class WeatherFeeIndex {
+    private static final WeatherFeeIndex EMPTY = new WeatherFeeIndex(List.of());
+
+    private final Map<Vehicle, Map<WeatherCondition, Group>> groups = new EnumMap<>(Vehicle.class);
+
+    private WeatherFeeIndex(Collection<WeatherFee> weatherFees) {
+        Map<Vehicle, Map<WeatherCondition, List<WeatherFee>>> byGroup = new EnumMap<>(Vehicle.class);
+        for (WeatherFee weatherFee : weatherFees) {
+            if (weatherFee.getVehicle() != null && weatherFee.getCondition() != null) {
+                byGroup.computeIfAbsent(weatherFee.getVehicle(), vehicle -> new EnumMap<>(WeatherCondition.class))
+                        .computeIfAbsent(weatherFee.getCondition(), condition -> new ArrayList<>())
+                        .add(weatherFee);
+            }
+        }
+        byGroup.forEach((vehicle, byCondition) -> {
+            Map<WeatherCondition, Group> indexed = new EnumMap<>(WeatherCondition.class);
+            byCondition.forEach((condition, fees) -> indexed.put(condition, new Group(fees)));
+            groups.put(vehicle, indexed);
+        });
+    }
+
+    /**
+     * Indexes the specified weather fees.
+     *
+     * @param weatherFees the weather fees to index
+     *
+     * @return the index of the weather fees
+     */
+    public static WeatherFeeIndex of(Collection<WeatherFee> weatherFees) {
+        return weatherFees.isEmpty() ? EMPTY : new WeatherFeeIndex(weatherFees);
+    }
+
+    /**
+     * Finds another weather fee of the same vehicle type and weather condition with the same phenomenon.
+     *
+     * @param candidate the weather fee to check
+     *
+     * @return the weather fee with the same phenomenon, or null if there is none
+     */
+    public WeatherFee findDuplicatePhenomenon(WeatherFee candidate) {
+        Group group = groupOf(candidate);
+        return group == null || candidate.getPhenomenon() == null ? null : group.findDuplicatePhenomenon(candidate);
+    }
+
+    /**
+     * Finds a weather fee of the same vehicle type and weather condition whose phenomenon is contained in the phenomenon
+     * of the candidate (i.e. is less strict) and whose fee is equal or higher, so that it would always shadow the candidate.
+     *
+     * @param candidate the weather fee to check
+     *
+     * @return the shadowing weather fee, or null if there is none
+     */
+    public WeatherFee findLessStrictHigherPhenomenonFee(WeatherFee candidate) {
+        Group group = groupOf(candidate);
+        return group == null || candidate.getPhenomenon() == null || candidate.getFee() == null
+                ? null
+                : group.findLessStrictHigherPhenomenonFee(candidate);
+    }
+
+    /**
+     * Finds a weather fee of the same vehicle type and weather condition with a range overlapping the candidate's range.
+     * A missing bound is unbounded, and weather fees without any bounds have no range.
+     *
+     * @param candidate the weather fee to check
+     *
+     * @return the weather fee with an overlapping range, or null if there is none
+     */
+    public WeatherFee findOverlappingRange(WeatherFee candidate) {
+        Group group = groupOf(candidate);
+        return group == null ? null : group.findOverlappingRange(candidate);
+    }
+
+    private Group groupOf(WeatherFee candidate) {
+        Map<WeatherCondition, Group> byCondition = groups.get(candidate.getVehicle());
+        return byCondition == null ? null : byCondition.get(candidate.getCondition());
+    }
+
+    private static boolean isSame(WeatherFee weatherFee, WeatherFee candidate) {
+        return weatherFee == candidate || (candidate.getId() != null && candidate.getId().equals(weatherFee.getId()));
+    }
+
+    private static float lowerBound(WeatherFee weatherFee) {
+        return weatherFee.getAbove() == null ? Float.NEGATIVE_INFINITY : weatherFee.getAbove();
+    }
+
+    private static float upperBound(WeatherFee weatherFee) {
+        return weatherFee.getBelow() == null ? Float.POSITIVE_INFINITY : weatherFee.getBelow();
+    }
+
+    /**
+     * The weather fees of a single vehicle type and weather condition.
+     */
+    private static final class Group {
+        private final TrieNode phenomena = new TrieNode();
+        // Ranges sorted by lower bound; for every prefix, the two ranges with the highest upper bounds
+        private final WeatherFee[] ranges;
+        private final float[] lowerBounds;
+        private final WeatherFee[] highest;
+        private final WeatherFee[] secondHighest;
+
+        Group(List<WeatherFee> weatherFees) {
+            List<WeatherFee> withRange = new ArrayList<>();
+            for (WeatherFee weatherFee : weatherFees) {
+                if (weatherFee.getPhenomenon() != null) {
+                    phenomena.insert(weatherFee);
+                }
+                if (weatherFee.getAbove() != null || weatherFee.getBelow() != null) {
+                    withRange.add(weatherFee);
+                }
+            }
+            withRange.sort(Comparator.comparingDouble(WeatherFeeIndex::lowerBound));
+
+            int size = withRange.size();
+            ranges = withRange.toArray(new WeatherFee[0]);
+            lowerBounds = new float[size];
+            highest = new WeatherFee[size];
+            secondHighest = new WeatherFee[size];
+            for (int i = 0; i < size; i++) {
+                WeatherFee range = ranges[i];
+                lowerBounds[i] = lowerBound(range);
+                WeatherFee first = i == 0 ? null : highest[i - 1];
+                WeatherFee second = i == 0 ? null : secondHighest[i - 1];
+                if (first == null || upperBound(range) > upperBound(first)) {
+                    second = first;
+                    first = range;
+                } else if (second == null || upperBound(range) > upperBound(second)) {
+                    second = range;
+                }
+                highest[i] = first;
+                secondHighest[i] = second;
+            }
+        }
+
+        WeatherFee findDuplicatePhenomenon(WeatherFee candidate) {
+            TrieNode node = phenomena.find(candidate.getPhenomenon());
+            if (node == null) {
+                return null;
+            }
+            for (WeatherFee weatherFee : node.weatherFees) {
+                if (!isSame(weatherFee, candidate)) {
+                    return weatherFee;
+                }
+            }
+            return null;
+        }
+
+        WeatherFee findLessStrictHigherPhenomenonFee(WeatherFee candidate) {
+            String phenomenon = candidate.getPhenomenon();
+            WeatherFee shadowing = findHigherFee(phenomena, candidate);
+            // Every phenomenon contained in the candidate's phenomenon is a prefix of one of its suffixes
+            for (int start = 0; start < phenomenon.length() && shadowing == null; start++) {
+                TrieNode node = phenomena;
+                for (int i = start; i < phenomenon.length() && node != null && shadowing == null; i++) {
+                    node = node.children.get(phenomenon.charAt(i));
+                    shadowing = findHigherFee(node, candidate);
+                }
+            }
+            return shadowing;
+        }
+
+        private WeatherFee findHigherFee(TrieNode node, WeatherFee candidate) {
+            if (node == null) {
+                return null;
+            }
+            for (WeatherFee weatherFee : node.weatherFees) {
+                if (weatherFee.getFee() != null && weatherFee.getFee() >= candidate.getFee()
+                        && !isSame(weatherFee, candidate)) {
+                    return weatherFee;
+                }
+            }
+            return null;
+        }
+
+        WeatherFee findOverlappingRange(WeatherFee candidate) {
+            float lower = lowerBound(candidate);
+            float upper = upperBound(candidate);
+
+            // The last range starting below the candidate's upper bound; every later range starts too high to overlap
+            int low = 0;
+            int high = ranges.length - 1;
+            int last = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (lowerBounds[middle] < upper) {
+                    last = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (last < 0) {
+                return null;
+            }
+
+            WeatherFee first = highest[last];
+            WeatherFee overlapping = isSame(first, candidate) ? secondHighest[last] : first;
+            return overlapping != null && upperBound(overlapping) > lower ? overlapping : null;
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final List<WeatherFee> weatherFees = new ArrayList<>(1);
+
+        void insert(WeatherFee weatherFee) {
+            TrieNode node = this;
+            for (char character : weatherFee.getPhenomenon().toCharArray()) {
+                node = node.children.computeIfAbsent(character, c -> new TrieNode());
+            }
+            node.weatherFees.add(weatherFee);
+        }
+
+        TrieNode find(String phenomenon) {
+            TrieNode node = this;
+            for (int i = 0; i < phenomenon.length() && node != null; i++) {
+                node = node.children.get(phenomenon.charAt(i));
+            }
+            return node;
+        }
+    }
+}
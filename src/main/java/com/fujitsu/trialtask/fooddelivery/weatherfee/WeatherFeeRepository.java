@@ -2,13 +2,18 @@ package com.fujitsu.trialtask.fooddelivery.weatherfee;
 
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 
 /**
@@ -23,8 +28,60 @@ public interface WeatherFeeRepository extends CrudRepository<WeatherFee, Long> {
      *
      * @return A list of weather fees for the specified vehicle.
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<WeatherFee> findAllByVehicle(@NotNull(message = "The vehicle type must be specified") Vehicle vehicle);
 
+    /**
+     * Retrieves a page of weather fees in the order of their IDs, optionally filtered by vehicle type and weather condition.
+     * The pages are keyed by ID rather than offset, so a page is found through the primary key index however deep it is.
+     *
+     * @param after     The ID of the last weather fee of the previous page, or 0 for the first page.
+     * @param vehicle   The vehicle type, or null for all vehicle types.
+     * @param condition The weather condition, or null for all weather conditions.
+     * @param limit     The maximum number of weather fees to retrieve.
+     *
+     * @return A list of the weather fees with a greater ID than {@code after}.
+     */
+    @Query("""
+            SELECT wf
+            FROM WeatherFee wf
+            WHERE wf.id > :after
+              AND (:vehicle IS NULL OR wf.vehicle = :vehicle)
+              AND (:condition IS NULL OR wf.condition = :condition)
+            ORDER BY wf.id
+            """)
+    List<WeatherFee> findPage(
+            @Param("after") long after,
+            @Param("vehicle") Vehicle vehicle,
+            @Param("condition") WeatherCondition condition,
+            Limit limit
+    );
+
+    /**
+     * Streams the weather fees in the order of their IDs, optionally filtered by vehicle type and weather condition.
+     * The rows are fetched from the database in batches as the stream is consumed, which must happen in a transaction.
+     *
+     * @param vehicle   The vehicle type, or null for all vehicle types.
+     * @param condition The weather condition, or null for all weather conditions.
+     *
+     * @return A stream of the weather fees, to be closed after use.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT wf
+            FROM WeatherFee wf
+            WHERE (:vehicle IS NULL OR wf.vehicle = :vehicle)
+              AND (:condition IS NULL OR wf.condition = :condition)
+            ORDER BY wf.id
+            """)
+    Stream<WeatherFee> streamAll(
+            @Param("vehicle") Vehicle vehicle,
+            @Param("condition") WeatherCondition condition
+    );
+
     /**
      * Checks if a weather fee exists for the specified vehicle, weather condition, and phenomenon.
      *
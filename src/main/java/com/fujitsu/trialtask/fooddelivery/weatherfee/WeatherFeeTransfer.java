@@ -0,0 +1,136 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeFileFormat;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/**
+ * Service class responsible for writing weather fees to and reading them from CSV and NDJSON files.
+ * <p>
+ * Both directions go through Jackson's streaming parser and generator one fee at a time, so a file is never
+ * held in memory as a whole, only the fees themselves. Imported fees are checked against the bean validation
+ * constraints of {@link WeatherFee} as they are read; the checks between fees are left to {@link WeatherFeeValidator}.
+ */
+@Service
+public class WeatherFeeTransfer {
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("vehicle")
+            .addColumn("condition")
+            .addNumberColumn("above")
+            .addNumberColumn("below")
+            .addColumn("phenomenon")
+            .addNumberColumn("fee")
+            .addColumn("validFrom")
+            .addColumn("validTo")
+            .build()
+            .withHeader();
+
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final Validator validator;
+
+    @Autowired
+    public WeatherFeeTransfer(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.validator = validator;
+    }
+
+    /**
+     * Writes the weather fees to the output stream.
+     *
+     * @param weatherFees  the weather fees to write
+     * @param format       the file format to write
+     * @param outputStream the stream to write to, left open
+     *
+     * @throws IOException if writing to the stream fails
+     */
+    public void write(Collection<WeatherFee> weatherFees, FeeFileFormat format, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = switch (format) {
+            case CSV -> csvMapper.writer(CSV_SCHEMA);
+            case NDJSON -> objectMapper.writer().withRootValueSeparator("\n");
+        };
+
+        try (SequenceWriter sequenceWriter = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(outputStream)) {
+            for (WeatherFee weatherFee : weatherFees) {
+                sequenceWriter.write(weatherFee);
+            }
+        }
+        if (format == FeeFileFormat.NDJSON && !weatherFees.isEmpty()) {
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Reads the weather fees from the input stream.
+     * The IDs in the file are ignored, the fees are read as new fees.
+     *
+     * @param inputStream the stream to read from
+     * @param format      the file format to read
+     *
+     * @return the weather fees in the order of the file
+     * @throws InvalidRequestException if a record cannot be parsed or violates the weather fee constraints
+     * @throws IOException             if reading from the stream fails
+     */
+    public List<WeatherFee> read(InputStream inputStream, FeeFileFormat format) throws IOException {
+        ObjectReader reader = switch (format) {
+            case CSV -> csvMapper.readerFor(WeatherFee.class).with(CsvSchema.emptySchema().withHeader());
+            case NDJSON -> objectMapper.readerFor(WeatherFee.class);
+        };
+
+        List<WeatherFee> weatherFees = new ArrayList<>();
+        try (MappingIterator<WeatherFee> iterator = reader.readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                WeatherFee weatherFee = iterator.nextValue();
+                weatherFee.setId(null);
+                validate(weatherFee, weatherFees.size() + 1);
+                weatherFees.add(weatherFee);
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("Invalid weather fee at record %d: %s"
+                    .formatted(weatherFees.size() + 1, e.getOriginalMessage()));
+        }
+        return weatherFees;
+    }
+
+    private void validate(WeatherFee weatherFee, int record) {
+        Set<ConstraintViolation<WeatherFee>> violations = validator.validate(weatherFee);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException("Invalid weather fee at record %d: %s".formatted(record,
+                    violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "))));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import jakarta.persistence.EntityExistsException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+
+/**
+ * Validates weather fees in memory: no duplicate phenomena, no phenomenon fee shadowed by an equal or higher fee
+ * of a less strict phenomenon, and no overlapping ranges.
+ * <p>
+ * Only the weather fees of the same vehicle type and weather condition are compared with each other. The checks
+ * are answered by a {@link WeatherFeeIndex}, so validating a set of N weather fees takes O(N log N) time.
+ */
+@Component
+public class WeatherFeeValidator {
+
+    /**
+     * Validates the specified set of weather fees.
+     *
+     * @param weatherFees the complete set of weather fees
+     *
+     * @throws EntityExistsException if any weather fee conflicts with another weather fee of the set
+     */
+    public void validate(Collection<WeatherFee> weatherFees) {
+        WeatherFeeIndex index = WeatherFeeIndex.of(weatherFees);
+        for (WeatherFee weatherFee : weatherFees) {
+            validate(weatherFee, index);
+        }
+    }
+
+    /**
+     * Validates a single weather fee against an indexed set of weather fees.
+     * A weather fee of the set with the same ID as the candidate is ignored, as the candidate replaces it.
+     *
+     * @param candidate the weather fee to validate
+     * @param index     the index of the existing weather fees
+     *
+     * @throws EntityExistsException if the weather fee conflicts with an existing weather fee
+     */
+    public void validate(WeatherFee candidate, WeatherFeeIndex index) {
+        WeatherFee duplicate = index.findDuplicatePhenomenon(candidate);
+        if (duplicate != null) {
+            throw new EntityExistsException("Fee already exists for vehicle: %s and phenomenon: %s"
+                    .formatted(candidate.getVehicle(), candidate.getPhenomenon()));
+        }
+
+        WeatherFee lessStrict = index.findLessStrictHigherPhenomenonFee(candidate);
+        if (lessStrict != null) {
+            throw new EntityExistsException("An equal or higher fee already exists for a less strict phenomenon condition (id: %s)"
+                    .formatted(lessStrict.getId()));
+        }
+
+        WeatherFee overlapping = index.findOverlappingRange(candidate);
+        if (overlapping != null) {
+            throw new EntityExistsException("A fee with an overlapping range exists (id: %s)"
+                    .formatted(overlapping.getId()));
+        }
+    }
+}
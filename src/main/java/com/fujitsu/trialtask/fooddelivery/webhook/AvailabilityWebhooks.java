@@ -0,0 +1,118 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.delivery.DeliveryFeeChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.delivery.FeeCellState;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.VehicleAvailability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Component writing a notification to the webhook outbox for every subscription covering a vehicle type whose
+ * availability in a city has flipped, as told by the {@link DeliveryFeeChangedEvent}s of the fee matrix.
+ * <p>
+ * The notifications are only written to the database here, on the thread of the fee matrix; they are delivered
+ * by the {@link WebhookDispatcher}, so a slow partner never holds up the weather ingestion or the fee calculation.
+ * Only the leader writes them, as every node recalculates its own fee matrix.
+ */
+@Component
+class AvailabilityWebhooks {
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityWebhooks.class);
+    private final WebhookSubscriptionRepository webhookSubscriptionRepository;
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+    private final LeaderElection leaderElection;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public AvailabilityWebhooks(WebhookSubscriptionRepository webhookSubscriptionRepository,
+                                WebhookDeliveryRepository webhookDeliveryRepository,
+                                LeaderElection leaderElection,
+                                ObjectMapper objectMapper) {
+        this(webhookSubscriptionRepository, webhookDeliveryRepository, leaderElection, objectMapper,
+                Clock.systemUTC());
+    }
+
+    AvailabilityWebhooks(WebhookSubscriptionRepository webhookSubscriptionRepository,
+                         WebhookDeliveryRepository webhookDeliveryRepository,
+                         LeaderElection leaderElection,
+                         ObjectMapper objectMapper,
+                         Clock clock) {
+        this.webhookSubscriptionRepository = webhookSubscriptionRepository;
+        this.webhookDeliveryRepository = webhookDeliveryRepository;
+        this.leaderElection = leaderElection;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Writes the notifications of a flipped availability to the outbox. Changes of the fee alone, and the first
+     * calculation of a cell after startup, are not notified.
+     *
+     * @param event the changed outcome of a cell of the fee matrix
+     */
+    @EventListener
+    public void onDeliveryFeeChanged(DeliveryFeeChangedEvent event) {
+        FeeCellState previous = event.previous();
+        FeeCellState current = event.current();
+        if (previous == null || previous.availability() == current.availability() || !leaderElection.isLeader()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        String payload = write(new AvailabilityChange(current.city(), current.vehicle(), previous.availability(),
+                current.availability(), current.fee(), current.detail(), current.calculatedAt()));
+        List<WebhookDelivery> deliveries = new ArrayList<>();
+        for (WebhookSubscription subscription : webhookSubscriptionRepository.findAll()) {
+            if (subscription.covers(current.city(), current.vehicle())) {
+                deliveries.add(new WebhookDelivery(subscription.getId(), subscription.getUrl(), payload, now));
+            }
+        }
+        if (!deliveries.isEmpty()) {
+            webhookDeliveryRepository.saveAll(deliveries);
+            log.debug("Queued {} webhook notifications of {} {} becoming {}", deliveries.size(),
+                    current.vehicle(), current.city(), current.availability());
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value, e);
+        }
+    }
+
+    /**
+     * The notification sent to the partners.
+     *
+     * @param city                 the city
+     * @param vehicle              the vehicle type
+     * @param previousAvailability the availability of the vehicle type before the change
+     * @param availability         the availability of the vehicle type after the change
+     * @param fee                  the delivery fee, or null if the vehicle type can't be used
+     * @param detail               why the vehicle type can't be used, or null if it can
+     * @param changedAt            the time the change was calculated
+     */
+    record AvailabilityChange(City city,
+                              Vehicle vehicle,
+                              VehicleAvailability previousAvailability,
+                              VehicleAvailability availability,
+                              Float fee,
+                              String detail,
+                              Instant changedAt) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Controller class for managing the webhook subscriptions of partners, which are notified when a vehicle type
+ * becomes available or unavailable in a city.
+ */
+@RestController
+@RequestMapping("/api/webhooks")
+class WebhookController {
+    private static final int MAX_URL_LENGTH = 2000;
+    private final WebhookSubscriptionRepository webhookSubscriptionRepository;
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+    private final EntityListing entityListing;
+    private final Clock clock;
+
+    @Autowired
+    public WebhookController(WebhookSubscriptionRepository webhookSubscriptionRepository,
+                             WebhookDeliveryRepository webhookDeliveryRepository,
+                             EntityListing entityListing) {
+        this(webhookSubscriptionRepository, webhookDeliveryRepository, entityListing, Clock.systemUTC());
+    }
+
+    WebhookController(WebhookSubscriptionRepository webhookSubscriptionRepository,
+                      WebhookDeliveryRepository webhookDeliveryRepository,
+                      EntityListing entityListing,
+                      Clock clock) {
+        this.webhookSubscriptionRepository = webhookSubscriptionRepository;
+        this.webhookDeliveryRepository = webhookDeliveryRepository;
+        this.entityListing = entityListing;
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieves all webhook subscriptions.
+     *
+     * @return ResponseEntity containing the list of the webhook subscriptions
+     */
+    @GetMapping
+    public ResponseEntity<List<WebhookSubscription>> getAllSubscriptions() {
+        List<WebhookSubscription> subscriptions = new ArrayList<>();
+        webhookSubscriptionRepository.findAll().forEach(subscriptions::add);
+        return ResponseEntity.ok(subscriptions);
+    }
+
+    /**
+     * Subscribes a URL to the availability changes, optionally limited to a city and a vehicle type.
+     *
+     * @param subscription the subscription to create
+     *
+     * @return ResponseEntity containing the created subscription and HTTP status 201 Created
+     * @throws InvalidRequestException if the URL is not an absolute HTTP(S) URL
+     */
+    @PostMapping
+    public ResponseEntity<WebhookSubscription> createSubscription(@RequestBody WebhookSubscription subscription) {
+        validateUrl(subscription.getUrl());
+        subscription.setId(null);
+        subscription.setCreatedAt(clock.instant());
+        return ResponseEntity.status(HttpStatus.CREATED).body(webhookSubscriptionRepository.save(subscription));
+    }
+
+    /**
+     * Retrieves the latest deliveries of a webhook subscription, from the latest.
+     *
+     * @param id    the ID of the subscription
+     * @param limit the maximum number of deliveries (optional)
+     *
+     * @return ResponseEntity containing the list of the deliveries
+     * @throws EntityNotFoundException if the subscription with the specified ID is not found
+     * @throws InvalidRequestException if the limit is invalid
+     */
+    @GetMapping("/{id}/deliveries")
+    public ResponseEntity<List<WebhookDelivery>> getDeliveries(
+            @PathVariable Long id,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!webhookSubscriptionRepository.existsById(id)) {
+            throw new EntityNotFoundException("Webhook subscription not found with id: " + id);
+        }
+        int pageSize = entityListing.pageSize(limit);
+        return ResponseEntity.ok(webhookDeliveryRepository.findBySubscriptionIdOrderByIdDesc(id, Limit.of(pageSize)));
+    }
+
+    /**
+     * Deletes a webhook subscription by ID, along with its deliveries still pending.
+     *
+     * @param id the ID of the subscription to delete
+     *
+     * @return ResponseEntity with HTTP status 204 NO CONTENT
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSubscription(@PathVariable Long id) {
+        webhookSubscriptionRepository.deleteById(id);
+        webhookDeliveryRepository.deleteBySubscriptionIdAndStatus(id, WebhookDeliveryStatus.PENDING);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static void validateUrl(String url) {
+        if (url == null || url.isBlank() || url.length() > MAX_URL_LENGTH) {
+            throw new InvalidRequestException("Webhook URL must be given, in at most " + MAX_URL_LENGTH + " characters");
+        }
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (!("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) || uri.getHost() == null) {
+                throw new InvalidRequestException("Webhook URL must be an absolute HTTP(S) URL: " + url);
+            }
+        } catch (URISyntaxException e) {
+            throw new InvalidRequestException("Invalid webhook URL: " + url);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a notification in the webhook outbox: written in the same transaction that decides on
+ * it, and delivered to the subscribed URL in the background until the endpoint accepts it or the attempts run out.
+ * The notification is stored as JSON.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_webhook_delivery_due", columnList = "status, nextAttemptAt"))
+public class WebhookDelivery {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long subscriptionId;
+
+    @Column(length = 2000)
+    private String url;
+
+    @JsonRawValue
+    @Column(length = 2000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    private WebhookDeliveryStatus status;
+
+    private int attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public WebhookDelivery() {
+    }
+
+    /**
+     * Constructs a new pending WebhookDelivery, due at once.
+     *
+     * @param subscriptionId the ID of the subscription the notification is for
+     * @param url            the URL to post the notification to
+     * @param payload        the notification as JSON
+     * @param createdAt      the time the notification was written to the outbox
+     */
+    public WebhookDelivery(Long subscriptionId, String url, String payload, Instant createdAt) {
+        this.subscriptionId = subscriptionId;
+        this.url = url;
+        this.payload = payload;
+        this.status = WebhookDeliveryStatus.PENDING;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public WebhookDeliveryStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WebhookDeliveryStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookDelivery{" +
+                "id=" + id +
+                ", subscriptionId=" + subscriptionId +
+                ", url='" + url + '\'' +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                '}';
+    }
+}
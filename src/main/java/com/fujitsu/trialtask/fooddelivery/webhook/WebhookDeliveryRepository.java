@@ -0,0 +1,71 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the webhook outbox.
+ */
+@Repository
+public interface WebhookDeliveryRepository extends CrudRepository<WebhookDelivery, Long> {
+    /**
+     * Retrieves the pending deliveries whose next attempt is due, in the order they were written, leaving out the
+     * deliveries to the specified URLs.
+     *
+     * @param now          the current time
+     * @param excludedUrls the URLs whose deliveries are left out, possibly none
+     * @param limit        the maximum number of deliveries to retrieve
+     *
+     * @return the due deliveries
+     */
+    @Query("""
+            SELECT wd
+            FROM WebhookDelivery wd
+            WHERE wd.status = com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus.PENDING
+              AND wd.nextAttemptAt <= :now
+              AND wd.url NOT IN :excludedUrls
+            ORDER BY wd.id
+            """)
+    List<WebhookDelivery> findDue(@Param("now") Instant now,
+                                  @Param("excludedUrls") Collection<String> excludedUrls,
+                                  Limit limit);
+
+    /**
+     * Retrieves the latest deliveries of a subscription.
+     *
+     * @param subscriptionId the ID of the subscription
+     * @param limit          the maximum number of deliveries to retrieve
+     *
+     * @return the deliveries, from the latest
+     */
+    List<WebhookDelivery> findBySubscriptionIdOrderByIdDesc(Long subscriptionId, Limit limit);
+
+    /**
+     * Counts the deliveries in a state.
+     *
+     * @param status the state
+     *
+     * @return the number of deliveries in the state
+     */
+    long countByStatus(WebhookDeliveryStatus status);
+
+    /**
+     * Deletes the deliveries of a subscription in a state.
+     *
+     * @param subscriptionId the ID of the subscription
+     * @param status         the state
+     *
+     * @return the number of deleted deliveries
+     */
+    @Transactional
+    long deleteBySubscriptionIdAndStatus(Long subscriptionId, WebhookDeliveryStatus status);
+}
@@ -0,0 +1,238 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+
+/**
+ * Component delivering the notifications of the webhook outbox in the background.
+ * <p>
+ * On the leader, the outbox is checked for due deliveries at the configured interval. The due deliveries are
+ * batched by URL and posted as a JSON array, each element carrying the ID of its delivery so that partners can drop
+ * the duplicates of the at-least-once delivery. The requests are sent asynchronously, with at most the configured
+ * number of requests in flight to a single URL: while an endpoint is at its limit, its deliveries stay in the outbox
+ * and are not even read, so however many of them are due, the other endpoints are served as usual.
+ * <p>
+ * A delivery is done once its endpoint responds with a 2xx status. Otherwise it is retried with an exponentially
+ * growing delay, and given up after the configured number of attempts.
+ */
+@Component
+public class WebhookDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+    private final LeaderElection leaderElection;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final ObjectMapper objectMapper;
+    private final WebhookProperties properties;
+    private final HttpClient httpClient;
+    private final Clock clock;
+    // Deliveries whose request is in flight, which are still pending in the outbox
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WebhookDispatcher(WebhookDeliveryRepository webhookDeliveryRepository,
+                             LeaderElection leaderElection,
+                             PlatformTransactionManager transactionManager,
+                             TaskScheduler taskScheduler,
+                             ObjectMapper objectMapper,
+                             WebhookProperties properties) {
+        this(webhookDeliveryRepository, leaderElection, transactionManager, taskScheduler, objectMapper, properties,
+                Clock.systemUTC());
+    }
+
+    WebhookDispatcher(WebhookDeliveryRepository webhookDeliveryRepository,
+                      LeaderElection leaderElection,
+                      PlatformTransactionManager transactionManager,
+                      TaskScheduler taskScheduler,
+                      ObjectMapper objectMapper,
+                      WebhookProperties properties,
+                      Clock clock) {
+        this.webhookDeliveryRepository = webhookDeliveryRepository;
+        this.leaderElection = leaderElection;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(properties.requestTimeout()).build();
+        this.clock = clock;
+    }
+
+    /**
+     * Starts checking the outbox once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::dispatch, properties.pollInterval());
+    }
+
+    /**
+     * Sends the due deliveries of the outbox, if this node is the leader.
+     *
+     * @return a future completed once the responses to the sent requests have been recorded
+     */
+    public CompletableFuture<Void> dispatch() {
+        if (!leaderElection.isLeader()) {
+            log.debug("Not the leader, skipping the webhook deliveries");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // The deliveries to the endpoints at their limit would only be deferred, so they are left out of the batch
+        List<String> saturated = permits.entrySet().stream()
+                .filter(entry -> entry.getValue().availablePermits() == 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<WebhookDelivery> due;
+        try {
+            // The deliveries in flight are still due, so they are read past
+            due = webhookDeliveryRepository.findDue(clock.instant(), saturated,
+                    Limit.of(properties.batchSize() + inFlight.size()));
+        } catch (DataAccessException e) {
+            log.warn("Failed to read the webhook outbox", e);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<String, List<WebhookDelivery>> batches = due.stream()
+                .filter(delivery -> !inFlight.contains(delivery.getId()))
+                .limit(properties.batchSize())
+                .collect(Collectors.groupingBy(WebhookDelivery::getUrl, LinkedHashMap::new, Collectors.toList()));
+
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        batches.forEach((url, batch) -> {
+            Semaphore endpointPermits = permits.computeIfAbsent(url,
+                    key -> new Semaphore(Math.max(properties.maxConcurrencyPerEndpoint(), 1)));
+            if (!endpointPermits.tryAcquire()) {
+                log.debug("{} requests already in flight to {}, deferring {} deliveries",
+                        properties.maxConcurrencyPerEndpoint(), url, batch.size());
+                return;
+            }
+            batch.forEach(delivery -> inFlight.add(delivery.getId()));
+            sent.add(send(url, batch).whenComplete((outcome, e) -> {
+                batch.forEach(delivery -> inFlight.remove(delivery.getId()));
+                endpointPermits.release();
+            }));
+        });
+        return CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> send(String url, List<WebhookDelivery> batch) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(properties.requestTimeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body(batch)))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.runAsync(() -> record(batch, "Invalid URL: " + e.getMessage()));
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        return e.getCause() != null ? e.getCause().toString() : e.toString();
+                    }
+                    int status = response.statusCode();
+                    return status >= 200 && status < 300 ? null : "HTTP status " + status;
+                })
+                .thenAccept(error -> record(batch, error));
+    }
+
+    private String body(List<WebhookDelivery> batch) {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (WebhookDelivery delivery : batch) {
+            body.addObject()
+                    .put("deliveryId", delivery.getId())
+                    .put("subscriptionId", delivery.getSubscriptionId())
+                    .putRawValue("event", new RawValue(delivery.getPayload()));
+        }
+        return body.toString();
+    }
+
+    /**
+     * Records the outcome of an attempt to deliver a batch.
+     *
+     * @param batch the deliveries sent
+     * @param error why the attempt failed, or null if the batch was delivered
+     */
+    private void record(List<WebhookDelivery> batch, String error) {
+        Instant now = clock.instant();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = batch.stream().map(WebhookDelivery::getId).toList();
+                for (WebhookDelivery delivery : webhookDeliveryRepository.findAllById(ids)) {
+                    delivery.setAttempts(delivery.getAttempts() + 1);
+                    if (error == null) {
+                        delivery.setStatus(WebhookDeliveryStatus.DELIVERED);
+                        delivery.setLastError(null);
+                    } else if (delivery.getAttempts() >= properties.maxAttempts()) {
+                        delivery.setStatus(WebhookDeliveryStatus.FAILED);
+                        delivery.setLastError(truncate(error));
+                    } else {
+                        delivery.setNextAttemptAt(now.plus(backoff(delivery.getAttempts())));
+                        delivery.setLastError(truncate(error));
+                    }
+                    webhookDeliveryRepository.save(delivery);
+                }
+            });
+        } catch (DataAccessException e) {
+            // The deliveries stay pending and are sent again
+            log.warn("Failed to record the outcome of {} webhook deliveries", batch.size(), e);
+            return;
+        }
+
+        if (error == null) {
+            log.debug("Delivered {} webhook notifications to {}", batch.size(), batch.get(0).getUrl());
+        } else {
+            log.warn("Failed to deliver {} webhook notifications to {}: {}", batch.size(), batch.get(0).getUrl(), error);
+        }
+    }
+
+    /**
+     * Calculates the delay before the next attempt, doubling from the initial backoff up to the maximum.
+     *
+     * @param attempts the number of attempts made
+     *
+     * @return the delay
+     */
+    private Duration backoff(int attempts) {
+        Duration backoff = properties.initialBackoff();
+        for (int i = 1; i < attempts && backoff.compareTo(properties.maxBackoff()) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(properties.maxBackoff()) < 0 ? backoff : properties.maxBackoff();
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the webhook dispatcher.
+ *
+ * @param pollInterval               how often the outbox is checked for due deliveries
+ * @param batchSize                  the maximum number of deliveries taken from the outbox at a time
+ * @param maxConcurrencyPerEndpoint  the maximum number of requests in flight to a single URL
+ * @param requestTimeout             the timeout of a request to an endpoint
+ * @param maxAttempts                the number of attempts after which a delivery is given up
+ * @param initialBackoff             the delay before the first retry
+ * @param maxBackoff                 the upper bound of the delay between retries
+ */
+@ConfigurationProperties("webhook")
+record WebhookProperties(
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("2") int maxConcurrencyPerEndpoint,
+        @DefaultValue("5s") Duration requestTimeout,
+        @DefaultValue("8") int maxAttempts,
+        @DefaultValue("10s") Duration initialBackoff,
+        @DefaultValue("10m") Duration maxBackoff) {
+}
@@ -0,0 +1,111 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a partner's subscription to the availability changes of vehicle types, delivered to
+ * a webhook URL. The subscription can be limited to a city and a vehicle type.
+ */
+@Entity
+public class WebhookSubscription {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 2000)
+    private String url;
+
+    @Enumerated(EnumType.STRING)
+    private City city;
+
+    @Enumerated(EnumType.STRING)
+    private Vehicle vehicle;
+
+    private Instant createdAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public WebhookSubscription() {
+    }
+
+    /**
+     * Constructs a new WebhookSubscription.
+     *
+     * @param url     the URL the changes are posted to
+     * @param city    the city to notify about, or null for every city
+     * @param vehicle the vehicle type to notify about, or null for every vehicle type
+     */
+    public WebhookSubscription(String url, City city, Vehicle vehicle) {
+        this.url = url;
+        this.city = city;
+        this.vehicle = vehicle;
+    }
+
+    /**
+     * Checks whether the subscription covers the vehicle type in the city.
+     *
+     * @param city    the city
+     * @param vehicle the vehicle type
+     *
+     * @return true if the partner is to be notified about the vehicle type in the city
+     */
+    public boolean covers(City city, Vehicle vehicle) {
+        return (this.city == null || this.city == city) && (this.vehicle == null || this.vehicle == vehicle);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public City getCity() {
+        return city;
+    }
+
+    public void setCity(City city) {
+        this.city = city;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public void setVehicle(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookSubscription{" +
+                "id=" + id +
+                ", url='" + url + '\'' +
+                ", city=" + city +
+                ", vehicle=" + vehicle +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
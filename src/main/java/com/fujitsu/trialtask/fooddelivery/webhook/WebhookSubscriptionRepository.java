@@ -0,0 +1,11 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing webhook subscriptions.
+ */
+@Repository
+public interface WebhookSubscriptionRepository extends CrudRepository<WebhookSubscription, Long> {
+}
@@ -0,0 +1,175 @@
+package com.fujitsu.trialtask.fooddelivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of the latency of the fee and admin path queries versus the table size, with and without the indexes
+ * declared on the entities. Not part of the regular test run, execute it with:
+ * <pre>
+ * mvn test -Dtest=QueryIndexBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ * The regional fee table is not benchmarked: its unique (city, vehicle) constraint bounds it to one row per
+ * city and vehicle type, so the constraint is there for integrity rather than latency.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryIndexBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(QueryIndexBenchmark.class);
+    private static final int[] WEATHER_DATA_SIZES = {1_000, 10_000, 100_000, 500_000};
+    private static final int[] WEATHER_FEE_SIZES = {100, 1_000, 10_000, 50_000};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private WeatherFeeRepository weatherFeeRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM weather_data");
+        jdbcTemplate.execute("DELETE FROM weather_fee");
+    }
+
+    @Test
+    void latestWeatherDataByCity() {
+        String key = "uk_weather_data_city_timestamp";
+        String addKey = "ALTER TABLE weather_data ADD CONSTRAINT " + key + " UNIQUE (city, timestamp DESC)";
+        assertUniqueKeyExists("WEATHER_DATA", key);
+
+        log.info(String.format("%-40s %10s %14s %14s", "findFirstByCityOrderByTimestampDesc", "rows", "indexed us", "scan us"));
+        int inserted = 0;
+        for (int size : WEATHER_DATA_SIZES) {
+            insertWeatherData(inserted, size);
+            inserted = size;
+
+            Supplier<Object> query = () -> weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TARTU);
+            Object indexedResult = query.get();
+            double indexed = measure(query);
+
+            jdbcTemplate.execute("ALTER TABLE weather_data DROP CONSTRAINT " + key);
+            Object scanResult = query.get();
+            double scan = measure(query);
+            jdbcTemplate.execute(addKey);
+
+            assertEquals(indexedResult, scanResult);
+            log.info(String.format("%-40s %10d %14.1f %14.1f", "", size, indexed, scan));
+        }
+    }
+
+    @Test
+    void weatherFeesByVehicleAndCondition() {
+        String index = "idx_weather_fee_vehicle_condition";
+        String createIndex = "CREATE INDEX " + index + " ON weather_fee (vehicle, condition)";
+        assertIndexExists("WEATHER_FEE", index);
+
+        log.info(String.format("%-40s %10s %14s %14s", "findOverlappingRange / findAllByVehicle", "rows", "indexed us", "scan us"));
+        int inserted = 0;
+        for (int size : WEATHER_FEE_SIZES) {
+            insertWeatherFees(inserted, size);
+            inserted = size;
+
+            Supplier<Object> overlapping = () -> weatherFeeRepository.findOverlappingRange(
+                    Vehicle.BIKE, WeatherCondition.WIND_SPEED, 10.0f, 20.0f);
+            Supplier<Object> byVehicle = () -> weatherFeeRepository.findAllByVehicle(Vehicle.BIKE).size();
+            double[] indexed = {measure(overlapping), measure(byVehicle)};
+
+            jdbcTemplate.execute("DROP INDEX " + index);
+            double[] scan = {measure(overlapping), measure(byVehicle)};
+            jdbcTemplate.execute(createIndex);
+
+            log.info(String.format("%-40s %10d %14s %14s", "", size, format(indexed), format(scan)));
+        }
+    }
+
+    private void assertUniqueKeyExists(String table, String key) {
+        List<String> keys = jdbcTemplate.queryForList(
+                "SELECT constraint_name FROM information_schema.table_constraints "
+                        + "WHERE table_name = ? AND constraint_type = 'UNIQUE'", String.class, table);
+        assertTrue(keys.stream().anyMatch(key::equalsIgnoreCase), "Missing unique key " + key + " in " + keys);
+    }
+
+    private void assertIndexExists(String table, String index) {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name = ?", String.class, table);
+        assertTrue(indexes.stream().anyMatch(index::equalsIgnoreCase), "Missing index " + index + " in " + indexes);
+    }
+
+    /**
+     * Inserts weather data of every city, one observation per city every 15 minutes, until the table has
+     * the specified number of rows.
+     */
+    private void insertWeatherData(int from, int to) {
+        int cities = City.values().length;
+        for (int batchStart = from; batchStart < to; batchStart += INSERT_BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = batchStart; i < Math.min(batchStart + INSERT_BATCH_SIZE, to); i++) {
+                rows.add(new Object[]{1_600_000_000L + (long) (i / cities) * 900, i % cities, "", 1.0f, 5.0f});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO weather_data (timestamp, city, phenomenon, air_temperature, wind_speed) "
+                    + "VALUES (?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    /**
+     * Inserts narrow, non-overlapping range fees spread over every vehicle type and weather condition,
+     * until the table has the specified number of rows.
+     */
+    private void insertWeatherFees(int from, int to) {
+        Vehicle[] vehicles = Vehicle.values();
+        WeatherCondition[] conditions = WeatherCondition.values();
+        for (int batchStart = from; batchStart < to; batchStart += INSERT_BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = batchStart; i < Math.min(batchStart + INSERT_BATCH_SIZE, to); i++) {
+                float above = 1_000.0f + i;
+                rows.add(new Object[]{vehicles[i % vehicles.length].name(),
+                        conditions[(i / vehicles.length) % conditions.length].name(), above, above + 0.5f, 1.0f});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO weather_fee (vehicle, condition, above, below, fee) "
+                    + "VALUES (?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    /**
+     * Measures the mean latency of the query in microseconds, after a warm-up.
+     */
+    private double measure(Supplier<Object> query) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+    }
+
+    private String format(double[] latencies) {
+        return String.join(" / ", Arrays.stream(latencies).mapToObj(latency -> String.format("%.1f", latency)).toList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.fujitsu.trialtask.fooddelivery.cache;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test methods run outside a test transaction, like the requests of the application:
+ * the query cache is only used once the transactions writing the queried tables have completed.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateCacheConfigurationTest {
+
+    @Autowired
+    private WeatherFeeRepository weatherFeeRepository;
+
+    @Autowired
+    private RegionalFeeRepository regionalFeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherFeeRepository.deleteAll();
+        regionalFeeRepository.deleteAll();
+    }
+
+    @Test
+    void findAllByVehicle_CalledRepeatedly_ShouldNotQueryDatabase() {
+        // Arrange
+        weatherFeeRepository.saveAll(List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 0.5f)));
+        weatherFeeRepository.findAllByVehicle(Vehicle.BIKE);
+        statistics.clear();
+
+        // Act
+        List<WeatherFee> weatherFees = weatherFeeRepository.findAllByVehicle(Vehicle.BIKE);
+
+        // Assert
+        assertEquals(2, weatherFees.size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllByVehicle_AfterWrite_ShouldReturnUpdatedWeatherFees() {
+        // Arrange
+        WeatherFee weatherFee = weatherFeeRepository.save(
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "snow", 1.0f));
+        weatherFeeRepository.findAllByVehicle(Vehicle.SCOOTER);
+
+        // Act
+        weatherFee.setFee(2.5f);
+        weatherFeeRepository.save(weatherFee);
+        weatherFeeRepository.save(new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "glaze", null));
+        List<WeatherFee> weatherFees = weatherFeeRepository.findAllByVehicle(Vehicle.SCOOTER);
+
+        // Assert
+        assertEquals(2, weatherFees.size());
+        assertTrue(weatherFees.stream().anyMatch(fee -> Float.valueOf(2.5f).equals(fee.getFee())));
+    }
+
+    @Test
+    void findByCityAndVehicle_CalledRepeatedly_ShouldNotQueryDatabase() {
+        // Arrange
+        regionalFeeRepository.save(new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f));
+        regionalFeeRepository.findByCityAndVehicle(City.TARTU, Vehicle.CAR);
+        statistics.clear();
+
+        // Act
+        RegionalFee regionalFee = regionalFeeRepository.findByCityAndVehicle(City.TARTU, Vehicle.CAR);
+
+        // Assert
+        assertEquals(3.5f, regionalFee.getFee());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByCityAndVehicle_AfterDelete_ShouldReturnNull() {
+        // Arrange
+        RegionalFee regionalFee = regionalFeeRepository.save(new RegionalFee(City.PÄRNU, Vehicle.BIKE, 2.0f));
+        regionalFeeRepository.findByCityAndVehicle(City.PÄRNU, Vehicle.BIKE);
+
+        // Act
+        regionalFeeRepository.deleteById(regionalFee.getId());
+
+        // Assert
+        assertNull(regionalFeeRepository.findByCityAndVehicle(City.PÄRNU, Vehicle.BIKE));
+    }
+}
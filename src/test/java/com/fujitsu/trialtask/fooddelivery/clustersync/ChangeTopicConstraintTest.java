@@ -0,0 +1,65 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeTopicConstraintTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ChangeTopicConstraint changeTopicConstraint;
+
+    @BeforeEach
+    void setUp() {
+        changeTopicConstraint = new ChangeTopicConstraint(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM change_version");
+    }
+
+    @Test
+    void drop_WithConstraintOfEarlierTopics_AllowsNewTopic() {
+        // Arrange
+        jdbcTemplate.execute("ALTER TABLE change_version ADD CONSTRAINT ck_change_version_topic "
+                + "CHECK (topic IN ('FEES', 'WEATHER'))");
+
+        // Act
+        changeTopicConstraint.drop();
+
+        // Assert
+        jdbcTemplate.update("INSERT INTO change_version (topic, version) VALUES ('WEATHER_HISTORY', 1)");
+        assertEquals(0, countConstraints("CK_CHANGE_VERSION_TOPIC"));
+    }
+
+    @Test
+    void drop_WithConstraintOfEveryTopic_KeepsIt() {
+        // Arrange
+        int constraints = countConstraints(null);
+
+        // Act
+        changeTopicConstraint.drop();
+
+        // Assert
+        assertEquals(constraints, countConstraints(null));
+    }
+
+    private int countConstraints(String name) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_NAME = 'CHANGE_VERSION' AND CONSTRAINT_TYPE = 'CHECK' "
+                        + "AND (? IS NULL OR CONSTRAINT_NAME = ?)",
+                Integer.class, name, name);
+        return count == null ? 0 : count;
+    }
+}
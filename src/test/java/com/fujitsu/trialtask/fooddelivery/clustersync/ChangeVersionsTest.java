@@ -0,0 +1,97 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeVersionsTest {
+    @Autowired
+    private ChangeVersionRepository changeVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ApplicationEventPublisher nodeAEvents = mock(ApplicationEventPublisher.class);
+    private final ApplicationEventPublisher nodeBEvents = mock(ApplicationEventPublisher.class);
+
+    // Two application nodes sharing the database
+    private ChangeVersions nodeA;
+    private ChangeVersions nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node(nodeAEvents);
+        nodeB = node(nodeBEvents);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeVersionRepository.deleteAll();
+    }
+
+    @Test
+    void poll_AfterChangeOnAnotherNode_PublishesRemoteChangeOnlyOnThatNode() {
+        // Arrange
+        nodeA.poll();
+        nodeB.poll();
+
+        // Act
+        nodeA.bump(ChangeTopic.FEES);
+        nodeA.poll();
+        nodeB.poll();
+
+        // Assert
+        verify(nodeBEvents).publishEvent(new RemoteChangeEvent(ChangeTopic.FEES, 1));
+        verifyNoInteractions(nodeAEvents);
+        assertEquals(1, changeVersionRepository.findById(ChangeTopic.FEES).orElseThrow().getVersion());
+    }
+
+    @Test
+    void poll_OnFirstCall_OnlyRecordsVersions() {
+        // Arrange
+        nodeA.bump(ChangeTopic.WEATHER);
+
+        // Act
+        nodeB.poll();
+        nodeB.poll();
+
+        // Assert
+        verifyNoInteractions(nodeBEvents);
+    }
+
+    @Test
+    void bump_AfterUnseenChangeOnAnotherNode_StillReportsThatChange() {
+        // Arrange
+        nodeA.poll();
+        nodeB.bump(ChangeTopic.WEATHER);
+
+        // Act
+        nodeA.bump(ChangeTopic.WEATHER);
+        nodeA.poll();
+        nodeA.poll();
+
+        // Assert
+        verify(nodeAEvents).publishEvent(new RemoteChangeEvent(ChangeTopic.WEATHER, 2));
+        verifyNoMoreInteractions(nodeAEvents);
+    }
+
+    private ChangeVersions node(ApplicationEventPublisher eventPublisher) {
+        return new ChangeVersions(changeVersionRepository, transactionManager, eventPublisher,
+                mock(TaskScheduler.class), new ClusterSyncProperties(Duration.ofSeconds(2), "", Duration.ofSeconds(15)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.fujitsu.trialtask.fooddelivery.clustersync;
+
+import com.fujitsu.trialtask.fooddelivery.exceptions.LeaseLostException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaderElectionTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(15);
+
+    @Autowired
+    private LeaseLockRepository leaseLockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Clock clock = mock(Clock.class);
+
+    // Two application nodes sharing the database
+    private LeaderElection nodeA;
+    private LeaderElection nodeB;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenReturn(NOW);
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaseLockRepository.deleteAll();
+    }
+
+    @Test
+    void acquire_OnConcurrentTicks_ElectsExactlyOneLeaderThatFetches() throws Exception {
+        // Arrange
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        try {
+            Future<?> tickA = executor.submit(() -> tick(nodeA, start, fetches));
+            Future<?> tickB = executor.submit(() -> tick(nodeB, start, fetches));
+            start.countDown();
+            tickA.get(10, TimeUnit.SECONDS);
+            tickB.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(1, fetches.get());
+        assertEquals(1, leaseLockRepository.findById(LeaderElection.LOCK_NAME).orElseThrow().getToken());
+    }
+
+    @Test
+    void acquire_WhileLeaderRenews_KeepsLeader() {
+        // Arrange
+        LeaderElection.Lease lease = nodeA.acquire();
+        when(clock.instant()).thenReturn(NOW.plus(LEASE_DURATION.dividedBy(3)));
+        nodeA.acquire();
+        when(clock.instant()).thenReturn(NOW.plus(LEASE_DURATION).plusSeconds(1));
+
+        // Act
+        LeaderElection.Lease other = nodeB.acquire();
+
+        // Assert
+        assertNull(other);
+        assertEquals(lease, nodeA.acquire());
+    }
+
+    @Test
+    void acquire_AfterLeaderDied_FailsOverAndFencesOldLeader() {
+        // Arrange
+        LeaderElection.Lease oldLease = nodeA.acquire();
+        when(clock.instant()).thenReturn(NOW.plus(LEASE_DURATION));
+
+        // Act
+        LeaderElection.Lease newLease = nodeB.acquire();
+
+        // Assert
+        assertNotNull(newLease);
+        assertTrue(newLease.token() > oldLease.token());
+        AtomicInteger writes = new AtomicInteger();
+        assertThrows(LeaseLostException.class, () -> nodeA.runFenced(oldLease, writes::incrementAndGet));
+        assertEquals(0, writes.get());
+        assertEquals(1, nodeB.runFenced(newLease, writes::incrementAndGet));
+        assertNull(nodeA.acquire());
+    }
+
+    @Test
+    void release_OnShutdown_LetsAnotherNodeTakeOverAtOnce() {
+        // Arrange
+        nodeA.acquire();
+
+        // Act
+        nodeA.release();
+
+        // Assert
+        assertNotNull(nodeB.acquire());
+    }
+
+    private Void tick(LeaderElection node, CountDownLatch start, AtomicInteger fetches) throws InterruptedException {
+        start.await();
+        LeaderElection.Lease lease = node.acquire();
+        if (lease != null) {
+            node.runFenced(lease, fetches::incrementAndGet);
+        }
+        return null;
+    }
+
+    private LeaderElection node(String nodeId) {
+        return new LeaderElection(leaseLockRepository, transactionManager, mock(TaskScheduler.class),
+                new ClusterSyncProperties(Duration.ofSeconds(2), nodeId, LEASE_DURATION), clock);
+    }
+}
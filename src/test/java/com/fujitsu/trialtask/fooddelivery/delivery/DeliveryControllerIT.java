@@ -3,9 +3,12 @@ package com.fujitsu.trialtask.fooddelivery.delivery;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
 import com.fujitsu.trialtask.fooddelivery.init.DataSeeder;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -13,15 +16,19 @@ import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 /**
@@ -48,16 +55,36 @@ public class DeliveryControllerIT {
     @Autowired
     private WeatherDataRepository weatherDataRepository;
 
+    @Autowired
+    private LatestWeatherData latestWeatherData;
+
+    @Autowired
+    private WeatherHistory weatherHistory;
+
+    @Autowired
+    private DeliveryWarmup deliveryWarmup;
+
     @BeforeEach
-    void setUp(final TestInfo testInfo) {
+    void setUp(final TestInfo testInfo) throws InterruptedException {
+        // The first weather collection runs in the background and must not interfere with the test data
+        awaitWarmup();
         if (testInfo.getTags().contains("no-setup")) {
             return;
         }
 
         weatherDataRepository.deleteAll();
+        latestWeatherData.reload();
+        weatherHistory.invalidate();
         dataSeeder.run();
     }
 
+    private void awaitWarmup() throws InterruptedException {
+        Instant deadline = Instant.now().plusSeconds(60);
+        while (deliveryWarmup.health().getStatus() != Status.UP && Instant.now().isBefore(deadline)) {
+            Thread.sleep(50);
+        }
+    }
+
     @Tag("no-setup")
     @Test
     void getDeliveryFee_WithValidCityAndVehicle_ShouldReturnDeliveryFee() throws Exception {
@@ -75,6 +102,23 @@ public class DeliveryControllerIT {
                 .andExpect(jsonPath("$.fee").exists());
     }
 
+    @Tag("no-setup")
+    @Test
+    void watchDeliveryFee_WithoutVersion_ShouldReturnCurrentFeeAsynchronously() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(CONTROLLER_URL + "/watch", "TALLINN")
+                        .param("vehicle", "CAR"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city").value("TALLINN"))
+                .andExpect(jsonPath("$.availability").value("AVAILABLE"))
+                .andExpect(jsonPath("$.version").isNumber());
+    }
+
     @Tag("no-setup")
     @Test
     void getDeliveryFee_WithInvalidCity_ShouldReturnNotFound() throws Exception {
@@ -264,6 +308,45 @@ public class DeliveryControllerIT {
         assertDeliveryFee(vehicle, city, expectedFee);
     }
 
+    @Test
+    void getDeliveryFeeHistory_WithWeatherHistory_ShouldStreamFeesPerPeriod() throws Exception {
+        // Arrange
+        long start = Instant.parse("2024-03-01T00:00:00Z").getEpochSecond();
+        weatherDataRepository.saveAll(List.of(
+                new WeatherData(start, City.TALLINN, 0, "Light snow shower", -5.0f, 5.0f),
+                new WeatherData(start + 1800, City.TALLINN, 0, "Clear", 5.0f, 5.0f),
+                new WeatherData(start + 3600, City.TALLINN, 0, "Glaze", 5.0f, 5.0f),
+                new WeatherData(start + 7200, City.TALLINN, 0, "Clear", 5.0f, 5.0f)));
+
+        // Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(CONTROLLER_URL + "/history", "tallinn")
+                        .param("vehicle", "bike")
+                        .param("from", "2024-03-01T00:00:00Z")
+                        .param("to", "2024-03-01T02:00:00Z")
+                        .param("step", "1h"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EntityListing.NDJSON))
+                .andExpect(content().string(
+                        "{\"timestamp\":\"2024-03-01T00:00:00Z\",\"observations\":2,\"forbiddenObservations\":0,"
+                                + "\"minFee\":3.0,\"meanFee\":3.75,\"maxFee\":4.5}\n"
+                                + "{\"timestamp\":\"2024-03-01T01:00:00Z\",\"observations\":1,\"forbiddenObservations\":1,"
+                                + "\"minFee\":null,\"meanFee\":null,\"maxFee\":null}\n"));
+    }
+
+    @Test
+    void getDeliveryFeeHistory_WithEmptyRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(CONTROLLER_URL + "/history", "tallinn")
+                        .param("vehicle", "bike")
+                        .param("from", "2024-03-01T02:00:00Z")
+                        .param("to", "2024-03-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
     private void assertUnprocessable(City city, Vehicle vehicle) throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get(CONTROLLER_URL, city.name())
                         .param("vehicle", vehicle.name())
@@ -290,5 +373,6 @@ public class DeliveryControllerIT {
     private void mockWeatherData(City city, String phenomenon, float airTemperature, float windSpeed) {
         WeatherData badWeather = new WeatherData(1234L, city, 0, phenomenon, airTemperature, windSpeed);
         weatherDataRepository.save(badWeather);
+        latestWeatherData.update(List.of(badWeather));
     }
 }
@@ -1,5 +1,8 @@
 package com.fujitsu.trialtask.fooddelivery.delivery;
 
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,7 +14,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Instant;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +27,12 @@ class DeliveryControllerTest {
     @Mock
     private DeliveryFeeCalculator deliveryFeeCalculator;
 
+    @Mock
+    private DeliveryFeeHistory deliveryFeeHistory;
+
+    @Mock
+    private DeliveryFeeWatcher deliveryFeeWatcher;
+
     @InjectMocks
     private DeliveryController deliveryController;
 
@@ -74,4 +85,46 @@ class DeliveryControllerTest {
         assertThrows(EntityNotFoundException.class, () -> deliveryController.getDeliveryFee(cityName, vehicleName));
         verify(deliveryFeeCalculator, never()).calculate(any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getDeliveryFeeHistory_WithInvalidCity_ShouldThrowNotFoundException() {
+        // Arrange
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> deliveryController.getDeliveryFeeHistory(
+                "INVALID_CITY", "CAR", from, from.plusSeconds(3600), "1h"));
+        verify(deliveryFeeHistory, never()).series(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getDeliveryFeeHistory_WithInvalidStep_ShouldThrowInvalidRequestException() {
+        // Arrange
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> deliveryController.getDeliveryFeeHistory(
+                "TALLINN", "CAR", from, from.plusSeconds(3600), "hourly"));
+        verify(deliveryFeeHistory, never()).series(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void watchDeliveryFee_WithValidCityAndVehicle_ShouldWatchTheirCell() {
+        // Arrange
+        DeferredResult<ResponseEntity<Map<String, Object>>> expected = new DeferredResult<>();
+        when(deliveryFeeWatcher.watch(City.TARTU, Vehicle.BIKE, 7L)).thenReturn(expected);
+
+        // Act
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = deliveryController.watchDeliveryFee("tartu", "bike", 7L);
+
+        // Assert
+        assertSame(expected, result);
+    }
+
+    @Test
+    void watchDeliveryFee_WithInvalidVehicle_ShouldThrowNotFoundException() {
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> deliveryController.watchDeliveryFee("TARTU", "PLANE", null));
+        verifyNoInteractions(deliveryFeeWatcher);
+    }
+}
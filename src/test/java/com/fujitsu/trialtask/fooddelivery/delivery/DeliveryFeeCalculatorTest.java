@@ -1,46 +1,66 @@
 package com.fujitsu.trialtask.fooddelivery.delivery;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.StaleWeatherPolicy;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
 import com.fujitsu.trialtask.fooddelivery.exceptions.ForbiddenVehicleException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.StaleWeatherDataException;
 import com.fujitsu.trialtask.fooddelivery.exceptions.UnavailableVehicleException;
-import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
-import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.EffectiveFees;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
-import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
-import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class DeliveryFeeCalculatorTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+    private static final Duration MAX_AGE = Duration.ofHours(2);
+
+    @Mock
+    private LatestWeatherData latestWeatherData;
+
     @Mock
-    private WeatherDataRepository weatherDataRepository;
+    private FeeConfigurationService feeConfigurationService;
 
     @Mock
-    private RegionalFeeRepository regionalFeeRepository;
+    private FeeConfiguration feeConfiguration;
 
     @Mock
-    private WeatherFeeRepository weatherFeeRepository;
+    private EffectiveFees effectiveFees;
 
-    @InjectMocks
     private DeliveryFeeCalculator calculator;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(feeConfigurationService.current()).thenReturn(feeConfiguration);
+        lenient().when(feeConfiguration.effectiveAt(NOW)).thenReturn(effectiveFees);
+        calculator = createCalculator(StaleWeatherPolicy.LAST_KNOWN);
+    }
 
     @Test
     void calculate_WhenOnlyRegionalFeeProvided_ShouldReturnRegionalFee() {
@@ -48,7 +68,7 @@ public class DeliveryFeeCalculatorTest {
         float expectedFee = 13.2f;
         mockWeatherData(-40.0f, 30.0f, "snow thunder shower hailstorm");
         mockRegionalFeeOf(expectedFee);
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of());
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of());
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -64,7 +84,7 @@ public class DeliveryFeeCalculatorTest {
         mockWeatherData(20.0f, 5.0f, "some random weather");
         mockRegionalFeeOf(0.0f);
         WeatherFee fee = new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "random", expectedFee);
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -79,7 +99,7 @@ public class DeliveryFeeCalculatorTest {
         mockWeatherData(20.0f, 5.0f, "some random weather");
         mockRegionalFeeOf(0.0f);
         WeatherFee fee = new WeatherFee(Vehicle.CAR, WeatherCondition.AIR_TEMPERATURE, 10.0f, null, 17.4f);
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -94,7 +114,7 @@ public class DeliveryFeeCalculatorTest {
         mockWeatherData(20.0f, 5.0f, "some random weather");
         mockRegionalFeeOf(0.0f);
         WeatherFee fee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, null, 10.0f, 19.1f);
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -119,7 +139,7 @@ public class DeliveryFeeCalculatorTest {
         WeatherFee fee7 = new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "nomatch", fees.get(6));
         WeatherFee fee8 = new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "random", fees.get(7));
 
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee1, fee2, fee3, fee4, fee5, fee6, fee7, fee8));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee1, fee2, fee3, fee4, fee5, fee6, fee7, fee8));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -136,7 +156,7 @@ public class DeliveryFeeCalculatorTest {
         mockWeatherData(20.0f, 5.0f, "some random weather");
         mockRegionalFeeOf(0.0f);
         WeatherFee fee = new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, 10.0f, null, null);
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee));
 
         // Act & Assert
         assertThrows(ForbiddenVehicleException.class, () -> calculator.calculate(City.TALLINN, Vehicle.CAR));
@@ -149,7 +169,7 @@ public class DeliveryFeeCalculatorTest {
         mockWeatherData(2.0f, 5.0f, phenomenon);
         mockRegionalFeeOf(5.0f);
         WeatherFee fee = new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "sunny", 10.0f);
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -174,7 +194,7 @@ public class DeliveryFeeCalculatorTest {
         fee2.setPhenomenon("shower");
         fee2.setFee(10.0f);
 
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee1, fee2));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee1, fee2));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -201,7 +221,7 @@ public class DeliveryFeeCalculatorTest {
         fee2.setBelow(10.0f);
         fee2.setFee(27.3f);
 
-        when(weatherFeeRepository.findAllByVehicle(any())).thenReturn(List.of(fee1, fee2));
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(fee1, fee2));
 
         // Act
         float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
@@ -210,28 +230,172 @@ public class DeliveryFeeCalculatorTest {
         assertEquals(27.3f, result);
     }
 
+    @Test
+    void calculate_WithExtendedConditionFees_ShouldAddThemLikeAnyCondition() {
+        // Arrange
+        WeatherData weatherData = mockWeatherData(20.0f, 5.0f, "some random weather");
+        weatherData.setPrecipitation(4.0f);
+        weatherData.setWindGust(17.5f);
+        mockRegionalFeeOf(3.0f);
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(
+                new WeatherFee(Vehicle.CAR, WeatherCondition.PRECIPITATION, 2.0f, null, 0.5f),
+                new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_GUST, 15.0f, 25.0f, 1.0f),
+                new WeatherFee(Vehicle.CAR, WeatherCondition.RELATIVE_HUMIDITY, 90.0f, null, 2.0f)));
+
+        // Act
+        float result = calculator.calculate(City.TALLINN, Vehicle.CAR);
+
+        // Assert
+        assertEquals(4.5f, result);
+    }
+
+    @Test
+    void calculate_WhenVehicleIsForbiddenDueToLowVisibility_ShouldDescribeVisibility() {
+        // Arrange
+        WeatherData weatherData = mockWeatherData(20.0f, 5.0f, "fog");
+        weatherData.setVisibility(0.2f);
+        mockRegionalFeeOf(3.0f);
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.VISIBILITY, null, 0.5f, null)));
+
+        // Act
+        ForbiddenVehicleException exception = assertThrows(ForbiddenVehicleException.class,
+                () -> calculator.calculate(City.TALLINN, Vehicle.SCOOTER));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("visibility: 0.2 km"), exception.getMessage());
+    }
+
     @Test
     void calculate_WithNoRegionalFee_ShouldThrowException() {
         // Arrange
-        when(regionalFeeRepository.findByCityAndVehicle(any(), any())).thenReturn(null);
+        when(effectiveFees.regionalFeeOf(any(), any())).thenReturn(null);
 
         // Act & Assert
         assertThrows(UnavailableVehicleException.class, () -> calculator.calculate(City.TALLINN, Vehicle.CAR));
     }
 
+    @Test
+    void calculate_WithStaleWeatherAndLastKnownPolicy_ShouldUseLatestWeather() {
+        // Arrange
+        mockWeatherData(-15.0f, 5.0f, "clear", NOW.minus(MAX_AGE.multipliedBy(10)));
+        mockRegionalFeeOf(2.0f);
+        mockTemperatureFees();
+
+        // Act
+        float result = calculator.calculate(City.TALLINN, Vehicle.BIKE);
+
+        // Assert
+        assertEquals(3.0f, result);
+    }
+
+    @Test
+    void calculate_WithStaleWeatherAndWorstCasePolicy_ShouldChargeHighestFeeOfEveryCondition() {
+        // Arrange
+        calculator = createCalculator(StaleWeatherPolicy.WORST_CASE);
+        mockWeatherData(20.0f, 5.0f, "clear", NOW.minus(MAX_AGE).minusSeconds(1));
+        mockRegionalFeeOf(2.0f);
+        mockTemperatureFees();
+
+        // Act
+        float result = calculator.calculate(City.TALLINN, Vehicle.BIKE);
+
+        // Assert
+        assertEquals(3.0f + 0.5f, result);
+    }
+
+    @Test
+    void calculate_WithFreshWeatherAndWorstCasePolicy_ShouldUseLatestWeather() {
+        // Arrange
+        calculator = createCalculator(StaleWeatherPolicy.WORST_CASE);
+        mockWeatherData(20.0f, 5.0f, "clear", NOW.minus(MAX_AGE));
+        mockRegionalFeeOf(2.0f);
+        mockTemperatureFees();
+
+        // Act
+        float result = calculator.calculate(City.TALLINN, Vehicle.BIKE);
+
+        // Assert
+        assertEquals(2.0f, result);
+    }
+
+    @Test
+    void calculate_WithNoWeatherAndRejectPolicy_ShouldThrowException() {
+        // Arrange
+        calculator = createCalculator(StaleWeatherPolicy.REJECT);
+        when(latestWeatherData.get(any())).thenReturn(null);
+        mockRegionalFeeOf(2.0f);
+
+        // Act & Assert
+        assertThrows(StaleWeatherDataException.class, () -> calculator.calculate(City.TALLINN, Vehicle.BIKE));
+    }
+
+    @Test
+    void calculate_WithCitySpecificMaxAge_ShouldUseItInsteadOfDefault() {
+        // Arrange
+        WeatherStalenessProperties properties = new WeatherStalenessProperties(
+                MAX_AGE, Map.of(City.TARTU, Duration.ofMinutes(30)), StaleWeatherPolicy.REJECT);
+        calculator = new DeliveryFeeCalculator(latestWeatherData, feeConfigurationService,
+                properties, Clock.fixed(NOW, ZoneOffset.UTC));
+        mockWeatherData(20.0f, 5.0f, "clear", NOW.minus(Duration.ofHours(1)));
+        mockRegionalFeeOf(2.0f);
+
+        // Act & Assert
+        assertEquals(2.0f, calculator.calculate(City.TALLINN, Vehicle.BIKE));
+        assertThrows(StaleWeatherDataException.class, () -> calculator.calculate(City.TARTU, Vehicle.BIKE));
+    }
+
+    @Test
+    void inputsOf_WithNewerWeatherOrFeeChange_ShouldHaveGreaterVersion() {
+        // Arrange
+        when(feeConfiguration.getChangeVersion()).thenReturn(3L);
+        mockWeatherData(1.0f, 1.0f, "", NOW.minus(Duration.ofHours(1)));
+        long before = calculator.inputsOf(City.TALLINN).version();
+        mockWeatherData(1.0f, 1.0f, "", NOW);
+        long afterWeather = calculator.inputsOf(City.TALLINN).version();
+
+        // Act
+        when(feeConfiguration.getChangeVersion()).thenReturn(4L);
+        mockWeatherData(1.0f, 1.0f, "", NOW.minus(Duration.ofHours(1)));
+        long afterFeeChange = calculator.inputsOf(City.TALLINN).version();
+
+        // Assert
+        assertTrue(afterWeather > before);
+        assertTrue(afterFeeChange > afterWeather);
+        assertEquals(before, calculator.inputsOf(City.TALLINN).version() - (1L << 35));
+    }
+
     // Helper methods for mocking
 
+    private DeliveryFeeCalculator createCalculator(StaleWeatherPolicy policy) {
+        WeatherStalenessProperties properties = new WeatherStalenessProperties(MAX_AGE, Map.of(), policy);
+        return new DeliveryFeeCalculator(latestWeatherData, feeConfigurationService,
+                properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void mockTemperatureFees() {
+        when(effectiveFees.weatherFeesOf(any())).thenReturn(List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, null, -10f, 1f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, -10f, 0f, .5f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 10f, 20f, .5f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 20f, null, null)));
+    }
+
     private void mockRegionalFeeOf(float fee) {
-        RegionalFee regionalFee = new RegionalFee();
-        regionalFee.setFee(fee);
-        when(regionalFeeRepository.findByCityAndVehicle(any(), any())).thenReturn(regionalFee);
+        when(effectiveFees.regionalFeeOf(any(), any())).thenReturn(fee);
+    }
+
+    private WeatherData mockWeatherData(float airTemperature, float windSpeed, String phenomenon) {
+        return mockWeatherData(airTemperature, windSpeed, phenomenon, NOW);
     }
 
-    private void mockWeatherData(float airTemperature, float windSpeed, String phenomenon) {
+    private WeatherData mockWeatherData(float airTemperature, float windSpeed, String phenomenon, Instant observedAt) {
         WeatherData weatherData = new WeatherData();
+        weatherData.setTimestamp(observedAt.getEpochSecond());
         weatherData.setAirTemperature(airTemperature);
         weatherData.setWindSpeed(windSpeed);
         weatherData.setPhenomenon(phenomenon);
-        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(any())).thenReturn(weatherData);
+        when(latestWeatherData.get(any())).thenReturn(weatherData);
+        return weatherData;
     }
 }
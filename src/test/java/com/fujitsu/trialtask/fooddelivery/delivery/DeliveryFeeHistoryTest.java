@@ -0,0 +1,121 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.exceptions.UnavailableVehicleException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeliveryFeeHistoryTest {
+    private static final Instant FROM = Instant.parse("2024-03-01T00:00:00Z");
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private DeliveryFeeHistory deliveryFeeHistory;
+
+    @BeforeEach
+    void setUp() {
+        FeeConfigurationService feeConfigurationService = mock(FeeConfigurationService.class);
+        when(feeConfigurationService.current()).thenReturn(new FeeConfiguration(1, FROM, "Initial configuration",
+                List.of(new RegionalFee(City.TARTU, Vehicle.SCOOTER, 3.0f)),
+                List.of(new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "snow", 1.0f),
+                        new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "hail", null))));
+        deliveryFeeHistory = new DeliveryFeeHistory(new WeatherHistory(weatherDataRepository, transactionManager),
+                feeConfigurationService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherDataRepository.deleteAll();
+    }
+
+    @Test
+    void forEach_WithObservationsInSeveralSteps_AggregatesEveryStep() {
+        // Arrange
+        long from = FROM.getEpochSecond();
+        weatherDataRepository.saveAll(List.of(
+                new WeatherData(from + 600, City.TARTU, 0, "Snow", 0.0f, 1.0f),
+                new WeatherData(from + 1200, City.TARTU, 0, "Clear", 0.0f, 1.0f),
+                new WeatherData(from + 1800, City.TARTU, 0, "Hail", 0.0f, 1.0f),
+                new WeatherData(from + 7800, City.TARTU, 0, "Hail", 0.0f, 1.0f),
+                new WeatherData(from + 600, City.TALLINN, 0, "Snow", 0.0f, 1.0f)));
+        List<DeliveryFeeHistory.Point> points = new ArrayList<>();
+
+        // Act
+        deliveryFeeHistory.series(City.TARTU, Vehicle.SCOOTER, FROM, FROM.plus(Duration.ofHours(3)), Duration.ofHours(1))
+                .forEach(points::add);
+
+        // Assert
+        assertEquals(List.of(
+                new DeliveryFeeHistory.Point(FROM, 3, 1, 3.0f, 3.5f, 4.0f),
+                new DeliveryFeeHistory.Point(FROM.plus(Duration.ofHours(2)), 1, 1, null, null, null)), points);
+    }
+
+    @Test
+    void forEach_WithFeeChangeInRange_UsesFeesInEffectAtEveryObservation() {
+        // Arrange
+        Instant changeover = FROM.plus(Duration.ofHours(1));
+        RegionalFee expiring = new RegionalFee(City.TARTU, Vehicle.SCOOTER, 3.0f);
+        expiring.setValidTo(changeover);
+        RegionalFee scheduled = new RegionalFee(City.TARTU, Vehicle.SCOOTER, 4.0f);
+        scheduled.setValidFrom(changeover);
+        FeeConfigurationService feeConfigurationService = mock(FeeConfigurationService.class);
+        when(feeConfigurationService.current()).thenReturn(new FeeConfiguration(2, FROM, "Scheduled fees",
+                List.of(expiring, scheduled), List.of()));
+        long from = FROM.getEpochSecond();
+        weatherDataRepository.saveAll(List.of(
+                new WeatherData(from + 600, City.TARTU, 0, "Clear", 0.0f, 1.0f),
+                new WeatherData(from + 4200, City.TARTU, 0, "Clear", 0.0f, 1.0f)));
+        List<DeliveryFeeHistory.Point> points = new ArrayList<>();
+
+        // Act
+        new DeliveryFeeHistory(new WeatherHistory(weatherDataRepository, transactionManager), feeConfigurationService)
+                .series(City.TARTU, Vehicle.SCOOTER, FROM, FROM.plus(Duration.ofHours(2)), Duration.ofHours(2))
+                .forEach(points::add);
+
+        // Assert
+        assertEquals(List.of(new DeliveryFeeHistory.Point(FROM, 2, 0, 3.0f, 3.5f, 4.0f)), points);
+    }
+
+    @Test
+    void series_WithUnavailableVehicle_ThrowsUnavailableVehicleException() {
+        assertThrows(UnavailableVehicleException.class, () -> deliveryFeeHistory.series(
+                City.TARTU, Vehicle.CAR, FROM, FROM.plus(Duration.ofHours(1)), Duration.ofHours(1)));
+    }
+
+    @Test
+    void series_WithZeroStep_ThrowsInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> deliveryFeeHistory.series(
+                City.TARTU, Vehicle.SCOOTER, FROM, FROM.plus(Duration.ofHours(1)), Duration.ZERO));
+    }
+}
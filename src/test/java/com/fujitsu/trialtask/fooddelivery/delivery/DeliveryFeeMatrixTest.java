@@ -0,0 +1,156 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.VehicleAvailability;
+import com.fujitsu.trialtask.fooddelivery.exceptions.ForbiddenVehicleException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeCell;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeRulesChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryFeeMatrixTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Mock
+    private DeliveryFeeCalculator deliveryFeeCalculator;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<Runnable> recalculations = new ArrayList<>();
+
+    private final FeeConfiguration configuration = new FeeConfiguration(1, 7, NOW, "", List.of(), List.of());
+
+    private DeliveryFeeMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        matrix = matrix(Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(deliveryFeeCalculator.inputsOf(any())).thenReturn(inputs(NOW.getEpochSecond()));
+    }
+
+    @Test
+    void onWeatherChanged_RecalculatesOnlyCellsOfChangedCitiesOffTheCallingThread() {
+        // Arrange
+        when(deliveryFeeCalculator.calculate(eq(City.TARTU), any(), any())).thenReturn(3.0f);
+
+        // Act
+        matrix.onWeatherChanged(new WeatherChangedEvent(List.of(new WeatherChangedEvent.Change(City.TARTU, null, null))));
+        verifyNoInteractions(deliveryFeeCalculator);
+        runRecalculations();
+
+        // Assert
+        verify(deliveryFeeCalculator).inputsOf(City.TARTU);
+        verify(deliveryFeeCalculator, times(Vehicle.values().length)).calculate(eq(City.TARTU), any(), any());
+        verifyNoMoreInteractions(deliveryFeeCalculator);
+        assertEquals(3.0f, matrix.get(City.TARTU, Vehicle.BIKE).fee());
+        assertNull(matrix.get(City.TALLINN, Vehicle.BIKE));
+        assertEquals(Vehicle.values().length, matrix.snapshot().size());
+    }
+
+    @Test
+    void onFeeRulesChanged_WhileRecalculationPending_CoalescesCells() {
+        // Arrange
+        when(deliveryFeeCalculator.calculate(any(), any(), any())).thenReturn(3.0f);
+
+        // Act
+        matrix.onFeeRulesChanged(new FeeRulesChangedEvent(configuration, Set.of(new FeeCell(City.TARTU, Vehicle.CAR))));
+        matrix.onFeeRulesChanged(new FeeRulesChangedEvent(configuration, Set.of(new FeeCell(City.TARTU, Vehicle.CAR),
+                new FeeCell(City.PÄRNU, Vehicle.BIKE))));
+        runRecalculations();
+
+        // Assert
+        verify(deliveryFeeCalculator).calculate(eq(City.TARTU), eq(Vehicle.CAR), any());
+        verify(deliveryFeeCalculator).calculate(eq(City.PÄRNU), eq(Vehicle.BIKE), any());
+        verify(deliveryFeeCalculator, times(2)).inputsOf(any());
+        verifyNoMoreInteractions(deliveryFeeCalculator);
+    }
+
+    @Test
+    void onWeatherChanged_WithChangedOutcome_AnnouncesOnlyChangedCells() {
+        // Arrange
+        when(deliveryFeeCalculator.calculate(eq(City.TARTU), any(), any())).thenReturn(3.0f);
+        WeatherChangedEvent event = new WeatherChangedEvent(List.of(new WeatherChangedEvent.Change(City.TARTU, null, null)));
+        matrix.onWeatherChanged(event);
+        runRecalculations();
+        FeeCellState bike = matrix.get(City.TARTU, Vehicle.BIKE);
+        FeeCellState car = matrix.get(City.TARTU, Vehicle.CAR);
+        clearInvocations(eventPublisher);
+        DeliveryFeeCalculator.Inputs newer = inputs(NOW.getEpochSecond() + 900);
+        when(deliveryFeeCalculator.inputsOf(City.TARTU)).thenReturn(newer);
+        when(deliveryFeeCalculator.calculate(City.TARTU, Vehicle.BIKE, newer)).thenThrow(new ForbiddenVehicleException("Hail"));
+
+        // Act
+        matrix.onWeatherChanged(event);
+        runRecalculations();
+
+        // Assert
+        FeeCellState forbidden = matrix.get(City.TARTU, Vehicle.BIKE);
+        assertEquals(VehicleAvailability.FORBIDDEN, forbidden.availability());
+        assertEquals("Hail", forbidden.detail());
+        verify(eventPublisher).publishEvent(new DeliveryFeeChangedEvent(bike, forbidden));
+        verifyNoMoreInteractions(eventPublisher);
+        assertEquals(newer.version(), forbidden.version());
+        assertTrue(forbidden.version() > bike.version());
+        assertEquals(car.version(), matrix.get(City.TARTU, Vehicle.CAR).version());
+    }
+
+    @Test
+    void onWeatherChanged_OnNodesStartedAtDifferentTimes_GivesSameOutcomeSameVersion() {
+        // Arrange
+        when(deliveryFeeCalculator.calculate(eq(City.TARTU), any(), any())).thenReturn(3.0f);
+        WeatherChangedEvent event = new WeatherChangedEvent(List.of(new WeatherChangedEvent.Change(City.TARTU, null, null)));
+        DeliveryFeeMatrix restarted = matrix(Clock.fixed(NOW.plus(Duration.ofHours(5)), ZoneOffset.UTC));
+
+        // Act
+        matrix.onWeatherChanged(event);
+        restarted.onWeatherChanged(event);
+        runRecalculations();
+
+        // Assert
+        assertEquals(inputs(NOW.getEpochSecond()).version(), matrix.get(City.TARTU, Vehicle.CAR).version());
+        assertEquals(matrix.get(City.TARTU, Vehicle.CAR).version(), restarted.get(City.TARTU, Vehicle.CAR).version());
+    }
+
+    private DeliveryFeeMatrix matrix(Clock clock) {
+        return new DeliveryFeeMatrix(deliveryFeeCalculator, taskScheduler, eventPublisher,
+                new FeeMatrixProperties(Duration.ofMinutes(1), Duration.ofSeconds(30)), recalculations::add, clock);
+    }
+
+    private DeliveryFeeCalculator.Inputs inputs(long weatherTimestamp) {
+        WeatherData weatherData = new WeatherData(weatherTimestamp, City.TARTU, 26242, "", 1.0f, 1.0f);
+        return new DeliveryFeeCalculator.Inputs(configuration, configuration.effectiveAt(NOW), weatherData, false);
+    }
+
+    private void runRecalculations() {
+        List<Runnable> pending = new ArrayList<>(recalculations);
+        recalculations.clear();
+        pending.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,98 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.VehicleAvailability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryFeeWatcherTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Mock
+    private DeliveryFeeMatrix deliveryFeeMatrix;
+
+    private DeliveryFeeWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        watcher = new DeliveryFeeWatcher(deliveryFeeMatrix,
+                new FeeMatrixProperties(Duration.ofMinutes(1), Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void watch_WithVersionBehindCurrent_AnswersAtOnce() {
+        // Arrange
+        when(deliveryFeeMatrix.get(City.TARTU, Vehicle.BIKE)).thenReturn(available(3.0f, 5));
+
+        // Act
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = watcher.watch(City.TARTU, Vehicle.BIKE, 4L);
+
+        // Assert
+        ResponseEntity<Map<String, Object>> response = response(result);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3.0f, response.getBody().get("fee"));
+        assertEquals(5L, response.getBody().get("version"));
+        assertEquals(0, watcher.waiting());
+    }
+
+    @Test
+    void watch_WithCurrentVersion_WaitsUntilTheCellChanges() {
+        // Arrange
+        FeeCellState current = available(3.0f, 5);
+        when(deliveryFeeMatrix.get(City.TARTU, Vehicle.BIKE)).thenReturn(current);
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = watcher.watch(City.TARTU, Vehicle.BIKE, 5L);
+        FeeCellState forbidden = new FeeCellState(City.TARTU, Vehicle.BIKE, VehicleAvailability.FORBIDDEN, null,
+                "Usage of selected vehicle type is forbidden", NOW, 6);
+
+        // Act
+        watcher.onDeliveryFeeChanged(new DeliveryFeeChangedEvent(null,
+                new FeeCellState(City.TARTU, Vehicle.CAR, VehicleAvailability.AVAILABLE, 3.5f, null, NOW, 6)));
+        boolean answeredByOtherCell = result.hasResult();
+        watcher.onDeliveryFeeChanged(new DeliveryFeeChangedEvent(current, forbidden));
+
+        // Assert
+        assertFalse(answeredByOtherCell);
+        ResponseEntity<Map<String, Object>> response = response(result);
+        assertEquals("FORBIDDEN", response.getBody().get("availability"));
+        assertEquals("Usage of selected vehicle type is forbidden", response.getBody().get("detail"));
+        assertFalse(response.getBody().containsKey("fee"));
+        assertEquals(0, watcher.waiting());
+    }
+
+    @Test
+    void watch_BeforeCellIsComputed_WaitsForFirstOutcome() {
+        // Act
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = watcher.watch(City.TARTU, Vehicle.BIKE, null);
+
+        // Assert
+        assertFalse(result.hasResult());
+        assertEquals(1, watcher.waiting());
+        watcher.onDeliveryFeeChanged(new DeliveryFeeChangedEvent(null, available(3.0f, 1)));
+        assertEquals(HttpStatus.OK, response(result).getStatusCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<Map<String, Object>> response(DeferredResult<ResponseEntity<Map<String, Object>>> result) {
+        assertTrue(result.hasResult());
+        return (ResponseEntity<Map<String, Object>>) result.getResult();
+    }
+
+    private static FeeCellState available(float fee, long version) {
+        return new FeeCellState(City.TARTU, Vehicle.BIKE, VehicleAvailability.AVAILABLE, fee, null, NOW, version);
+    }
+}
@@ -0,0 +1,88 @@
+package com.fujitsu.trialtask.fooddelivery.delivery;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.ForbiddenVehicleException;
+import com.fujitsu.trialtask.fooddelivery.weatherdatacollection.InitialCollectionFinishedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryWarmupTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+    private static final Duration DEADLINE = Duration.ofSeconds(15);
+    private static final int ROUNDS = 20;
+    private static final int CALCULATIONS = City.values().length * Vehicle.values().length;
+
+    @Mock
+    private DeliveryFeeCalculator deliveryFeeCalculator;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private DeliveryWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        warmup = new DeliveryWarmup(deliveryFeeCalculator, taskScheduler, new WarmupProperties(DEADLINE, ROUNDS),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void health_BeforeWarmup_IsOutOfService() {
+        // Act
+        Health health = warmup.health();
+
+        // Assert
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+    }
+
+    @Test
+    void onInitialCollectionFinished_CalculatesEveryCityAndVehicleAndReportsReady() {
+        // Arrange
+        when(deliveryFeeCalculator.calculate(City.TARTU, Vehicle.BIKE)).thenThrow(new ForbiddenVehicleException("Hail"));
+
+        // Act
+        warmup.onInitialCollectionFinished(new InitialCollectionFinishedEvent(true));
+
+        // Assert
+        verify(deliveryFeeCalculator, times(ROUNDS * CALCULATIONS)).calculate(any(), any());
+        Health health = warmup.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("collected", health.getDetails().get("initialCollection"));
+        assertTrue(health.getDetails().containsKey("steadyStateP99"));
+    }
+
+    @Test
+    void start_WhenDeadlinePassesFirst_WarmsUpOnlyOnce() {
+        // Arrange
+        warmup.start();
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(captor.capture(), eq(NOW.plus(DEADLINE)));
+
+        // Act
+        captor.getValue().run();
+        warmup.onInitialCollectionFinished(new InitialCollectionFinishedEvent(false));
+
+        // Assert
+        verify(deliveryFeeCalculator, times(ROUNDS * CALCULATIONS)).calculate(any(), any());
+        assertEquals("deadline passed", warmup.health().getDetails().get("initialCollection"));
+    }
+}
@@ -17,6 +17,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -150,6 +151,23 @@ class RestExceptionHandlerTest {
         assertEquals(errorMessage, apiError.getErrorDetails().get(0));
     }
 
+    @Test
+    void handleStaleWeatherData_ShouldReturnServiceUnavailable() {
+        // Arrange
+        String errorMessage = "RandomStringXYZ";
+        StaleWeatherDataException ex = new StaleWeatherDataException(errorMessage);
+
+        // Act
+        ResponseEntity<Object> responseEntity = restExceptionHandler.handleStaleWeatherData(ex);
+
+        // Assert
+        assertNotNull(responseEntity);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        ApiError apiError = (ApiError) responseEntity.getBody();
+        assertNotNull(apiError);
+        assertEquals(errorMessage, apiError.getErrorDetails().get(0));
+    }
+
     @Test
     void handleDuplicateEntity_ShouldReturnConflict() {
         // Arrange
@@ -166,4 +184,38 @@ class RestExceptionHandlerTest {
         assertNotNull(apiError);
         assertEquals(errorMessage, apiError.getErrorDetails().get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleDataIntegrityViolation_ShouldReturnConflict() {
+        // Arrange
+        String errorMessage = "Unique index or primary key violation";
+        DataIntegrityViolationException ex = new DataIntegrityViolationException(errorMessage);
+
+        // Act
+        ResponseEntity<Object> responseEntity = restExceptionHandler.handleDataIntegrityViolation(ex);
+
+        // Assert
+        assertNotNull(responseEntity);
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        ApiError apiError = (ApiError) responseEntity.getBody();
+        assertNotNull(apiError);
+        assertEquals(errorMessage, apiError.getErrorDetails().get(0));
+    }
+
+    @Test
+    void handleInvalidRequest_ShouldReturnBadRequest() {
+        // Arrange
+        String errorMessage = "RandomStringXYZ";
+        InvalidRequestException ex = new InvalidRequestException(errorMessage);
+
+        // Act
+        ResponseEntity<Object> responseEntity = restExceptionHandler.handleInvalidRequest(ex);
+
+        // Assert
+        assertNotNull(responseEntity);
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        ApiError apiError = (ApiError) responseEntity.getBody();
+        assertNotNull(apiError);
+        assertEquals(errorMessage, apiError.getErrorDetails().get(0));
+    }
+}
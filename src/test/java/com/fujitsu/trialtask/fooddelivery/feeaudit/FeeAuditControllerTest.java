@@ -0,0 +1,70 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeChangeOperation;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeType;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeeAuditControllerTest {
+
+    @Mock
+    private FeeChangeRepository feeChangeRepository;
+
+    @Mock
+    private FeeAuditLog feeAuditLog;
+
+    @Spy
+    private EntityListing entityListing = new EntityListing(
+            new ObjectMapper(), mock(EntityManager.class), mock(PlatformTransactionManager.class), 100, 1000);
+
+    @InjectMocks
+    private FeeAuditController controller;
+
+    @Test
+    void getFeeChanges_WithTypeFilter_ReturnsChangesOfThatType() {
+        // Arrange
+        FeeChange change = new FeeChange(Instant.EPOCH, "alice", 2L, "Winter fees",
+                FeeType.WEATHER, FeeChangeOperation.CREATED, 5L, "{\"id\":5}");
+        when(feeChangeRepository.findPage(eq(0L), eq(FeeType.WEATHER), isNull(), any())).thenReturn(List.of(change));
+
+        // Act
+        ResponseEntity<List<FeeChange>> response = controller.getFeeChanges("weather", null, 0L, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(change), response.getBody());
+    }
+
+    @Test
+    void getFeeConfigurationAt_ReturnsReconstructedConfiguration() {
+        // Arrange
+        Instant at = Instant.parse("2024-03-25T12:00:00Z");
+        FeeConfiguration configuration = new FeeConfiguration(3, at, "Winter fees", List.of(), List.of());
+        when(feeAuditLog.configurationAt(at)).thenReturn(configuration);
+
+        // Act
+        ResponseEntity<FeeConfiguration> response = controller.getFeeConfigurationAt(at);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(configuration, response.getBody());
+    }
+}
@@ -0,0 +1,141 @@
+package com.fujitsu.trialtask.fooddelivery.feeaudit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeChangeOperation;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeType;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationPublishedEvent;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeeAuditLogTest {
+    private static final Instant START = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Autowired
+    private FeeChangeRepository feeChangeRepository;
+
+    @Autowired
+    private FeeSnapshotRepository feeSnapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private FeeAuditLog feeAuditLog;
+
+    @BeforeEach
+    void setUp() {
+        feeAuditLog = new FeeAuditLog(feeChangeRepository, feeSnapshotRepository,
+                new ObjectMapper().findAndRegisterModules(), transactionManager,
+                new FeeAuditProperties(4, "X-Actor"), Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        feeChangeRepository.deleteAll();
+        feeSnapshotRepository.deleteAll();
+    }
+
+    @Test
+    void onPublished_WithChangedFees_LogsOnlyTheChanges() {
+        // Arrange
+        FeeConfiguration initial = configuration(1, 0, List.of(regionalFee(1L, 3.0f), regionalFee(2L, 2.5f)), List.of());
+        FeeConfiguration changed = configuration(2, 60, List.of(regionalFee(1L, 3.5f)), List.of(weatherFee(5L, "snow")));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Actor", "alice");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(null, initial, false));
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(initial, changed, false));
+
+        // Assert
+        List<FeeChange> changes = StreamSupport.stream(feeChangeRepository.findAll().spliterator(), false).toList();
+        assertEquals(3, changes.size());
+        assertEquals(List.of(FeeChangeOperation.UPDATED, FeeChangeOperation.DELETED, FeeChangeOperation.CREATED),
+                changes.stream().map(FeeChange::getOperation).toList());
+        assertEquals(List.of(FeeType.REGIONAL, FeeType.REGIONAL, FeeType.WEATHER),
+                changes.stream().map(FeeChange::getFeeType).toList());
+        assertTrue(changes.stream().allMatch(change -> "alice".equals(change.getChangedBy())));
+        assertNull(changes.get(1).getFee());
+        assertEquals(1, feeSnapshotRepository.count());
+    }
+
+    @Test
+    void configurationAt_BetweenChanges_ReplaysChangesAfterLatestSnapshot() {
+        // Arrange
+        FeeConfiguration v1 = configuration(1, 0, List.of(regionalFee(1L, 3.0f)), List.of());
+        FeeConfiguration v2 = configuration(2, 60, List.of(regionalFee(1L, 3.5f)), List.of(weatherFee(5L, "snow")));
+        FeeConfiguration v3 = configuration(3, 120, List.of(regionalFee(1L, 3.5f), regionalFee(2L, 2.0f),
+                regionalFee(3L, 2.0f)), List.of());
+        FeeConfiguration v4 = configuration(4, 180, List.of(regionalFee(1L, 4.0f)), List.of());
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(null, v1, false));
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(v1, v2, false));
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(v2, v3, false));
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(v3, v4, false));
+
+        // Act
+        FeeConfiguration atV2 = feeAuditLog.configurationAt(START.plusSeconds(90));
+        FeeConfiguration atV4 = feeAuditLog.configurationAt(START.plusSeconds(600));
+
+        // Assert
+        assertEquals(2, feeSnapshotRepository.count());
+        assertEquals(2, atV2.getVersion());
+        assertEquals(3.5f, atV2.effectiveAt(START).regionalFeeOf(City.TARTU, Vehicle.BIKE));
+        assertEquals("snow", atV2.getWeatherFees().get(0).getPhenomenon());
+        assertEquals(4, atV4.getVersion());
+        assertEquals(1, atV4.getRegionalFees().size());
+        assertEquals(4.0f, atV4.getRegionalFees().get(0).getFee());
+        assertTrue(atV4.getWeatherFees().isEmpty());
+    }
+
+    @Test
+    void configurationAt_BeforeFirstSnapshot_ThrowsEntityNotFoundException() {
+        // Arrange
+        feeAuditLog.onPublished(new FeeConfigurationPublishedEvent(null, configuration(1, 0, List.of(), List.of()), false));
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> feeAuditLog.configurationAt(START.minusSeconds(1)));
+    }
+
+    private static FeeConfiguration configuration(long version, long secondsAfterStart,
+                                                  List<RegionalFee> regionalFees, List<WeatherFee> weatherFees) {
+        return new FeeConfiguration(version, START.plusSeconds(secondsAfterStart), "Version " + version,
+                regionalFees, weatherFees);
+    }
+
+    private static RegionalFee regionalFee(Long id, float fee) {
+        RegionalFee regionalFee = new RegionalFee(City.TARTU, Vehicle.BIKE, fee);
+        regionalFee.setId(id);
+        return regionalFee;
+    }
+
+    private static WeatherFee weatherFee(Long id, String phenomenon) {
+        WeatherFee weatherFee = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, phenomenon, 1.0f);
+        weatherFee.setId(id);
+        return weatherFee;
+    }
+}
@@ -0,0 +1,87 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeeConfigurationControllerTest {
+
+    @Mock
+    private FeeConfigurationService feeConfigurationService;
+
+    @InjectMocks
+    private FeeConfigurationController controller;
+
+    @Test
+    void getCurrentFeeConfiguration_ReturnsCurrentFeeConfiguration() {
+        // Arrange
+        FeeConfiguration configuration = configuration(3);
+        when(feeConfigurationService.current()).thenReturn(configuration);
+
+        // Act
+        ResponseEntity<FeeConfiguration> response = controller.getCurrentFeeConfiguration();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(configuration, response.getBody());
+    }
+
+    @Test
+    void getFeeConfigurationVersion_WithUnknownVersion_ThrowsEntityNotFoundException() {
+        // Arrange
+        when(feeConfigurationService.version(42)).thenThrow(EntityNotFoundException.class);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> controller.getFeeConfigurationVersion(42));
+    }
+
+    @Test
+    void publishFeeChangeset_ReturnsCreated() {
+        // Arrange
+        FeeChangeset changeset = new FeeChangeset("Winter fees", null, null, null, null);
+        FeeConfiguration configuration = configuration(4);
+        when(feeConfigurationService.apply(changeset)).thenReturn(configuration);
+
+        // Act
+        ResponseEntity<FeeConfiguration> response = controller.publishFeeChangeset(changeset);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(configuration, response.getBody());
+    }
+
+    @Test
+    void rollbackFeeConfiguration_ReturnsCreated() {
+        // Arrange
+        FeeConfiguration configuration = configuration(5);
+        when(feeConfigurationService.rollback(2)).thenReturn(configuration);
+
+        // Act
+        ResponseEntity<FeeConfiguration> response = controller.rollbackFeeConfiguration(2);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(configuration, response.getBody());
+        verify(feeConfigurationService, times(1)).rollback(2);
+    }
+
+    private FeeConfiguration configuration(long version) {
+        return new FeeConfiguration(version, Instant.parse("2024-03-25T12:00:00Z"), "Test",
+                List.of(new RegionalFee(City.TALLINN, Vehicle.CAR, 4.0f)), List.of());
+    }
+}
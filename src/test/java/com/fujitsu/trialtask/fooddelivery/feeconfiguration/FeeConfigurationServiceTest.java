@@ -0,0 +1,281 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.clustersync.RemoteChangeEvent;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeValidator;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeeConfigurationServiceTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Autowired
+    private RegionalFeeRepository regionalFeeRepository;
+
+    @Autowired
+    private WeatherFeeRepository weatherFeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final ChangeVersions changeVersions = mock(ChangeVersions.class);
+
+    private FeeConfigurationService service;
+
+    @BeforeEach
+    void setUp() {
+        regionalFeeRepository.save(new RegionalFee(City.TALLINN, Vehicle.CAR, 4.0f));
+        weatherFeeRepository.save(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f));
+        service = new FeeConfigurationService(regionalFeeRepository, weatherFeeRepository, new WeatherFeeValidator(),
+                entityManager, transactionManager, eventPublisher, changeVersions, new FeeConfigurationProperties(10),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        regionalFeeRepository.deleteAll();
+        weatherFeeRepository.deleteAll();
+    }
+
+    @Test
+    void current_OnFirstCall_LoadsFeesFromDatabase() {
+        // Act
+        FeeConfiguration configuration = service.current();
+
+        // Assert
+        assertEquals(1, configuration.getVersion());
+        assertEquals(4.0f, configuration.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        assertEquals(1, configuration.effectiveAt(NOW).weatherFeesOf(Vehicle.BIKE).size());
+    }
+
+    @Test
+    void apply_WithValidChangeset_PublishesNewVersion() {
+        // Arrange
+        FeeConfiguration initial = service.current();
+        RegionalFee updated = FeeConfiguration.copyOf(initial.getRegionalFees().get(0));
+        updated.setFee(5.0f);
+        FeeChangeset changeset = new FeeChangeset("Winter fees",
+                List.of(updated, new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f)), null,
+                List.of(new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "snow", 1.0f)), null);
+        when(changeVersions.bump(ChangeTopic.FEES)).thenReturn(8L);
+
+        // Act
+        FeeConfiguration configuration = service.apply(changeset);
+
+        // Assert
+        assertEquals(2, configuration.getVersion());
+        assertEquals(8, configuration.getChangeVersion());
+        assertEquals("Winter fees", configuration.getDescription());
+        assertEquals(5.0f, configuration.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        assertEquals(3.5f, configuration.effectiveAt(NOW).regionalFeeOf(City.TARTU, Vehicle.CAR));
+        assertEquals(2, regionalFeeRepository.count());
+        assertEquals(2, weatherFeeRepository.count());
+        assertSame(configuration, service.current());
+        assertEquals(4.0f, initial.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        verify(eventPublisher).publishEvent(new FeeConfigurationPublishedEvent(initial, configuration, false));
+        verify(changeVersions).bump(ChangeTopic.FEES);
+    }
+
+    @Test
+    void apply_WithConflictingWeatherFees_ThrowsEntityExistsExceptionAndWritesNothing() {
+        // Arrange
+        FeeConfiguration initial = service.current();
+        FeeChangeset changeset = new FeeChangeset(null,
+                List.of(new RegionalFee(City.PÄRNU, Vehicle.CAR, 3.0f)), null,
+                List.of(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "heavy snow", 0.5f)), null);
+
+        // Act & Assert
+        assertThrows(EntityExistsException.class, () -> service.apply(changeset));
+        assertSame(initial, service.current());
+        assertEquals(1, regionalFeeRepository.count());
+        assertEquals(1, weatherFeeRepository.count());
+    }
+
+    @Test
+    void apply_WithReplacedWeatherFees_DeletesEveryWeatherFeeStoredWhenApplied() {
+        // Arrange
+        service.current();
+        weatherFeeRepository.save(new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "rain", 0.5f));
+        WeatherFee imported = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 2.0f);
+
+        // Act
+        FeeConfiguration configuration = service.apply(
+                new FeeChangeset("Imported", null, null, List.of(imported), null, true));
+
+        // Assert
+        assertEquals(List.of(2.0f), configuration.getWeatherFees().stream().map(WeatherFee::getFee).toList());
+        assertEquals(1, weatherFeeRepository.count());
+        assertEquals(1, regionalFeeRepository.count());
+    }
+
+    @Test
+    void apply_WithScheduledRegionalFee_ResolvesFeeByTime() {
+        // Arrange
+        Instant changeover = NOW.plusSeconds(3600);
+        RegionalFee expiring = FeeConfiguration.copyOf(service.current().getRegionalFees().get(0));
+        expiring.setValidTo(changeover);
+        RegionalFee scheduled = new RegionalFee(City.TALLINN, Vehicle.CAR, 4.5f);
+        scheduled.setValidFrom(changeover);
+
+        // Act
+        FeeConfiguration configuration = service.apply(
+                new FeeChangeset("Scheduled fees", List.of(expiring, scheduled), null, null, null));
+
+        // Assert
+        assertEquals(4.0f, configuration.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        assertEquals(4.5f, configuration.effectiveAt(changeover).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        assertEquals(2, regionalFeeRepository.count());
+    }
+
+    @Test
+    void apply_WithOverlappingRegionalFees_ThrowsEntityExistsException() {
+        // Arrange
+        RegionalFee scheduled = new RegionalFee(City.TALLINN, Vehicle.CAR, 4.5f);
+        scheduled.setValidFrom(NOW.plusSeconds(3600));
+
+        // Act & Assert
+        assertThrows(EntityExistsException.class,
+                () -> service.apply(new FeeChangeset(null, List.of(scheduled), null, null, null)));
+        assertEquals(1, regionalFeeRepository.count());
+    }
+
+    @Test
+    void apply_WithNonExistingDeletedFee_ThrowsEntityNotFoundException() {
+        // Arrange
+        FeeChangeset changeset = new FeeChangeset(null, null, List.of(-1L), null, null);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> service.apply(changeset));
+        assertEquals(1, service.current().getVersion());
+    }
+
+    @Test
+    void rollback_WithEarlierVersion_RestoresFeesAsNewVersion() {
+        // Arrange
+        FeeConfiguration initial = service.current();
+        Long regionalFeeId = initial.getRegionalFees().get(0).getId();
+        Long weatherFeeId = initial.getWeatherFees().get(0).getId();
+        service.apply(new FeeChangeset(null,
+                List.of(new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f)), List.of(regionalFeeId),
+                null, List.of(weatherFeeId)));
+
+        // Act
+        FeeConfiguration configuration = service.rollback(1);
+
+        // Assert
+        assertEquals(3, configuration.getVersion());
+        assertEquals(4.0f, configuration.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        assertNull(configuration.effectiveAt(NOW).regionalFeeOf(City.TARTU, Vehicle.CAR));
+        assertEquals(1, configuration.effectiveAt(NOW).weatherFeesOf(Vehicle.BIKE).size());
+        assertEquals(List.of(1L, 2L, 3L),
+                service.history().stream().map(FeeConfiguration.Summary::version).toList());
+    }
+
+    @Test
+    void onRemoteChange_WithFeesChangedOnAnotherNode_ReloadsFeesWithoutAnnouncingThem() {
+        // Arrange
+        FeeConfiguration initial = service.current();
+        regionalFeeRepository.save(new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f));
+
+        // Act
+        service.onRemoteChange(new RemoteChangeEvent(ChangeTopic.FEES, 1));
+
+        // Assert
+        FeeConfiguration configuration = service.current();
+        assertEquals(2, configuration.getVersion());
+        assertEquals(3.5f, configuration.effectiveAt(NOW).regionalFeeOf(City.TARTU, Vehicle.CAR));
+        assertEquals(1, configuration.getChangeVersion());
+        verify(eventPublisher).publishEvent(new FeeConfigurationPublishedEvent(initial, configuration, true));
+        verify(changeVersions, never()).bump(any());
+    }
+
+    @Test
+    void preload_BeforeFirstLoad_ServesPreloadedFeesWithoutAnnouncingThem() {
+        // Act
+        boolean preloaded = service.preload("Restored", List.of(new RegionalFee(City.TARTU, Vehicle.BIKE, 2.5f)), List.of());
+
+        // Assert
+        assertTrue(preloaded);
+        FeeConfiguration configuration = service.current();
+        assertEquals(1, configuration.getVersion());
+        assertEquals(2.5f, configuration.effectiveAt(NOW).regionalFeeOf(City.TARTU, Vehicle.BIKE));
+        assertNull(configuration.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void reconcile_AfterPreload_PublishesDatabaseFeesAsFirstAnnouncedVersion() {
+        // Arrange
+        service.preload("Restored", List.of(new RegionalFee(City.TARTU, Vehicle.BIKE, 2.5f)), List.of());
+        when(changeVersions.read(ChangeTopic.FEES)).thenReturn(4L);
+
+        // Act
+        service.reconcile();
+        service.reconcile();
+
+        // Assert
+        FeeConfiguration configuration = service.current();
+        assertEquals(2, configuration.getVersion());
+        assertEquals(4.0f, configuration.effectiveAt(NOW).regionalFeeOf(City.TALLINN, Vehicle.CAR));
+        assertEquals(4, configuration.getChangeVersion());
+        verify(eventPublisher).publishEvent(new FeeConfigurationPublishedEvent(null, configuration, false));
+        verify(changeVersions, never()).bump(any());
+    }
+
+    @Test
+    void preload_AfterFirstLoad_KeepsLoadedFees() {
+        // Arrange
+        FeeConfiguration loaded = service.current();
+
+        // Act
+        boolean preloaded = service.preload("Restored", List.of(), List.of());
+
+        // Assert
+        assertFalse(preloaded);
+        assertSame(loaded, service.current());
+    }
+
+    @Test
+    void version_WithUnknownVersion_ThrowsEntityNotFoundException() {
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> service.version(42));
+    }
+}
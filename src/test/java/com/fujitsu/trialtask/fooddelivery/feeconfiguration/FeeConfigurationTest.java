@@ -0,0 +1,75 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeConfigurationTest {
+    private static final Instant SUMMER = Instant.parse("2024-06-01T00:00:00Z");
+    private static final Instant AUTUMN = Instant.parse("2024-09-01T00:00:00Z");
+
+    private final FeeConfiguration configuration = new FeeConfiguration(1, Instant.EPOCH, "Test",
+            List.of(regionalFee(3.0f, null, SUMMER), regionalFee(3.5f, SUMMER, null)),
+            List.of(weatherFee("snow", 1.0f, null, null), weatherFee("rain", 0.5f, SUMMER, AUTUMN)));
+
+    @Test
+    void effectiveAt_AroundBoundaries_ResolvesFeesOfTheInterval() {
+        // Act
+        EffectiveFees spring = configuration.effectiveAt(SUMMER.minusSeconds(1));
+        EffectiveFees summer = configuration.effectiveAt(SUMMER);
+        EffectiveFees autumn = configuration.effectiveAt(AUTUMN);
+
+        // Assert
+        assertEquals(3.0f, spring.regionalFeeOf(City.TARTU, Vehicle.BIKE));
+        assertEquals(1, spring.weatherFeesOf(Vehicle.BIKE).size());
+        assertEquals(3.5f, summer.regionalFeeOf(City.TARTU, Vehicle.BIKE));
+        assertEquals(2, summer.weatherFeesOf(Vehicle.BIKE).size());
+        assertEquals(3.5f, autumn.regionalFeeOf(City.TARTU, Vehicle.BIKE));
+        assertEquals(1, autumn.weatherFeesOf(Vehicle.BIKE).size());
+    }
+
+    @Test
+    void effectiveAt_WithinSameInterval_ReturnsSameFees() {
+        // Act
+        EffectiveFees first = configuration.effectiveAt(SUMMER.plusSeconds(60));
+        EffectiveFees second = configuration.effectiveAt(AUTUMN.minusSeconds(60));
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(SUMMER, first.getValidFrom());
+        assertEquals(AUTUMN, first.getValidTo());
+    }
+
+    @Test
+    void effectiveBetween_WithRangeEndingAtBoundary_ExcludesFollowingInterval() {
+        // Act
+        List<EffectiveFees> overlapping = configuration.effectiveBetween(null, SUMMER);
+
+        // Assert
+        assertEquals(1, overlapping.size());
+        assertNull(overlapping.get(0).getValidFrom());
+        assertEquals(3, configuration.effectiveBetween(null, null).size());
+    }
+
+    private static RegionalFee regionalFee(float fee, Instant validFrom, Instant validTo) {
+        RegionalFee regionalFee = new RegionalFee(City.TARTU, Vehicle.BIKE, fee);
+        regionalFee.setValidFrom(validFrom);
+        regionalFee.setValidTo(validTo);
+        return regionalFee;
+    }
+
+    private static WeatherFee weatherFee(String phenomenon, float fee, Instant validFrom, Instant validTo) {
+        WeatherFee weatherFee = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, phenomenon, fee);
+        weatherFee.setValidFrom(validFrom);
+        weatherFee.setValidTo(validTo);
+        return weatherFee;
+    }
+}
@@ -0,0 +1,85 @@
+package com.fujitsu.trialtask.fooddelivery.feeconfiguration;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeeRulesChangedEventTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Test
+    void between_WithChangedRegionalFee_AffectsOnlyItsCell() {
+        // Arrange
+        FeeConfiguration previous = configuration(regionalFee(1L, City.TARTU, 3.5f), regionalFee(2L, City.PÄRNU, 3.0f));
+        FeeConfiguration current = configuration(regionalFee(1L, City.TARTU, 4.0f), regionalFee(2L, City.PÄRNU, 3.0f));
+
+        // Act
+        FeeRulesChangedEvent event = FeeRulesChangedEvent.between(previous, current);
+
+        // Assert
+        assertEquals(Set.of(new FeeCell(City.TARTU, Vehicle.CAR)), event.cells());
+    }
+
+    @Test
+    void between_WithMovedRegionalFee_AffectsOldAndNewCell() {
+        // Arrange
+        FeeConfiguration previous = configuration(regionalFee(1L, City.TARTU, 3.5f));
+        FeeConfiguration current = configuration(regionalFee(1L, City.TALLINN, 3.5f));
+
+        // Act
+        FeeRulesChangedEvent event = FeeRulesChangedEvent.between(previous, current);
+
+        // Assert
+        assertEquals(Set.of(new FeeCell(City.TARTU, Vehicle.CAR), new FeeCell(City.TALLINN, Vehicle.CAR)),
+                event.cells());
+    }
+
+    @Test
+    void between_WithDeletedWeatherFee_AffectsItsVehicleInEveryCity() {
+        // Arrange
+        WeatherFee weatherFee = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f);
+        weatherFee.setId(3L);
+        FeeConfiguration previous = new FeeConfiguration(1, NOW, "", List.of(), List.of(weatherFee));
+        FeeConfiguration current = new FeeConfiguration(2, NOW, "", List.of(), List.of());
+
+        // Act
+        FeeRulesChangedEvent event = FeeRulesChangedEvent.between(previous, current);
+
+        // Assert
+        assertEquals(new HashSet<>(FeeCell.of(Vehicle.BIKE)), event.cells());
+    }
+
+    @Test
+    void between_WithUnchangedFees_AffectsNothing() {
+        // Arrange
+        FeeConfiguration previous = configuration(regionalFee(1L, City.TARTU, 3.5f));
+        FeeConfiguration current = configuration(regionalFee(1L, City.TARTU, 3.5f));
+
+        // Act
+        FeeRulesChangedEvent event = FeeRulesChangedEvent.between(previous, current);
+
+        // Assert
+        assertTrue(event.cells().isEmpty());
+    }
+
+    private static FeeConfiguration configuration(RegionalFee... regionalFees) {
+        return new FeeConfiguration(1, NOW, "", List.of(regionalFees), List.of());
+    }
+
+    private static RegionalFee regionalFee(Long id, City city, float fee) {
+        RegionalFee regionalFee = new RegionalFee(city, Vehicle.CAR, fee);
+        regionalFee.setId(id);
+        return regionalFee;
+    }
+}
@@ -0,0 +1,82 @@
+package com.fujitsu.trialtask.fooddelivery.helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EntityListingTest {
+    private final EntityListing entityListing = new EntityListing(
+            new ObjectMapper(), mock(EntityManager.class), mock(PlatformTransactionManager.class), 2, 10);
+
+    @Test
+    void pageSize_WithoutLimit_ReturnsDefaultPageSize() {
+        assertEquals(2, entityListing.pageSize(null));
+    }
+
+    @Test
+    void pageSize_WithLimitAboveMaximum_ThrowsInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> entityListing.pageSize(11));
+    }
+
+    @Test
+    void filter_WithKnownValue_ReturnsEnumValue() {
+        assertEquals(Vehicle.SCOOTER, entityListing.filter("scooter", Vehicle.class));
+        assertNull(entityListing.filter(null, Vehicle.class));
+    }
+
+    @Test
+    void filter_WithUnknownValue_ThrowsInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> entityListing.filter("boat", Vehicle.class));
+    }
+
+    @Test
+    void page_WithMoreEntitiesThanPageSize_ReturnsPageAndNextCursor() {
+        // Act
+        ResponseEntity<List<Long>> response = entityListing.page(List.of(4L, 7L, 9L), 2, Function.identity());
+
+        // Assert
+        assertEquals(List.of(4L, 7L), response.getBody());
+        assertEquals("7", response.getHeaders().getFirst(EntityListing.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void page_WithLastPage_ReturnsNoNextCursor() {
+        // Act
+        ResponseEntity<List<Long>> response = entityListing.page(List.of(4L, 7L), 2, Function.identity());
+
+        // Assert
+        assertEquals(List.of(4L, 7L), response.getBody());
+        assertFalse(response.getHeaders().containsKey(EntityListing.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void streamValues_WithProducedValues_WritesEveryValueAsLine() throws Exception {
+        // Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = entityListing.<Map<String, Integer>>streamValues(consumer -> {
+            consumer.accept(Map.of("value", 1));
+            consumer.accept(Map.of("value", 2));
+        });
+        response.getBody().writeTo(outputStream);
+
+        // Assert
+        assertEquals(MediaType.parseMediaType(EntityListing.NDJSON), response.getHeaders().getContentType());
+        assertEquals("{\"value\":1}\n{\"value\":2}\n", outputStream.toString());
+    }
+}
@@ -1,5 +1,6 @@
 package com.fujitsu.trialtask.fooddelivery.init;
 
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
 import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
 import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFeeRepository;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
@@ -30,6 +31,9 @@ class DataSeederTest {
     @Mock
     private WeatherFeeRepository weatherFeeRepository;
 
+    @Mock
+    private FeeConfigurationService feeConfigurationService;
+
     @InjectMocks
     private DataSeeder dataSeeder;
 
@@ -54,6 +58,7 @@ class DataSeederTest {
         verify(weatherFeeRepository).saveAll(weatherFeeCaptor.capture());
         assertEquals(EXPECTED_REGIONAL_FEES_COUNT, regionalFeeCaptor.getValue().size());
         assertEquals(EXPECTED_WEATHER_FEES_COUNT, weatherFeeCaptor.getValue().size());
+        verify(feeConfigurationService).refresh(any());
     }
 
     @ParameterizedTest
@@ -71,5 +76,6 @@ class DataSeederTest {
         verify(weatherFeeRepository, never()).saveAll(any());
         verify(regionalFeeRepository, never()).save(any());
         verify(weatherFeeRepository, never()).save(any());
+        verify(feeConfigurationService, never()).refresh(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.fujitsu.trialtask.fooddelivery.regionalfee;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LegacyRegionalFeeConstraintTest {
+    private static final Instant SWITCH = Instant.parse("2024-06-01T00:00:00Z");
+
+    @Autowired
+    private RegionalFeeRepository regionalFeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LegacyRegionalFeeConstraint legacyRegionalFeeConstraint;
+
+    @BeforeEach
+    void setUp() {
+        regionalFeeRepository.deleteAll();
+        legacyRegionalFeeConstraint = new LegacyRegionalFeeConstraint(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        regionalFeeRepository.deleteAll();
+        jdbcTemplate.execute("ALTER TABLE regional_fee DROP CONSTRAINT IF EXISTS " + LegacyRegionalFeeConstraint.NAME);
+        jdbcTemplate.execute("ALTER TABLE regional_fee DROP CONSTRAINT IF EXISTS "
+                + LegacyRegionalFeeConstraint.VALID_FROM_NAME);
+    }
+
+    @Test
+    void drop_WithLegacyConstraint_AllowsScheduledSuccessor() {
+        // Arrange
+        jdbcTemplate.execute("ALTER TABLE regional_fee ADD CONSTRAINT " + LegacyRegionalFeeConstraint.NAME
+                + " UNIQUE (city, vehicle)");
+        assertThrows(DataIntegrityViolationException.class,
+                () -> regionalFeeRepository.saveAll(List.of(current(), successor())));
+        regionalFeeRepository.deleteAll();
+
+        // Act
+        legacyRegionalFeeConstraint.drop();
+
+        // Assert
+        regionalFeeRepository.saveAll(List.of(current(), successor()));
+        assertEquals(2, regionalFeeRepository.count());
+    }
+
+    @Test
+    void drop_WithoutLegacyConstraint_DoesNothing() {
+        // Act
+        legacyRegionalFeeConstraint.drop();
+        legacyRegionalFeeConstraint.drop();
+
+        // Assert
+        regionalFeeRepository.saveAll(List.of(current(), successor()));
+        assertEquals(2, regionalFeeRepository.count());
+    }
+
+    @Test
+    void drop_WithLegacyValidFromKey_DropsIt() {
+        // Arrange
+        jdbcTemplate.execute("ALTER TABLE regional_fee ADD CONSTRAINT " + LegacyRegionalFeeConstraint.VALID_FROM_NAME
+                + " UNIQUE (city, vehicle, valid_from)");
+
+        // Act
+        legacyRegionalFeeConstraint.drop();
+
+        // Assert
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE UPPER(CONSTRAINT_NAME) = UPPER(?)", Integer.class,
+                LegacyRegionalFeeConstraint.VALID_FROM_NAME));
+    }
+
+    @Test
+    void drop_KeepsUniqueKeyOfFeesInEffectSinceAlways() {
+        // Act
+        legacyRegionalFeeConstraint.drop();
+
+        // Assert
+        regionalFeeRepository.save(current());
+        assertThrows(DataIntegrityViolationException.class, () -> regionalFeeRepository.save(current()));
+        assertEquals(1, regionalFeeRepository.count());
+    }
+
+    private static RegionalFee current() {
+        RegionalFee fee = new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f);
+        fee.setValidTo(SWITCH);
+        return fee;
+    }
+
+    private static RegionalFee successor() {
+        RegionalFee fee = new RegionalFee(City.TARTU, Vehicle.CAR, 4.0f);
+        fee.setValidFrom(SWITCH);
+        return fee;
+    }
+}
@@ -3,6 +3,12 @@ package com.fujitsu.trialtask.fooddelivery.regionalfee;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,19 +18,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(RegionalFeeController.class)
+@Import(EntityListing.class)
 @AutoConfigureMockMvc
 class RegionalFeeControllerIT {
 
@@ -37,29 +50,95 @@ class RegionalFeeControllerIT {
     @MockBean
     private RegionalFeeRepository regionalFeeRepository;
 
+    @MockBean
+    private FeeConfigurationService feeConfigurationService;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
     private RegionalFee sampleRegionalFee;
 
     @BeforeEach
     void setUp() {
         sampleRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 10.0f);
         sampleRegionalFee.setId(1L);
+        Mockito.when(feeConfigurationService.current())
+                .thenReturn(new FeeConfiguration(1, Instant.EPOCH, "Test", List.of(), List.of()));
     }
 
     @Test
     void getAllRegionalFees_ShouldReturnListOfRegionalFees() throws Exception {
         // Arrange
-        Mockito.when(regionalFeeRepository.findAll()).thenReturn(Collections.singletonList(sampleRegionalFee));
+        Mockito.when(regionalFeeRepository.findPage(
+                        ArgumentMatchers.eq(0L), ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+                .thenReturn(Collections.singletonList(sampleRegionalFee));
 
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.get("/api/regional-fees")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(EntityListing.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].city").value("TALLINN"))
                 .andExpect(jsonPath("$[0].vehicle").value("CAR"))
                 .andExpect(jsonPath("$[0].fee").value(10.0));
     }
 
+    @Test
+    void getAllRegionalFees_WithMoreFeesThanLimit_ShouldReturnNextCursor() throws Exception {
+        // Arrange
+        RegionalFee nextRegionalFee = new RegionalFee(City.TALLINN, Vehicle.BIKE, 1.0f);
+        nextRegionalFee.setId(2L);
+        Mockito.when(regionalFeeRepository.findPage(
+                        ArgumentMatchers.eq(0L), ArgumentMatchers.eq(City.TALLINN), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+                .thenReturn(List.of(sampleRegionalFee, nextRegionalFee));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/regional-fees")
+                        .param("city", "tallinn")
+                        .param("limit", "1")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(EntityListing.NEXT_CURSOR_HEADER, "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAllRegionalFees_WithInvalidLimit_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/regional-fees")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamRegionalFees_ShouldReturnOneRegionalFeePerLine() throws Exception {
+        // Arrange
+        RegionalFee nextRegionalFee = new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f);
+        nextRegionalFee.setId(2L);
+        Mockito.when(regionalFeeRepository.streamAll(null, Vehicle.CAR))
+                .thenReturn(Stream.of(sampleRegionalFee, nextRegionalFee));
+
+        // Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/regional-fees")
+                        .param("vehicle", "car")
+                        .accept(EntityListing.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EntityListing.NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"city\":\"TALLINN\",\"vehicle\":\"CAR\",\"fee\":10.0,\"validFrom\":null,\"validTo\":null}\n"
+                                + "{\"id\":2,\"city\":\"TARTU\",\"vehicle\":\"CAR\",\"fee\":3.5,\"validFrom\":null,\"validTo\":null}\n"));
+    }
+
     @Test
     void getRegionalFeeById_ExistingId_ShouldReturnRegionalFee() throws Exception {
         // Arrange
@@ -90,7 +169,6 @@ class RegionalFeeControllerIT {
     void createRegionalFee_ValidData_ShouldReturnCreatedRegionalFee() throws Exception {
         // Arrange
         RegionalFee newRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 15.0f);
-        Mockito.when(regionalFeeRepository.save(ArgumentMatchers.any(RegionalFee.class))).thenReturn(newRegionalFee);
 
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.post("/api/regional-fees")
@@ -106,7 +184,8 @@ class RegionalFeeControllerIT {
     @Test
     void createRegionalFee_DuplicateData_ShouldReturnConflict() throws Exception {
         // Arrange
-        Mockito.when(regionalFeeRepository.existsByCityAndVehicle(City.TALLINN, Vehicle.CAR)).thenReturn(true);
+        Mockito.when(feeConfigurationService.apply(ArgumentMatchers.any()))
+                .thenThrow(new EntityExistsException("Regional fee already exists for city: TALLINN and vehicle: CAR"));
         RegionalFee newRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 15.0f);
 
         // Act & Assert
@@ -121,8 +200,6 @@ class RegionalFeeControllerIT {
         // Arrange
         RegionalFee updatedRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 15.0f);
         updatedRegionalFee.setId(1L);
-        Mockito.when(regionalFeeRepository.findById(1L)).thenReturn(Optional.of(sampleRegionalFee));
-        Mockito.when(regionalFeeRepository.save(ArgumentMatchers.any(RegionalFee.class))).thenReturn(updatedRegionalFee);
 
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.put("/api/regional-fees/1")
@@ -140,7 +217,8 @@ class RegionalFeeControllerIT {
         // Arrange
         RegionalFee updatedRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 15.0f);
         updatedRegionalFee.setId(1L);
-        Mockito.when(regionalFeeRepository.findById(1L)).thenReturn(Optional.empty());
+        Mockito.when(feeConfigurationService.apply(ArgumentMatchers.any()))
+                .thenThrow(new EntityNotFoundException("Regional fee not found with id: 1"));
 
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.put("/api/regional-fees/1")
@@ -155,7 +233,6 @@ class RegionalFeeControllerIT {
         float newFee = 15.0f;
         var updatedRegionalFee = Map.of("fee", newFee);
         Mockito.when(regionalFeeRepository.findById(1L)).thenReturn(Optional.of(sampleRegionalFee));
-        Mockito.when(regionalFeeRepository.save(ArgumentMatchers.any(RegionalFee.class))).thenReturn(sampleRegionalFee);
 
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.patch("/api/regional-fees/1")
@@ -173,7 +250,8 @@ class RegionalFeeControllerIT {
         // Arrange
         RegionalFee updatedRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 15.0f);
         updatedRegionalFee.setId(1L);
-        Mockito.when(regionalFeeRepository.findById(1L)).thenReturn(Optional.empty());
+        Mockito.when(feeConfigurationService.apply(ArgumentMatchers.any()))
+                .thenThrow(new EntityNotFoundException("Regional fee not found with id: 1"));
 
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.patch("/api/regional-fees/1")
@@ -1,16 +1,24 @@
 package com.fujitsu.trialtask.fooddelivery.regionalfee;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeChangeset;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
 import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +33,13 @@ class RegionalFeeControllerTest {
     @Mock
     private RegionalFeeRepository regionalFeeRepository;
 
+    @Mock
+    private FeeConfigurationService feeConfigurationService;
+
+    @Spy
+    private EntityListing entityListing = new EntityListing(
+            new ObjectMapper(), mock(EntityManager.class), mock(PlatformTransactionManager.class), 100, 1000);
+
     @InjectMocks
     private RegionalFeeController controller;
 
@@ -36,10 +51,10 @@ class RegionalFeeControllerTest {
                 new RegionalFee(City.TARTU, Vehicle.BIKE, 2.0f),
                 new RegionalFee(City.PÄRNU, Vehicle.SCOOTER, 3.0f)
         ));
-        when(regionalFeeRepository.findAll()).thenReturn(expectedFees);
+        when(regionalFeeRepository.findPage(eq(0L), isNull(), isNull(), any())).thenReturn(expectedFees);
 
         // Act
-        ResponseEntity<Iterable<RegionalFee>> response = controller.getAllRegionalFees();
+        ResponseEntity<List<RegionalFee>> response = controller.getAllRegionalFees(null, null, 0L, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -74,9 +89,7 @@ class RegionalFeeControllerTest {
     @Test
     void createRegionalFee_WithUniqueCityAndVehicle_ReturnsCreatedRegionalFee() {
         // Arrange
-        RegionalFee regionalFee = new RegionalFee();
-        when(regionalFeeRepository.existsByCityAndVehicle(any(), any())).thenReturn(false);
-        when(regionalFeeRepository.save(regionalFee)).thenReturn(regionalFee);
+        RegionalFee regionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 1.0f);
 
         // Act
         ResponseEntity<RegionalFee> response = controller.createRegionalFee(regionalFee);
@@ -84,13 +97,15 @@ class RegionalFeeControllerTest {
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(regionalFee, response.getBody());
+        assertEquals(List.of(regionalFee), appliedChangeset().regionalFees());
+        verify(regionalFeeRepository, never()).save(any());
     }
 
     @Test
-    void createRegionalFee_WithExistingCityAndVehicle_ThrowsEntityExistsException() {
+    void createRegionalFee_WithConflictingFee_ThrowsEntityExistsException() {
         // Arrange
-        RegionalFee regionalFee = new RegionalFee();
-        when(regionalFeeRepository.existsByCityAndVehicle(any(), any())).thenReturn(true);
+        RegionalFee regionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 1.0f);
+        when(feeConfigurationService.apply(any())).thenThrow(new EntityExistsException("Conflict"));
 
         // Act & Assert
         assertThrows(EntityExistsException.class, () -> controller.createRegionalFee(regionalFee));
@@ -99,10 +114,8 @@ class RegionalFeeControllerTest {
     @Test
     void updateRegionalFee_WithExistingId_ReturnsUpdatedRegionalFee() {
         // Arrange
-        RegionalFee updatedRegionalFee = new RegionalFee();
+        RegionalFee updatedRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 2.0f);
         long id = 1L;
-        when(regionalFeeRepository.findById(id)).thenReturn(Optional.of(new RegionalFee()));
-        when(regionalFeeRepository.save(updatedRegionalFee)).thenReturn(updatedRegionalFee);
 
         // Act
         ResponseEntity<RegionalFee> response = controller.updateRegionalFee(id, updatedRegionalFee);
@@ -110,13 +123,15 @@ class RegionalFeeControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedRegionalFee, response.getBody());
+        assertEquals(id, updatedRegionalFee.getId());
+        assertEquals(List.of(updatedRegionalFee), appliedChangeset().regionalFees());
     }
 
     @Test
     void updateRegionalFee_WithNonExistingId_ThrowsEntityNotFoundException() {
         // Arrange
         long id = 1L;
-        when(regionalFeeRepository.findById(id)).thenReturn(Optional.empty());
+        when(feeConfigurationService.apply(any())).thenThrow(new EntityNotFoundException("Not found"));
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> controller.updateRegionalFee(id, new RegionalFee(City.TALLINN, Vehicle.CAR, 1.0f)));
@@ -127,20 +142,20 @@ class RegionalFeeControllerTest {
         // Arrange
         long id = 1L;
         RegionalFee existingRegionalFee = new RegionalFee(City.TALLINN, Vehicle.CAR, 1.0f);
+        existingRegionalFee.setId(id);
         RegionalFee updatedRegionalFee = new RegionalFee(City.TARTU, null, null); // Update only city
 
         when(regionalFeeRepository.findById(id)).thenReturn(Optional.of(existingRegionalFee));
-        when(regionalFeeRepository.save(any())).thenReturn(updatedRegionalFee);
 
         // Act
         ResponseEntity<RegionalFee> response = controller.patchRegionalFee(id, updatedRegionalFee);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedRegionalFee.getCity(), response.getBody().getCity());
-        assertNull(response.getBody().getVehicle()); // Make sure vehicle remains unchanged
-        assertNull(response.getBody().getFee()); // Make sure fee remains unchanged
-        verify(regionalFeeRepository, times(1)).save(any());
+        assertEquals(City.TARTU, response.getBody().getCity());
+        assertEquals(Vehicle.CAR, response.getBody().getVehicle()); // Make sure vehicle remains unchanged
+        assertEquals(1.0f, response.getBody().getFee()); // Make sure fee remains unchanged
+        assertEquals(List.of(existingRegionalFee), appliedChangeset().regionalFees());
     }
 
     @Test
@@ -166,4 +181,10 @@ class RegionalFeeControllerTest {
         assertNull(response.getBody());
         verify(regionalFeeRepository, times(1)).deleteById(id);
     }
-}
\ No newline at end of file
+
+    private FeeChangeset appliedChangeset() {
+        ArgumentCaptor<FeeChangeset> captor = ArgumentCaptor.forClass(FeeChangeset.class);
+        verify(feeConfigurationService).apply(captor.capture());
+        return captor.getValue();
+    }
+}
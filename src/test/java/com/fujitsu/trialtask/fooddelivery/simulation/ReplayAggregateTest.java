@@ -0,0 +1,98 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherObservation;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.Tariff;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayAggregateTest {
+    private static final Vehicle[] VEHICLES = {Vehicle.BIKE};
+    private static final float[] REGIONAL_FEES = {2.0f};
+    private final Tariff current = new Tariff(List.of(
+            new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", null)));
+    private final Tariff candidate = new Tariff(List.of(
+            new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f),
+            new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, null, 0.0f, 0.5f)));
+
+    @Test
+    void results_WithObservationGapLongerThanMaximum_CountsOnlyMaximumGap() {
+        // Arrange
+        ReplayAggregate aggregate = newAggregate();
+        aggregate.accept(new WeatherObservation(0, "snow", 1.0f, 2.0f));
+        aggregate.accept(new WeatherObservation(36_000, "clear", -1.0f, 2.0f));
+
+        // Act
+        SimulationResult result = aggregate.results(City.TARTU, 37_800).get(0);
+
+        // Assert
+        assertEquals(2, result.observations());
+        assertEquals(1.0, result.current().forbiddenHours());
+        assertEquals(1, result.current().forbiddenObservations());
+        assertEquals(2.0f, result.current().meanFee());
+        assertEquals(0.0, result.candidate().forbiddenHours());
+        assertEquals(2.75f, result.candidate().meanFee());
+        assertEquals(0.75f, result.meanFeeChange());
+        assertEquals(-1.0, result.forbiddenHoursChange());
+    }
+
+    @Test
+    void weatherFee_WithExtendedConditions_SkipsUnreportedValues() {
+        // Arrange
+        Tariff tariff = new Tariff(List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PRECIPITATION, 5.0f, null, 1.0f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.VISIBILITY, null, 1.0f, null)));
+        WeatherObservation wet = new WeatherObservation(0, "rain", 5.0f, 2.0f, 6.0f, null, null, null);
+        WeatherObservation foggy = new WeatherObservation(0, "fog", 5.0f, 2.0f, null, 0.5f, null, null);
+
+        // Act & Assert
+        assertEquals(1.0f, tariff.weatherFee(Vehicle.BIKE, wet));
+        assertTrue(Float.isNaN(tariff.weatherFee(Vehicle.BIKE, foggy)));
+        assertEquals(0.0f, tariff.weatherFee(Vehicle.CAR, foggy));
+    }
+
+    @Test
+    void merge_WithConsecutiveSlices_EqualsReplayingThemAtOnce() {
+        // Arrange
+        List<WeatherObservation> observations = List.of(
+                new WeatherObservation(0, "snow", 1.0f, 2.0f),
+                new WeatherObservation(1_800, "light snow shower", 1.0f, 2.0f),
+                new WeatherObservation(3_600, "clear", 1.0f, 2.0f),
+                new WeatherObservation(5_400, "snow", -3.0f, 2.0f));
+        ReplayAggregate whole = newAggregate();
+        observations.forEach(whole::accept);
+        ReplayAggregate first = newAggregate();
+        ReplayAggregate empty = newAggregate();
+        ReplayAggregate second = newAggregate();
+        observations.subList(0, 2).forEach(first::accept);
+        observations.subList(2, 4).forEach(second::accept);
+
+        // Act
+        ReplayAggregate merged = first.merge(empty).merge(second);
+
+        // Assert
+        assertEquals(whole.results(City.TARTU, 7_200), merged.results(City.TARTU, 7_200));
+        assertEquals(1.5, whole.results(City.TARTU, 7_200).get(0).current().forbiddenHours());
+    }
+
+    @Test
+    void results_WithoutObservations_ReturnsNoMeanFee() {
+        // Act
+        SimulationResult result = newAggregate().results(City.TARTU, 3_600).get(0);
+
+        // Assert
+        assertEquals(0, result.observations());
+        assertNull(result.current().meanFee());
+        assertNull(result.meanFeeChange());
+    }
+
+    private ReplayAggregate newAggregate() {
+        return new ReplayAggregate(current, candidate, VEHICLES, REGIONAL_FEES, 3_600);
+    }
+}
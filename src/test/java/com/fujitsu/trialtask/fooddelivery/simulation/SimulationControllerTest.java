@@ -0,0 +1,66 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SimulationControllerTest {
+    private final TariffSimulator tariffSimulator = mock(TariffSimulator.class);
+    private final SimulationController controller = new SimulationController(tariffSimulator,
+            new EntityListing(new ObjectMapper(), mock(EntityManager.class), mock(PlatformTransactionManager.class), 100, 1000));
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void simulate_WithValidRequest_StreamsResultsAsNdjson() throws Exception {
+        // Arrange
+        SimulationRequest request = new SimulationRequest(List.of(),
+                Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-02T00:00:00Z"));
+        SimulationResult.Outcome outcome = new SimulationResult.Outcome(4.0f, 0, 0.0);
+        TariffSimulator.Simulation simulation = mock(TariffSimulator.Simulation.class);
+        when(tariffSimulator.prepare(request)).thenReturn(simulation);
+        doAnswer(invocation -> {
+            Consumer<SimulationResult> consumer = invocation.getArgument(0);
+            consumer.accept(new SimulationResult(City.TALLINN, Vehicle.CAR, 24, outcome, outcome, 0.0f, 0.0));
+            consumer.accept(new SimulationResult(City.TARTU, Vehicle.CAR, 24, outcome, outcome, 0.0f, 0.0));
+            return null;
+        }).when(simulation).run(any(Consumer.class));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.simulate(request);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        // Assert
+        assertEquals(MediaType.parseMediaType("application/x-ndjson"), response.getHeaders().getContentType());
+        String[] lines = outputStream.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"city\":\"TALLINN\",\"vehicle\":\"CAR\",\"observations\":24"));
+    }
+
+    @Test
+    void simulate_WithInvalidRequest_ThrowsBeforeStreaming() {
+        // Arrange
+        SimulationRequest request = new SimulationRequest(List.of(), null, null);
+        when(tariffSimulator.prepare(request)).thenThrow(InvalidRequestException.class);
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> controller.simulate(request));
+    }
+}
@@ -0,0 +1,133 @@
+package com.fujitsu.trialtask.fooddelivery.simulation;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeValidator;
+import jakarta.persistence.EntityExistsException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TariffSimulatorTest {
+    private static final Instant FROM = Instant.parse("2024-03-01T00:00:00Z");
+    private static final Instant TO = FROM.plus(Duration.ofHours(3));
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TariffSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        long from = FROM.getEpochSecond();
+        weatherDataRepository.saveAll(List.of(
+                new WeatherData(from - 3600, City.TALLINN, 26038, "Snow", -5.0f, 3.0f),
+                new WeatherData(from, City.TALLINN, 26038, "Snow", -5.0f, 3.0f),
+                new WeatherData(from + 3600, City.TALLINN, 26038, "Clear", 2.0f, 3.0f),
+                new WeatherData(from + 7200, City.TALLINN, 26038, "Light snow shower", 1.0f, 3.0f),
+                new WeatherData(from + 10800, City.TALLINN, 26038, "Snow", -5.0f, 3.0f),
+                new WeatherData(from, City.TARTU, 26242, "Snow", -5.0f, 3.0f)));
+
+        FeeConfigurationService feeConfigurationService = mock(FeeConfigurationService.class);
+        when(feeConfigurationService.current()).thenReturn(new FeeConfiguration(1, FROM, "Initial configuration",
+                List.of(new RegionalFee(City.TALLINN, Vehicle.CAR, 4.0f),
+                        new RegionalFee(City.TALLINN, Vehicle.BIKE, 3.0f)),
+                List.of(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", null))));
+        simulator = new TariffSimulator(new WeatherHistory(weatherDataRepository, transactionManager),
+                feeConfigurationService, new WeatherFeeValidator(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SimulationProperties(2, Duration.ofHours(1), Duration.ofHours(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherDataRepository.deleteAll();
+    }
+
+    @Test
+    void run_WithCandidateWeatherFees_ComparesWithCurrentWeatherFees() {
+        // Arrange
+        SimulationRequest request = new SimulationRequest(
+                List.of(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f)), FROM, TO);
+        List<SimulationResult> results = new ArrayList<>();
+
+        // Act
+        simulator.prepare(request).run(results::add);
+
+        // Assert
+        assertEquals(2, results.size());
+        SimulationResult car = results.get(0);
+        assertEquals(City.TALLINN, car.city());
+        assertEquals(Vehicle.CAR, car.vehicle());
+        assertEquals(3, car.observations());
+        assertEquals(4.0f, car.current().meanFee());
+        assertEquals(0.0f, car.meanFeeChange());
+
+        SimulationResult bike = results.get(1);
+        assertEquals(Vehicle.BIKE, bike.vehicle());
+        assertEquals(new SimulationResult.Outcome(3.0f, 2, 2.0), bike.current());
+        assertEquals(new SimulationResult.Outcome(3.67f, 0, 0.0), bike.candidate());
+        assertEquals(0.67f, bike.meanFeeChange());
+        assertEquals(-2.0, bike.forbiddenHoursChange());
+    }
+
+    @Test
+    void prepare_WithConflictingWeatherFees_ThrowsEntityExistsException() {
+        // Arrange
+        SimulationRequest request = new SimulationRequest(List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 2.0f)), FROM, TO);
+
+        // Act & Assert
+        assertThrows(EntityExistsException.class, () -> simulator.prepare(request));
+    }
+
+    @Test
+    void prepare_WithInvalidWeatherFee_ThrowsInvalidRequestException() {
+        // Arrange
+        SimulationRequest request = new SimulationRequest(
+                List.of(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", -1.0f)), FROM, TO);
+
+        // Act & Assert
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> simulator.prepare(request));
+        assertEquals("Invalid weather fee at index 0: The fee must be a positive number", exception.getMessage());
+    }
+
+    @Test
+    void prepare_WithEmptyRange_ThrowsInvalidRequestException() {
+        // Arrange
+        SimulationRequest request = new SimulationRequest(List.of(), TO, FROM);
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> simulator.prepare(request));
+    }
+}
@@ -0,0 +1,120 @@
+package com.fujitsu.trialtask.fooddelivery.startupsnapshot;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationPublishedEvent;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupSnapshotStoreTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Mock
+    private FeeConfigurationService feeConfigurationService;
+
+    @Mock
+    private LatestWeatherData latestWeatherData;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void restore_WithSnapshotFile_PreloadsFeesAndWeatherDataAndReconcilesOnceReady() throws IOException {
+        // Arrange
+        Path path = directory.resolve("snapshot.bin");
+        WeatherData weatherData = new WeatherData(1711368000L, City.TARTU, 0, "", 1.0f, 2.0f);
+        new StartupSnapshot(3, NOW, "Winter fees", List.of(new RegionalFee(City.TARTU, Vehicle.CAR, 3.5f)), List.of(),
+                List.of(weatherData)).write(path);
+        StartupSnapshotStore store = store(path, Runnable::run);
+
+        // Act
+        store.restore();
+        store.reconcile();
+
+        // Assert
+        verify(feeConfigurationService).preload(contains("version 3"),
+                argThat(fees -> fees.size() == 1 && fees.iterator().next().getFee() == 3.5f), eq(List.of()));
+        verify(latestWeatherData).preload(argThat(data -> data.size() == 1
+                && data.iterator().next().getCity() == City.TARTU));
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(captor.capture(), eq(NOW));
+        captor.getValue().run();
+        verify(feeConfigurationService).reconcile();
+        verify(latestWeatherData).reload();
+    }
+
+    @Test
+    void restore_WithCorruptSnapshotFile_LoadsNothing() throws IOException {
+        // Arrange
+        Path path = directory.resolve("snapshot.bin");
+        Files.write(path, new byte[]{1, 2, 3});
+        StartupSnapshotStore store = store(path, Runnable::run);
+
+        // Act
+        store.restore();
+        store.reconcile();
+
+        // Assert
+        verifyNoInteractions(feeConfigurationService, latestWeatherData, taskScheduler);
+    }
+
+    @Test
+    void onFeesPublished_WithChangesWhileWritePending_WritesCurrentStateOnce() throws IOException {
+        // Arrange
+        Path path = directory.resolve("snapshot.bin");
+        List<Runnable> writes = new ArrayList<>();
+        StartupSnapshotStore store = store(path, writes::add);
+        FeeConfiguration configuration = new FeeConfiguration(2, NOW, "Winter fees",
+                List.of(new RegionalFee(City.TALLINN, Vehicle.CAR, 4.0f)), List.of());
+        when(feeConfigurationService.current()).thenReturn(configuration);
+        when(latestWeatherData.get(any())).thenReturn(null);
+        when(latestWeatherData.get(City.PÄRNU)).thenReturn(new WeatherData(1711368000L, City.PÄRNU, 0, "", 1.0f, 2.0f));
+
+        // Act
+        store.onFeesPublished(new FeeConfigurationPublishedEvent(null, configuration, false));
+        store.onWeatherChanged(new WeatherChangedEvent(List.of(new WeatherChangedEvent.Change(City.PÄRNU, null, null))));
+        writes.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(1, writes.size());
+        StartupSnapshot snapshot = StartupSnapshot.read(path);
+        assertEquals(2, snapshot.feeVersion());
+        assertEquals(4.0f, snapshot.regionalFees().get(0).getFee());
+        assertEquals(City.PÄRNU, snapshot.weatherData().get(0).getCity());
+        assertEquals(1, snapshot.weatherData().size());
+    }
+
+    private StartupSnapshotStore store(Path path, Executor writer) {
+        return new StartupSnapshotStore(feeConfigurationService, latestWeatherData, taskScheduler,
+                new StartupSnapshotProperties(path.toString()), writer, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,82 @@
+package com.fujitsu.trialtask.fooddelivery.startupsnapshot;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.regionalfee.RegionalFee;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupSnapshotTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void read_AfterWrite_RestoresEveryField() throws IOException {
+        // Arrange
+        RegionalFee regionalFee = new RegionalFee(City.TARTU, Vehicle.BIKE, 2.5f);
+        regionalFee.setId(1L);
+        regionalFee.setValidFrom(NOW);
+        WeatherFee forbidden = new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 20.0f, null, null);
+        forbidden.setId(2L);
+        forbidden.setValidTo(NOW.plusNanos(1));
+        WeatherData weatherData = new WeatherData(1711368000L, City.PÄRNU, null, "Light snow shower", -2.1f, 4.7f);
+        weatherData.setId(3L);
+        weatherData.setVisibility(0.4f);
+        weatherData.setWindGust(12.5f);
+        Path path = directory.resolve("snapshot.bin");
+
+        // Act
+        new StartupSnapshot(7, NOW, "Winter fees", List.of(regionalFee), List.of(forbidden), List.of(weatherData))
+                .write(path);
+        StartupSnapshot snapshot = StartupSnapshot.read(path);
+
+        // Assert
+        assertEquals(7, snapshot.feeVersion());
+        assertEquals(NOW, snapshot.publishedAt());
+        assertEquals("Winter fees", snapshot.description());
+        RegionalFee restoredRegionalFee = snapshot.regionalFees().get(0);
+        assertEquals(1L, restoredRegionalFee.getId());
+        assertEquals(City.TARTU, restoredRegionalFee.getCity());
+        assertEquals(2.5f, restoredRegionalFee.getFee());
+        assertEquals(NOW, restoredRegionalFee.getValidFrom());
+        assertNull(restoredRegionalFee.getValidTo());
+        WeatherFee restoredWeatherFee = snapshot.weatherFees().get(0);
+        assertEquals(WeatherCondition.WIND_SPEED, restoredWeatherFee.getCondition());
+        assertEquals(20.0f, restoredWeatherFee.getAbove());
+        assertNull(restoredWeatherFee.getBelow());
+        assertNull(restoredWeatherFee.getPhenomenon());
+        assertNull(restoredWeatherFee.getFee());
+        assertEquals(NOW.plusNanos(1), restoredWeatherFee.getValidTo());
+        assertEquals(weatherData.toString(), snapshot.weatherData().get(0).toString());
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    void read_WithCorruptFile_ThrowsIOException() throws IOException {
+        // Arrange
+        Path path = directory.resolve("snapshot.bin");
+        new StartupSnapshot(1, NOW, "Seeded", List.of(new RegionalFee(City.TALLINN, Vehicle.CAR, 4.0f)), List.of(),
+                List.of()).write(path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> StartupSnapshot.read(path));
+    }
+}
@@ -0,0 +1,131 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.RemoteChangeEvent;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatestWeatherDataTest {
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LatestWeatherData latestWeatherData;
+
+    @Test
+    void get_CalledRepeatedly_ShouldLoadFromRepositoryOnlyOnce() {
+        // Arrange
+        WeatherData tallinn = weatherDataAt(City.TALLINN, 100L);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(any())).thenReturn(null);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TALLINN)).thenReturn(tallinn);
+
+        // Act
+        latestWeatherData.get(City.TALLINN);
+        WeatherData result = latestWeatherData.get(City.TALLINN);
+
+        // Assert
+        assertEquals(tallinn, result);
+        assertNull(latestWeatherData.get(City.TARTU));
+        verify(weatherDataRepository, times(City.values().length)).findFirstByCityOrderByTimestampDesc(any());
+    }
+
+    @Test
+    void update_WithNewerWeatherData_ShouldReplaceLatest() {
+        // Arrange
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(any())).thenReturn(null);
+        WeatherData older = weatherDataAt(City.TARTU, 100L);
+        WeatherData newer = weatherDataAt(City.TARTU, 200L);
+
+        // Act
+        latestWeatherData.update(List.of(older, newer));
+
+        // Assert
+        assertEquals(newer, latestWeatherData.get(City.TARTU));
+        verify(eventPublisher).publishEvent(
+                new WeatherChangedEvent(List.of(new WeatherChangedEvent.Change(City.TARTU, null, newer))));
+    }
+
+    @Test
+    void update_WithOlderWeatherData_ShouldKeepLatest() {
+        // Arrange
+        WeatherData latest = weatherDataAt(City.PÄRNU, 200L);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(any())).thenReturn(null);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.PÄRNU)).thenReturn(latest);
+
+        // Act
+        latestWeatherData.update(List.of(weatherDataAt(City.PÄRNU, 100L)));
+
+        // Assert
+        assertEquals(latest, latestWeatherData.get(City.PÄRNU));
+    }
+
+    @Test
+    void onRemoteChange_WithWeatherSavedOnAnotherNode_ShouldReloadLatest() {
+        // Arrange
+        WeatherData local = weatherDataAt(City.TARTU, 100L);
+        WeatherData remote = weatherDataAt(City.TARTU, 200L);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(any())).thenReturn(null);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TARTU)).thenReturn(local, remote);
+        latestWeatherData.get(City.TARTU);
+
+        // Act
+        latestWeatherData.onRemoteChange(new RemoteChangeEvent(ChangeTopic.WEATHER, 1));
+
+        // Assert
+        assertEquals(remote, latestWeatherData.get(City.TARTU));
+    }
+
+    @Test
+    void preload_BeforeFirstAccess_ShouldServePreloadedDataWithoutQueryingRepository() {
+        // Arrange
+        WeatherData preloaded = weatherDataAt(City.TALLINN, 100L);
+
+        // Act
+        latestWeatherData.preload(List.of(preloaded));
+
+        // Assert
+        assertEquals(preloaded, latestWeatherData.get(City.TALLINN));
+        assertNull(latestWeatherData.get(City.TARTU));
+        verifyNoInteractions(weatherDataRepository);
+    }
+
+    @Test
+    void reload_WithUnchangedWeatherData_ShouldAnnounceOnlyChangedCities() {
+        // Arrange
+        WeatherData tartu = weatherDataAt(City.TARTU, 100L);
+        tartu.setId(1L);
+        WeatherData newTartu = weatherDataAt(City.TARTU, 200L);
+        newTartu.setId(2L);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(any())).thenReturn(null);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TARTU)).thenReturn(tartu, newTartu);
+        latestWeatherData.reload();
+        clearInvocations(eventPublisher);
+
+        // Act
+        latestWeatherData.reload();
+
+        // Assert
+        verify(eventPublisher).publishEvent(
+                new WeatherChangedEvent(List.of(new WeatherChangedEvent.Change(City.TARTU, tartu, newTartu))));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    private WeatherData weatherDataAt(City city, long timestamp) {
+        return new WeatherData(timestamp, city, 0, "", 0.0f, 0.0f);
+    }
+}
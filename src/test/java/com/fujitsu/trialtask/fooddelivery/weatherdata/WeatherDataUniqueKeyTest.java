@@ -0,0 +1,84 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeatherDataUniqueKeyTest {
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WeatherDataUniqueKey weatherDataUniqueKey;
+
+    @BeforeEach
+    void setUp() {
+        weatherDataRepository.deleteAll();
+        weatherDataUniqueKey = new WeatherDataUniqueKey(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherDataRepository.deleteAll();
+        jdbcTemplate.execute("DROP INDEX IF EXISTS " + WeatherDataUniqueKey.LEGACY_INDEX);
+        jdbcTemplate.execute("ALTER TABLE weather_data DROP CONSTRAINT IF EXISTS " + WeatherData.CITY_TIMESTAMP_KEY);
+        jdbcTemplate.execute("ALTER TABLE weather_data ADD CONSTRAINT " + WeatherData.CITY_TIMESTAMP_KEY
+                + " UNIQUE (city, timestamp DESC)");
+    }
+
+    @Test
+    void create_WithLegacyIndexAndDuplicates_KeepsFirstObservationAndRejectsDuplicates() {
+        // Arrange
+        jdbcTemplate.execute("ALTER TABLE weather_data DROP CONSTRAINT " + WeatherData.CITY_TIMESTAMP_KEY);
+        jdbcTemplate.execute("CREATE INDEX " + WeatherDataUniqueKey.LEGACY_INDEX
+                + " ON weather_data (city, timestamp DESC)");
+        WeatherData first = weatherDataRepository.save(weatherData(City.TALLINN, 100L, 1.0f));
+        weatherDataRepository.save(weatherData(City.TALLINN, 100L, 2.0f));
+        weatherDataRepository.save(weatherData(City.TALLINN, 200L, 3.0f));
+        weatherDataRepository.save(weatherData(City.TARTU, 100L, 4.0f));
+
+        // Act
+        weatherDataUniqueKey.create();
+
+        // Assert
+        assertEquals(3, weatherDataRepository.count());
+        assertTrue(weatherDataRepository.existsById(first.getId()));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> weatherDataRepository.save(weatherData(City.TARTU, 100L, 5.0f)));
+        Integer legacyIndexes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE UPPER(INDEX_NAME) = UPPER(?)", Integer.class, WeatherDataUniqueKey.LEGACY_INDEX);
+        assertEquals(0, legacyIndexes);
+    }
+
+    @Test
+    void create_WithUniqueKey_DoesNothing() {
+        // Arrange
+        weatherDataRepository.save(weatherData(City.TALLINN, 100L, 1.0f));
+
+        // Act
+        weatherDataUniqueKey.create();
+        weatherDataUniqueKey.create();
+
+        // Assert
+        assertEquals(1, weatherDataRepository.count());
+        assertThrows(DataIntegrityViolationException.class,
+                () -> weatherDataRepository.save(weatherData(City.TALLINN, 100L, 2.0f)));
+    }
+
+    private static WeatherData weatherData(City city, Long timestamp, Float airTemperature) {
+        return new WeatherData(timestamp, city, 26038, "", airTemperature, 1.0f);
+    }
+}
@@ -0,0 +1,164 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdata;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.RemoteChangeEvent;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeatherHistoryTest {
+    private static final long FROM = 1709251200L;
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private WeatherHistory weatherHistory;
+
+    @BeforeEach
+    void setUp() {
+        weatherHistory = new WeatherHistory(weatherDataRepository, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherDataRepository.deleteAll();
+    }
+
+    @Test
+    void observations_AfterLoad_ScansRangeInTimestampOrder() {
+        // Arrange
+        WeatherData foggy = weatherData(FROM + 1200, "Fog", -1.0f);
+        foggy.setVisibility(0.3f);
+        weatherDataRepository.saveAll(List.of(
+                weatherData(FROM + 1800, "Snow", -2.0f),
+                foggy,
+                weatherData(FROM + 600, null, 0.5f),
+                weatherData(FROM, "Snow", 1.0f),
+                new WeatherData(FROM + 600, City.TALLINN, 26038, "Hail", 5.0f, 1.0f)));
+
+        // Act
+        List<WeatherObservation> observations = weatherHistory.observations(City.TARTU, FROM + 600, FROM + 1800)
+                .toList();
+
+        // Assert
+        assertEquals(List.of(FROM + 600, FROM + 1200), observations.stream().map(WeatherObservation::timestamp).toList());
+        assertNull(observations.get(0).phenomenon());
+        assertEquals(0.5f, observations.get(0).value(WeatherCondition.AIR_TEMPERATURE));
+        assertTrue(Float.isNaN(observations.get(0).value(WeatherCondition.VISIBILITY)));
+        assertEquals("fog", observations.get(1).phenomenon());
+        assertEquals(0.3f, observations.get(1).value(WeatherCondition.VISIBILITY));
+        assertEquals(4, weatherHistory.size(City.TARTU));
+        assertEquals(1, weatherHistory.size(City.TALLINN));
+    }
+
+    @Test
+    void append_WithNewerAndBackfilledData_KeepsHistorySortedWithoutDuplicates() {
+        // Arrange
+        weatherDataRepository.saveAll(List.of(weatherData(FROM, "Snow", 1.0f), weatherData(FROM + 1200, "Snow", 2.0f)));
+        Stream<WeatherObservation> scanBeforeAppend = weatherHistory.observations(City.TARTU, FROM, Long.MAX_VALUE);
+
+        // Act
+        weatherHistory.append(List.of(
+                weatherData(FROM + 1800, "Clear", 3.0f),
+                weatherData(FROM + 600, "Rain", 4.0f),
+                weatherData(FROM + 1200, "Hail", 5.0f)));
+
+        // Assert
+        assertEquals(List.of(FROM, FROM + 600, FROM + 1200, FROM + 1800), timestamps(City.TARTU));
+        assertEquals(List.of("snow", "rain", "snow", "clear"),
+                weatherHistory.observations(City.TARTU, FROM, Long.MAX_VALUE).map(WeatherObservation::phenomenon).toList());
+        assertEquals(2, scanBeforeAppend.count());
+    }
+
+    @Test
+    void append_BeforeCityIsLoaded_IsLeftToTheLoad() {
+        // Arrange
+        WeatherData saved = weatherDataRepository.save(weatherData(FROM, "Snow", 1.0f));
+
+        // Act
+        weatherHistory.append(List.of(saved));
+
+        // Assert
+        assertEquals(List.of(FROM), timestamps(City.TARTU));
+    }
+
+    @Test
+    void onRemoteChange_AfterAnotherNodeCollected_AppendsOnlyNewerObservations() {
+        // Arrange
+        WeatherData oldest = weatherData(FROM, "Snow", 1.0f);
+        weatherDataRepository.saveAll(List.of(oldest, weatherData(FROM + 600, "Snow", 2.0f)));
+        weatherHistory.size(City.TARTU);
+        weatherDataRepository.delete(oldest);
+        weatherDataRepository.saveAll(List.of(
+                weatherData(FROM + 300, "Rain", 3.0f),
+                weatherData(FROM + 1200, "Clear", 4.0f)));
+
+        // Act
+        weatherHistory.onRemoteChange(new RemoteChangeEvent(ChangeTopic.WEATHER, 1));
+
+        // Assert
+        assertEquals(List.of(FROM, FROM + 600, FROM + 1200), timestamps(City.TARTU));
+    }
+
+    @Test
+    void onRemoteChange_AfterAnotherNodeBackfilledAndCompacted_ReloadsHistory() {
+        // Arrange
+        WeatherData oldest = weatherData(FROM, "Snow", 1.0f);
+        weatherDataRepository.saveAll(List.of(oldest, weatherData(FROM + 1800, "Snow", 2.0f)));
+        weatherHistory.size(City.TARTU);
+        weatherDataRepository.delete(oldest);
+        weatherDataRepository.saveAll(List.of(
+                weatherData(FROM - 600, "Rain", 3.0f),
+                weatherData(FROM + 600, "Clear", 4.0f)));
+
+        // Act
+        weatherHistory.onRemoteChange(new RemoteChangeEvent(ChangeTopic.WEATHER_HISTORY, 1));
+
+        // Assert
+        assertEquals(List.of(FROM - 600, FROM + 600, FROM + 1800), timestamps(City.TARTU));
+        assertEquals(List.of("rain", "clear", "snow"),
+                weatherHistory.observations(City.TARTU, Long.MIN_VALUE, Long.MAX_VALUE)
+                        .map(WeatherObservation::phenomenon).toList());
+    }
+
+    @Test
+    void dropBefore_WithCutoff_KeepsOnlyNewerObservations() {
+        // Arrange
+        weatherDataRepository.saveAll(List.of(
+                weatherData(FROM, "Snow", 1.0f),
+                weatherData(FROM + 600, "Snow", 2.0f),
+                weatherData(FROM + 1200, "Clear", 3.0f)));
+        weatherHistory.size(City.TARTU);
+
+        // Act
+        weatherHistory.dropBefore(FROM + 600);
+
+        // Assert
+        assertEquals(List.of(FROM + 600, FROM + 1200), timestamps(City.TARTU));
+    }
+
+    private List<Long> timestamps(City city) {
+        return weatherHistory.observations(city, Long.MIN_VALUE, Long.MAX_VALUE).map(WeatherObservation::timestamp).toList();
+    }
+
+    private static WeatherData weatherData(long timestamp, String phenomenon, float airTemperature) {
+        return new WeatherData(timestamp, City.TARTU, 26242, phenomenon, airTemperature, 3.0f);
+    }
+}
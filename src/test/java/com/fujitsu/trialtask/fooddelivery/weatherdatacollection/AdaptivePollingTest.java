@@ -0,0 +1,68 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptivePollingTest {
+    private static final List<WeatherFee> WEATHER_FEES = List.of(
+            new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, -10f, 0f, .5f),
+            new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 10f, 20f, .5f),
+            new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 20f, null, null));
+
+    private AdaptivePolling adaptivePolling;
+
+    @BeforeEach
+    void setUp() {
+        adaptivePolling = new AdaptivePolling(new WeatherFeedProperties.Polling(
+                Duration.ofMinutes(5), Duration.ofMinutes(65), 2, 3, List.of("shower", "thunder")));
+    }
+
+    @Test
+    void nextInterval_WithWindCloseToBoundary_ScalesWithDistance() {
+        // Act
+        Duration interval = adaptivePolling.nextInterval(List.of(reading("", 5f, 18.5f)), WEATHER_FEES);
+
+        // Assert
+        assertEquals(Duration.ofMinutes(35), interval);
+    }
+
+    @Test
+    void nextInterval_WithVolatilePhenomenon_ReturnsMinimum() {
+        // Act
+        Duration interval = adaptivePolling.nextInterval(
+                List.of(reading("", 5f, 15f), reading("Moderate shower", 5f, 15f)), WEATHER_FEES);
+
+        // Assert
+        assertEquals(Duration.ofMinutes(5), interval);
+    }
+
+    @Test
+    void nextInterval_WithCalmWeather_BacksOffToMaximum() {
+        // Arrange
+        adaptivePolling.nextInterval(List.of(reading("", -0.5f, 5f)), WEATHER_FEES);
+
+        // Act
+        Duration first = adaptivePolling.nextInterval(List.of(reading("Clear", 5f, 15f)), WEATHER_FEES);
+        Duration second = adaptivePolling.nextInterval(List.of(reading("Clear", 5f, 15f)), WEATHER_FEES);
+        Duration third = adaptivePolling.nextInterval(List.of(reading("Clear", 5f, 15f)), WEATHER_FEES);
+
+        // Assert
+        assertEquals(Duration.ofMinutes(40), first);
+        assertEquals(Duration.ofMinutes(65), second);
+        assertEquals(Duration.ofMinutes(65), third);
+    }
+
+    private static WeatherData reading(String phenomenon, float airTemperature, float windSpeed) {
+        return new WeatherData(1L, City.TARTU, 1, phenomenon, airTemperature, windSpeed);
+    }
+}
@@ -0,0 +1,111 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofMinutes(5);
+    private static final Instant START = Instant.parse("2024-03-25T12:00:00Z");
+
+    private CircuitBreaker circuitBreaker;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        now = START;
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        circuitBreaker = new CircuitBreaker(3, OPEN_DURATION, clock);
+    }
+
+    @Test
+    void recordFailure_BelowThreshold_ShouldStayClosed() {
+        // Act
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void recordFailure_AtThreshold_ShouldOpenAndRejectRequests() {
+        // Act
+        failThreeTimes();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+        assertEquals(OPEN_DURATION, circuitBreaker.remainingOpenTime());
+    }
+
+    @Test
+    void allowRequest_AfterOpenDuration_ShouldLetTrialRequestThrough() {
+        // Arrange
+        failThreeTimes();
+        now = START.plus(OPEN_DURATION);
+
+        // Act & Assert
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void recordFailure_WhenHalfOpen_ShouldOpenAgain() {
+        // Arrange
+        failThreeTimes();
+        now = START.plus(OPEN_DURATION);
+        circuitBreaker.allowRequest();
+
+        // Act
+        circuitBreaker.recordFailure();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(OPEN_DURATION, circuitBreaker.remainingOpenTime());
+    }
+
+    @Test
+    void recordSuccess_WhenHalfOpen_ShouldClose() {
+        // Arrange
+        failThreeTimes();
+        now = START.plus(OPEN_DURATION);
+        circuitBreaker.allowRequest();
+
+        // Act
+        circuitBreaker.recordSuccess();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getConsecutiveFailures());
+        assertEquals(Duration.ZERO, circuitBreaker.remainingOpenTime());
+    }
+
+    private void failThreeTimes() {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+    }
+}
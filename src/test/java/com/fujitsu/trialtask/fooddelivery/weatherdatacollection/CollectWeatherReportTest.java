@@ -0,0 +1,279 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.exceptions.LeaseLostException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CollectWeatherReportTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+    private static final Duration INITIAL_DELAY = Duration.ofSeconds(30);
+    private static final Duration OPEN_DURATION = Duration.ofMinutes(5);
+    private static final Duration MIN_POLL_INTERVAL = Duration.ofMinutes(5);
+    private static final LeaderElection.Lease LEASE = new LeaderElection.Lease(1);
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private LatestWeatherData latestWeatherData;
+
+    @Mock
+    private WeatherHistory weatherHistory;
+
+    @Mock
+    private ChangeVersions changeVersions;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private FeeConfigurationService feeConfigurationService;
+
+    @Mock
+    private WeatherFeedClient weatherFeedClient;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CollectWeatherReport collectWeatherReport;
+
+    @BeforeEach
+    void setUp() {
+        WeatherFeedProperties properties = new WeatherFeedProperties(
+                "http://localhost", Duration.ofSeconds(1), Duration.ofSeconds(1),
+                new WeatherFeedProperties.Retry(INITIAL_DELAY, Duration.ofMinutes(5)),
+                new WeatherFeedProperties.CircuitBreaker(3, OPEN_DURATION),
+                new WeatherFeedProperties.Polling(MIN_POLL_INTERVAL, Duration.ofHours(1), 2, 3, List.of("shower")));
+        collectWeatherReport = new CollectWeatherReport(weatherDataRepository, latestWeatherData, weatherHistory,
+                changeVersions, leaderElection, feeConfigurationService, weatherFeedClient, taskScheduler, eventPublisher,
+                properties, "0 15 * * * ?", Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(leaderElection.acquire()).thenReturn(LEASE);
+        lenient().when(leaderElection.runFenced(eq(LEASE), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(feeConfigurationService.current()).thenReturn(feesWithWeatherFees());
+    }
+
+    @Test
+    void execute_WithAvailableFeed_ShouldSaveWeatherData() throws IOException {
+        // Arrange
+        List<WeatherData> weatherData = List.of(new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f));
+        when(weatherFeedClient.fetch()).thenReturn(weatherData);
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verify(weatherDataRepository).saveAll(weatherData);
+        verify(latestWeatherData).update(weatherData);
+        verify(weatherHistory).append(weatherData);
+        verify(changeVersions).bump(ChangeTopic.WEATHER);
+        verifyNoInteractions(taskScheduler);
+        assertEquals(NOW, collectWeatherReport.getLastSuccess());
+    }
+
+    @Test
+    void execute_WithAlreadyStoredObservation_ShouldSaveOnlyNewerWeatherData() throws IOException {
+        // Arrange
+        WeatherData stored = new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f);
+        WeatherData newer = new WeatherData(2L, City.TARTU, 2, "", 2.0f, 2.0f);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TALLINN)).thenReturn(stored);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TARTU))
+                .thenReturn(new WeatherData(1L, City.TARTU, 2, "", 1.0f, 1.0f));
+        when(weatherFeedClient.fetch())
+                .thenReturn(List.of(new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f), newer));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verify(weatherDataRepository).saveAll(List.of(newer));
+        verify(latestWeatherData).update(List.of(newer));
+        verify(weatherHistory).append(List.of(newer));
+        verify(changeVersions).bump(ChangeTopic.WEATHER);
+    }
+
+    @Test
+    void execute_WithUnchangedReport_ShouldNotSaveOrAnnounceWeatherData() throws IOException {
+        // Arrange
+        WeatherData stored = new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f);
+        when(weatherDataRepository.findFirstByCityOrderByTimestampDesc(City.TALLINN)).thenReturn(stored);
+        when(weatherFeedClient.fetch()).thenReturn(List.of(new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f)));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verify(weatherDataRepository, never()).saveAll(any());
+        verifyNoInteractions(latestWeatherData, weatherHistory, changeVersions);
+        assertEquals(NOW, collectWeatherReport.getLastSuccess());
+    }
+
+    @Test
+    void execute_WithFailingFeed_ShouldScheduleRetryWithBackoff() throws IOException {
+        // Arrange
+        when(weatherFeedClient.fetch()).thenThrow(new IOException("Feed unavailable"));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        Instant retry = captureScheduledRetry();
+        assertFalse(retry.isBefore(NOW.plus(INITIAL_DELAY.dividedBy(2))));
+        assertFalse(retry.isAfter(NOW.plus(INITIAL_DELAY)));
+        verify(weatherDataRepository, never()).saveAll(any());
+        verifyNoInteractions(latestWeatherData);
+    }
+
+    @Test
+    void execute_WithFailingDatabase_ShouldScheduleRetryWithBackoff() throws IOException {
+        // Arrange
+        when(weatherFeedClient.fetch()).thenReturn(List.of(new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f)));
+        when(weatherDataRepository.saveAll(any())).thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        Instant retry = captureScheduledRetry();
+        assertFalse(retry.isBefore(NOW.plus(INITIAL_DELAY.dividedBy(2))));
+        assertFalse(retry.isAfter(NOW.plus(INITIAL_DELAY)));
+        assertEquals(1, collectWeatherReport.getConsecutiveFailures());
+        verifyNoInteractions(latestWeatherData, weatherHistory, changeVersions);
+        assertNull(collectWeatherReport.getLastSuccess());
+    }
+
+    @Test
+    void execute_WithRepeatedlyFailingFeed_ShouldOpenCircuitAndStopFetching() throws IOException {
+        // Arrange
+        when(weatherFeedClient.fetch()).thenThrow(new IOException("Feed unavailable"));
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            collectWeatherReport.execute();
+        }
+
+        // Assert
+        verify(weatherFeedClient, times(3)).fetch();
+        assertEquals(CircuitBreaker.State.OPEN, collectWeatherReport.getCircuitState());
+        assertEquals(NOW.plus(OPEN_DURATION), collectWeatherReport.getNextRetry());
+    }
+
+    @Test
+    void collectInitialReport_WhenReady_ShouldCollectInBackgroundAndAnnounceOutcome() throws IOException {
+        // Arrange
+        when(weatherFeedClient.fetch()).thenReturn(List.of(new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f)));
+
+        // Act
+        collectWeatherReport.collectInitialReport();
+
+        // Assert
+        verifyNoInteractions(weatherFeedClient);
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(captor.capture(), eq(NOW));
+        captor.getValue().run();
+        verify(weatherDataRepository).saveAll(any());
+        verify(eventPublisher).publishEvent(new InitialCollectionFinishedEvent(true));
+    }
+
+    @Test
+    void execute_OnNodeThatIsNotLeader_ShouldNotFetch() {
+        // Arrange
+        when(leaderElection.acquire()).thenReturn(null);
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verifyNoInteractions(weatherFeedClient, weatherDataRepository, latestWeatherData, weatherHistory, taskScheduler);
+    }
+
+    @Test
+    void execute_AfterLeaseLost_ShouldDiscardWeatherData() throws IOException {
+        // Arrange
+        when(weatherFeedClient.fetch()).thenReturn(List.of(new WeatherData(1L, City.TALLINN, 1, "", 1.0f, 1.0f)));
+        when(leaderElection.runFenced(eq(LEASE), any())).thenThrow(new LeaseLostException("Lost"));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verifyNoInteractions(latestWeatherData, changeVersions, taskScheduler);
+        assertNull(collectWeatherReport.getLastSuccess());
+    }
+
+    @Test
+    void execute_WithWindAtFeeBoundary_ShouldPollAgainBeforeNextCronTick() throws IOException {
+        // Arrange
+        when(feeConfigurationService.current()).thenReturn(
+                feesWithWeatherFees(new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 20f, null, null)));
+        when(weatherFeedClient.fetch()).thenReturn(List.of(new WeatherData(1L, City.TARTU, 1, "", 1.0f, 20.0f)));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verify(taskScheduler).schedule(any(Runnable.class), eq(NOW.plus(MIN_POLL_INTERVAL)));
+        assertEquals(NOW.plus(MIN_POLL_INTERVAL), collectWeatherReport.getNextPoll());
+    }
+
+    @Test
+    void execute_WithCalmWeather_ShouldWaitForNextCronTick() throws IOException {
+        // Arrange
+        when(feeConfigurationService.current()).thenReturn(
+                feesWithWeatherFees(new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 20f, null, null)));
+        when(weatherFeedClient.fetch()).thenReturn(List.of(new WeatherData(1L, City.TARTU, 1, "Clear", 1.0f, 5.0f)));
+
+        // Act
+        collectWeatherReport.execute();
+
+        // Assert
+        verifyNoInteractions(taskScheduler);
+        assertNull(collectWeatherReport.getNextPoll());
+    }
+
+    private static FeeConfiguration feesWithWeatherFees(WeatherFee... weatherFees) {
+        return new FeeConfiguration(1, NOW, "Test", List.of(), List.of(weatherFees));
+    }
+
+    private Instant captureScheduledRetry() {
+        ArgumentCaptor<Instant> captor = ArgumentCaptor.forClass(Instant.class);
+        verify(taskScheduler).schedule(any(Runnable.class), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,188 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.LatestWeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherBackfillTest {
+    private static final long FIRST_TIMESTAMP = 1711374346L;
+    private static final int CITY_COUNT = City.values().length;
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private LatestWeatherData latestWeatherData;
+
+    @Mock
+    private WeatherHistory weatherHistory;
+
+    @Mock
+    private ChangeVersions changeVersions;
+
+    @TempDir
+    private Path baseDirectory;
+
+    private WeatherBackfill backfill;
+    private String sampleReport;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backfill = new WeatherBackfill(weatherDataRepository, latestWeatherData, weatherHistory, changeVersions,
+                WeatherStationsTest.ownStations(), baseDirectory, 4, 6);
+        try (InputStream inputStream = getClass().getResourceAsStream("/sample_weather_data.xml")) {
+            sampleReport = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        lenient().when(weatherDataRepository.findTimestampsByCityBetween(any(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void backfill_WithArchivedReports_ShouldSaveEveryObservation() throws IOException {
+        // Arrange
+        Path archive = createArchive("archive", 5);
+
+        // Act
+        WeatherBackfill.BackfillReport report = backfill.backfill(archive.getFileName().toString());
+
+        // Assert
+        assertEquals(5, report.pendingFiles());
+        assertEquals(5 * CITY_COUNT, report.savedObservations());
+        assertEquals(0, report.duplicateObservations());
+        assertEquals(5 * CITY_COUNT, savedObservations().size());
+        verify(changeVersions).bump(ChangeTopic.WEATHER_HISTORY);
+    }
+
+    @Test
+    void backfill_WithDuplicateReports_ShouldSaveEachObservationOnce() throws IOException {
+        // Arrange
+        Path archive = createArchive("archive", 2);
+        Files.writeString(archive.resolve("copy.xml"), reportAt(FIRST_TIMESTAMP));
+
+        // Act
+        WeatherBackfill.BackfillReport report = backfill.backfill("archive");
+
+        // Assert
+        assertEquals(3 * CITY_COUNT, report.parsedObservations());
+        assertEquals(2 * CITY_COUNT, report.savedObservations());
+        assertEquals(CITY_COUNT, report.duplicateObservations());
+    }
+
+    @Test
+    void backfill_WithAlreadyStoredObservations_ShouldSkipThem() throws IOException {
+        // Arrange
+        createArchive("archive", 2);
+        when(weatherDataRepository.findTimestampsByCityBetween(eq(City.TALLINN), any(), any()))
+                .thenReturn(List.of(FIRST_TIMESTAMP));
+
+        // Act
+        WeatherBackfill.BackfillReport report = backfill.backfill("archive");
+
+        // Assert
+        assertEquals(2 * CITY_COUNT - 1, report.savedObservations());
+        assertTrue(savedObservations().stream()
+                .noneMatch(data -> data.getCity() == City.TALLINN && data.getTimestamp() == FIRST_TIMESTAMP));
+    }
+
+    @Test
+    void backfill_WhenRunAgain_ShouldResumeFromCheckpoint() throws IOException {
+        // Arrange
+        Path archive = createArchive("archive", 3);
+        backfill.backfill("archive");
+        Files.writeString(archive.resolve("report-9.xml"), reportAt(FIRST_TIMESTAMP + 9 * 3600));
+        clearInvocations(weatherDataRepository);
+
+        // Act
+        WeatherBackfill.BackfillReport report = backfill.backfill("archive");
+
+        // Assert
+        assertEquals(1, report.pendingFiles());
+        assertEquals(3, report.checkpointedFiles());
+        assertEquals(CITY_COUNT, savedObservations().size());
+    }
+
+    @Test
+    void backfill_WithMalformedReport_ShouldCountFailureAndContinue() throws IOException {
+        // Arrange
+        Path archive = createArchive("archive", 1);
+        Files.writeString(archive.resolve("broken.xml"), "<observations timestamp=");
+
+        // Act
+        WeatherBackfill.BackfillReport report = backfill.backfill("archive");
+
+        // Assert
+        assertEquals(1, report.failedFiles());
+        assertEquals(CITY_COUNT, report.savedObservations());
+    }
+
+    @Test
+    void backfill_AfterMalformedReportIsFixed_ShouldRetryIt() throws IOException {
+        // Arrange
+        Path archive = createArchive("archive", 1);
+        Files.writeString(archive.resolve("broken.xml"), "<observations timestamp=");
+        backfill.backfill("archive");
+        Files.writeString(archive.resolve("broken.xml"), reportAt(FIRST_TIMESTAMP + 9 * 3600));
+        clearInvocations(weatherDataRepository);
+
+        // Act
+        WeatherBackfill.BackfillReport report = backfill.backfill("archive");
+
+        // Assert
+        assertEquals(1, report.pendingFiles());
+        assertEquals(1, report.checkpointedFiles());
+        assertEquals(0, report.failedFiles());
+        assertEquals(CITY_COUNT, savedObservations().size());
+    }
+
+    @Test
+    void backfill_WithDirectoryOutsideBaseDirectory_ShouldThrowException() {
+        assertThrows(InvalidRequestException.class, () -> backfill.backfill("../outside"));
+        verify(weatherDataRepository, never()).saveAll(any());
+    }
+
+    private Path createArchive(String name, int reportCount) throws IOException {
+        Path archive = Files.createDirectory(baseDirectory.resolve(name));
+        for (int i = 0; i < reportCount; i++) {
+            Files.writeString(archive.resolve("report-" + i + ".xml"), reportAt(FIRST_TIMESTAMP + i * 3600L));
+        }
+        return archive;
+    }
+
+    private String reportAt(long timestamp) {
+        return sampleReport.replace("timestamp=\"" + FIRST_TIMESTAMP + "\"", "timestamp=\"" + timestamp + "\"");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<WeatherData> savedObservations() {
+        ArgumentCaptor<List<WeatherData>> captor = ArgumentCaptor.forClass(List.class);
+        verify(weatherDataRepository, atLeastOnce()).saveAll(captor.capture());
+        List<WeatherData> saved = new ArrayList<>();
+        captor.getAllValues().forEach(saved::addAll);
+        return saved;
+    }
+}
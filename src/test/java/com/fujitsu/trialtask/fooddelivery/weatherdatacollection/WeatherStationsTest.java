@@ -0,0 +1,97 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
+
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.StationAggregation;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherStationsTest {
+    private static final long TIMESTAMP = 1711374346L;
+    private static final List<String> SEVERITY = List.of("thunder", "hail", "glaze", "snow", "sleet", "rain", "shower");
+
+    /**
+     * Creates the default mapping, where every city uses its own station only.
+     */
+    static WeatherStations ownStations() {
+        return new WeatherStations(new WeatherStationsProperties(null, null, StationAggregation.WORST, SEVERITY));
+    }
+
+    @Test
+    void citiesOf_WithStationSharedByCities_ReturnsAllOfThem() {
+        // Arrange
+        WeatherStations stations = stations(StationAggregation.WORST);
+
+        // Act & Assert
+        assertEquals(List.of(City.TALLINN, City.TARTU), stations.citiesOf("Pirita"));
+        assertEquals(List.of(City.PÄRNU), stations.citiesOf(City.PÄRNU.getStation()));
+        assertTrue(stations.citiesOf("Ruhnu").isEmpty());
+    }
+
+    @Test
+    void aggregate_Worst_TakesTheWorstOfEveryValue() {
+        // Act
+        WeatherData tallinn = stations(StationAggregation.WORST).aggregate(tallinnReadings()).get(0);
+
+        // Assert
+        assertEquals(-3.0f, tallinn.getAirTemperature());
+        assertEquals(12.0f, tallinn.getWindSpeed());
+        assertEquals("light snow shower", tallinn.getPhenomenon());
+        assertEquals(26038, tallinn.getWmocode());
+        assertEquals(TIMESTAMP, tallinn.getTimestamp());
+    }
+
+    @Test
+    void aggregate_WeightedMean_SkipsMissingValues() {
+        // Act
+        WeatherData tallinn = stations(StationAggregation.WEIGHTED_MEAN).aggregate(tallinnReadings()).get(0);
+
+        // Assert
+        // Harku (weight 3) reports no temperature: (-3 * 1 + 1 * 1) / 2 and (4 * 3 + 12 * 1 + 8 * 1) / 5
+        assertEquals(-1.0f, tallinn.getAirTemperature(), 0.001f);
+        assertEquals(6.4f, tallinn.getWindSpeed(), 0.001f);
+        assertEquals("light rain", tallinn.getPhenomenon());
+    }
+
+    @Test
+    void aggregate_Nearest_FallsBackToNextStationWithCompleteReport() {
+        // Act
+        WeatherData tallinn = stations(StationAggregation.NEAREST).aggregate(tallinnReadings()).get(0);
+
+        // Assert
+        assertEquals(-3.0f, tallinn.getAirTemperature());
+        assertEquals(12.0f, tallinn.getWindSpeed());
+        assertEquals(86094, tallinn.getWmocode());
+    }
+
+    @Test
+    void aggregate_WithSingleStation_KeepsItsObservation() {
+        // Arrange
+        WeatherData tartu = new WeatherData(TIMESTAMP, City.TARTU, 26242, "clear", 5.0f, 2.0f);
+
+        // Act
+        List<WeatherData> aggregated = ownStations().aggregate(List.of(new WeatherStations.Reading("Tartu-Tõravere", tartu)));
+
+        // Assert
+        assertEquals(List.of(tartu), aggregated);
+    }
+
+    private static WeatherStations stations(StationAggregation aggregation) {
+        return new WeatherStations(new WeatherStationsProperties(
+                Map.of(City.TALLINN, List.of("Tallinn-Harku", "Pirita", "Rohuneeme"),
+                        City.TARTU, List.of("Tartu-Tõravere", "Pirita")),
+                Map.of("Tallinn-Harku", 3.0), aggregation, SEVERITY));
+    }
+
+    // In the reverse order of distance, as the feed doesn't list the stations by city
+    private static List<WeatherStations.Reading> tallinnReadings() {
+        return List.of(
+                new WeatherStations.Reading("Rohuneeme", new WeatherData(TIMESTAMP, City.TALLINN, 26045, "Light snow shower", 1.0f, 8.0f)),
+                new WeatherStations.Reading("Pirita", new WeatherData(TIMESTAMP, City.TALLINN, 86094, null, -3.0f, 12.0f)),
+                new WeatherStations.Reading("Tallinn-Harku", new WeatherData(TIMESTAMP, City.TALLINN, 26038, "Light rain", null, 4.0f)));
+    }
+}
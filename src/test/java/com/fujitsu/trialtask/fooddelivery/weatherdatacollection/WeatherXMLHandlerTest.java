@@ -1,6 +1,7 @@
 package com.fujitsu.trialtask.fooddelivery.weatherdatacollection;
 
 import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.StationAggregation;
 import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.RepeatedTest;
@@ -18,11 +19,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -46,7 +49,7 @@ class WeatherXMLHandlerTest {
     @RepeatedTest(10)
     void weatherXMLHandler_WithMockedElements_ShouldParseWeatherData() {
         // Arrange
-        handler = new WeatherXMLHandler();
+        handler = new WeatherXMLHandler(WeatherStationsTest.ownStations());
         long timestamp = RANDOM.nextLong(3_000_000_000L);
         int wmocode = RANDOM.nextInt(20_000, 30_000);
         City city = getRandomCity();
@@ -97,10 +100,38 @@ class WeatherXMLHandlerTest {
         assertEquals(wmocode, weatherData.getWmocode());
         assertEquals(airTemperature, weatherData.getAirTemperature());
         assertEquals(windSpeed, weatherData.getWindSpeed());
+        assertEquals(0.0f, weatherData.getPrecipitation());
+        assertEquals(10.0f, weatherData.getVisibility());
+        assertEquals(20.0f, weatherData.getWindGust());
+        assertEquals(68.0f, weatherData.getRelativeHumidity());
         assertEquals(phenomenon.toLowerCase(), weatherData.getPhenomenon());
         assertEquals(timestamp, weatherData.getTimestamp());
     }
 
+    @Test
+    void weatherXMLHandler_WithMalformedOrMissingValues_ShouldLeaveThemUnset() {
+        // Arrange
+        handler = new WeatherXMLHandler(WeatherStationsTest.ownStations());
+        Attributes attributes = mock(Attributes.class);
+        when(attributes.getValue("timestamp")).thenReturn("1711368000");
+
+        // Act
+        handler.startElement("", "", "observations", attributes);
+        handler.startElement("", "", "station", null);
+        handler.characters(new char[]{}, 0, 0);
+        handleXmlElement("name", City.TALLINN.getStation());
+        handleXmlElement("visibility", "n/a");
+        handleXmlElement("airtemperature", "-2.5");
+        handler.endElement("", "", "station");
+        handler.endElement("", "", "observations");
+
+        // Assert
+        WeatherData weatherData = handler.getParsedWeatherData().get(0);
+        assertEquals(-2.5f, weatherData.getAirTemperature());
+        assertNull(weatherData.getVisibility());
+        assertNull(weatherData.getWindGust());
+    }
+
     @Test
     void weatherXMLHandler_WithXMLFile_ShouldParseWeatherData() throws ParserConfigurationException, SAXException, IOException {
         // Arrange
@@ -109,7 +140,7 @@ class WeatherXMLHandlerTest {
         InputStream xmlInputStream = getClass().getResourceAsStream("/sample_weather_data.xml");
 
         // Act
-        WeatherXMLHandler handler = new WeatherXMLHandler();
+        WeatherXMLHandler handler = new WeatherXMLHandler(WeatherStationsTest.ownStations());
         saxParser.parse(xmlInputStream, handler);
 
         // Assert, that all cities are present in the parsed data and there are no duplicates
@@ -118,4 +149,26 @@ class WeatherXMLHandlerTest {
         assertEquals(cityCount, parsedWeatherData.stream().map(WeatherData::getCity).collect(Collectors.toSet()).size());
         assertEquals(cityCount, parsedWeatherData.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void weatherXMLHandler_WithSeveralStationsPerCity_ShouldCombineThemInOnePass() throws ParserConfigurationException, SAXException, IOException {
+        // Arrange
+        SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+        InputStream xmlInputStream = getClass().getResourceAsStream("/sample_weather_data.xml");
+        WeatherStations stations = new WeatherStations(new WeatherStationsProperties(
+                Map.of(City.TALLINN, List.of("Tallinn-Harku", "Pirita"), City.TARTU, List.of("Tartu-Tõravere", "Pirita")),
+                null, StationAggregation.WORST, List.of()));
+
+        // Act
+        WeatherXMLHandler handler = new WeatherXMLHandler(stations);
+        saxParser.parse(xmlInputStream, handler);
+
+        // Assert
+        List<WeatherData> parsedWeatherData = handler.getParsedWeatherData();
+        assertEquals(City.values().length, parsedWeatherData.size());
+        WeatherData tallinn = parsedWeatherData.stream().filter(data -> data.getCity() == City.TALLINN).findFirst().orElseThrow();
+        assertEquals(0.7f, tallinn.getAirTemperature());
+        assertEquals(4.9f, tallinn.getWindSpeed());
+        assertEquals(26038, tallinn.getWmocode());
+    }
+}
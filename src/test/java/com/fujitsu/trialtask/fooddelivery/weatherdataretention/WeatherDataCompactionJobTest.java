@@ -0,0 +1,199 @@
+package com.fujitsu.trialtask.fooddelivery.weatherdataretention;
+
+import com.fujitsu.trialtask.fooddelivery.clustersync.ChangeVersions;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.enums.ChangeTopic;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.SummaryResolution;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherData;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherDataRepository;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherHistory;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherSummary;
+import com.fujitsu.trialtask.fooddelivery.weatherdata.WeatherSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class WeatherDataCompactionJobTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+    private static final long OLD_HOUR = NOW.minus(Duration.ofDays(40)).getEpochSecond() / 3600 * 3600;
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private WeatherSummaryRepository weatherSummaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final WeatherHistory weatherHistory = mock(WeatherHistory.class);
+
+    private final ChangeVersions changeVersions = mock(ChangeVersions.class);
+
+    @Test
+    void compact_WithOldWeatherData_ShouldReplaceItWithSummary() {
+        // Arrange
+        weatherDataRepository.saveAll(List.of(
+                weatherData(OLD_HOUR + 60, -2.0f, 4.0f, "Light snow shower"),
+                weatherData(OLD_HOUR + 1200, 0.0f, 8.0f, "Light snow shower"),
+                weatherData(OLD_HOUR + 2400, 5.0f, 6.0f, "Clear")));
+        WeatherData recent = weatherDataRepository.save(weatherData(NOW.getEpochSecond() - 600, 1.0f, 2.0f, ""));
+
+        // Act
+        int compacted = job(1000).compact();
+
+        // Assert
+        assertEquals(3, compacted);
+        assertEquals(List.of(recent), weatherDataRepository.findAll());
+        verify(weatherHistory).dropBefore(NOW.minus(Duration.ofDays(30)).getEpochSecond() / 3600 * 3600);
+        verify(changeVersions).bump(ChangeTopic.WEATHER_HISTORY);
+        WeatherSummary summary = weatherSummaryRepository
+                .findByCityAndResolutionAndPeriodStart(City.TALLINN, SummaryResolution.HOURLY, OLD_HOUR);
+        assertEquals(3, summary.getSampleCount());
+        assertEquals(-2.0f, summary.getMinAirTemperature());
+        assertEquals(5.0f, summary.getMaxAirTemperature());
+        assertEquals(1.0f, summary.getMeanAirTemperature(), 0.001f);
+        assertEquals(4.0f, summary.getMinWindSpeed());
+        assertEquals(8.0f, summary.getMaxWindSpeed());
+        assertEquals(6.0f, summary.getMeanWindSpeed(), 0.001f);
+        assertEquals("light snow shower", summary.getDominantPhenomenon());
+    }
+
+    @Test
+    void compact_WithEveryNumericCondition_ShouldSummarizeEachOfThem() {
+        // Arrange
+        WeatherData first = weatherData(OLD_HOUR + 60, -2.0f, 4.0f, "Rain");
+        first.setPrecipitation(0.4f);
+        first.setVisibility(12.0f);
+        first.setWindGust(9.0f);
+        first.setRelativeHumidity(80.0f);
+        WeatherData second = weatherData(OLD_HOUR + 1200, 0.0f, 8.0f, "Rain");
+        second.setPrecipitation(1.2f);
+        second.setWindGust(15.0f);
+        second.setRelativeHumidity(90.0f);
+        weatherDataRepository.saveAll(List.of(first, second));
+
+        // Act
+        job(1000).compact();
+
+        // Assert
+        WeatherSummary summary = weatherSummaryRepository
+                .findByCityAndResolutionAndPeriodStart(City.TALLINN, SummaryResolution.HOURLY, OLD_HOUR);
+        assertEquals(new WeatherSummary.Statistics(0.4f, 1.2f, 0.8f, 2),
+                summary.getStatistics(WeatherCondition.PRECIPITATION));
+        assertEquals(new WeatherSummary.Statistics(12.0f, 12.0f, 12.0f, 1),
+                summary.getStatistics(WeatherCondition.VISIBILITY));
+        assertEquals(new WeatherSummary.Statistics(9.0f, 15.0f, 12.0f, 2),
+                summary.getStatistics(WeatherCondition.WIND_GUST));
+        assertEquals(new WeatherSummary.Statistics(80.0f, 90.0f, 85.0f, 2),
+                summary.getStatistics(WeatherCondition.RELATIVE_HUMIDITY));
+        assertEquals(2, summary.getAirTemperatureCount());
+        assertEquals(2, summary.getWindSpeedCount());
+    }
+
+    @Test
+    void compact_WithMoreWeatherDataThanBatchSize_ShouldSummarizeEveryPeriodOnce() {
+        // Arrange
+        List<WeatherData> weatherData = new ArrayList<>();
+        for (int hour = 0; hour < 5; hour++) {
+            for (int minute = 0; minute < 3; minute++) {
+                weatherData.add(weatherData(OLD_HOUR + hour * 3600L + minute * 60L, hour, minute, null));
+            }
+        }
+        weatherDataRepository.saveAll(weatherData);
+
+        // Act
+        int compacted = job(4).compact();
+
+        // Assert
+        assertEquals(15, compacted);
+        assertEquals(0, weatherDataRepository.count());
+        assertEquals(5, weatherSummaryRepository.count());
+        weatherSummaryRepository.findAll().forEach(summary -> {
+            assertEquals(3, summary.getSampleCount());
+            assertEquals(1.0f, summary.getMeanWindSpeed(), 0.001f);
+        });
+    }
+
+    @Test
+    void compact_WithPeriodLargerThanBatchSize_ShouldSummarizeItAsAWhole() {
+        // Arrange
+        List<WeatherData> weatherData = new ArrayList<>();
+        for (int minute = 0; minute < 5; minute++) {
+            weatherData.add(weatherData(OLD_HOUR + minute * 60L, minute, minute, minute < 2 ? "Rain" : "Snow"));
+        }
+        weatherData.add(weatherData(OLD_HOUR + 3600, 9.0f, 9.0f, "Clear"));
+        weatherDataRepository.saveAll(weatherData);
+
+        // Act
+        int compacted = job(2).compact();
+
+        // Assert
+        assertEquals(6, compacted);
+        assertEquals(2, weatherSummaryRepository.count());
+        WeatherSummary summary = weatherSummaryRepository
+                .findByCityAndResolutionAndPeriodStart(City.TALLINN, SummaryResolution.HOURLY, OLD_HOUR);
+        assertEquals(5, summary.getSampleCount());
+        assertEquals(0.0f, summary.getMinAirTemperature());
+        assertEquals(4.0f, summary.getMaxAirTemperature());
+        assertEquals(2.0f, summary.getMeanAirTemperature(), 0.001f);
+        assertEquals("snow", summary.getDominantPhenomenon());
+    }
+
+    @Test
+    void compact_WithWeatherDataBackfilledAfterCompaction_ShouldExtendSummary() {
+        // Arrange
+        weatherDataRepository.saveAll(List.of(
+                weatherData(OLD_HOUR, 2.0f, 4.0f, "Rain"),
+                new WeatherData(OLD_HOUR + 600, City.TALLINN, 26038, "Rain", null, 6.0f)));
+        job(1000).compact();
+        weatherDataRepository.saveAll(List.of(
+                weatherData(OLD_HOUR + 1200, 4.0f, 8.0f, "Snow"),
+                new WeatherData(OLD_HOUR + 1800, City.TALLINN, 26038, "Snow", null, null),
+                new WeatherData(OLD_HOUR + 2400, City.TALLINN, 26038, "Snow", null, null)));
+
+        // Act
+        int compacted = job(1000).compact();
+
+        // Assert
+        assertEquals(3, compacted);
+        WeatherSummary summary = weatherSummaryRepository
+                .findByCityAndResolutionAndPeriodStart(City.TALLINN, SummaryResolution.HOURLY, OLD_HOUR);
+        assertEquals(5, summary.getSampleCount());
+        assertEquals(3.0f, summary.getMeanAirTemperature(), 0.001f);
+        assertEquals(2, summary.getAirTemperatureCount());
+        assertEquals(6.0f, summary.getMeanWindSpeed(), 0.001f);
+        assertEquals(3, summary.getWindSpeedCount());
+        assertEquals("snow", summary.getDominantPhenomenon());
+        assertEquals(3, summary.getDominantPhenomenonCount());
+    }
+
+    private WeatherDataCompactionJob job(int batchSize) {
+        WeatherRetentionProperties properties =
+                new WeatherRetentionProperties(Duration.ofDays(30), SummaryResolution.HOURLY, batchSize);
+        LeaderElection leaderElection = mock(LeaderElection.class);
+        when(leaderElection.acquire()).thenReturn(new LeaderElection.Lease(1));
+        return new WeatherDataCompactionJob(weatherDataRepository, weatherSummaryRepository, weatherHistory,
+                transactionManager, leaderElection, changeVersions, properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private WeatherData weatherData(long timestamp, float airTemperature, float windSpeed, String phenomenon) {
+        return new WeatherData(timestamp, City.TALLINN, 26038, phenomenon, airTemperature, windSpeed);
+    }
+}
@@ -1,21 +1,38 @@
 package com.fujitsu.trialtask.fooddelivery.weatherfee;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fujitsu.trialtask.fooddelivery.enums.City;
 import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
 import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeFileFormat;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeChangeset;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfiguration;
+import com.fujitsu.trialtask.fooddelivery.feeconfiguration.FeeConfigurationService;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFee;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeController;
 import com.fujitsu.trialtask.fooddelivery.weatherfee.WeatherFeeRepository;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
 import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +46,19 @@ class WeatherFeeControllerTest {
     @Mock
     private WeatherFeeRepository weatherFeeRepository;
 
+    @Mock
+    private FeeConfigurationService feeConfigurationService;
+
+    @Mock
+    private WeatherFeeTransfer weatherFeeTransfer;
+
+    @Spy
+    private WeatherFeeValidator weatherFeeValidator = new WeatherFeeValidator();
+
+    @Spy
+    private EntityListing entityListing = new EntityListing(
+            new ObjectMapper(), mock(EntityManager.class), mock(PlatformTransactionManager.class), 100, 1000);
+
     @InjectMocks
     private WeatherFeeController controller;
 
@@ -38,10 +68,10 @@ class WeatherFeeControllerTest {
         List<WeatherFee> expectedFees = List.of(
                 new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 1.2f),
                 new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, 15.0f, 25.0f, 1.5f));
-        when(weatherFeeRepository.findAll()).thenReturn(expectedFees);
+        when(weatherFeeRepository.findPage(eq(0L), isNull(), isNull(), any())).thenReturn(expectedFees);
 
         // Act
-        ResponseEntity<List<WeatherFee>> response = controller.getAllWeatherFees();
+        ResponseEntity<List<WeatherFee>> response = controller.getAllWeatherFees(null, null, 0L, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -86,6 +116,7 @@ class WeatherFeeControllerTest {
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(weatherFee, response.getBody());
+        verify(feeConfigurationService, times(1)).refresh(anyString());
     }
 
     @Test
@@ -93,22 +124,21 @@ class WeatherFeeControllerTest {
         // Arrange
         WeatherFee existingWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 1.2f);
         existingWeatherFee.setId(6L);
-        mockNoLessStrictHigherPhenomenonFee();
-        when(weatherFeeRepository.findOverlappingRange(any(), any(), any(), any())).thenReturn(existingWeatherFee.getId());
+        mockExistingWeatherFees(existingWeatherFee);
         WeatherFee newWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 15.0f, 25.0f, 1.5f);
 
         // Act & Assert
         assertThrows(EntityExistsException.class, () -> controller.createWeatherFee(newWeatherFee));
+        verify(weatherFeeRepository, never()).save(any());
     }
 
     @Test
     void createWeatherFee_WithLessStrictHigherPhenomenonFee_ThrowsEntityExistsException() {
         // Arrange
-        WeatherFee existingWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 1.2f);
+        WeatherFee existingWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "rain", 1.2f);
         existingWeatherFee.setId(6L);
-        mockNoOverlap();
-        when(weatherFeeRepository.findLessStrictHigherPhenomenonFee(any(), any(), any(), any())).thenReturn(existingWeatherFee.getId());
-        WeatherFee newWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 15.0f, 25.0f, 1.5f);
+        mockExistingWeatherFees(existingWeatherFee);
+        WeatherFee newWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "heavy rain", 1.0f);
 
         // Act & Assert
         EntityExistsException exception = assertThrows(EntityExistsException.class, () -> controller.createWeatherFee(newWeatherFee));
@@ -132,6 +162,25 @@ class WeatherFeeControllerTest {
         assertEquals(updatedWeatherFee, response.getBody());
     }
 
+    @Test
+    void updateWeatherFee_WithUnchangedRange_DoesNotConflictWithItself() {
+        // Arrange
+        long id = 6L;
+        WeatherFee existingWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 1.2f);
+        existingWeatherFee.setId(id);
+        mockExistingWeatherFees(existingWeatherFee);
+        WeatherFee updatedWeatherFee = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 2.0f);
+        when(weatherFeeRepository.findById(id)).thenReturn(Optional.of(existingWeatherFee));
+        when(weatherFeeRepository.save(updatedWeatherFee)).thenReturn(updatedWeatherFee);
+
+        // Act
+        ResponseEntity<WeatherFee> response = controller.updateWeatherFee(id, updatedWeatherFee);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(weatherFeeRepository, never()).findOverlappingRange(any(), any(), any(), any());
+    }
+
     @Test
     void updateWeatherFee_WithNonExistingId_ThrowsEntityNotFoundException() {
         // Arrange
@@ -199,16 +248,71 @@ class WeatherFeeControllerTest {
         assertThrows(EntityNotFoundException.class, () -> controller.deleteWeatherFee(id));
     }
 
-    private void mockNoConflicts() {
-        mockNoLessStrictHigherPhenomenonFee();
-        mockNoOverlap();
+    @Test
+    void exportWeatherFees_WithNdjsonFormat_StreamsCurrentWeatherFees() throws Exception {
+        // Arrange
+        WeatherFee weatherFee = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f);
+        FeeConfiguration configuration = new FeeConfiguration(
+                7, Instant.EPOCH, "Test", List.of(), List.of(weatherFee));
+        when(feeConfigurationService.current()).thenReturn(configuration);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.exportWeatherFees("ndjson");
+        response.getBody().writeTo(outputStream);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType("application/x-ndjson"), response.getHeaders().getContentType());
+        assertEquals("7", response.getHeaders().getFirst(WeatherFeeController.FEE_CONFIGURATION_VERSION_HEADER));
+        verify(weatherFeeTransfer, times(1))
+                .write(configuration.getWeatherFees(), FeeFileFormat.NDJSON, outputStream);
+    }
+
+    @Test
+    void exportWeatherFees_WithUnsupportedFormat_ThrowsInvalidRequestException() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> controller.exportWeatherFees("xml"));
+    }
+
+    @Test
+    void importWeatherFees_WithReplaceMode_ReplacesExistingWeatherFees() throws Exception {
+        // Arrange
+        WeatherFee imported = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 2.0f);
+        FeeConfiguration published = new FeeConfiguration(2, Instant.EPOCH, "Test", List.of(), List.of(imported));
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        when(weatherFeeTransfer.read(body, FeeFileFormat.CSV)).thenReturn(List.of(imported));
+        when(feeConfigurationService.apply(any())).thenReturn(published);
+        ArgumentCaptor<FeeChangeset> changeset = ArgumentCaptor.forClass(FeeChangeset.class);
+
+        // Act
+        ResponseEntity<FeeConfiguration.Summary> response = controller.importWeatherFees("csv", "replace", body);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(2, response.getBody().version());
+        verify(feeConfigurationService).apply(changeset.capture());
+        assertEquals(List.of(imported), changeset.getValue().weatherFees());
+        assertTrue(changeset.getValue().replaceWeatherFees());
+        verify(feeConfigurationService, never()).current();
+    }
+
+    @Test
+    void importWeatherFees_WithUnsupportedMode_ThrowsInvalidRequestException() {
+        // Arrange
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> controller.importWeatherFees("csv", "merge", body));
+        verifyNoInteractions(feeConfigurationService);
     }
 
-    private void mockNoLessStrictHigherPhenomenonFee() {
-        lenient().when(weatherFeeRepository.findLessStrictHigherPhenomenonFee(any(), any(), any(), any())).thenReturn(null);
+    private void mockNoConflicts() {
+        mockExistingWeatherFees();
     }
 
-    private void mockNoOverlap() {
-        lenient().when(weatherFeeRepository.findOverlappingRange(any(), any(), any(), any())).thenReturn(null);
+    private void mockExistingWeatherFees(WeatherFee... weatherFees) {
+        when(feeConfigurationService.current())
+                .thenReturn(new FeeConfiguration(1, Instant.EPOCH, "Test", List.of(), List.of(weatherFees)));
     }
 }
@@ -0,0 +1,120 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherFeeIndexTest {
+
+    @Test
+    void findOverlappingRange_WithAdjacentRanges_ReturnsNull() {
+        // Arrange
+        WeatherFeeIndex index = WeatherFeeIndex.of(List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, null, -10.0f, 1.0f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, 0.0f, 10.0f, 0.2f)));
+        WeatherFee candidate = new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, -10.0f, 0.0f, 0.5f);
+
+        // Act & Assert
+        assertNull(index.findOverlappingRange(candidate));
+    }
+
+    @Test
+    void findOverlappingRange_WithRangeInsideLongerEarlierRange_ReturnsLongerRange() {
+        // Arrange
+        WeatherFee longer = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 0.0f, 100.0f, 1.0f);
+        WeatherFeeIndex index = WeatherFeeIndex.of(List.of(
+                longer,
+                new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 1.0f)));
+        WeatherFee candidate = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 50.0f, null, 0.5f);
+
+        // Act & Assert
+        assertSame(longer, index.findOverlappingRange(candidate));
+    }
+
+    @Test
+    void findOverlappingRange_WithSameId_IgnoresPreviousVersion() {
+        // Arrange
+        WeatherFee existing = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 1.0f);
+        existing.setId(3L);
+        WeatherFeeIndex index = WeatherFeeIndex.of(List.of(existing));
+        WeatherFee candidate = new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 12.0f, 20.0f, 1.0f);
+        candidate.setId(3L);
+
+        // Act & Assert
+        assertNull(index.findOverlappingRange(candidate));
+    }
+
+    @Test
+    void findLessStrictHigherPhenomenonFee_WithContainedPhenomenon_ReturnsIt() {
+        // Arrange
+        WeatherFee snow = new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "snow", 1.0f);
+        WeatherFeeIndex index = WeatherFeeIndex.of(List.of(
+                snow,
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "heavy", 0.1f)));
+
+        // Act & Assert
+        assertSame(snow, index.findLessStrictHigherPhenomenonFee(
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "heavy snow shower", 0.5f)));
+        assertNull(index.findLessStrictHigherPhenomenonFee(
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "heavy snow shower", 1.5f)));
+        assertNull(index.findLessStrictHigherPhenomenonFee(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "heavy snow shower", 0.5f)));
+    }
+
+    @Test
+    void find_WithRandomWeatherFees_AgreesWithPairwiseComparison() {
+        // Arrange
+        Random random = new Random(42);
+        String[] words = {"snow", "rain", "heavy", "light", "shower", "sleet", "hail"};
+        List<WeatherFee> weatherFees = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Vehicle vehicle = Vehicle.values()[random.nextInt(2)];
+            Float fee = random.nextInt(5) == 0 ? null : (float) random.nextInt(4);
+            WeatherFee weatherFee;
+            if (random.nextBoolean()) {
+                String phenomenon = words[random.nextInt(words.length)]
+                        + (random.nextBoolean() ? " " + words[random.nextInt(words.length)] : "");
+                weatherFee = new WeatherFee(vehicle, WeatherCondition.PHENOMENON, phenomenon, fee);
+            } else {
+                Float above = random.nextInt(4) == 0 ? null : (float) random.nextInt(50);
+                Float below = random.nextInt(4) == 0 || above == null ? null : above + random.nextInt(10);
+                weatherFee = new WeatherFee(vehicle, WeatherCondition.WIND_SPEED, above, below, fee);
+            }
+            weatherFee.setId((long) i);
+            weatherFees.add(weatherFee);
+        }
+        List<WeatherFee> existing = weatherFees.subList(0, 150);
+        WeatherFeeIndex index = WeatherFeeIndex.of(existing);
+
+        for (WeatherFee candidate : weatherFees) {
+            // Act
+            boolean duplicate = index.findDuplicatePhenomenon(candidate) != null;
+            boolean shadowed = index.findLessStrictHigherPhenomenonFee(candidate) != null;
+            boolean overlapping = index.findOverlappingRange(candidate) != null;
+
+            // Assert
+            List<WeatherFee> others = existing.stream()
+                    .filter(other -> !other.getId().equals(candidate.getId()))
+                    .filter(other -> other.getVehicle() == candidate.getVehicle()
+                            && other.getCondition() == candidate.getCondition())
+                    .toList();
+            assertEquals(others.stream().anyMatch(other -> candidate.getPhenomenon() != null
+                    && candidate.getPhenomenon().equals(other.getPhenomenon())), duplicate, candidate.toString());
+            assertEquals(others.stream().anyMatch(other -> candidate.getPhenomenon() != null
+                    && other.getPhenomenon() != null
+                    && candidate.getPhenomenon().contains(other.getPhenomenon())
+                    && candidate.getFee() != null && other.getFee() != null
+                    && other.getFee() >= candidate.getFee()), shadowed, candidate.toString());
+            assertEquals(others.stream().anyMatch(other -> !(other.getAbove() == null && other.getBelow() == null)
+                    && (other.getAbove() == null || candidate.getBelow() == null || other.getAbove() < candidate.getBelow())
+                    && (other.getBelow() == null || candidate.getAbove() == null || other.getBelow() > candidate.getAbove())),
+                    overlapping, candidate.toString());
+        }
+    }
+}
@@ -6,6 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -127,4 +131,39 @@ class WeatherFeeRepositoryTest {
         // Assert
         assertNull(overlappingId);
     }
+
+    @Test
+    void findPage_WithCursorAndFilter_ReturnsFollowingMatchingWeatherFees() {
+        // Arrange
+        WeatherFee first = entityManager.persist(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f));
+        entityManager.persist(new WeatherFee(Vehicle.CAR, WeatherCondition.PHENOMENON, "snow", 1.0f));
+        WeatherFee second = entityManager.persist(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "rain", 0.5f));
+        WeatherFee third = entityManager.persist(new WeatherFee(Vehicle.BIKE, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 0.5f));
+        entityManager.flush();
+
+        // Act
+        List<WeatherFee> firstPage = repository.findPage(0, Vehicle.BIKE, null, Limit.of(2));
+        List<WeatherFee> secondPage = repository.findPage(second.getId(), Vehicle.BIKE, null, Limit.of(2));
+
+        // Assert
+        assertEquals(List.of(first, second), firstPage);
+        assertEquals(List.of(third), secondPage);
+    }
+
+    @Test
+    void streamAll_WithoutFilters_StreamsAllWeatherFeesInIdOrder() {
+        // Arrange
+        WeatherFee first = entityManager.persist(new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f));
+        WeatherFee second = entityManager.persist(new WeatherFee(Vehicle.CAR, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 0.5f));
+        entityManager.flush();
+
+        // Act
+        List<WeatherFee> weatherFees;
+        try (Stream<WeatherFee> stream = repository.streamAll(null, null)) {
+            weatherFees = stream.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(first, second), weatherFees);
+    }
 }
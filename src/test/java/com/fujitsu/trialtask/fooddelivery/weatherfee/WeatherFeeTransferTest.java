@@ -0,0 +1,116 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.FeeFileFormat;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherFeeTransferTest {
+    private final WeatherFeeTransfer transfer = new WeatherFeeTransfer(
+            new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void write_WithCsvFormat_WritesHeaderAndOneRowPerWeatherFee() throws IOException {
+        // Arrange
+        WeatherFee weatherFee = new WeatherFee(Vehicle.SCOOTER, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 0.5f);
+        weatherFee.setId(4L);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        transfer.write(List.of(weatherFee), FeeFileFormat.CSV, outputStream);
+
+        // Assert
+        assertEquals("""
+                id,vehicle,condition,above,below,phenomenon,fee,validFrom,validTo
+                4,SCOOTER,WIND_SPEED,10.0,20.0,,0.5,,
+                """, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void read_WithWrittenCsv_ReturnsEqualWeatherFeesWithoutIds() throws IOException {
+        // Arrange
+        WeatherFee range = new WeatherFee(Vehicle.SCOOTER, WeatherCondition.AIR_TEMPERATURE, null, -10.0f, 1.0f);
+        range.setId(1L);
+        WeatherFee phenomenon = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "thunder", null);
+        phenomenon.setId(2L);
+        phenomenon.setValidFrom(Instant.parse("2024-06-01T00:00:00Z"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transfer.write(List.of(range, phenomenon), FeeFileFormat.CSV, outputStream);
+
+        // Act
+        List<WeatherFee> weatherFees = transfer.read(
+                new ByteArrayInputStream(outputStream.toByteArray()), FeeFileFormat.CSV);
+
+        // Assert
+        assertEquals(2, weatherFees.size());
+        assertNull(weatherFees.get(0).getId());
+        assertEquals(Vehicle.SCOOTER, weatherFees.get(0).getVehicle());
+        assertNull(weatherFees.get(0).getAbove());
+        assertEquals(-10.0f, weatherFees.get(0).getBelow());
+        assertEquals("thunder", weatherFees.get(1).getPhenomenon());
+        assertNull(weatherFees.get(1).getFee());
+        assertEquals(Instant.parse("2024-06-01T00:00:00Z"), weatherFees.get(1).getValidFrom());
+        assertNull(weatherFees.get(1).getValidTo());
+    }
+
+    @Test
+    void read_WithNdjson_ReturnsOneWeatherFeePerLine() throws IOException {
+        // Arrange
+        String ndjson = """
+                {"vehicle":"BIKE","condition":"PHENOMENON","phenomenon":"Glaze","fee":null}
+                {"vehicle":"car","condition":"windSpeed","above":10.0,"fee":0.5}
+                """;
+
+        // Act
+        List<WeatherFee> weatherFees = transfer.read(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), FeeFileFormat.NDJSON);
+
+        // Assert
+        assertEquals(2, weatherFees.size());
+        assertEquals("glaze", weatherFees.get(0).getPhenomenon());
+        assertEquals(Vehicle.CAR, weatherFees.get(1).getVehicle());
+        assertEquals(WeatherCondition.WIND_SPEED, weatherFees.get(1).getCondition());
+    }
+
+    @Test
+    void read_WithConstraintViolation_ThrowsInvalidRequestExceptionNamingRecord() {
+        // Arrange
+        String csv = """
+                vehicle,condition,above,below,phenomenon,fee
+                BIKE,PHENOMENON,,,snow,1.0
+                BIKE,WIND_SPEED,,,,1.0
+                """;
+
+        // Act
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> transfer.read(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), FeeFileFormat.CSV));
+
+        // Assert
+        assertTrue(exception.getMessage().startsWith("Invalid weather fee at record 2"));
+    }
+
+    @Test
+    void read_WithUnknownColumn_ThrowsInvalidRequestException() {
+        // Arrange
+        String csv = """
+                vehicle,condition,colour
+                BIKE,PHENOMENON,red
+                """;
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> transfer.read(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), FeeFileFormat.CSV));
+    }
+}
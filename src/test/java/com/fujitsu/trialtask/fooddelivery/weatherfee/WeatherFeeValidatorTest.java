@@ -0,0 +1,67 @@
+package com.fujitsu.trialtask.fooddelivery.weatherfee;
+
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.WeatherCondition;
+import jakarta.persistence.EntityExistsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherFeeValidatorTest {
+    private final WeatherFeeValidator validator = new WeatherFeeValidator();
+
+    @Test
+    void validate_WithConsistentWeatherFees_DoesNotThrow() {
+        // Arrange
+        List<WeatherFee> weatherFees = List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, null, -10.0f, 1.0f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.AIR_TEMPERATURE, -10.0f, 0.0f, 0.5f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "heavy snow", 2.0f),
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.PHENOMENON, "snow", 1.0f));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> validator.validate(weatherFees));
+    }
+
+    @Test
+    void validate_WithDuplicatePhenomenon_ThrowsEntityExistsException() {
+        // Arrange
+        List<WeatherFee> weatherFees = List.of(
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "Rain", 0.5f),
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "rain", 0.6f));
+
+        // Act & Assert
+        assertThrows(EntityExistsException.class, () -> validator.validate(weatherFees));
+    }
+
+    @Test
+    void validate_WithLessStrictHigherPhenomenonFee_ThrowsEntityExistsException() {
+        // Arrange
+        WeatherFee lessStrict = new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "snow", 1.0f);
+        lessStrict.setId(3L);
+        List<WeatherFee> weatherFees = List.of(
+                lessStrict,
+                new WeatherFee(Vehicle.BIKE, WeatherCondition.PHENOMENON, "heavy snow", 0.5f));
+
+        // Act
+        EntityExistsException exception = assertThrows(EntityExistsException.class,
+                () -> validator.validate(weatherFees));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("id: 3"));
+    }
+
+    @Test
+    void validate_WithOverlappingRanges_ThrowsEntityExistsException() {
+        // Arrange
+        List<WeatherFee> weatherFees = List.of(
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.WIND_SPEED, 10.0f, 20.0f, 0.5f),
+                new WeatherFee(Vehicle.SCOOTER, WeatherCondition.WIND_SPEED, 15.0f, 25.0f, 1.0f));
+
+        // Act & Assert
+        assertThrows(EntityExistsException.class, () -> validator.validate(weatherFees));
+    }
+}
@@ -0,0 +1,110 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.delivery.DeliveryFeeChangedEvent;
+import com.fujitsu.trialtask.fooddelivery.delivery.FeeCellState;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.Vehicle;
+import com.fujitsu.trialtask.fooddelivery.enums.VehicleAvailability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityWebhooksTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Mock
+    private WebhookSubscriptionRepository webhookSubscriptionRepository;
+
+    @Mock
+    private WebhookDeliveryRepository webhookDeliveryRepository;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private AvailabilityWebhooks availabilityWebhooks;
+
+    @BeforeEach
+    void setUp() {
+        availabilityWebhooks = new AvailabilityWebhooks(webhookSubscriptionRepository, webhookDeliveryRepository,
+                leaderElection, objectMapper, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onDeliveryFeeChanged_WhenAvailabilityFlips_QueuesDeliveryForEveryCoveringSubscription() throws Exception {
+        // Arrange
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(webhookSubscriptionRepository.findAll()).thenReturn(List.of(
+                subscription(1L, "http://all.example", null, null),
+                subscription(2L, "http://tartu.example", City.TARTU, null),
+                subscription(3L, "http://tallinn-bike.example", City.TALLINN, Vehicle.BIKE),
+                subscription(4L, "http://tallinn-car.example", City.TALLINN, Vehicle.CAR)));
+
+        // Act
+        availabilityWebhooks.onDeliveryFeeChanged(new DeliveryFeeChangedEvent(
+                state(VehicleAvailability.AVAILABLE, 3.5f, null),
+                state(VehicleAvailability.FORBIDDEN, null, "Usage of selected vehicle type is forbidden")));
+
+        // Assert
+        ArgumentCaptor<List<WebhookDelivery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(webhookDeliveryRepository).saveAll(captor.capture());
+        List<WebhookDelivery> deliveries = captor.getValue();
+        assertEquals(List.of(1L, 3L), deliveries.stream().map(WebhookDelivery::getSubscriptionId).toList());
+        JsonNode payload = objectMapper.readTree(deliveries.get(0).getPayload());
+        assertEquals("AVAILABLE", payload.get("previousAvailability").asText());
+        assertEquals("FORBIDDEN", payload.get("availability").asText());
+        assertEquals(NOW, deliveries.get(0).getNextAttemptAt());
+    }
+
+    @Test
+    void onDeliveryFeeChanged_WhenOnlyFeeChanges_QueuesNothing() {
+        // Act
+        availabilityWebhooks.onDeliveryFeeChanged(new DeliveryFeeChangedEvent(
+                state(VehicleAvailability.AVAILABLE, 3.5f, null),
+                state(VehicleAvailability.AVAILABLE, 4f, null)));
+
+        // Assert
+        verifyNoInteractions(webhookSubscriptionRepository, webhookDeliveryRepository);
+    }
+
+    @Test
+    void onDeliveryFeeChanged_OnFollower_QueuesNothing() {
+        // Arrange
+        when(leaderElection.isLeader()).thenReturn(false);
+
+        // Act
+        availabilityWebhooks.onDeliveryFeeChanged(new DeliveryFeeChangedEvent(
+                state(VehicleAvailability.AVAILABLE, 3.5f, null),
+                state(VehicleAvailability.STALE_WEATHER, null, "Weather data is stale")));
+
+        // Assert
+        verifyNoInteractions(webhookSubscriptionRepository, webhookDeliveryRepository);
+    }
+
+    private static FeeCellState state(VehicleAvailability availability, Float fee, String detail) {
+        return new FeeCellState(City.TALLINN, Vehicle.BIKE, availability, fee, detail, NOW, 1);
+    }
+
+    private static WebhookSubscription subscription(Long id, String url, City city, Vehicle vehicle) {
+        WebhookSubscription subscription = new WebhookSubscription(url, city, vehicle);
+        subscription.setId(id);
+        return subscription;
+    }
+}
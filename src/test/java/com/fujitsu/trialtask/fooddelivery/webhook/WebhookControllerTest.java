@@ -0,0 +1,90 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.enums.City;
+import com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus;
+import com.fujitsu.trialtask.fooddelivery.exceptions.InvalidRequestException;
+import com.fujitsu.trialtask.fooddelivery.helpers.EntityListing;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookControllerTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+
+    @Mock
+    private WebhookSubscriptionRepository webhookSubscriptionRepository;
+
+    @Mock
+    private WebhookDeliveryRepository webhookDeliveryRepository;
+
+    private WebhookController controller;
+
+    @BeforeEach
+    void setUp() {
+        EntityListing entityListing = new EntityListing(
+                new ObjectMapper(), mock(EntityManager.class), mock(PlatformTransactionManager.class), 100, 1000);
+        controller = new WebhookController(webhookSubscriptionRepository, webhookDeliveryRepository, entityListing,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void createSubscription_WithHttpsUrl_ReturnsCreated() {
+        // Arrange
+        WebhookSubscription subscription = new WebhookSubscription("https://partner.example/hooks", City.TARTU, null);
+        when(webhookSubscriptionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ResponseEntity<WebhookSubscription> response = controller.createSubscription(subscription);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(NOW, response.getBody().getCreatedAt());
+    }
+
+    @Test
+    void createSubscription_WithRelativeOrNonHttpUrl_ThrowsInvalidRequestException() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> controller.createSubscription(new WebhookSubscription("/hooks", null, null)));
+        assertThrows(InvalidRequestException.class,
+                () -> controller.createSubscription(new WebhookSubscription("ftp://partner.example", null, null)));
+        verifyNoInteractions(webhookSubscriptionRepository);
+    }
+
+    @Test
+    void getDeliveries_WithUnknownSubscription_ThrowsEntityNotFoundException() {
+        // Arrange
+        when(webhookSubscriptionRepository.existsById(7L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> controller.getDeliveries(7L, null));
+    }
+
+    @Test
+    void deleteSubscription_DropsPendingDeliveries() {
+        // Act
+        ResponseEntity<Void> response = controller.deleteSubscription(7L);
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(webhookSubscriptionRepository).deleteById(7L);
+        verify(webhookDeliveryRepository).deleteBySubscriptionIdAndStatus(7L, WebhookDeliveryStatus.PENDING);
+    }
+}
@@ -0,0 +1,210 @@
+package com.fujitsu.trialtask.fooddelivery.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.trialtask.fooddelivery.clustersync.LeaderElection;
+import com.fujitsu.trialtask.fooddelivery.enums.WebhookDeliveryStatus;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WebhookDispatcherTest {
+    private static final Instant NOW = Instant.parse("2024-03-25T12:00:00Z");
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(10);
+    private static final String PAYLOAD = "{\"city\":\"TALLINN\",\"availability\":\"FORBIDDEN\"}";
+
+    @Autowired
+    private WebhookDeliveryRepository webhookDeliveryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LeaderElection leaderElection = mock(LeaderElection.class);
+    private final Clock clock = mock(Clock.class);
+    private final ExecutorService receiverExecutor = Executors.newCachedThreadPool();
+    private final CountDownLatch slowReceiverRelease = new CountDownLatch(1);
+
+    // Local partner endpoints
+    private Receiver fast;
+    private Receiver failing;
+    private Receiver slow;
+
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(clock.instant()).thenReturn(NOW);
+        when(leaderElection.isLeader()).thenReturn(true);
+        fast = new Receiver("/fast", 200, null);
+        failing = new Receiver("/failing", 500, null);
+        slow = new Receiver("/slow", 200, slowReceiverRelease);
+        dispatcher = new WebhookDispatcher(webhookDeliveryRepository, leaderElection, transactionManager,
+                mock(TaskScheduler.class), objectMapper, new WebhookProperties(Duration.ofSeconds(1), 100, 1,
+                Duration.ofSeconds(5), 2, INITIAL_BACKOFF, Duration.ofMinutes(10)), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowReceiverRelease.countDown();
+        fast.server.stop(0);
+        failing.server.stop(0);
+        slow.server.stop(0);
+        receiverExecutor.shutdownNow();
+        webhookDeliveryRepository.deleteAll();
+    }
+
+    @Test
+    void dispatch_BatchesDueDeliveriesPerEndpoint() throws Exception {
+        // Arrange
+        WebhookDelivery first = queue(1L, fast.url);
+        WebhookDelivery second = queue(2L, fast.url);
+
+        // Act
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, fast.requests.size());
+        JsonNode batch = objectMapper.readTree(fast.requests.get(0));
+        assertEquals(2, batch.size());
+        assertEquals(first.getId(), batch.get(0).get("deliveryId").asLong());
+        assertEquals(second.getId(), batch.get(1).get("deliveryId").asLong());
+        assertEquals("FORBIDDEN", batch.get(0).get("event").get("availability").asText());
+        assertEquals(2, webhookDeliveryRepository.countByStatus(WebhookDeliveryStatus.DELIVERED));
+    }
+
+    @Test
+    void dispatch_OnErrorResponse_RetriesAfterBackoffThenGivesUp() throws Exception {
+        // Arrange
+        WebhookDelivery delivery = queue(1L, failing.url);
+
+        // Act
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+        WebhookDelivery retried = webhookDeliveryRepository.findById(delivery.getId()).orElseThrow();
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+        when(clock.instant()).thenReturn(NOW.plus(INITIAL_BACKOFF));
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(WebhookDeliveryStatus.PENDING, retried.getStatus());
+        assertEquals(NOW.plus(INITIAL_BACKOFF), retried.getNextAttemptAt());
+        assertEquals("HTTP status 500", retried.getLastError());
+        assertEquals(2, failing.requests.size());
+        WebhookDelivery failed = webhookDeliveryRepository.findById(delivery.getId()).orElseThrow();
+        assertEquals(WebhookDeliveryStatus.FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+    }
+
+    @Test
+    void dispatch_WhileEndpointIsAtItsLimit_DefersItsDeliveriesAndServesOthers() throws Exception {
+        // Arrange
+        queue(1L, slow.url);
+        CompletableFuture<Void> inFlight = dispatcher.dispatch();
+        WebhookDelivery deferred = queue(1L, slow.url);
+        queue(2L, fast.url);
+
+        // Act
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, fast.requests.size());
+        assertEquals(WebhookDeliveryStatus.PENDING,
+                webhookDeliveryRepository.findById(deferred.getId()).orElseThrow().getStatus());
+        slowReceiverRelease.countDown();
+        inFlight.get(10, TimeUnit.SECONDS);
+        assertEquals(1, slow.requests.size());
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+        assertEquals(2, slow.requests.size());
+        assertEquals(3, webhookDeliveryRepository.countByStatus(WebhookDeliveryStatus.DELIVERED));
+    }
+
+    @Test
+    void dispatch_WithMoreDueDeliveriesToSaturatedEndpointThanBatchSize_ServesHealthyEndpoint() throws Exception {
+        // Arrange
+        WebhookDispatcher smallBatches = new WebhookDispatcher(webhookDeliveryRepository, leaderElection,
+                transactionManager, mock(TaskScheduler.class), objectMapper, new WebhookProperties(
+                Duration.ofSeconds(1), 2, 1, Duration.ofSeconds(5), 2, INITIAL_BACKOFF, Duration.ofMinutes(10)), clock);
+        queue(1L, slow.url);
+        CompletableFuture<Void> inFlight = smallBatches.dispatch();
+        for (int i = 0; i < 5; i++) {
+            queue(1L, slow.url);
+        }
+        WebhookDelivery healthy = queue(2L, fast.url);
+
+        // Act
+        smallBatches.dispatch().get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, fast.requests.size());
+        assertEquals(WebhookDeliveryStatus.DELIVERED,
+                webhookDeliveryRepository.findById(healthy.getId()).orElseThrow().getStatus());
+        assertEquals(6, webhookDeliveryRepository.countByStatus(WebhookDeliveryStatus.PENDING));
+        slowReceiverRelease.countDown();
+        inFlight.get(10, TimeUnit.SECONDS);
+        assertEquals(1, slow.requests.size());
+    }
+
+    @Test
+    void dispatch_OnFollower_SendsNothing() throws Exception {
+        // Arrange
+        when(leaderElection.isLeader()).thenReturn(false);
+        queue(1L, fast.url);
+
+        // Act
+        dispatcher.dispatch().get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(fast.requests.isEmpty());
+        assertEquals(1, webhookDeliveryRepository.countByStatus(WebhookDeliveryStatus.PENDING));
+    }
+
+    private WebhookDelivery queue(Long subscriptionId, String url) {
+        return webhookDeliveryRepository.save(new WebhookDelivery(subscriptionId, url, PAYLOAD, NOW));
+    }
+
+    private class Receiver {
+        private final HttpServer server;
+        private final String url;
+        private final List<String> requests = new CopyOnWriteArrayList<>();
+
+        Receiver(String path, int status, CountDownLatch release) throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext(path, exchange -> {
+                requests.add(new String(exchange.getRequestBody().readAllBytes()));
+                try {
+                    if (release != null) {
+                        release.await(10, TimeUnit.SECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+            });
+            server.setExecutor(receiverExecutor);
+            server.start();
+            url = "http://127.0.0.1:" + server.getAddress().getPort() + path;
+        }
+    }
+}